@@ -0,0 +1,88 @@
+/**
+ * Mars Simulation Project
+ * BenchmarkFixture.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * Creates the simulation the benchmarks run against : the settlements of the default
+ * simulation configuration, generated from a fixed random seed so that every run
+ * starts from the same settlements, people and buildings. The clock isn't started,
+ * so nothing changes the simulation but the benchmark itself.
+ */
+public final class BenchmarkFixture {
+
+	/** The seed the fixture simulation is generated from. */
+	public static final long DEFAULT_SEED = 42L;
+
+	private static boolean configLoaded = false;
+
+	private BenchmarkFixture() {
+	}
+
+	/**
+	 * Creates a new simulation, replacing the current one. The calling thread keeps
+	 * drawing from the master stream of the same seed afterwards, so the random
+	 * choices of a benchmark run on that thread are repeatable too.
+	 * @param seed the random seed.
+	 * @return the simulation.
+	 */
+	public static synchronized Simulation createSimulation(long seed) {
+		if (!configLoaded) {
+			SimulationConfig.loadConfig();
+			configLoaded = true;
+		}
+		RandomUtil.setSeed(seed);
+		Simulation.createNewSimulation(-1);
+		return Simulation.instance();
+	}
+
+	/**
+	 * Creates a new simulation from the default seed.
+	 * @return the simulation.
+	 */
+	public static Simulation createSimulation() {
+		return createSimulation(DEFAULT_SEED);
+	}
+
+	/**
+	 * Gets the settlements of the current simulation, sorted by name.
+	 * @return list of settlements.
+	 */
+	public static List<Settlement> getSettlements() {
+		List<Settlement> result = new ArrayList<>(Simulation.instance().getUnitManager().getSettlements());
+		result.sort(Comparator.comparing(Settlement::getName));
+		if (result.isEmpty()) {
+			throw new IllegalStateException("The fixture simulation has no settlements.");
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the first settlement of the current simulation by name.
+	 * @return settlement.
+	 */
+	public static Settlement getSettlement() {
+		return getSettlements().get(0);
+	}
+
+	/**
+	 * Gets the people associated with a settlement, sorted by name.
+	 * @param settlement the settlement.
+	 * @return list of people.
+	 */
+	public static List<Person> getPeople(Settlement settlement) {
+		List<Person> result = new ArrayList<>(settlement.getAllAssociatedPeople());
+		result.sort(Comparator.comparing(Person::getName));
+		return result;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * Mars Simulation Project
+ * BenchmarkRunner.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line options, writing the results
+ * as JSON to a time stamped file unless another result format is asked for, so that
+ * the results of successive runs can be kept and compared.
+ * <br>
+ * Usage : java -jar target/benchmarks.jar [JMH options] [benchmark regexp]
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+		if (!commandLine.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+			if (!commandLine.getResult().hasValue()) {
+				String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+				options.result("mars-sim-bench-" + stamp + ".json");
+			}
+		}
+
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Mars Simulation Project
+ * CoordinatesBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the great circle distance between random locations on Mars, as computed
+ * when vehicles, missions and settlements look for the nearest of something, one
+ * pair at a time and from one location to all the others in a batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinatesBenchmark {
+
+	/** The number of locations, each measured to the next one. */
+	private static final int LOCATIONS = 1024;
+
+	private Coordinates[] locations;
+	private double[] distances = new double[LOCATIONS];
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42L);
+		locations = new Coordinates[LOCATIONS];
+		for (int i = 0; i < LOCATIONS; i++) {
+			locations[i] = new Coordinates(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI * 2D);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOCATIONS)
+	public double getDistance() {
+		double total = 0D;
+		for (int i = 0; i < LOCATIONS; i++) {
+			total += locations[i].getDistance(locations[(i + 1) % LOCATIONS]);
+		}
+		return total;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOCATIONS)
+	public double[] getDistances() {
+		locations[0].getDistances(locations, distances);
+		return distances;
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Mars Simulation Project
+ * InventoryBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.resource.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures storing and retrieving amount resources in the inventory of a fixture
+ * settlement, which holds its resources in its buildings and vehicles. The resources
+ * and amounts follow a fixed random order, and every store is followed by a
+ * retrieve of the same amount so the inventory stays the same between calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark {
+
+	/** The number of stores and retrieves in one benchmark call. */
+	private static final int OPERATIONS = 256;
+
+	private Inventory inventory;
+	private int[] resources;
+	private double[] amounts;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		inventory = BenchmarkFixture.getSettlement().getInventory();
+
+		int[] ids = { ResourceUtil.oxygenID, ResourceUtil.waterID, ResourceUtil.foodID,
+				ResourceUtil.methaneID, ResourceUtil.nitrogenID, ResourceUtil.regolithID,
+				ResourceUtil.greyWaterID, ResourceUtil.cropWasteID };
+		resources = new int[OPERATIONS];
+		amounts = new double[OPERATIONS];
+		for (int i = 0; i < OPERATIONS; i++) {
+			resources[i] = ids[RandomUtil.getRandomInt(ids.length - 1)];
+			amounts[i] = RandomUtil.getRandomDouble(1D);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public double storeAndRetrieve() {
+		double total = 0D;
+		for (int i = 0; i < OPERATIONS; i++) {
+			int id = resources[i];
+			double amount = amounts[i];
+			if (inventory.getARRemainingCapacity(id, true, false) >= amount) {
+				inventory.storeAR(id, amount, true);
+				total += inventory.getARStored(id, false);
+				inventory.retrieveAR(id, amount);
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Mars Simulation Project
+ * RandomUtilBenchmark.java
+ * @version 3.1.0 2018-09-11
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the random draws of several threads at once, as when the settlements are
+ * ticked in parallel : each thread drawing from a stream of its own through
+ * {@link RandomUtil}, against all the threads sharing one generator, which then has
+ * to be locked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomUtilBenchmark {
+
+	/** The number of threads drawing at once. */
+	private static final int THREADS = 4;
+
+	/** The generator shared by all the threads. */
+	private final MersenneTwisterFast shared = new MersenneTwisterFast(BenchmarkFixture.DEFAULT_SEED);
+
+	@Benchmark
+	@Threads(1)
+	public double streamsAlone() {
+		return RandomUtil.getRandomDouble(1D);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public double streams() {
+		return RandomUtil.getRandomDouble(1D);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public double sharedAlone() {
+		synchronized (shared) {
+			return shared.nextDouble();
+		}
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public double shared() {
+		synchronized (shared) {
+			return shared.nextDouble();
+		}
+	}
+}
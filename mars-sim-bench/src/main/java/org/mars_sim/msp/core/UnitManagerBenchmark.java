@@ -0,0 +1,65 @@
+/**
+ * Mars Simulation Project
+ * UnitManagerBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.time.MarsClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole sol of unit updates : the fixture simulation is recreated before
+ * each measurement, then the Mars clock is moved on one pulse at a time and every
+ * unit is told the time has passed, as the master clock does while running.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UnitManagerBenchmark {
+
+	/** The millisols in a sol. */
+	private static final double MILLISOLS_PER_SOL = 1000D;
+
+	/** The millisols passing at each pulse. */
+	@Param({ "1", "5" })
+	public double pulse;
+
+	private UnitManager unitManager;
+	private MarsClock marsClock;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Simulation sim = BenchmarkFixture.createSimulation();
+		unitManager = sim.getUnitManager();
+		marsClock = sim.getMasterClock().getMarsClock();
+	}
+
+	@Benchmark
+	public int timePassingSol() {
+		int pulses = 0;
+		for (double time = 0D; time < MILLISOLS_PER_SOL; time += pulse) {
+			marsClock.addTime(pulse);
+			unitManager.timePassing(pulse);
+			pulses++;
+		}
+		return pulses;
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Mars Simulation Project
+ * WeatherBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.mars;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.BenchmarkFixture;
+import org.mars_sim.msp.core.Coordinates;
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the temperature lookups of the weather, either at the fixture settlements,
+ * which is what the settlements and their people ask for every tick, or at random
+ * locations as vehicles on missions do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherBenchmark {
+
+	/** The number of lookups in one benchmark call. */
+	private static final int LOOKUPS = 256;
+
+	/** Where the temperature is looked up. */
+	@Param({ "settlements", "random" })
+	public String locations;
+
+	private Weather weather;
+	private Coordinates[] lookups;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		weather = Simulation.instance().getMars().getWeather();
+
+		Random random = new Random(42L);
+		lookups = new Coordinates[LOOKUPS];
+		if ("settlements".equals(locations)) {
+			Settlement[] settlements = BenchmarkFixture.getSettlements().toArray(new Settlement[0]);
+			for (int i = 0; i < LOOKUPS; i++) {
+				lookups[i] = settlements[i % settlements.length].getCoordinates();
+			}
+		}
+		else {
+			for (int i = 0; i < LOOKUPS; i++) {
+				lookups[i] = new Coordinates(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI * 2D);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public double getTemperature() {
+		double total = 0D;
+		for (int i = 0; i < LOOKUPS; i++) {
+			total += weather.getTemperature(lookups[i]);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * Mars Simulation Project
+ * TaskManagerBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.person.ai.task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.BenchmarkFixture;
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.time.MarsClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures choosing a new task for every person of a fixture settlement. The Mars
+ * clock is moved on a millisol before each call so that the task probabilities, which
+ * are cached for the current millisol, are computed afresh as during a tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+	private List<Person> people;
+	private MarsClock marsClock;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		people = BenchmarkFixture.getPeople(BenchmarkFixture.getSettlement());
+		marsClock = Simulation.instance().getMasterClock().getMarsClock();
+	}
+
+	@Benchmark
+	public void getNewTask(Blackhole blackhole) {
+		marsClock.addTime(1D);
+		for (Person person : people) {
+			blackhole.consume(person.getMind().getTaskManager().getNewTask());
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Mars Simulation Project
+ * WalkOutsideBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.person.ai.task;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.BenchmarkFixture;
+import org.mars_sim.msp.core.Coordinates;
+import org.mars_sim.msp.core.LocalAreaUtil;
+import org.mars_sim.msp.core.LocalPathFinder;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures finding the outside walking paths around the buildings and vehicles of a
+ * fixture settlement, as {@link WalkOutside} does when the straight line to the
+ * destination is blocked. The walks join random clear locations around the settlement
+ * whose straight line crosses an obstacle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalkOutsideBenchmark {
+
+	/** The number of walks in one benchmark call. */
+	private static final int WALKS = 32;
+
+	/** The distance outside the obstacles the walks may start and end at (meters). */
+	private static final double MARGIN = 20D;
+
+	private Coordinates location;
+	private Point2D[] starts;
+	private Point2D[] destinations;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		Settlement settlement = BenchmarkFixture.getSettlement();
+		location = settlement.getCoordinates();
+
+		Rectangle2D bounds = LocalAreaUtil.getObstacleIndex(location).getBounds();
+		if (bounds == null) {
+			throw new IllegalStateException(settlement + " has no obstacles to walk around.");
+		}
+		double minX = bounds.getMinX() - MARGIN;
+		double minY = bounds.getMinY() - MARGIN;
+		double width = bounds.getWidth() + MARGIN * 2D;
+		double height = bounds.getHeight() + MARGIN * 2D;
+
+		Random random = new Random(42L);
+		List<Point2D[]> walks = new ArrayList<>();
+		int attempts = 0;
+		while ((walks.size() < WALKS) && (attempts++ < WALKS * 1000)) {
+			Point2D start = new Point2D.Double(minX + random.nextDouble() * width, minY + random.nextDouble() * height);
+			Point2D destination = new Point2D.Double(minX + random.nextDouble() * width,
+					minY + random.nextDouble() * height);
+			if (LocalPathFinder.isLocationClear(start.getX(), start.getY(), location)
+					&& LocalPathFinder.isLocationClear(destination.getX(), destination.getY(), location)
+					&& !LocalPathFinder.isLineClear(start, destination, location)) {
+				walks.add(new Point2D[] { start, destination });
+			}
+		}
+		if (walks.size() < WALKS) {
+			throw new IllegalStateException("Only found " + walks.size() + " blocked walks around " + settlement);
+		}
+
+		starts = new Point2D[WALKS];
+		destinations = new Point2D[WALKS];
+		for (int i = 0; i < WALKS; i++) {
+			starts[i] = walks.get(i)[0];
+			destinations[i] = walks.get(i)[1];
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WALKS)
+	public int findPath() {
+		int total = 0;
+		for (int i = 0; i < WALKS; i++) {
+			List<Point2D> path = LocalPathFinder.findPath(starts[i], destinations[i], WalkOutside.NEIGHBOR_DISTANCE,
+					location);
+			if (path != null) {
+				total += path.size();
+			}
+		}
+		return total;
+	}
+}
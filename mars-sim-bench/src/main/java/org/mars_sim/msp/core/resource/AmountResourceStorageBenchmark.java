@@ -0,0 +1,159 @@
+/**
+ * Mars Simulation Project
+ * AmountResourceStorageBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.resource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the map layout the amount resource type storage used to have with the
+ * array layout of {@link AmountResourceTypeStorage}. The workload resembles a
+ * settlement inventory during a tick : a few dozen resource types with capacity,
+ * each looked up, stored into and retrieved from in a fixed random order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmountResourceStorageBenchmark {
+
+	/** The number of operations in one benchmark call. */
+	private static final int OPERATIONS = 1024;
+
+	/** The number of resource types with capacity. */
+	@Param({ "30", "120" })
+	public int types;
+
+	private int[] resources;
+	private double[] amounts;
+
+	private MapTypeStorage mapStorage;
+	private AmountResourceTypeStorage arrayStorage;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42L);
+
+		// Resource ids are small dense integers starting at 1.
+		resources = new int[OPERATIONS];
+		amounts = new double[OPERATIONS];
+		for (int i = 0; i < OPERATIONS; i++) {
+			resources[i] = 1 + random.nextInt(types);
+			amounts[i] = random.nextDouble() * 10D;
+		}
+
+		mapStorage = new MapTypeStorage();
+		arrayStorage = new AmountResourceTypeStorage();
+		for (int id = 1; id <= types; id++) {
+			mapStorage.addTypeCapacity(id, 10_000D);
+			mapStorage.storeARType(id, 5_000D);
+			arrayStorage.addTypeCapacity(id, 10_000D);
+			arrayStorage.storeARType(id, 5_000D);
+		}
+	}
+
+	@Benchmark
+	public double mapLayout() {
+		double total = 0D;
+		for (int i = 0; i < OPERATIONS; i++) {
+			int id = resources[i];
+			double amount = amounts[i];
+			total += mapStorage.getARTypeStored(id);
+			if ((i & 1) == 0) {
+				if (mapStorage.getARTypeRemainingCapacity(id) >= amount)
+					mapStorage.storeARType(id, amount);
+			}
+			else if (mapStorage.getARTypeStored(id) >= amount) {
+				mapStorage.retrieveARType(id, amount);
+			}
+		}
+		return total;
+	}
+
+	@Benchmark
+	public double arrayLayout() {
+		double total = 0D;
+		for (int i = 0; i < OPERATIONS; i++) {
+			int id = resources[i];
+			double amount = amounts[i];
+			total += arrayStorage.getARTypeStored(id);
+			if ((i & 1) == 0) {
+				if (arrayStorage.getARTypeRemainingCapacity(id) >= amount)
+					arrayStorage.storeARType(id, amount);
+			}
+			else if (arrayStorage.getARTypeStored(id) >= amount) {
+				arrayStorage.retrieveARType(id, amount);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * The former layout of {@link AmountResourceTypeStorage}, boxed holders in hash maps.
+	 */
+	private static class MapTypeStorage {
+
+		private Map<Integer, ResourceAmount> typeCapacities = new HashMap<>();
+		private Map<Integer, ResourceAmount> typeStored = new HashMap<>();
+
+		void addTypeCapacity(int resource, double capacity) {
+			ResourceAmount existing = typeCapacities.get(resource);
+			if (existing != null)
+				existing.amount += capacity;
+			else
+				typeCapacities.put(resource, new ResourceAmount(capacity));
+		}
+
+		double getARTypeStored(int resource) {
+			ResourceAmount stored = typeStored.get(resource);
+			return stored == null ? 0D : stored.amount;
+		}
+
+		double getARTypeRemainingCapacity(int resource) {
+			if (typeCapacities.containsKey(resource))
+				return typeCapacities.get(resource).amount - getARTypeStored(resource);
+			return 0D;
+		}
+
+		void storeARType(int resource, double amount) {
+			ResourceAmount stored = typeStored.get(resource);
+			if (stored != null)
+				stored.amount += amount;
+			else
+				typeStored.put(resource, new ResourceAmount(amount));
+		}
+
+		void retrieveARType(int resource, double amount) {
+			typeStored.get(resource).amount -= amount;
+		}
+	}
+
+	private static class ResourceAmount {
+
+		private double amount;
+
+		private ResourceAmount(double amount) {
+			this.amount = amount;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * Mars Simulation Project
+ * BuildingConnectorManagerBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.structure.building.connection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.BenchmarkFixture;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures finding the interior walking paths between random pairs of connected
+ * buildings of a fixture settlement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildingConnectorManagerBenchmark {
+
+	/** The number of paths in one benchmark call. */
+	private static final int PATHS = 64;
+
+	private BuildingConnectorManager connectorManager;
+	private Building[] starts;
+	private Building[] destinations;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		Settlement settlement = BenchmarkFixture.getSettlement();
+		connectorManager = settlement.getBuildingConnectorManager();
+
+		List<Building> buildings = new ArrayList<>(settlement.getBuildingManager().getBuildings());
+		buildings.sort(Comparator.comparing(Building::getNickName));
+
+		Random random = new Random(42L);
+		starts = new Building[PATHS];
+		destinations = new Building[PATHS];
+		int found = 0;
+		int attempts = 0;
+		while ((found < PATHS) && (attempts++ < PATHS * 1000)) {
+			Building start = buildings.get(random.nextInt(buildings.size()));
+			Building destination = buildings.get(random.nextInt(buildings.size()));
+			if ((start != destination) && connectorManager.hasValidPath(start, destination)) {
+				starts[found] = start;
+				destinations[found] = destination;
+				found++;
+			}
+		}
+		if (found < PATHS) {
+			throw new IllegalStateException("Only found " + found + " connected building pairs in " + settlement);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PATHS)
+	public double determineShortestPath() {
+		double total = 0D;
+		for (int i = 0; i < PATHS; i++) {
+			Building start = starts[i];
+			Building destination = destinations[i];
+			InsideBuildingPath path = connectorManager.determineShortestPath(start, start.getXLocation(),
+					start.getYLocation(), destination, destination.getXLocation(), destination.getYLocation());
+			if (path != null) {
+				total += path.getPathLength();
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Mars Simulation Project
+ * GoodsManagerBenchmark.java
+ * @version 3.1.0 2018-08-29
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.structure.goods;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mars_sim.msp.core.BenchmarkFixture;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full pass valuing every good of a fixture settlement, and an
+ * incremental pass, which only values the goods whose inputs have changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GoodsManagerBenchmark {
+
+	/** Long enough for a valuation pass to start and get through all its goods. */
+	private static final double PASS_TIME = 1000D;
+
+	private GoodsManager goodsManager;
+
+	/**
+	 * The goods valued and skipped by the incremental passes, reported next to
+	 * their time.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PassCounters {
+		public long goodsRecomputed;
+		public long goodsSkipped;
+	}
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixture.createSimulation();
+		goodsManager = BenchmarkFixture.getSettlement().getGoodsManager();
+	}
+
+	@Benchmark
+	public GoodsManager updateGoodsValues() {
+		goodsManager.updateGoodsValues();
+		return goodsManager;
+	}
+
+	@Benchmark
+	public GoodsManager valuationPass(PassCounters counters) {
+		long recomputed = goodsManager.getNumGoodsRecomputed();
+		long skipped = goodsManager.getNumGoodsSkipped();
+		goodsManager.timePassing(PASS_TIME);
+		counters.goodsRecomputed += goodsManager.getNumGoodsRecomputed() - recomputed;
+		counters.goodsSkipped += goodsManager.getNumGoodsSkipped() - skipped;
+		return goodsManager;
+	}
+}
@@ -0,0 +1,331 @@
+/**
+ * Mars Simulation Project
+ * BlockCompressedInputStream.java
+ * @version 3.1.0 2018-08-27
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import org.tukaani.xz.XZInputStream;
+
+/**
+ * An input stream reading a file written by a {@link BlockCompressedOutputStream},
+ * decompressing the blocks ahead of the reader on several threads.
+ * <br>
+ * The header and index are checked when the stream is opened, so a truncated
+ * file is rejected before any data is read. The checksum of each block is
+ * checked before the block is decompressed, and the stream fails on the first
+ * corrupt block with its number.
+ */
+public class BlockCompressedInputStream extends InputStream {
+
+    // Data members
+    private FileChannel channel;
+    private ExecutorService executor;
+    private int maxPending;
+
+    private String version;
+    private String build;
+    private int blockSize;
+
+    private long[] offsets;
+    private int[] compressedSizes;
+    private int[] uncompressedSizes;
+    private long[] checksums;
+
+    /** The next block to hand to a decompressing thread. */
+    private int nextBlock;
+    /** The blocks being decompressed, in order. */
+    private Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] buffer = new byte[0];
+    private int bufferPosition;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     * @param file the file.
+     * @param threads the number of decompressing threads.
+     * @throws IOException if the file can't be read or isn't a valid block compressed file.
+     */
+    public BlockCompressedInputStream(File file, int threads) throws IOException {
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            readHeader();
+            readIndex();
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        int poolSize = Math.max(1, threads);
+        maxPending = poolSize * 2;
+        executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "block-decompressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks if a file starts with the header of a block compressed file.
+     * @param file the file.
+     * @return true if block compressed.
+     * @throws IOException if the file can't be read.
+     */
+    public static boolean isBlockCompressed(File file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining()) {
+                if (fileChannel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            magic.flip();
+            return magic.getInt() == BlockCompressedOutputStream.HEADER_MAGIC;
+        }
+    }
+
+    /**
+     * Reads the header at the start of the file.
+     */
+    private void readHeader() throws IOException {
+
+        channel.position(0L);
+        DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+
+        if (in.readInt() != BlockCompressedOutputStream.HEADER_MAGIC) {
+            throw new IOException("Not a block compressed file");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != BlockCompressedOutputStream.FORMAT_VERSION) {
+            throw new IOException("Unsupported block compressed format version " + formatVersion);
+        }
+        version = in.readUTF();
+        build = in.readUTF();
+        blockSize = in.readInt();
+    }
+
+    /**
+     * Reads the block index at the end of the file and checks that the blocks
+     * follow each other up to the index.
+     */
+    private void readIndex() throws IOException {
+
+        long size = channel.size();
+        long headerEnd = channel.position();
+        if (size < headerEnd + BlockCompressedOutputStream.TRAILER_SIZE) {
+            throw new IOException("Block compressed file is truncated");
+        }
+
+        ByteBuffer trailer = readFully(size - BlockCompressedOutputStream.TRAILER_SIZE,
+                BlockCompressedOutputStream.TRAILER_SIZE);
+        int blockCount = trailer.getInt();
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != BlockCompressedOutputStream.INDEX_MAGIC) {
+            throw new IOException("Block compressed file is truncated or has no block index");
+        }
+        long indexSize = (long) blockCount * BlockCompressedOutputStream.INDEX_ENTRY_SIZE;
+        if ((blockCount < 0) || (indexOffset < headerEnd)
+                || (indexOffset + indexSize + BlockCompressedOutputStream.TRAILER_SIZE != size)) {
+            throw new IOException("Block compressed file has an invalid block index");
+        }
+
+        ByteBuffer entries = readFully(indexOffset, (int) indexSize);
+        offsets = new long[blockCount];
+        compressedSizes = new int[blockCount];
+        uncompressedSizes = new int[blockCount];
+        checksums = new long[blockCount];
+        long expectedOffset = headerEnd;
+        for (int x = 0; x < blockCount; x++) {
+            offsets[x] = entries.getLong();
+            compressedSizes[x] = entries.getInt();
+            uncompressedSizes[x] = entries.getInt();
+            checksums[x] = entries.getLong();
+            if ((offsets[x] != expectedOffset) || (compressedSizes[x] < 0) || (uncompressedSizes[x] < 0)
+                    || (uncompressedSizes[x] > blockSize)) {
+                throw new IOException("Block compressed file has an invalid index entry for block " + x);
+            }
+            expectedOffset += compressedSizes[x];
+        }
+        if (expectedOffset != indexOffset) {
+            throw new IOException("Block compressed file has an invalid block index");
+        }
+    }
+
+    /**
+     * Reads bytes at a position of the file. Safe to call from several threads.
+     * @param position the position.
+     * @param length the number of bytes.
+     * @return the bytes, ready to be read.
+     */
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(length);
+        while (result.hasRemaining()) {
+            if (channel.read(result, position + result.position()) < 0) {
+                throw new EOFException("Unexpected end of block compressed file");
+            }
+        }
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Reads, checks and decompresses a block.
+     * @param block the block number.
+     * @return the data of the block.
+     */
+    private byte[] decompress(int block) throws IOException {
+
+        ByteBuffer compressed = readFully(offsets[block], compressedSizes[block]);
+        CRC32 crc = new CRC32();
+        crc.update(compressed.array(), 0, compressedSizes[block]);
+        if (crc.getValue() != checksums[block]) {
+            throw new IOException("Block " + block + " of the block compressed file is corrupt");
+        }
+
+        byte[] result = new byte[uncompressedSizes[block]];
+        try (InputStream in = new XZInputStream(new ByteArrayInputStream(compressed.array()))) {
+            int read = 0;
+            while (read < result.length) {
+                int size = in.read(result, read, result.length - read);
+                if (size < 0) {
+                    throw new IOException("Block " + block + " of the block compressed file is too short");
+                }
+                read += size;
+            }
+            if (in.read() >= 0) {
+                throw new IOException("Block " + block + " of the block compressed file is too long");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves to the next block, keeping the decompressing threads busy with the following ones.
+     * @return false if there are no more blocks.
+     */
+    private boolean nextBuffer() throws IOException {
+
+        while ((pending.size() < maxPending) && (nextBlock < offsets.length)) {
+            int block = nextBlock++;
+            pending.addLast(executor.submit(() -> decompress(block)));
+        }
+
+        if (pending.isEmpty()) {
+            return false;
+        }
+
+        try {
+            buffer = pending.pollFirst().get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing a block");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Could not decompress a block", cause);
+        }
+        bufferPosition = 0;
+
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        while (bufferPosition == buffer.length) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+        }
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        while (bufferPosition == buffer.length) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+        }
+        int size = Math.min(len, buffer.length - bufferPosition);
+        System.arraycopy(buffer, bufferPosition, b, off, size);
+        bufferPosition += size;
+        return size;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return buffer.length - bufferPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            executor.shutdownNow();
+            channel.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Gets the simulation version the file was written by.
+     * @return version.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the simulation build the file was written by.
+     * @return build.
+     */
+    public String getBuild() {
+        return build;
+    }
+
+    /**
+     * Gets the number of blocks in the file.
+     * @return block count.
+     */
+    public int getBlockCount() {
+        return offsets.length;
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Mars Simulation Project
+ * BlockCompressedOutputStream.java
+ * @version 3.1.0 2018-08-27
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * An output stream compressing its data in independent blocks on several threads.
+ * <br>
+ * The stream starts with a header holding the version and build of the
+ * simulation, followed by the blocks, each a complete xz stream, and ends
+ * with an index of the offset, sizes and checksum of every block. Since the
+ * blocks don't depend on each other, they are compressed while the data is
+ * still being written and may be decompressed in parallel by a
+ * {@link BlockCompressedInputStream}.
+ */
+public class BlockCompressedOutputStream extends OutputStream {
+
+    /** Marks the start of the header. */
+    static final int HEADER_MAGIC = 0x4D535053; // "MSPS"
+    /** Marks the end of the index. */
+    static final int INDEX_MAGIC = 0x4D535049; // "MSPI"
+    /** The version of the format. */
+    static final int FORMAT_VERSION = 1;
+    /** The size of the trailer following the index entries : count, index offset and magic. */
+    static final int TRAILER_SIZE = 4 + 8 + 4;
+    /** The size of an index entry : offset, compressed size, uncompressed size and checksum. */
+    static final int INDEX_ENTRY_SIZE = 8 + 4 + 4 + 8;
+
+    /** The default uncompressed size of a block (bytes). */
+    public static final int DEFAULT_BLOCK_SIZE = 2 * 1024 * 1024;
+
+    /** The xz preset used for the blocks. */
+    private static final int PRESET = 6;
+
+    // Data members
+    private DataOutputStream out;
+    private ExecutorService executor;
+    private int maxPending;
+    private int blockSize;
+
+    private byte[] buffer;
+    private int count;
+    /** The blocks being compressed, in order. */
+    private Deque<Future<CompressedBlock>> pending = new ArrayDeque<>();
+    /** The index entries of the blocks written so far. */
+    private List<long[]> index = new ArrayList<>();
+    private long position;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     * @param out the underlying output stream.
+     * @param version the simulation version.
+     * @param build the simulation build.
+     * @param threads the number of compressing threads.
+     * @throws IOException if the header can't be written.
+     */
+    public BlockCompressedOutputStream(OutputStream out, String version, String build, int threads) throws IOException {
+        this(out, version, build, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param out the underlying output stream.
+     * @param version the simulation version.
+     * @param build the simulation build.
+     * @param threads the number of compressing threads.
+     * @param blockSize the uncompressed size of a block (bytes).
+     * @throws IOException if the header can't be written.
+     */
+    public BlockCompressedOutputStream(OutputStream out, String version, String build, int threads,
+            int blockSize) throws IOException {
+
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive : " + blockSize);
+        }
+
+        this.out = new DataOutputStream(out);
+        this.blockSize = blockSize;
+        int poolSize = Math.max(1, threads);
+        // Keep a few blocks queued per thread while bounding memory use.
+        maxPending = poolSize * 2;
+        executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "block-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        buffer = new byte[blockSize];
+
+        this.out.writeInt(HEADER_MAGIC);
+        this.out.writeInt(FORMAT_VERSION);
+        this.out.writeUTF((version != null) ? version : "");
+        this.out.writeUTF((build != null) ? build : "");
+        this.out.writeInt(blockSize);
+        position = this.out.size();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[count++] = (byte) b;
+        if (count == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int size = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buffer, count, size);
+            count += size;
+            off += size;
+            len -= size;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes the blocks already compressed. The partly filled current block
+     * is only compressed once full or when the stream is closed, so that all
+     * blocks but the last have the same size.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeBlock(pending.pollFirst());
+        }
+        out.flush();
+    }
+
+    /**
+     * Compresses the remaining data, writes the index and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            if (count > 0) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeBlock(pending.pollFirst());
+            }
+
+            long indexOffset = position;
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+                out.writeLong(entry[3]);
+            }
+            out.writeInt(index.size());
+            out.writeLong(indexOffset);
+            out.writeInt(INDEX_MAGIC);
+            out.flush();
+        }
+        finally {
+            closed = true;
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    /**
+     * Stops compressing and closes the underlying stream without writing the
+     * index, so that the incomplete output is rejected when read. Does nothing
+     * if the stream is already closed.
+     * @throws IOException if the underlying stream can't be closed.
+     */
+    public void abort() throws IOException {
+        if (!closed) {
+            closed = true;
+            executor.shutdownNow();
+            pending.clear();
+            out.close();
+        }
+    }
+
+    /**
+     * Hands the current block to a compressing thread, waiting for the oldest
+     * block first if too many are already queued.
+     */
+    private void submitBlock() throws IOException {
+
+        if (pending.size() >= maxPending) {
+            writeBlock(pending.pollFirst());
+        }
+
+        byte[] data = buffer;
+        int length = count;
+        pending.addLast(executor.submit(() -> compress(data, length)));
+
+        buffer = new byte[blockSize];
+        count = 0;
+    }
+
+    /**
+     * Writes a compressed block once ready, and records it in the index.
+     * @param future the compressed block.
+     */
+    private void writeBlock(Future<CompressedBlock> future) throws IOException {
+
+        CompressedBlock block;
+        try {
+            block = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing a block");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Could not compress a block", e.getCause());
+        }
+
+        int compressedSize = block.data.length;
+        CRC32 crc = new CRC32();
+        crc.update(block.data, 0, compressedSize);
+
+        out.write(block.data, 0, compressedSize);
+        index.add(new long[] { position, compressedSize, block.uncompressedSize, crc.getValue() });
+        position += compressedSize;
+    }
+
+    /**
+     * Compresses a block of data as a standalone xz stream.
+     * @param data the data.
+     * @param length the length of the data.
+     * @return the compressed block.
+     */
+    private static CompressedBlock compress(byte[] data, int length) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 64);
+
+        LZMA2Options options = new LZMA2Options();
+        options.setPreset(PRESET);
+        // A dictionary larger than the block is never used, and costs memory on every thread.
+        options.setDictSize(Math.max(LZMA2Options.DICT_SIZE_MIN, Math.min(options.getDictSize(), length)));
+
+        XZOutputStream xzout = new XZOutputStream(bytes, options);
+        xzout.write(data, 0, length);
+        xzout.finish();
+
+        return new CompressedBlock(bytes.toByteArray(), length);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * A compressed block with the size of its data.
+     */
+    private static class CompressedBlock {
+
+        private final byte[] data;
+        private final int uncompressedSize;
+
+        CompressedBlock(byte[] data, int uncompressedSize) {
+            this.data = data;
+            this.uncompressedSize = uncompressedSize;
+        }
+    }
+}
@@ -6,9 +6,13 @@
  */
 package org.mars_sim.msp.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Collectors;
@@ -244,14 +248,25 @@ public class CollectionUtils {
 		Collection<T> collection,
 		final Coordinates location
 	) {
+		// Work out each distance once rather than at every comparison.
+		Map<T, Double> distanceMap = new HashMap<T, Double>(collection.size());
+		if (!collection.isEmpty()) {
+			List<T> units = new ArrayList<T>(collection);
+			Coordinates[] locations = new Coordinates[units.size()];
+			for (int i = 0; i < locations.length; i++) {
+				locations[i] = units.get(i).getCoordinates();
+			}
+			double[] distances = new double[locations.length];
+			location.getDistances(locations, distances);
+			for (int i = 0; i < locations.length; i++) {
+				distanceMap.put(units.get(i), distances[i]);
+			}
+		}
 		ConcurrentSkipListSet<T> sorted = new ConcurrentSkipListSet<T>(
 			new Comparator<T>() {
 				@Override
 				public int compare(T o1, T o2) {
-					return Double.compare(
-							location.getDistance(o1.getCoordinates()),
-							location.getDistance(o2.getCoordinates())
-							);
+					return Double.compare(distanceMap.get(o1), distanceMap.get(o2));
 				}
 			}
 		);
@@ -62,13 +62,7 @@ implements Serializable {
 	 * @param theta the theta angle of the spherical coordinate
 	 */
 	public Coordinates(double phi, double theta) {
-
-		// Set Coordinates
-		this.setPhi(phi);
-		this.setTheta(theta);
-
-		// Set trigonometric functions
-		setTrigFunctions();
+		set(phi, theta);
 	}
 
 	/**
@@ -76,7 +70,7 @@ implements Serializable {
 	 * @param originalCoordinates the Coordinates object to be cloned
 	 */
 	public Coordinates(Coordinates originalCoordinates) {
-		this(originalCoordinates.phi, originalCoordinates.theta);
+		copy(originalCoordinates);
 	}
 
 	/**
@@ -91,14 +85,46 @@ implements Serializable {
 		this(parseLatitude(latitude), parseLongitude(longitude));
 	}
 
+	/**
+	 * Sets both angles, then the trigonometric functions once.
+	 * @param newPhi the new phi angle
+	 * @param newTheta the new theta angle
+	 */
+	private void set(double newPhi, double newTheta) {
+		phi = SurfacePoint.clampPhi(newPhi);
+		theta = SurfacePoint.wrapTheta(newTheta);
+		setTrigFunctions();
+	}
+
+	/**
+	 * Copies the angles and trigonometric functions of other coordinates.
+	 * @param other the coordinates
+	 */
+	private void copy(Coordinates other) {
+		phi = other.phi;
+		theta = other.theta;
+		sinPhi = other.sinPhi;
+		sinTheta = other.sinTheta;
+		cosPhi = other.cosPhi;
+		cosTheta = other.cosTheta;
+	}
+
 	/** Sets commonly-used trigonometric functions of coordinates */
 	private void setTrigFunctions() {
-		sinPhi = Math.sin(phi);
+		sinPhi = SurfacePoint.sinPhi(phi);
 		sinTheta = Math.sin(theta);
-		cosPhi = Math.cos(phi);
+		cosPhi = SurfacePoint.cosPhi(phi);
 		cosTheta = Math.cos(theta);
 	}
 
+	/**
+	 * Gets an immutable copy of this location.
+	 * @return the surface point
+	 */
+	public SurfacePoint toSurfacePoint() {
+		return new SurfacePoint(phi, theta, sinPhi, cosPhi, sinTheta, cosTheta);
+	}
+
 	/**
 	 * Generate a string representation of this object. It will be the same
 	 * format as the formattedString method.
@@ -122,15 +148,9 @@ implements Serializable {
 	 * @param newPhi the new phi angle value for the coordinate
 	 */
 	public void setPhi(double newPhi) {
-		if (newPhi <= 0D) {
-			phi = 0D;
-		} else if (newPhi > Math.PI) {
-			phi = Math.PI;
-		}
-		else {
-			phi = newPhi;
-		}
-		setTrigFunctions();
+		phi = SurfacePoint.clampPhi(newPhi);
+		sinPhi = SurfacePoint.sinPhi(phi);
+		cosPhi = SurfacePoint.cosPhi(phi);
 	}
 
 	/**
@@ -145,10 +165,9 @@ implements Serializable {
 	 *  @param newTheta the new theta angle value for the coordinate
 	 */
 	public void setTheta(double newTheta) {
-		theta = newTheta;
-		while (theta < 0D) theta += (Math.PI * 2D);
-		while (theta > (Math.PI * 2D)) theta -= (Math.PI * 2D);
-		setTrigFunctions();
+		theta = SurfacePoint.wrapTheta(newTheta);
+		sinTheta = Math.sin(theta);
+		cosTheta = Math.cos(theta);
 	}
 
 	/** sine of phi.
@@ -186,12 +205,8 @@ implements Serializable {
 	 */
 	public void setCoords(Coordinates newCoordinates) {
 		changed = true;
-		// Update coordinates
-		setPhi(newCoordinates.phi);
-		setTheta(newCoordinates.theta);
-
-		// Update trigonometric functions
-		setTrigFunctions();
+		// Update coordinates and trigonometric functions
+		copy(newCoordinates);
 	}
 
 	/** Returns true if coordinates have equal phi and theta values
@@ -237,13 +252,10 @@ implements Serializable {
 	 */
 	public double getAngleSLC(Coordinates otherCoords) {
 
-		double phi1 = -1D * (phi - (Math.PI / 2D));
-		double phi2 = -1D * (otherCoords.phi - (Math.PI / 2D));
-		double diffTheta = Math.abs(theta - otherCoords.theta);
-
-		double temp1 = Math.cos(phi1) * Math.cos(phi2);
-		double temp2 = Math.sin(phi1) * Math.sin(phi2);
-		double temp3 = Math.cos(diffTheta);
+		// The latitudes are PI / 2 - phi, so their sines are the cosines of phi and vice versa.
+		double temp1 = sinPhi * otherCoords.sinPhi;
+		double temp2 = cosPhi * otherCoords.cosPhi;
+		double temp3 = (cosTheta * otherCoords.cosTheta) + (sinTheta * otherCoords.sinTheta);
 		double temp4 = temp2 + (temp1 * temp3);
 
 		// Make sure temp4 is in valid -1 to 1 range.
@@ -268,8 +280,10 @@ implements Serializable {
 		double diffPhi = Math.abs(phi1 - phi2);
 		double diffTheta = Math.abs(theta - otherCoords.theta);
 
-		double temp1 = Math.pow(Math.sin(diffPhi / 2D), 2D);
-		double temp2 = Math.cos(phi1) * Math.cos(phi2) * Math.pow(Math.sin(diffTheta / 2D), 2D);
+		double sinHalfPhi = Math.sin(diffPhi / 2D);
+		double sinHalfTheta = Math.sin(diffTheta / 2D);
+		double temp1 = sinHalfPhi * sinHalfPhi;
+		double temp2 = sinPhi * otherCoords.sinPhi * sinHalfTheta * sinHalfTheta;
 		double temp3 = Math.sqrt(temp1 + temp2);
 		double result = 2D * Math.asin(temp3);
 		return result;
@@ -284,22 +298,8 @@ implements Serializable {
 	 */
 	public double getAngleVincenty(Coordinates otherCoords) {
 
-		double phi1 = -1D * (phi - (Math.PI / 2D));
-		double phi2 = -1D * (otherCoords.phi - (Math.PI / 2D));
-		double diffTheta = Math.abs(theta - otherCoords.theta);
-
-		double temp1 = Math.pow(Math.cos(phi2) * Math.sin(diffTheta), 2D);
-		double temp2 = Math.cos(phi1) * Math.sin(phi2);
-		double temp3 = Math.sin(phi1) * Math.cos(phi2) * Math.cos(diffTheta);
-		double temp4 = Math.pow(temp2 - temp3, 2D);
-		double temp5 = Math.sqrt(temp1 + temp4);
-
-		double temp6 = Math.sin(phi1) * Math.sin(phi2);
-		double temp7 = Math.cos(phi1) * Math.cos(phi2) * Math.cos(diffTheta);
-		double temp8 = temp6 + temp7;
-
-		double result = Math.atan2(temp5, temp8);
-		return result;
+		return SurfacePoint.angle(sinPhi, cosPhi, sinTheta, cosTheta,
+				otherCoords.sinPhi, otherCoords.cosPhi, otherCoords.sinTheta, otherCoords.cosTheta);
 	}
 
 	/** Returns the distance in kilometers between this location and
@@ -316,6 +316,19 @@ implements Serializable {
 		return result;
 	}
 
+	/** Gets the distances in kilometers between this location and
+	 *  an array of locations
+	 *  @param others the locations
+	 *  @param distances the array the distances (in km) are put in, at least as long as others
+	 */
+	public void getDistances(Coordinates[] others, double[] distances) {
+		for (int i = 0; i < others.length; i++) {
+			Coordinates c = others[i];
+			distances[i] = Mars.MARS_RADIUS_KM * SurfacePoint.angle(sinPhi, cosPhi, sinTheta, cosTheta,
+					c.sinPhi, c.cosPhi, c.sinTheta, c.cosTheta);
+		}
+	}
+
 	/**
 	 * Gets a common formatted string to represent this location.
 	 * @return formatted longitude & latitude string for this Coordinates object
@@ -593,8 +606,7 @@ implements Serializable {
 				theta_new = (Math.PI * 2D) + theta_new;
 		}
 
-		newCoordinates.setPhi(phi_new);
-		newCoordinates.setTheta(theta_new);
+		newCoordinates.set(phi_new, theta_new);
 	}
 
 	/** Returns angle direction to another location on surface of
@@ -604,14 +616,8 @@ implements Serializable {
 	 */
 	public Direction getDirectionToPoint(Coordinates otherCoords) {
 
-		double phi1 = -1D * (phi - (Math.PI / 2D));
-		double phi2 = -1D * (otherCoords.phi - (Math.PI / 2D));
-		double thetaDiff = otherCoords.theta - theta;
-		double temp1 = Math.sin(thetaDiff) * Math.cos(phi2);
-		double temp2 = Math.cos(phi1) * Math.sin(phi2);
-		double temp3 = Math.sin(phi1) * Math.cos(phi2) * Math.cos(thetaDiff);
-		double temp4 = temp2 - temp3;
-		double result = Math.atan2(temp1, temp4);
+		double result = SurfacePoint.direction(sinPhi, cosPhi, sinTheta, cosTheta,
+				otherCoords.sinPhi, otherCoords.cosPhi, otherCoords.sinTheta, otherCoords.cosTheta);
 
 		return new Direction(result);
 	}
@@ -633,18 +639,20 @@ implements Serializable {
 		if (distance > 10D) remainder = distance - (iterations * iterationDistance);
 		else remainder = distance;
 
-		// Get successive iteration locations.
-		Coordinates startCoords = this;
+		// Get successive iteration locations, moving a single copy along.
+		double sinDirection = direction.getSinDirection();
+		double cosDirection = direction.getCosDirection();
+		Coordinates finalCoordinates = new Coordinates(this);
+		double newY = -1D * cosDirection * (iterationDistance);
+		double newX = sinDirection * (iterationDistance);
 		for (int x=0; x < iterations; x++) {
-			double newY = -1D * direction.getCosDirection() * (iterationDistance);
-			double newX = direction.getSinDirection() * (iterationDistance);
-			startCoords = startCoords.convertRectToSpherical(newX, newY);
+			finalCoordinates.convertRectToSpherical(newX, newY, Mars.MARS_RADIUS_KM, finalCoordinates);
 		}
 
 		// Get final location based on remainder.
-		double finalY = -1D * direction.getCosDirection() * (remainder);
-		double finalX = direction.getSinDirection() * (remainder);
-		Coordinates finalCoordinates = startCoords.convertRectToSpherical(finalX, finalY);
+		double finalY = -1D * cosDirection * (remainder);
+		double finalX = sinDirection * (remainder);
+		finalCoordinates.convertRectToSpherical(finalX, finalY, Mars.MARS_RADIUS_KM, finalCoordinates);
 
 		return finalCoordinates;
 	}
@@ -744,7 +752,7 @@ implements Serializable {
 	 * @return longitude
 	 */
 	public static double getRandomLongitude() {
-		double theta = Math.random() * (2D * Math.PI);
+		double theta = RandomUtil.getRandomDouble(2D * Math.PI);
 		return theta;
 	}
 }
\ No newline at end of file
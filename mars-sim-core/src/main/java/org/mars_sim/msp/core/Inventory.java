@@ -10,6 +10,8 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -76,14 +78,15 @@ implements Serializable {
 */    
     //private transient Set<AmountResource> allStoredAmountResourcesCache = null;
     
-    private transient Map<Integer, Double> capacityCache = null;
-    private transient Map<Integer, Boolean> capacityCacheDirty = null;
-    private transient Map<Integer, Double> containersCapacityCache = null;
-    private transient Map<Integer, Boolean> containersCapacityCacheDirty = null;
-    private transient Map<Integer, Double> storedCache = null;
-    private transient Map<Integer, Boolean> storedCacheDirty = null;
-    private transient Map<Integer, Double> containersStoredCache = null;
-    private transient Map<Integer, Boolean> containersStoredCacheDirty = null;
+    // The amount resource caches are indexed by resource id, with a set bit for a dirty value.
+    private transient double[] capacityCache = null;
+    private transient BitSet capacityCacheDirty = null;
+    private transient double[] containersCapacityCache = null;
+    private transient BitSet containersCapacityCacheDirty = null;
+    private transient double[] storedCache = null;
+    private transient BitSet storedCacheDirty = null;
+    private transient double[] containersStoredCache = null;
+    private transient BitSet containersStoredCacheDirty = null;
     private transient Set<Integer> allStoredARCache = null;
         
     private transient boolean allStoredAmountResourcesCacheDirty = true;
@@ -304,7 +307,7 @@ implements Serializable {
     	amountDemandMetRequestMap.clear();
     }
 
-	public void addAmountDemandTotalRequest(AmountResource resource) {
+	public synchronized void addAmountDemandTotalRequest(AmountResource resource) {
    		String r = resource.getName();
 
 		if (amountDemandTotalRequestMap.containsKey(r)) {
@@ -317,7 +320,7 @@ implements Serializable {
 	    	amountDemandTotalRequestMap.put(r, 1);
 	}
 
-	public void addAmountDemandTotalRequest(int resource) {
+	public synchronized void addAmountDemandTotalRequest(int resource) {
    		String r = ResourceUtil.findAmountResource(resource).getName();
 
 		if (amountDemandTotalRequestMap.containsKey(r)) {
@@ -1816,18 +1819,49 @@ implements Serializable {
      */
     public synchronized void initializeARCapacityCache() {
 
-        Collection<Integer> resources = ResourceUtil.getInstance().getARIDs();
-        capacityCache = new HashMap<Integer, Double>();
-        capacityCacheDirty = new HashMap<Integer, Boolean>();
-        containersCapacityCache = new HashMap<Integer, Double>();
-        containersCapacityCacheDirty = new HashMap<Integer, Boolean>();
+        int size = getARCacheSize(0);
+        capacityCache = new double[size];
+        capacityCacheDirty = new BitSet(size);
+        capacityCacheDirty.set(0, size);
+        containersCapacityCache = new double[size];
+        containersCapacityCacheDirty = new BitSet(size);
+        containersCapacityCacheDirty.set(0, size);
+    }
+
+    /**
+     * Grows the amount resource capacity cache to hold a resource.
+     * @param resource the resource.
+     */
+    private void ensureARCapacityCacheSize(int resource) {
 
-        for (int resource : resources) {
-            capacityCache.put(resource, 0D);
-            capacityCacheDirty.put(resource, true);
-            containersCapacityCache.put(resource, 0D);
-            containersCapacityCacheDirty.put(resource, true);
+        // Initialize amount resource capacity cache if necessary.
+        if (capacityCache == null) {
+            initializeAmountResourceCapacityCache();
+        }
+
+        if (resource >= capacityCache.length) {
+            int oldSize = capacityCache.length;
+            int size = getARCacheSize(resource);
+            capacityCache = Arrays.copyOf(capacityCache, size);
+            capacityCacheDirty.set(oldSize, size);
+            containersCapacityCache = Arrays.copyOf(containersCapacityCache, size);
+            containersCapacityCacheDirty.set(oldSize, size);
+        }
+    }
+
+    /**
+     * Gets the length of the amount resource caches.
+     * @param resource the largest resource the caches must hold.
+     * @return the length.
+     */
+    private static int getARCacheSize(int resource) {
+        int max = resource;
+        for (int id : ResourceUtil.getInstance().getARIDs()) {
+            if (id > max) {
+                max = id;
+            }
         }
+        return max + 1;
     }
     
     /**
@@ -1861,8 +1895,9 @@ implements Serializable {
         if (capacityCache == null) {
             initializeAmountResourceCapacityCache();
         }
-        // 2016-12-21 Check if amountResourceCapacityCacheDirty contains the resource
-        if (capacityCacheDirty.containsKey(resource))
+
+        // Resources the cache does not hold yet are dirty.
+        if (resource < capacityCache.length)
         	return capacityCacheDirty.get(resource);
         else
         	return true;
@@ -1896,7 +1931,9 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
-        capacityCacheDirty.put(resource, true);
+        if (resource < capacityCache.length) {
+            capacityCacheDirty.set(resource);
+        }
     }
     
     /**
@@ -1940,12 +1977,10 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
-        for (int amountResource : ResourceUtil.getInstance().getARIDs()) {
-            setARCapacityCacheDirty(amountResource);
+        capacityCacheDirty.set(0, capacityCache.length);
 
-            if (containersDirty) {
-                containersCapacityCacheDirty.put(amountResource, true);
-            }
+        if (containersDirty) {
+            containersCapacityCacheDirty.set(0, containersCapacityCache.length);
         }
 
         // Set owner unit's amount resource capacity cache as dirty (if any).
@@ -2005,14 +2040,10 @@ implements Serializable {
             updateARCapacityCache(resource);
         }
 
-        // 2017-03-21 Check if amountResourceCapacityCache contains the resource
-        if (capacityCache.containsKey(resource))
-        	return capacityCache.get(resource);
-        else {
-        	capacityCache.put(resource, 0D);
-        	return 0;
-        }
-        //return amountResourceCapacityCache.get(resource);
+        if (resource < capacityCache.length)
+        	return capacityCache[resource];
+        else
+        	return 0D;
     }
     
     /**
@@ -2108,10 +2139,9 @@ implements Serializable {
      */
     private void updateARCapacityCache(int resource) {
 
-        // Initialize amount resource capacity cache if necessary.
-        if (capacityCache == null) {
-            initializeAmountResourceCapacityCache();
-        }
+        // Make sure the capacity and stored caches hold the resource.
+        ensureARCapacityCacheSize(resource);
+        ensureARStoredCacheSize(resource);
 
         // Determine local resource capacity.
         double capacity = 0D;
@@ -2121,56 +2151,23 @@ implements Serializable {
 
         // Determine capacity for all contained units.
         double containedCapacity = 0D;
-        // 2016-12-21 Check for null
-        if (containersCapacityCacheDirty.containsKey(resource)) {
-	        if (containersCapacityCacheDirty.get(resource)) {
-	            if (containedUnits != null) {
-	                for (Unit unit : containedUnits) {
-	                    if (unit instanceof Container) {
-	                        containedCapacity += unit.getInventory().getARCapacity(resource, false);
-	                    }
-	                }
-	            }
-	            containersCapacityCache.put(resource, containedCapacity);
-	            containersCapacityCacheDirty.put(resource, false);
-	        }
-	        // 2016-12-21 Check for null
-	        else if (containersCapacityCache.containsKey(resource)) {
-	            containedCapacity = containersCapacityCache.get(resource);
-	        }
+        if (containersCapacityCacheDirty.get(resource)) {
+            if (containedUnits != null) {
+                for (Unit unit : containedUnits) {
+                    if (unit instanceof Container) {
+                        containedCapacity += unit.getInventory().getARCapacity(resource, false);
+                    }
+                }
+            }
+            containersCapacityCache[resource] = containedCapacity;
+            containersCapacityCacheDirty.clear(resource);
         }
-        // 2016-12-21 Check for null
-        else if (containersCapacityCache.containsKey(resource)) {
-            containedCapacity = containersCapacityCache.get(resource);
+        else {
+            containedCapacity = containersCapacityCache[resource];
         }
 
         // Determine stored resources for all contained units.
-        double containedStored = 0D;
-        if (containersStoredCache == null) {
-            initializeAmountResourceStoredCache();
-        }
-
-        // 2017-03-21 Add checking for amountResourceContainersStoredCacheDirty and add if else clause
-        if (containersStoredCacheDirty.containsKey(resource)) {
-         	if (containersStoredCacheDirty.get(resource)) {
-	            if (containedUnits != null) {
-	                for (Unit unit : containedUnits) {
-	                    if (unit instanceof Container) {
-	                        containedStored += unit.getInventory().getARStored(resource, false);
-	                    }
-	                }
-	            }
-	            containersStoredCache.put(resource,  containedStored);
-	            containersStoredCacheDirty.put(resource, false);
-	        }
-	        else {
-	            containedStored = containersStoredCache.get(resource);
-	        }
-        }
-        else {
-            //amountResourceContainersStoredCacheDirty.put(resource, false);
-            //containedStored = amountResourceContainersStoredCache.get(resource);
-        }
+        double containedStored = getARContainersStored(resource);
 
         // Limit container capacity to this inventory's remaining general capacity.
         // Add container's resource stored as this is already factored into inventory's
@@ -2182,8 +2179,8 @@ implements Serializable {
 
         capacity += containedCapacity;
 
-        capacityCache.put(resource, capacity);
-        capacityCacheDirty.put(resource, false);
+        capacityCache[resource] = capacity;
+        capacityCacheDirty.clear(resource);
     }
 
     
@@ -2212,17 +2209,34 @@ implements Serializable {
      * Initializes the amount resource stored cache.
      */
     private synchronized void initializeARStoredCache() {
-        Collection<Integer> resources = ResourceUtil.getInstance().getARIDs();
-        storedCache = new HashMap<Integer, Double>();
-        storedCacheDirty = new HashMap<Integer, Boolean>();
-        containersStoredCache = new HashMap<Integer, Double>();
-        containersStoredCacheDirty = new HashMap<Integer, Boolean>();
 
-        for (int resource : resources) {
-            storedCache.put(resource, 0D);
-            storedCacheDirty.put(resource, true);
-            containersStoredCache.put(resource, 0D);
-            containersStoredCacheDirty.put(resource, true);
+        int size = getARCacheSize(0);
+        storedCache = new double[size];
+        storedCacheDirty = new BitSet(size);
+        storedCacheDirty.set(0, size);
+        containersStoredCache = new double[size];
+        containersStoredCacheDirty = new BitSet(size);
+        containersStoredCacheDirty.set(0, size);
+    }
+
+    /**
+     * Grows the amount resource stored cache to hold a resource.
+     * @param resource the resource.
+     */
+    private void ensureARStoredCacheSize(int resource) {
+
+        // Initialize amount resource stored cache if necessary.
+        if (storedCache == null) {
+            initializeAmountResourceStoredCache();
+        }
+
+        if (resource >= storedCache.length) {
+            int oldSize = storedCache.length;
+            int size = getARCacheSize(resource);
+            storedCache = Arrays.copyOf(storedCache, size);
+            storedCacheDirty.set(oldSize, size);
+            containersStoredCache = Arrays.copyOf(containersStoredCache, size);
+            containersStoredCacheDirty.set(oldSize, size);
         }
     }
     
@@ -2258,8 +2272,8 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        // 2016-12-21 Check if amountResourceStoredCacheDirty contains the resource
-        if (storedCacheDirty.containsKey(resource))
+        // Resources the cache does not hold yet are dirty.
+        if (resource < storedCache.length)
         	return storedCacheDirty.get(resource);
         else
         	return true;
@@ -2292,7 +2306,9 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        storedCacheDirty.put(resource, true);
+        if (resource < storedCache.length) {
+            storedCacheDirty.set(resource);
+        }
     }
     
     /**
@@ -2336,12 +2352,10 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        for (int amountResource : ResourceUtil.getInstance().getARIDs()) {
-            setARStoredCacheDirty(amountResource);
+        storedCacheDirty.set(0, storedCache.length);
 
-            if (containersDirty) {
-                containersStoredCacheDirty.put(amountResource, true);
-            }
+        if (containersDirty) {
+            containersStoredCacheDirty.set(0, containersStoredCache.length);
         }
 
         // Set owner unit's amount resource stored cache as dirty (if any).
@@ -2402,16 +2416,10 @@ implements Serializable {
             updateARStoredCache(resource);
         }
 
-        // 2017-03-21 Check if amountResourceStoredCache contains the resource
-        if (storedCache.containsKey(resource))
-        	return storedCache.get(resource);
-        else {
-        	capacityCache.put(resource, 0D);
-        	return 0;
-        }
-
-        //return amountResourceStoredCache.get(resource);
-
+        if (resource < storedCache.length)
+        	return storedCache[resource];
+        else
+        	return 0D;
     }
     
     /**
@@ -2466,42 +2474,42 @@ implements Serializable {
      */
     private void updateARStoredCache(int resource) {
 
+        // Make sure the stored cache holds the resource.
+        ensureARStoredCacheSize(resource);
+
         double stored = 0D;
 
         if (resourceStorage != null) {
             stored += resourceStorage.getARStored(resource);
         }
 
-        double containerStored = 0D;
-        // 2016-12-21 Add checking for amountResourceContainersStoredCacheDirty
-        if (containersStoredCacheDirty.containsKey(resource)) {
-	        if (containersStoredCacheDirty.get(resource)) {
-	            if (containedUnits != null) {
-	                for (Unit unit : containedUnits) {
-	                    if (unit instanceof Container) {
-	                        containerStored += unit.getInventory().getARStored(resource, false);
-	                    }
-	                }
-	            }
-	            containersStoredCache.put(resource, containerStored);
-	            containersStoredCacheDirty.put(resource, false);
-	        }
-	        else {
-	            containerStored = containersStoredCache.get(resource);
-	        }
-        }
-        // 2016-12-21 Add checking amountResourceContainersStoredCache
-        else if (containersStoredCache.containsKey(resource)) {
-        	containerStored = containersStoredCache.get(resource);
-        }
-        else {
-        	//containerStored = amountResourceContainersStoredCache.get(resource);
-        }
+        stored += getARContainersStored(resource);
 
-        stored += containerStored;
+        storedCache[resource] = stored;
+        storedCacheDirty.clear(resource);
+    }
+
+    /**
+     * Gets the amount of a resource stored in the contained containers, updating the cache if it is dirty.
+     * @param resource the resource.
+     * @return stored amount (kg).
+     */
+    private double getARContainersStored(int resource) {
+
+        if (containersStoredCacheDirty.get(resource)) {
+            double containerStored = 0D;
+            if (containedUnits != null) {
+                for (Unit unit : containedUnits) {
+                    if (unit instanceof Container) {
+                        containerStored += unit.getInventory().getARStored(resource, false);
+                    }
+                }
+            }
+            containersStoredCache[resource] = containerStored;
+            containersStoredCacheDirty.clear(resource);
+        }
 
-        storedCache.put(resource, stored);
-        storedCacheDirty.put(resource, false);
+        return containersStoredCache[resource];
     }
     
     /**
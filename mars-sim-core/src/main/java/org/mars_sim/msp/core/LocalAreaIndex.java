@@ -0,0 +1,248 @@
+/**
+ * Mars Simulation Project
+ * LocalAreaIndex.java
+ * @version 3.1.0 2018-08-26
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A uniform grid index of the vehicles, buildings and construction sites at a
+ * location, answering point, line and box collision queries with exact
+ * rotated rectangle tests on the few objects near the query.
+ * <br>
+ * The index holds the position, size and facing of each object at the time it
+ * was built and is immutable, so it may be shared between threads. It is
+ * replaced when an object is added, removed, moved or turned.
+ */
+public class LocalAreaIndex {
+
+    /** The preferred width of a cell (meters). */
+    private static final double CELL_SIZE = 16D;
+    /** The maximum number of cells along a side of the grid. */
+    private static final int MAX_CELLS = 256;
+
+    // Data members
+    private final List<LocalBoundedObject> objects;
+    private final OrientedBox[] boxes;
+    /** The union of the bounding rectangles of the objects or null if no objects. */
+    private Rectangle2D bounds;
+
+    private double originX;
+    private double originY;
+    private double cellSize;
+    private int columns;
+    private int rows;
+    /** The objects overlapping each cell, in the order they were added. */
+    private int[][] cells;
+
+    /**
+     * Constructor.
+     * @param objects the local bounded objects.
+     */
+    public LocalAreaIndex(Collection<? extends LocalBoundedObject> objects) {
+
+        this.objects = Collections.unmodifiableList(new ArrayList<LocalBoundedObject>(objects));
+        int size = this.objects.size();
+        boxes = new OrientedBox[size];
+        for (int x = 0; x < size; x++) {
+            boxes[x] = new OrientedBox(this.objects.get(x));
+            if (bounds == null) {
+                bounds = boxes[x].getBounds();
+            }
+            else {
+                bounds.add(boxes[x].getBounds());
+            }
+        }
+
+        if (bounds == null) {
+            return;
+        }
+
+        cellSize = Math.max(CELL_SIZE, Math.max(bounds.getWidth(), bounds.getHeight()) / MAX_CELLS);
+        originX = bounds.getMinX();
+        originY = bounds.getMinY();
+        columns = getColumn(bounds.getMaxX()) + 1;
+        rows = getRow(bounds.getMaxY()) + 1;
+
+        // Count the objects in each cell, then fill the cells. The cells of an object
+        // include those just touching its edges, where the exact edge test may still find it.
+        double tolerance = OrientedBox.EDGE_TOLERANCE;
+        int[] counts = new int[columns * rows];
+        for (OrientedBox box : boxes) {
+            for (int row = getRow(box.getMinY() - tolerance); row <= getRow(box.getMaxY() + tolerance); row++) {
+                for (int column = getColumn(box.getMinX() - tolerance); column <= getColumn(box.getMaxX() + tolerance);
+                        column++) {
+                    counts[row * columns + column]++;
+                }
+            }
+        }
+        cells = new int[counts.length][];
+        for (int x = 0; x < counts.length; x++) {
+            cells[x] = new int[counts[x]];
+        }
+        Arrays.fill(counts, 0);
+        for (int x = 0; x < size; x++) {
+            OrientedBox box = boxes[x];
+            for (int row = getRow(box.getMinY() - tolerance); row <= getRow(box.getMaxY() + tolerance); row++) {
+                for (int column = getColumn(box.getMinX() - tolerance); column <= getColumn(box.getMaxX() + tolerance);
+                        column++) {
+                    int cell = row * columns + column;
+                    cells[cell][counts[cell]++] = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the objects in the index.
+     * @return unmodifiable list of objects.
+     */
+    public List<LocalBoundedObject> getObjects() {
+        return objects;
+    }
+
+    /**
+     * Gets the union of the bounding rectangles of the objects.
+     * @return bounds or null if no objects.
+     */
+    public Rectangle2D getBounds() {
+        return (bounds != null) ? (Rectangle2D) bounds.clone() : null;
+    }
+
+    /**
+     * Gets the cell column of an X location, clamped to the grid.
+     * @param x the X location.
+     * @return column.
+     */
+    private int getColumn(double x) {
+        int column = (int) Math.floor((x - originX) / cellSize);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    /**
+     * Gets the cell row of a Y location, clamped to the grid.
+     * @param y the Y location.
+     * @return row.
+     */
+    private int getRow(double y) {
+        int row = (int) Math.floor((y - originY) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    /**
+     * Gets the first object containing a point location.
+     * @param xLoc the X location.
+     * @param yLoc the Y location.
+     * @param filter the objects to consider, or null for all objects.
+     * @return the first object in the index containing the location or null if none.
+     */
+    public LocalBoundedObject getObjectAt(double xLoc, double yLoc, Predicate<LocalBoundedObject> filter) {
+
+        double tolerance = OrientedBox.EDGE_TOLERANCE;
+        if ((bounds == null) || (xLoc < bounds.getMinX() - tolerance) || (xLoc > bounds.getMaxX() + tolerance)
+                || (yLoc < bounds.getMinY() - tolerance) || (yLoc > bounds.getMaxY() + tolerance)) {
+            return null;
+        }
+
+        for (int x : cells[getRow(yLoc) * columns + getColumn(xLoc)]) {
+            if (boxes[x].contains(xLoc, yLoc)) {
+                LocalBoundedObject object = objects.get(x);
+                if ((filter == null) || filter.test(object)) {
+                    return object;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if a line path doesn't collide with any object.
+     * @param line the line.
+     * @return true if the line path doesn't collide with anything.
+     */
+    public boolean isLineClear(Line2D line) {
+        return getObjectIntersecting(OrientedBox.createLineBox(line), null, null) == null;
+    }
+
+    /**
+     * Checks if a rotated rectangle doesn't collide with any object.
+     * @param xLoc the X location of the center.
+     * @param yLoc the Y location of the center.
+     * @param width the width.
+     * @param length the length.
+     * @param facing the facing (degrees clockwise from North).
+     * @param exclude an object to ignore (may be null).
+     * @param filter the objects to consider, or null for all objects.
+     * @return true if the rectangle doesn't collide with anything.
+     */
+    public boolean isAreaClear(double xLoc, double yLoc, double width, double length, double facing,
+            Object exclude, Predicate<LocalBoundedObject> filter) {
+        return getObjectIntersecting(new OrientedBox(xLoc, yLoc, width, length, facing), exclude, filter) == null;
+    }
+
+    /**
+     * Gets the first object intersecting a local bounded object.
+     * @param object the local bounded object, which needn't be in the index.
+     * @param filter the objects to consider, or null for all objects.
+     * @return the first intersecting object in the index or null if none.
+     */
+    public LocalBoundedObject getObjectIntersecting(LocalBoundedObject object, Predicate<LocalBoundedObject> filter) {
+        return getObjectIntersecting(new OrientedBox(object), null, filter);
+    }
+
+    /**
+     * Gets the first object intersecting a box.
+     * @param box the box.
+     * @param exclude an object to ignore (may be null).
+     * @param filter the objects to consider, or null for all objects.
+     * @return the first intersecting object or null if none.
+     */
+    private LocalBoundedObject getObjectIntersecting(OrientedBox box, Object exclude,
+            Predicate<LocalBoundedObject> filter) {
+
+        double tolerance = OrientedBox.EDGE_TOLERANCE;
+        if ((bounds == null) || (box.getMaxX() + tolerance < bounds.getMinX())
+                || (box.getMinX() - tolerance > bounds.getMaxX())
+                || (box.getMaxY() + tolerance < bounds.getMinY()) || (box.getMinY() - tolerance > bounds.getMaxY())) {
+            return null;
+        }
+
+        int minColumn = getColumn(box.getMinX() - tolerance);
+        int maxColumn = getColumn(box.getMaxX() + tolerance);
+        int minRow = getRow(box.getMinY() - tolerance);
+        int maxRow = getRow(box.getMaxY() + tolerance);
+
+        // Objects spanning several cells may be tested more than once, which is harmless.
+        LocalBoundedObject result = null;
+        int resultIndex = Integer.MAX_VALUE;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int x : cells[row * columns + column]) {
+                    if (x >= resultIndex) {
+                        break;
+                    }
+                    LocalBoundedObject object = objects.get(x);
+                    if ((object != exclude) && ((filter == null) || filter.test(object))
+                            && boxes[x].intersects(box)) {
+                        result = object;
+                        resultIndex = x;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -13,11 +13,14 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.structure.Settlement;
@@ -40,11 +43,18 @@ public class LocalAreaUtil {
     /** A very small distance (meters) for measuring how close two locations are. */
     private static final double VERY_SMALL_DISTANCE = .00001D;
 
-    /** Cache for total area containing obstacles for a given coordinate location. */
-    private static final Map<Coordinates, Area> obstacleAreaCache = new HashMap<Coordinates, Area>();
+    /** Vehicles. */
+    private static final Predicate<LocalBoundedObject> VEHICLES = o -> o instanceof Vehicle;
 
-    /** Time stamps for obstacle area cache. */
-    private static final Map<Coordinates, String> obstacleAreaTimestamps = new HashMap<Coordinates, String>();
+    /** Buildings not in transport and construction sites. */
+    private static final Predicate<LocalBoundedObject> IMMOVABLES = o -> (o instanceof ConstructionSite)
+            || ((o instanceof Building) && !((Building) o).getInTransport());
+
+    /**
+     * Cache for the index of obstacles at a given coordinate location, cleared
+     * whenever an obstacle at the location is added, removed, moved or turned.
+     */
+    private static final Map<Coordinates, LocalAreaIndex> obstacleIndexCache = new ConcurrentHashMap<Coordinates, LocalAreaIndex>();
 
     /**
      * Private empty constructor for utility class.
@@ -190,21 +200,7 @@ public class LocalAreaUtil {
      * @return true if location doesn't collide with anything.
      */
     public static boolean checkLocationCollision(double xLoc, double yLoc, Coordinates coordinates) {
-
-        boolean result = true;
-
-        Iterator<LocalBoundedObject> i = getAllLocalBoundedObjectsAtLocation(coordinates).iterator();
-        while (i.hasNext() && result) {
-            LocalBoundedObject object = i.next();
-            if (checkLocationWithinLocalBoundedObject(xLoc, yLoc, object)) {
-                //result = false;
-    			//logger.info("checkLocationCollision(): a point location is colliding with an existing vehicle, building, or construction site");
-    			//break;
-    			return false;
-            }
-        }
-
-        return result;
+        return getObstacleIndex(coordinates).getObjectAt(xLoc, yLoc, null) == null;
     }
 
 
@@ -217,21 +213,7 @@ public class LocalAreaUtil {
      */
     // 2015-12-08 Added checkImmovableCollision()
     public static boolean checkImmovableCollision(double xLoc, double yLoc, Coordinates coordinates) {
-
-        boolean result = true;
-
-        Iterator<LocalBoundedObject> i = getAllImmovableBoundedObjectsAtLocation(coordinates).iterator();
-        while (i.hasNext() && result) {
-            LocalBoundedObject object = i.next();
-            if (checkLocationWithinLocalBoundedObject(xLoc, yLoc, object)) {
-                //result = false;
-    			//logger.info("checkImmovableCollision(): Colliding with an immovable object (a building or construction site");
-    			//break;
-    			return false;
-            }
-        }
-
-        return result;
+        return getObstacleIndex(coordinates).getObjectAt(xLoc, yLoc, IMMOVABLES) == null;
     }
 
     /**
@@ -244,25 +226,20 @@ public class LocalAreaUtil {
      */
     // 2015-12-08 Added checkVehicleBoundedOjectIntersected()
     public static boolean isVehicleBoundedOjectIntersected(LocalBoundedObject object, Coordinates coordinates, boolean needToMove) {
-    	boolean result = false;
-
-    	Iterator<LocalBoundedObject> i = getAllVehicleBoundedObjectsAtLocation(coordinates).iterator();
-    	while (i.hasNext()) {
-    		LocalBoundedObject vehicle = i.next();
-
-    		if (isTwoBoundedOjectsIntersected(object, vehicle)) {
-    			result = true;
-    			if (needToMove) {
-    				Vehicle v = (Vehicle) vehicle;
-    				v.determinedSettlementParkedLocationAndFacing();
-                  	logger.info("checkVehicleBoundedOjectIntersected(): Colliding with vehicle " + v + ". Moving it to another location");
-                    //  Call again recursively to clear any vehicles
-    				result = isVehicleBoundedOjectIntersected(object, coordinates, needToMove);
-    			}
-    		}
+    	LocalBoundedObject vehicle = getObstacleIndex(coordinates).getObjectIntersecting(object, VEHICLES);
+    	if (vehicle == null) {
+    		return false;
     	}
 
-    	return result;
+    	if (needToMove) {
+    		Vehicle v = (Vehicle) vehicle;
+    		v.determinedSettlementParkedLocationAndFacing();
+    		logger.info("checkVehicleBoundedOjectIntersected(): Colliding with vehicle " + v + ". Moving it to another location");
+    		//  Call again recursively to clear any vehicles
+    		return isVehicleBoundedOjectIntersected(object, coordinates, needToMove);
+    	}
+
+    	return true;
     }
 
     /**
@@ -276,24 +253,20 @@ public class LocalAreaUtil {
     // 2015-12-08 Added checkVehicleCollision()
     public static boolean checkVehicleCollision(double xLoc, double yLoc, Coordinates coordinates, boolean needToMove) {
 
-        boolean result = true;
+        LocalBoundedObject vehicle = getObstacleIndex(coordinates).getObjectAt(xLoc, yLoc, VEHICLES);
+        if (vehicle == null) {
+            return true;
+        }
 
-        Iterator<LocalBoundedObject> i = getAllVehicleBoundedObjectsAtLocation(coordinates).iterator();
-        while (i.hasNext()) {
-            LocalBoundedObject object = i.next();
-            if (checkLocationWithinLocalBoundedObject(xLoc, yLoc, object)) {
-                result = false;
-                if (needToMove) {
-                	Vehicle v = (Vehicle) object;
-                	v.determinedSettlementParkedLocationAndFacing();
-                	logger.info("checkVehicleCollision(): Colliding with vehicle " + v + ". Moving it to another location");
-                	//  Call again recursively to clear any vehicles
-                	result = checkVehicleCollision(xLoc, yLoc, coordinates, needToMove);
-                }
-            }
+        if (needToMove) {
+            Vehicle v = (Vehicle) vehicle;
+            v.determinedSettlementParkedLocationAndFacing();
+            logger.info("checkVehicleCollision(): Colliding with vehicle " + v + ". Moving it to another location");
+            //  Call again recursively to clear any vehicles
+            return checkVehicleCollision(xLoc, yLoc, coordinates, needToMove);
         }
 
-        return result;
+        return false;
     }
 
 
@@ -328,19 +301,7 @@ public class LocalAreaUtil {
      */
     // 2015-12-08 Added getAllVehicleBoundedObjectsAtLocation()
     public static Set<LocalBoundedObject> getAllVehicleBoundedObjectsAtLocation(Coordinates coordinates) {
-
-        Set<LocalBoundedObject> result = new HashSet<LocalBoundedObject>();
-
-        // Add all vehicles at location.
-        Iterator<Vehicle> i = Simulation.instance().getUnitManager().getVehicles().iterator();
-        while (i.hasNext()) {
-            Vehicle vehicle = i.next();
-            if (vehicle.getCoordinates().equals(coordinates)) {
-                result.add(vehicle);
-            }
-        }
-
-        return result;
+        return getObstacles(coordinates, VEHICLES);
     }
 
     /**
@@ -351,17 +312,7 @@ public class LocalAreaUtil {
      */
     // 2015-12-08 Added checkImmovableBoundedOjectIntersected()
     public static boolean isImmovableBoundedOjectIntersected(LocalBoundedObject object, Coordinates coordinates) { //, boolean needToMove) {
-        Iterator<LocalBoundedObject> i = getAllImmovableBoundedObjectsAtLocation(coordinates).iterator();
-    	while (i.hasNext()) {
-    		LocalBoundedObject immovable = i.next();
-    		if (isTwoBoundedOjectsIntersected(object, immovable)) {
-    			//result = false;
-    			//logger.info("LocalAreaUtil: Colliding with an immovable object (a building or construction site");
-    			//break;
-    			return true;
-    		}
-    	}
-        return false;
+        return getObstacleIndex(coordinates).getObjectIntersecting(object, IMMOVABLES) != null;
     }
 
     /**
@@ -370,44 +321,63 @@ public class LocalAreaUtil {
      * @return set of local bounded objects at location (may be empty).
      */
     public static Set<LocalBoundedObject> getAllImmovableBoundedObjectsAtLocation(Coordinates coordinates) {
+        return getObstacles(coordinates, IMMOVABLES);
+    }
+
+    /**
+     * Gets a set of local bounded objects at a given coordinate location.
+     * @param coordinates the coordinate location.
+     * @return set of local bounded objects at location (may be empty).
+     */
+    public static Set<LocalBoundedObject> getAllLocalBoundedObjectsAtLocation(Coordinates coordinates) {
+        return new HashSet<LocalBoundedObject>(getObstacleIndex(coordinates).getObjects());
+    }
+
+    /**
+     * Gets a set of the local bounded objects at a given coordinate location passing a filter.
+     * @param coordinates the coordinate location.
+     * @param filter the filter.
+     * @return set of local bounded objects at location (may be empty).
+     */
+    private static Set<LocalBoundedObject> getObstacles(Coordinates coordinates, Predicate<LocalBoundedObject> filter) {
 
         Set<LocalBoundedObject> result = new HashSet<LocalBoundedObject>();
+        for (LocalBoundedObject object : getObstacleIndex(coordinates).getObjects()) {
+            if (filter.test(object)) {
+                result.add(object);
+            }
+        }
 
-        // Check for any settlements at coordinates.
-        Iterator<Settlement> l = Simulation.instance().getUnitManager().getSettlements().iterator();
-        while (l.hasNext()) {
-            Settlement settlement = l.next();
-            if (settlement.getCoordinates().equals(coordinates)) {
+        return result;
+    }
 
-                // Add all buildings at settlement.
-                Iterator<Building> j = settlement.getBuildingManager().getACopyOfBuildings().iterator();
-                while (j.hasNext()) {
-                	Building b = j.next();
-                	// 2016-03-07 Added checking for getInTransport()
-                	if (!b.getInTransport())
-                		result.add(b);
-                }
+    /**
+     * Gets the index of the local bounded objects at a given coordinate location.
+     * The index is cached until {@link #clearObstacleCache(Coordinates)} is called
+     * for the location.
+     * @param coordinates the coordinate location.
+     * @return obstacle index.
+     */
+    public static LocalAreaIndex getObstacleIndex(Coordinates coordinates) {
 
-                // Check all construction sites at settlement.
-                Iterator<ConstructionSite> k = settlement.getConstructionManager().
-                        getConstructionSites().iterator();
-                while (k.hasNext()) {
-                    result.add(k.next());
-                }
-            }
+        LocalAreaIndex result = obstacleIndexCache.get(coordinates);
+        if (result == null) {
+            // Coordinates are mutable so key the cache with a copy.
+            result = obstacleIndexCache.computeIfAbsent(new Coordinates(coordinates),
+                    c -> new LocalAreaIndex(findLocalBoundedObjectsAtLocation(c)));
         }
 
         return result;
     }
 
     /**
-     * Gets a set of local bounded objects at a given coordinate location.
+     * Finds the vehicles, buildings and construction sites at a given coordinate location.
      * @param coordinates the coordinate location.
-     * @return set of local bounded objects at location (may be empty).
+     * @return list of local bounded objects at location (may be empty).
      */
-    public static Set<LocalBoundedObject> getAllLocalBoundedObjectsAtLocation(Coordinates coordinates) {
+    private static List<LocalBoundedObject> findLocalBoundedObjectsAtLocation(Coordinates coordinates) {
 
-        Set<LocalBoundedObject> result = new HashSet<LocalBoundedObject>();
+        List<LocalBoundedObject> result = new ArrayList<LocalBoundedObject>();
 
         // Add all vehicles at location.
         Iterator<Vehicle> i = Simulation.instance().getUnitManager().getVehicles().iterator();
@@ -425,17 +395,10 @@ public class LocalAreaUtil {
             if (settlement.getCoordinates().equals(coordinates)) {
 
                 // Add all buildings at settlement.
-                Iterator<Building> j = settlement.getBuildingManager().getACopyOfBuildings().iterator();
-                while (j.hasNext()) {
-                    result.add(j.next());
-                }
+                result.addAll(settlement.getBuildingManager().getACopyOfBuildings());
 
                 // Check all construction sites at settlement.
-                Iterator<ConstructionSite> k = settlement.getConstructionManager().
-                        getConstructionSites().iterator();
-                while (k.hasNext()) {
-                    result.add(k.next());
-                }
+                result.addAll(settlement.getConstructionManager().getConstructionSites());
             }
         }
 
@@ -451,24 +414,7 @@ public class LocalAreaUtil {
      */
     public static boolean checkLocationWithinLocalBoundedObject(double xLoc, double yLoc,
             LocalBoundedObject object) {
-        boolean result = false;
-        // Below gets java.lang.NullPointerException after resuming from power saving in windows os
-        // called from ai.task.Walk.walkingRoverInteriorPhase(Walk.java:813)
-        Rectangle2D rect = new Rectangle2D.Double(object.getXLocation() -
-                (object.getWidth() / 2D), object.getYLocation() -
-                (object.getLength() / 2D), object.getWidth(), object.getLength());
-        Path2D path = getPathFromRectangleRotation(rect, object.getFacing());
-        Area area = new Area(path); // Exception in thread "pool-4-thread-1" java.lang.StackOverflowError
-        
-        // Notes: 
-        // (Severe) [x341] Walk : Tracy Kilmar cannot exit airlock at Desert Rose. From Walk's canExitAllAirlocks() 
-        // (Severe) [x1060] EVAOperation : Tracy Kilmar cannot walk to outside site. From EVAOperation's walkToOutsideSitePhase()
-        
-        if (area.contains(xLoc, yLoc)) {
-            result = true;
-        }
-
-        return result;
+        return new OrientedBox(object).contains(xLoc, yLoc);
     }
 
     /**
@@ -477,13 +423,7 @@ public class LocalAreaUtil {
      * @return bounding rectangle.
      */
     public static Rectangle2D getBoundingRectangle(LocalBoundedObject object) {
-
-        Rectangle2D rect = new Rectangle2D.Double(object.getXLocation() -
-                (object.getWidth() / 2D), object.getYLocation() -
-                (object.getLength() / 2D), object.getWidth(), object.getLength());
-        Path2D path = getPathFromRectangleRotation(rect, object.getFacing());
-
-        return path.getBounds2D();
+        return new OrientedBox(object).getBounds();
     }
 
     /**
@@ -519,17 +459,7 @@ public class LocalAreaUtil {
      */
     public static boolean isObjectCollisionFree(Object object, double width, double length,
             double xLoc, double yLoc, double facing, Coordinates coordinates) {
-
-        boolean result = true;
-
-        // Create path for object.
-        Rectangle2D objectRect = new Rectangle2D.Double(xLoc - (width / 2D),
-                yLoc - (length / 2D), width, length);
-        Path2D objectPath = getPathFromRectangleRotation(objectRect, facing);
-
-        result = isPathCollisionFree(object, objectPath, coordinates, false);
-
-        return result;
+        return getObstacleIndex(coordinates).isAreaClear(xLoc, yLoc, width, length, facing, object, null);
     }
 
     /**
@@ -537,19 +467,11 @@ public class LocalAreaUtil {
      * construction site at a settlement.
      * @param line the line.
      * @param coordinates the global coordinate location to check.
-     * @param useCache true if caching should be used.
+     * @param useCache unused, the obstacles at a location are always indexed.
      * @return true if line path doesn't collide with anything.
      */
     public static boolean checkLinePathCollision(Line2D line, Coordinates coordinates, boolean useCache) {
-
-        boolean result = true;
-
-        // Create line path
-        Path2D linePath = createLinePath(line);
-
-        result = isPathCollisionFree(null, linePath, coordinates, useCache);
-
-        return result;
+        return getObstacleIndex(coordinates).isLineClear(line);
     }
 
     public static Set<Point2D> getLinePathCollisionPoints(Line2D line, LocalBoundedObject object) {
@@ -612,45 +534,7 @@ public class LocalAreaUtil {
      * @return true if they do collide
      */
     public static boolean isTwoBoundedOjectsIntersected(LocalBoundedObject o1, LocalBoundedObject o2) {
-    	return doAreasCollide(getBoundedObjectArea(o1), getBoundedObjectArea(o2));
-
-    	//boolean result = false;
-
-    	//Area a1 = getBoundedObjectArea(o1);
-    	//Area a2 = getBoundedObjectArea(o2);
-
-    	//result = doAreasCollide(a1, a2);
-
-    	//return result;
-
-/*
-    	Set<Line2D> set1 = getLocalBoundedObjectLineSegments(o1);
-    	Set<Line2D> set2 = getLocalBoundedObjectLineSegments(o2);
-
-    	Iterator<Line2D> i = set1.iterator();
-    	while (i.hasNext()) {
-    		Line2D l1 = i.next();
-    		Set<Point2D> set1_o2 = getLinePathCollisionPoints(l1, o2);
-    		if (set1_o2.size()> 0)
-    			result = true;
-    	}
-
-
-               Iterator<Line2D> j = set2.iterator();
-               while (i.hasNext()) {
-                   Line2D l2 = i.next();
-
-                   Set<Point2D> set1_o2 = getLinePathCollisionPoints(l1, o2);
-
-                   if (set1_o2.size()> 0)
-                	   result = true;
-	           }
-*/
-
-
-
-		//Point2D pt1 = getLineIntersectionPoint(Line2D line1, Line2D line2) {
-
+    	return new OrientedBox(o1).intersects(new OrientedBox(o2));
     }
 
 
@@ -680,30 +564,6 @@ public class LocalAreaUtil {
         return result;
     }
 
-    /**
-     * Create a thin (1 mm wide) rectangle path representing a line.
-     * @param line the line.
-     * @return rectangle path for the line.
-     */
-    private static Path2D createLinePath(Line2D line) {
-
-        // Make rectangle width 1mm.
-        double width = .001D;
-        double length = line.getP1().distance(line.getP2());
-        double centerX = (line.getX1() + line.getX2()) / 2D;
-        double centerY = (line.getY1() + line.getY2()) / 2D;
-
-        double x1 = centerX - (width / 2D);
-        double y1 = centerY - (length / 2D);
-        Rectangle2D lineRect = new Rectangle2D.Double(x1, y1, width, length);
-
-        double facing = getDirection(line.getP1(), line.getP2());
-
-        Path2D rectPath = getPathFromRectangleRotation(lineRect, facing);
-
-        return rectPath;
-    }
-
     /**
      * Gets the direction from point1 to point2.
      * @param point1 the first point.
@@ -728,96 +588,22 @@ public class LocalAreaUtil {
     }
 
     /**
-     * Checks if a path collides with an existing building, construction site, or vehicle at a location.
-     * @param object the object being checked (may be null if no object).
-     * @param path the path to check.
-     * @param coordinates the global coordinate location to check.
-     * @param useCache true if caching should be used.
-     * @return true if path doesn't collide with anything.
-     */
-    private static boolean isPathCollisionFree(Object object, Path2D path, Coordinates coordinates, boolean useCache) {
-
-        boolean result = true;
-
-        // Check if obstacle area has been cached for this coordinate location if using cache.
-        boolean cached = false;
-        Area obstacleArea = null;
-        if (useCache && obstacleAreaCache.containsKey(coordinates)) {
-            String currentTimestamp = Simulation.instance().getMasterClock().getMarsClock().getDateTimeStamp();
-            String cachedTimestamp = obstacleAreaTimestamps.get(coordinates);
-            if (currentTimestamp.equals(cachedTimestamp)) {
-                cached = true;
-                obstacleArea = obstacleAreaCache.get(coordinates);
-            }
-        }
-
-        if (!cached) {
-            // Add all obstacle areas at location together to create a total obstacle area.
-            Iterator<LocalBoundedObject> i = getAllLocalBoundedObjectsAtLocation(coordinates).iterator();
-            while (i.hasNext()) {
-                LocalBoundedObject lbo = i.next();
-                if (lbo != object) {
-                    Rectangle2D objectRect = new Rectangle2D.Double(lbo.getXLocation() -
-                            (lbo.getWidth() / 2D), lbo.getYLocation() -
-                            (lbo.getLength() / 2D), lbo.getWidth(), lbo.getLength());
-                    Path2D objectPath = getPathFromRectangleRotation(objectRect,
-                            lbo.getFacing());
-                    Area objectArea = new Area(objectPath);
-                    if (obstacleArea == null) {
-                        obstacleArea = objectArea;
-                    }
-                    else {
-                        obstacleArea.add(objectArea);
-                    }
-                }
-            }
-        }
-
-        if (obstacleArea != null) {
-            // Check for intersection of obstacle and path bounding rectangles first (faster).
-            Rectangle2D pathBounds = path.getBounds2D();
-            Rectangle2D obstacleBounds = obstacleArea.getBounds2D();
-            if (pathBounds.intersects(obstacleBounds)) {
-                // If rectangles intersect, check for collision of path and obstacle areas (slower).
-                Area pathArea = new Area(path);
-                result = !doAreasCollide(pathArea, obstacleArea);
-            }
-        }
-
-        // Store cached obstacle area for location with current timestamp if needed.
-        if (useCache && !cached && (obstacleArea != null)) {
-            obstacleAreaCache.put(coordinates, obstacleArea);
-            String currentTimestamp = Simulation.instance().getMasterClock().getMarsClock().getDateTimeStamp();
-            obstacleAreaTimestamps.put(coordinates, currentTimestamp);
-        }
-
-        return result;
-    }
-
-    /**
-     * Clear the obstacle area cache and time stamps.
+     * Clear the obstacle cache for all locations.
      */
     public static void clearObstacleCache() {
-        if (obstacleAreaCache != null) {
-            obstacleAreaCache.clear();
-        }
-        if (obstacleAreaTimestamps != null) {
-            obstacleAreaTimestamps.clear();
-        }
+        obstacleIndexCache.clear();
+        LocalPathFinder.clearCache();
     }
 
     /**
-     * Checks if two areas collide.
-     * @param area1 the first area.
-     * @param area2 the second area.
-     * @return true if areas collide.
+     * Clear the obstacle cache for a location, after an obstacle there has been
+     * added, removed, moved or turned.
+     * @param coordinates the coordinate location.
      */
-    private static boolean doAreasCollide(Area area1, Area area2) {
-
-        Area collide = new Area(area1);
-        collide.intersect(area2);
-        return !collide.isEmpty();
-
+    public static void clearObstacleCache(Coordinates coordinates) {
+        if (coordinates != null) {
+            obstacleIndexCache.remove(coordinates);
+        }
     }
 
     /**
@@ -826,7 +612,7 @@ public class LocalAreaUtil {
      * @param rotation the rotation (degrees clockwise from North).
      * @return path representing rotated rectangle.
      */
-    private static Path2D getPathFromRectangleRotation(Rectangle2D rectangle, double rotation) {
+    static Path2D getPathFromRectangleRotation(Rectangle2D rectangle, double rotation) {
         double radianRotation = rotation * (Math.PI / 180D);
         AffineTransform at = AffineTransform.getRotateInstance(radianRotation, rectangle.getCenterX(),
                 rectangle.getCenterY());
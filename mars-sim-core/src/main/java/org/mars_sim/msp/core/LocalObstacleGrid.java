@@ -0,0 +1,272 @@
+/**
+ * Mars Simulation Project
+ * LocalObstacleGrid.java
+ * @version 3.1.0 2018-08-25
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A rasterized occupancy grid of the vehicles, buildings and construction sites
+ * at a location.
+ * <br>
+ * Each cell is either free of obstacles, entirely within an obstacle, or
+ * partly covered. Point and line collision tests are answered from the cells
+ * and only fall back to the {@link LocalAreaIndex} of the obstacles for partly
+ * covered cells, so the answers are the same as those of {@link LocalAreaUtil}.
+ * The grid is immutable and may be shared between threads.
+ */
+class LocalObstacleGrid {
+
+    /** Cell without any obstacle. */
+    private static final byte FREE = 0;
+    /** Cell partly covered by obstacles. */
+    private static final byte MIXED = 1;
+    /** Cell entirely within an obstacle. */
+    private static final byte BLOCKED = 2;
+
+    /** The preferred width of a cell (meters). */
+    private static final double CELL_SIZE = .5D;
+    /** The maximum number of cells along a side of the grid. */
+    private static final int MAX_CELLS = 1024;
+    /**
+     * The margin obstacles are grown by when marking cells free and shrunk by when
+     * marking cells blocked (meters), covering the width of a line path and rounding.
+     */
+    private static final double MARGIN = .01D;
+
+    // Data members
+    /** The index of the obstacles. */
+    private LocalAreaIndex index;
+    /** The union of the bounding rectangles of the obstacles or null if no obstacles. */
+    private Rectangle2D obstacleBounds;
+
+    private double originX;
+    private double originY;
+    private double cellSize;
+    private int columns;
+    private int rows;
+    private byte[] cells;
+
+    /**
+     * Constructor.
+     * @param index the index of the obstacles at the location.
+     */
+    LocalObstacleGrid(LocalAreaIndex index) {
+
+        this.index = index;
+        obstacleBounds = index.getBounds();
+
+        if (obstacleBounds == null) {
+            return;
+        }
+
+        // Leave a free border around the obstacles.
+        double minX = obstacleBounds.getMinX() - 1D;
+        double minY = obstacleBounds.getMinY() - 1D;
+        double maxX = obstacleBounds.getMaxX() + 1D;
+        double maxY = obstacleBounds.getMaxY() + 1D;
+        cellSize = Math.max(CELL_SIZE, Math.max(maxX - minX, maxY - minY) / MAX_CELLS);
+        originX = Math.floor(minX / cellSize) * cellSize;
+        originY = Math.floor(minY / cellSize) * cellSize;
+        columns = (int) Math.ceil((maxX - originX) / cellSize);
+        rows = (int) Math.ceil((maxY - originY) / cellSize);
+        cells = new byte[columns * rows];
+
+        for (LocalBoundedObject obstacle : index.getObjects()) {
+            rasterize(obstacle);
+        }
+    }
+
+    /**
+     * Marks the cells covered by an obstacle.
+     * The rotated rectangle of the obstacle is the intersection of two slabs,
+     * one along each of its axes, so a cell is compared with the slabs and
+     * with the bounding box of the obstacle.
+     * @param obstacle the obstacle.
+     */
+    private void rasterize(LocalBoundedObject obstacle) {
+
+        double radians = obstacle.getFacing() * (Math.PI / 180D);
+        AffineTransform at = AffineTransform.getRotateInstance(radians);
+        Point2D u = at.transform(new Point2D.Double(1D, 0D), null);
+        Point2D v = at.transform(new Point2D.Double(0D, 1D), null);
+        double ux = u.getX();
+        double uy = u.getY();
+        double vx = v.getX();
+        double vy = v.getY();
+
+        double centerX = obstacle.getXLocation();
+        double centerY = obstacle.getYLocation();
+        double centerU = centerX * ux + centerY * uy;
+        double centerV = centerX * vx + centerY * vy;
+        double halfWidth = obstacle.getWidth() / 2D;
+        double halfLength = obstacle.getLength() / 2D;
+
+        // Half extents of a cell projected on the obstacle axes.
+        double cellHalfU = (Math.abs(ux) + Math.abs(uy)) * cellSize / 2D;
+        double cellHalfV = (Math.abs(vx) + Math.abs(vy)) * cellSize / 2D;
+
+        Rectangle2D bounds = LocalAreaUtil.getBoundingRectangle(obstacle);
+        int minColumn = Math.max(0, getColumn(bounds.getMinX() - MARGIN));
+        int maxColumn = Math.min(columns - 1, getColumn(bounds.getMaxX() + MARGIN));
+        int minRow = Math.max(0, getRow(bounds.getMinY() - MARGIN));
+        int maxRow = Math.min(rows - 1, getRow(bounds.getMaxY() + MARGIN));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            double cellY = originY + (row + .5D) * cellSize;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int index = row * columns + column;
+                if (cells[index] == BLOCKED) {
+                    continue;
+                }
+
+                double cellX = originX + (column + .5D) * cellSize;
+                double du = Math.abs(cellX * ux + cellY * uy - centerU);
+                double dv = Math.abs(cellX * vx + cellY * vy - centerV);
+
+                if ((du + cellHalfU <= halfWidth - MARGIN) && (dv + cellHalfV <= halfLength - MARGIN)) {
+                    cells[index] = BLOCKED;
+                }
+                else if ((du - cellHalfU <= halfWidth + MARGIN) && (dv - cellHalfV <= halfLength + MARGIN)) {
+                    cells[index] = MIXED;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the obstacles the grid was built from.
+     * @return obstacle index.
+     */
+    LocalAreaIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the union of the bounding rectangles of the obstacles.
+     * @return bounds or null if no obstacles.
+     */
+    Rectangle2D getObstacleBounds() {
+        return obstacleBounds;
+    }
+
+    private int getColumn(double x) {
+        return (int) Math.floor((x - originX) / cellSize);
+    }
+
+    private int getRow(double y) {
+        return (int) Math.floor((y - originY) / cellSize);
+    }
+
+    /**
+     * Gets the state of the cell at a location.
+     * @param column the cell column.
+     * @param row the cell row.
+     * @return the cell state, free outside of the grid.
+     */
+    private byte getCell(int column, int row) {
+        if ((column < 0) || (column >= columns) || (row < 0) || (row >= rows)) {
+            return FREE;
+        }
+        return cells[row * columns + column];
+    }
+
+    /**
+     * Checks if a point location does not collide with any obstacle.
+     * @param xLoc the X location.
+     * @param yLoc the Y location.
+     * @return true if location doesn't collide with anything.
+     */
+    boolean isLocationClear(double xLoc, double yLoc) {
+
+        if (obstacleBounds == null) {
+            return true;
+        }
+
+        byte cell = getCell(getColumn(xLoc), getRow(yLoc));
+        if (cell == FREE) {
+            return true;
+        }
+        else if (cell == BLOCKED) {
+            return false;
+        }
+        else {
+            return index.getObjectAt(xLoc, yLoc, null) == null;
+        }
+    }
+
+    /**
+     * Checks if a line path does not collide with any obstacle.
+     * Walks the cells crossed by the line and only tests the obstacle index
+     * if the line crosses partly covered cells and no blocked cell.
+     * @param x1 the X location of the first end.
+     * @param y1 the Y location of the first end.
+     * @param x2 the X location of the second end.
+     * @param y2 the Y location of the second end.
+     * @return true if line path doesn't collide with anything.
+     */
+    boolean isLineClear(double x1, double y1, double x2, double y2) {
+
+        if (obstacleBounds == null) {
+            return true;
+        }
+
+        // Quick rejection when the line misses the obstacles altogether.
+        if ((Math.max(x1, x2) < obstacleBounds.getMinX() - MARGIN) || (Math.min(x1, x2) > obstacleBounds.getMaxX() + MARGIN)
+                || (Math.max(y1, y2) < obstacleBounds.getMinY() - MARGIN) || (Math.min(y1, y2) > obstacleBounds.getMaxY() + MARGIN)) {
+            return true;
+        }
+
+        int column = getColumn(x1);
+        int row = getRow(y1);
+        int endColumn = getColumn(x2);
+        int endRow = getRow(y2);
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        int stepColumn = (dx > 0D) ? 1 : -1;
+        int stepRow = (dy > 0D) ? 1 : -1;
+
+        // Distance along the line, as a fraction of its length, to the next cell boundaries.
+        double tDeltaX = (dx != 0D) ? Math.abs(cellSize / dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = (dy != 0D) ? Math.abs(cellSize / dy) : Double.POSITIVE_INFINITY;
+        double nextX = originX + (column + ((dx > 0D) ? 1 : 0)) * cellSize;
+        double nextY = originY + (row + ((dy > 0D) ? 1 : 0)) * cellSize;
+        double tMaxX = (dx != 0D) ? (nextX - x1) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = (dy != 0D) ? (nextY - y1) / dy : Double.POSITIVE_INFINITY;
+
+        boolean mixed = false;
+        int steps = Math.abs(endColumn - column) + Math.abs(endRow - row);
+        for (int x = 0; x <= steps; x++) {
+
+            byte cell = getCell(column, row);
+            if (cell == BLOCKED) {
+                return false;
+            }
+            else if (cell == MIXED) {
+                mixed = true;
+            }
+
+            if (tMaxX < tMaxY) {
+                column += stepColumn;
+                tMaxX += tDeltaX;
+            }
+            else {
+                row += stepRow;
+                tMaxY += tDeltaY;
+            }
+        }
+
+        if (mixed) {
+            return index.isLineClear(new Line2D.Double(x1, y1, x2, y2));
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,439 @@
+/**
+ * Mars Simulation Project
+ * LocalPathFinder.java
+ * @version 3.1.0 2018-08-25
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds paths around the vehicles, buildings and construction sites at a location
+ * for anything moving outside, such as people and robots walking outside or rovers.
+ * <br>
+ * Collisions are tested against a {@link LocalObstacleGrid} for the location,
+ * which is kept until an obstacle is added, removed, moved or turned. Searches
+ * use the A* path planning algorithm on a lattice of points spaced a given
+ * distance apart from the starting location.
+ */
+public final class LocalPathFinder {
+
+    /** The number of locations to keep obstacle grids for. */
+    private static final int MAX_CACHED_GRIDS = 64;
+
+    /** Marks an unvisited lattice point. */
+    private static final byte UNVISITED = 0;
+    /** Marks a lattice point in the open set. */
+    private static final byte OPEN = 1;
+    /** Marks a lattice point in the closed set. */
+    private static final byte CLOSED = 2;
+
+    /** The lattice directions in the order neighbors are tried : north, east, south and west. */
+    private static final int[] NEIGHBOR_X = { 0, -1, 0, 1 };
+    private static final int[] NEIGHBOR_Y = { 1, 0, -1, 0 };
+
+    /** The obstacle grids by location. */
+    private static final Map<Coordinates, LocalObstacleGrid> grids = new ConcurrentHashMap<>();
+
+    /** The search state of each thread, reused between searches. */
+    private static final ThreadLocal<SearchState> searchStates = new ThreadLocal<SearchState>() {
+        @Override
+        protected SearchState initialValue() {
+            return new SearchState();
+        }
+    };
+
+    /**
+     * Private constructor for utility class.
+     */
+    private LocalPathFinder() {
+    }
+
+    /**
+     * Gets the obstacle grid for a location, rebuilding it if the obstacle index
+     * of the location has been replaced.
+     * @param coordinates the global coordinate location.
+     * @return obstacle grid.
+     */
+    private static LocalObstacleGrid getObstacleGrid(Coordinates coordinates) {
+
+        LocalAreaIndex index = LocalAreaUtil.getObstacleIndex(coordinates);
+
+        LocalObstacleGrid result = grids.get(coordinates);
+        if ((result == null) || (result.getIndex() != index)) {
+            result = new LocalObstacleGrid(index);
+            if (grids.size() >= MAX_CACHED_GRIDS) {
+                grids.clear();
+            }
+            grids.put(new Coordinates(coordinates), result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if a point location does not collide with any existing vehicle, building, or construction site.
+     * @param xLoc the X location.
+     * @param yLoc the Y location.
+     * @param coordinates the global coordinate location to check.
+     * @return true if location doesn't collide with anything.
+     */
+    public static boolean isLocationClear(double xLoc, double yLoc, Coordinates coordinates) {
+        return getObstacleGrid(coordinates).isLocationClear(xLoc, yLoc);
+    }
+
+    /**
+     * Checks if a line path does not collide with any existing vehicle, building, or construction site.
+     * @param point1 the first end of the line.
+     * @param point2 the second end of the line.
+     * @param coordinates the global coordinate location to check.
+     * @return true if line path doesn't collide with anything.
+     */
+    public static boolean isLineClear(Point2D point1, Point2D point2, Coordinates coordinates) {
+        return getObstacleGrid(coordinates).isLineClear(point1.getX(), point1.getY(),
+                point2.getX(), point2.getY());
+    }
+
+    /**
+     * Gets the default search limits for a path, enclosing the settlement center,
+     * all obstacles and both ends of the path, extended by the lattice spacing.
+     * @param start the starting location.
+     * @param destination the destination location.
+     * @param spacing the lattice spacing (meters).
+     * @param coordinates the global coordinate location.
+     * @return array of four double values representing X max, X min, Y max, and Y min.
+     */
+    public static double[] getSearchLimits(Point2D start, Point2D destination, double spacing,
+            Coordinates coordinates) {
+
+        Rectangle2D limits = new Rectangle2D.Double();
+        Rectangle2D bounds = getObstacleGrid(coordinates).getObstacleBounds();
+        if (bounds != null) {
+            limits.add(bounds);
+        }
+        limits.add(start);
+        limits.add(destination);
+
+        return new double[] { limits.getMaxX() + spacing, limits.getMinX() - spacing,
+                limits.getMaxY() + spacing, limits.getMinY() - spacing };
+    }
+
+    /**
+     * Determines a path around obstacles between two locations.
+     * @param start the starting location.
+     * @param destination the destination location.
+     * @param spacing the lattice spacing (meters).
+     * @param coordinates the global coordinate location.
+     * @return path as list of points or null if no path found.
+     */
+    public static List<Point2D> findPath(Point2D start, Point2D destination, double spacing,
+            Coordinates coordinates) {
+        return findPath(start, destination, spacing, getSearchLimits(start, destination, spacing, coordinates),
+                coordinates);
+    }
+
+    /**
+     * Determines a path around obstacles between two locations using the A* path planning algorithm,
+     * testing out neighbor locations on a lattice of points around the starting location.
+     * http://en.wikipedia.org/wiki/A*
+     * @param start the starting location.
+     * @param destination the destination location.
+     * @param spacing the lattice spacing (meters).
+     * @param searchLimits the X max, X min, Y max, and Y min of the locations to search.
+     * @param coordinates the global coordinate location.
+     * @return path as list of points or null if no path found.
+     */
+    public static List<Point2D> findPath(Point2D start, Point2D destination, double spacing,
+            double[] searchLimits, Coordinates coordinates) {
+
+        if (spacing <= 0D) {
+            throw new IllegalArgumentException("Lattice spacing must be positive: " + spacing);
+        }
+
+        LocalObstacleGrid grid = getObstacleGrid(coordinates);
+
+        double startX = start.getX();
+        double startY = start.getY();
+        double destinationX = destination.getX();
+        double destinationY = destination.getY();
+
+        // Return null if either location is within obstacles.
+        if (!grid.isLocationClear(startX, startY) || !grid.isLocationClear(destinationX, destinationY)) {
+            return null;
+        }
+
+        // Lattice window enclosing the search limits.
+        int minI = (int) Math.floor((searchLimits[1] - startX) / spacing) - 1;
+        int maxI = (int) Math.ceil((searchLimits[0] - startX) / spacing) + 1;
+        int minJ = (int) Math.floor((searchLimits[3] - startY) / spacing) - 1;
+        int maxJ = (int) Math.ceil((searchLimits[2] - startY) / spacing) + 1;
+        int width = maxI - minI + 1;
+        int height = maxJ - minJ + 1;
+
+        SearchState state = searchStates.get();
+        state.reset(width * height);
+
+        int startNode = (0 - minI) * height + (0 - minJ);
+        state.open(startNode, getFScore(startX, startY, startX, startY, destinationX, destinationY));
+
+        while (!state.isOpenEmpty()) {
+
+            // Find location in the open set with lowest fScore value.
+            int current = state.pollOpen();
+            int currentI = current / height + minI;
+            int currentJ = current % height + minJ;
+            double currentX = startX + currentI * spacing;
+            double currentY = startY + currentJ * spacing;
+
+            // Check if clear path to destination.
+            if (grid.isLineClear(currentX, currentY, destinationX, destinationY)) {
+                List<Point2D> path = recreatePath(state, current, height, minI, minJ, start, destination, spacing);
+                return optimizePath(path, grid);
+            }
+
+            state.close(current);
+
+            // Go through each reachable neighbor location.
+            for (int direction = 0; direction < NEIGHBOR_X.length; direction++) {
+                int neighborI = currentI + NEIGHBOR_X[direction];
+                int neighborJ = currentJ + NEIGHBOR_Y[direction];
+                if ((neighborI < minI) || (neighborI > maxI) || (neighborJ < minJ) || (neighborJ > maxJ)) {
+                    continue;
+                }
+
+                int neighbor = (neighborI - minI) * height + (neighborJ - minJ);
+                if (state.getState(neighbor) != UNVISITED) {
+                    continue;
+                }
+
+                double neighborX = startX + neighborI * spacing;
+                double neighborY = startY + neighborJ * spacing;
+                if (withinSearchLimits(neighborX, neighborY, searchLimits) &&
+                        grid.isLineClear(currentX, currentY, neighborX, neighborY)) {
+                    state.setParent(neighbor, current);
+                    state.open(neighbor, getFScore(neighborX, neighborY, startX, startY, destinationX, destinationY));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the fScore value for a location.
+     * The fScore value is the total distance (m) from the starting location to this location
+     * and then to the destination location.
+     */
+    private static double getFScore(double x, double y, double startX, double startY,
+            double destinationX, double destinationY) {
+        return Point2D.distance(startX, startY, x, y) + Point2D.distance(x, y, destinationX, destinationY);
+    }
+
+    /**
+     * Check if a location is within the search limits.
+     */
+    private static boolean withinSearchLimits(double x, double y, double[] searchLimits) {
+        return (x <= searchLimits[0]) && (x >= searchLimits[1]) && (y <= searchLimits[2]) && (y >= searchLimits[3]);
+    }
+
+    /**
+     * Recreates a path from the parent of each lattice point.
+     * @return path as list of points.
+     */
+    private static List<Point2D> recreatePath(SearchState state, int endNode, int height, int minI, int minJ,
+            Point2D start, Point2D destination, double spacing) {
+
+        List<Point2D> result = new ArrayList<Point2D>();
+
+        // Add destination location to end of path.
+        result.add(new Point2D.Double(destination.getX(), destination.getY()));
+
+        int node = endNode;
+        while (node != SearchState.NONE) {
+            int i = node / height + minI;
+            int j = node % height + minJ;
+            if ((i == 0) && (j == 0)) {
+                result.add(new Point2D.Double(start.getX(), start.getY()));
+            }
+            else {
+                result.add(new Point2D.Double(start.getX() + i * spacing, start.getY() + j * spacing));
+            }
+            node = state.getParent(node);
+        }
+
+        // Collected from the end, so put the path in walking order.
+        for (int x = 0, y = result.size() - 1; x < y; x++, y--) {
+            Point2D temp = result.get(x);
+            result.set(x, result.get(y));
+            result.set(y, temp);
+        }
+
+        return result;
+    }
+
+    /**
+     * Optimizes a path by removing locations with a clear path between their previous and next locations.
+     * @param path the path to optimize.
+     * @param grid the obstacle grid.
+     * @return optimized path.
+     */
+    private static List<Point2D> optimizePath(List<Point2D> path, LocalObstacleGrid grid) {
+
+        int index = 1;
+        while (index < (path.size() - 1)) {
+            Point2D prevLoc = path.get(index - 1);
+            Point2D nextLoc = path.get(index + 1);
+            if (grid.isLineClear(prevLoc.getX(), prevLoc.getY(), nextLoc.getX(), nextLoc.getY())) {
+                path.remove(index);
+            }
+            else {
+                index++;
+            }
+        }
+
+        return path;
+    }
+
+    /**
+     * Clears the cached obstacle grids.
+     */
+    public static void clearCache() {
+        grids.clear();
+    }
+
+    /**
+     * The open set, closed set and parents of a search, indexed by lattice point.
+     * Arrays are only grown and a stamp per point tells which search last touched it,
+     * so nothing is cleared or allocated between searches.
+     */
+    private static class SearchState {
+
+        private static final int NONE = -1;
+
+        private int stamp;
+        private int[] stamps = new int[0];
+        private byte[] states = new byte[0];
+        private int[] parents = new int[0];
+
+        /** Binary heap of open points, ordered by fScore then by insertion order. */
+        private int[] heapNodes = new int[64];
+        private double[] heapScores = new double[64];
+        private long[] heapOrders = new long[64];
+        private int heapSize;
+        private long insertions;
+
+        void reset(int size) {
+            if (stamps.length < size) {
+                int length = Math.max(size, stamps.length * 2);
+                stamps = new int[length];
+                states = new byte[length];
+                parents = new int[length];
+                stamp = 0;
+            }
+            stamp++;
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            heapSize = 0;
+            insertions = 0L;
+        }
+
+        byte getState(int node) {
+            return (stamps[node] == stamp) ? states[node] : UNVISITED;
+        }
+
+        private void touch(int node) {
+            if (stamps[node] != stamp) {
+                stamps[node] = stamp;
+                parents[node] = NONE;
+            }
+        }
+
+        int getParent(int node) {
+            return (stamps[node] == stamp) ? parents[node] : NONE;
+        }
+
+        void setParent(int node, int parent) {
+            touch(node);
+            parents[node] = parent;
+        }
+
+        void close(int node) {
+            touch(node);
+            states[node] = CLOSED;
+        }
+
+        boolean isOpenEmpty() {
+            return heapSize == 0;
+        }
+
+        void open(int node, double score) {
+            touch(node);
+            states[node] = OPEN;
+
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapScores = Arrays.copyOf(heapScores, heapSize * 2);
+                heapOrders = Arrays.copyOf(heapOrders, heapSize * 2);
+            }
+
+            long order = insertions++;
+            int index = heapSize++;
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!isLower(score, order, heapScores[parent], heapOrders[parent])) {
+                    break;
+                }
+                set(index, heapNodes[parent], heapScores[parent], heapOrders[parent]);
+                index = parent;
+            }
+            set(index, node, score, order);
+        }
+
+        int pollOpen() {
+            int result = heapNodes[0];
+            heapSize--;
+            if (heapSize > 0) {
+                int node = heapNodes[heapSize];
+                double score = heapScores[heapSize];
+                long order = heapOrders[heapSize];
+                int index = 0;
+                while (true) {
+                    int child = index * 2 + 1;
+                    if (child >= heapSize) {
+                        break;
+                    }
+                    if ((child + 1 < heapSize) && isLower(heapScores[child + 1], heapOrders[child + 1],
+                            heapScores[child], heapOrders[child])) {
+                        child++;
+                    }
+                    if (!isLower(heapScores[child], heapOrders[child], score, order)) {
+                        break;
+                    }
+                    set(index, heapNodes[child], heapScores[child], heapOrders[child]);
+                    index = child;
+                }
+                set(index, node, score, order);
+            }
+            return result;
+        }
+
+        private static boolean isLower(double score1, long order1, double score2, long order2) {
+            return (score1 < score2) || ((score1 == score2) && (order1 < order2));
+        }
+
+        private void set(int index, int node, double score, long order) {
+            heapNodes[index] = node;
+            heapScores[index] = score;
+            heapOrders[index] = order;
+        }
+    }
+}
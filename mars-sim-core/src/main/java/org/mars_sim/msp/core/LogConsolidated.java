@@ -7,7 +7,14 @@
 
 package org.mars_sim.msp.core;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,16 +26,37 @@ import java.util.logging.Logger;
  		LogConsolidated.log(logger, Level.WARN, 5000, "File: " + f + " not found.", e);
 	Instead of:
 		logger.warn("File: " + f + " not found.", e);
+
+	In a tick loop, register a key once and pass the values of the message as
+	arguments of a lambda that captures nothing, so nothing is built or
+	allocated when the message is suppressed:
+		private static final LogConsolidated.Key NOT_FOUND = LogConsolidated.register("file not found");
+		LogConsolidated.log(NOT_FOUND, logger, Level.WARNING, 5000, sourceName, f, file -> "File: " + file + " not found.", e);
  */
 
 public class LogConsolidated {
 
-    private static HashMap<String, TimeAndCount> lastLoggedTime = new HashMap<>();
+    /** The keys of the call sites that did not register one, by file and line. */
+    private static Map<String, Key> callSites = new ConcurrentHashMap<>();
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    /** The current time (milliseconds), replaced by the tests. */
+    static LongSupplier clock = System::currentTimeMillis;
 
 	//private static Logger logger = Logger.getLogger(LogConsolidated.class.getName());
 	//private static java.util.logging.Logger logj = java.util.logging.Logger.getLogger(LogConsolidated.class.getName());
 
-    
+    /**
+     * Registers a call site. Keep the key in a static field and pass it to
+     * {@link #log(Key, Logger, Level, long, String, Supplier, Throwable)}.
+     * @param name The name of the call site, for debugging.
+     * @return The key.
+     */
+    public static Key register(String name) {
+        return new Key(name);
+    }
+
     /**
      * Logs given <code>message</code> to given <code>logger</code> as long as:
      * <ul>
@@ -37,6 +65,9 @@ public class LogConsolidated {
      * </ul>
      * Note: If messages are skipped, they are counted. When <code>timeBetweenLogs</code> has passed, and a repeat message is logged, 
      * the count will be displayed.
+     * <br>
+     * The call site is found by walking the stack on every call. Call sites in
+     * a tick loop should register a {@link Key} instead.
      * @param logger Where to log.
      * @param level Level to log.
      * @param timeBetweenLogs Milliseconds to wait between similar log messages.
@@ -44,48 +75,117 @@ public class LogConsolidated {
      * @param t Can be null. Will log stack trace if not null.
      */
     public static void log(Logger logger, Level level, long timeBetweenLogs, String sourceName, String message, Throwable t) {
-    	
-		String className = sourceName.substring(sourceName.lastIndexOf(".") + 1, sourceName.length());
-		
-        //if (logger.isEnabledFor(level)) {
-            String uniqueIdentifier = getFileAndLine();
-            TimeAndCount lastTimeAndCount = lastLoggedTime.get(uniqueIdentifier);
-            if (lastTimeAndCount != null) {
-                synchronized (lastTimeAndCount) {
-                    long now = System.currentTimeMillis();
-                    if (now - lastTimeAndCount.time < timeBetweenLogs) {
-                        lastTimeAndCount.count++;
-                        return;
-                    } else {
-                    	//if (lastTimeAndCount.count == 1) {
-                        //    log(logger, level, sourceName + " : " + message, t);
-                    	//}
-                    	//else
-                    		log(logger, level, "[x" + lastTimeAndCount.count + "] " + className + " : " +  message, t);
-                    }
-                }
-            } 
-            
-            else {
-            	log(logger, level, "[x1] " + className + " : " + message, t);
-            }
-            
-            lastLoggedTime.put(uniqueIdentifier, new TimeAndCount());
-        //}
+        if (!logger.isLoggable(level))
+            return;
+
+        Key key = callSites.computeIfAbsent(getFileAndLine(), Key::new);
+        int count = take(key, clock.getAsLong(), timeBetweenLogs);
+        if (count > 0)
+            log(logger, level, format(count, sourceName, message), t);
     }
 
-    private static String getFileAndLine() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        boolean enteredLogConsolidated = false;
-        for (StackTraceElement ste : stackTrace) {
-            if (ste.getClassName().equals(LogConsolidated.class.getName())) {
-                enteredLogConsolidated = true;
-            } else if (enteredLogConsolidated) {
-                // We have now file/line before entering LogConsolidated.
-                return ste.getFileName() + ":" + ste.getLineNumber();
-            }
+    /**
+     * Logs the message of a registered call site. As with
+     * {@link #log(Logger, Level, long, String, String, Throwable)}, a message
+     * within <code>timeBetweenLogs</code> of the last one from the same key is
+     * only counted. Neither check takes a lock, and the message is only built
+     * when it is logged. Nothing is allocated if the supplier captures nothing;
+     * a lambda using local values or <code>this</code> is created on every
+     * call, so pass those to
+     * {@link #log(Key, Logger, Level, long, String, Object, Function, Throwable)}
+     * instead.
+     * @param key The key of the call site.
+     * @param logger Where to log.
+     * @param level Level to log.
+     * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+     * @param message Builds the message to log.
+     * @param t Can be null. Will log stack trace if not null.
+     */
+    public static void log(Key key, Logger logger, Level level, long timeBetweenLogs, String sourceName,
+    		Supplier<String> message, Throwable t) {
+        if (!logger.isLoggable(level))
+            return;
+
+        int count = take(key, clock.getAsLong(), timeBetweenLogs);
+        if (count > 0)
+            log(logger, level, format(count, sourceName, message.get()), t);
+    }
+
+    /**
+     * Logs the message of a registered call site, built from a value. A lambda
+     * that only uses its argument captures nothing, so a suppressed message
+     * allocates nothing.
+     * @param key The key of the call site.
+     * @param logger Where to log.
+     * @param level Level to log.
+     * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+     * @param arg The value of the message.
+     * @param message Builds the message to log from the value.
+     * @param t Can be null. Will log stack trace if not null.
+     */
+    public static <A> void log(Key key, Logger logger, Level level, long timeBetweenLogs, String sourceName,
+    		A arg, Function<? super A, String> message, Throwable t) {
+        if (!logger.isLoggable(level))
+            return;
+
+        int count = take(key, clock.getAsLong(), timeBetweenLogs);
+        if (count > 0)
+            log(logger, level, format(count, sourceName, message.apply(arg)), t);
+    }
+
+    /**
+     * Logs the message of a registered call site, built from two values. See
+     * {@link #log(Key, Logger, Level, long, String, Object, Function, Throwable)}.
+     * @param key The key of the call site.
+     * @param logger Where to log.
+     * @param level Level to log.
+     * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+     * @param arg1 The first value of the message.
+     * @param arg2 The second value of the message.
+     * @param message Builds the message to log from the values.
+     * @param t Can be null. Will log stack trace if not null.
+     */
+    public static <A, B> void log(Key key, Logger logger, Level level, long timeBetweenLogs, String sourceName,
+    		A arg1, B arg2, BiFunction<? super A, ? super B, String> message, Throwable t) {
+        if (!logger.isLoggable(level))
+            return;
+
+        int count = take(key, clock.getAsLong(), timeBetweenLogs);
+        if (count > 0)
+            log(logger, level, format(count, sourceName, message.apply(arg1, arg2)), t);
+    }
+
+    /**
+     * Takes the turn of a key to log, unless a message was logged within
+     * <code>timeBetweenLogs</code> of now, in which case the message is counted.
+     * @param key The key of the call site.
+     * @param now The current time (milliseconds).
+     * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+     * @return The number of messages since the last one logged, including this
+     *         one, or 0 if this one is not to be logged.
+     */
+    private static int take(Key key, long now, long timeBetweenLogs) {
+        long last = key.time.get();
+        if ((last != Key.NEVER && now - last < timeBetweenLogs) || !key.time.compareAndSet(last, now)) {
+            // Suppressed, or another thread is logging it right now
+            key.count.incrementAndGet();
+            return 0;
         }
-        return "?";
+
+        return key.count.getAndSet(1);
+    }
+
+    private static String format(int count, String sourceName, String message) {
+        String className = sourceName.substring(sourceName.lastIndexOf(".") + 1, sourceName.length());
+        return "[x" + count + "] " + className + " : " + message;
+    }
+
+    private static String getFileAndLine() {
+        return WALKER.walk(frames -> frames
+        		.filter(f -> !f.getClassName().equals(LogConsolidated.class.getName()))
+        		.findFirst()
+        		.map(f -> f.getFileName() + ":" + f.getLineNumber())
+        		.orElse("?"));
     }       
 
     private static void log(Logger logger, Level level, String message, Throwable t) {
@@ -107,12 +207,25 @@ public class LogConsolidated {
         
     }
 
-    private static class TimeAndCount {
-        protected long time;
-        protected int count;
-        TimeAndCount() {
-            this.time = System.currentTimeMillis();
-            this.count = 1;
+    /**
+     * The suppression state of a call site.
+     */
+    public static final class Key {
+        private static final long NEVER = Long.MIN_VALUE;
+
+        private final String name;
+        /** The time of the last message logged (milliseconds). */
+        private final AtomicLong time = new AtomicLong(NEVER);
+        /** 1 plus the number of messages suppressed since. */
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        private Key(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
         }
     }
-}
\ No newline at end of file
+}
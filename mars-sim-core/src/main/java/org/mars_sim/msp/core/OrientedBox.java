@@ -0,0 +1,198 @@
+/**
+ * Mars Simulation Project
+ * OrientedBox.java
+ * @version 3.1.0 2018-08-26
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The rotated rectangle covered by a local bounded object, with exact
+ * point and intersection tests.
+ * <br>
+ * The rectangle is the intersection of two slabs, one along each of its
+ * axes. Two rectangles intersect unless one of the four axes separates them,
+ * and only overlapping interiors count, as with intersecting areas.
+ * <br>
+ * Within a tiny distance of an edge, e.g. at a hatch between two adjoining
+ * buildings, the result depends on how the corners of the rotated rectangle
+ * are rounded. There the test falls back to the same {@link Area} test as
+ * LocalAreaUtil used to do, so that such points belong to the same building.
+ */
+final class OrientedBox {
+
+    /** The width of the thin rectangle standing for a line path (meters). */
+    private static final double LINE_WIDTH = .001D;
+    /** The distance from an edge within which the exact area test decides (meters). */
+    static final double EDGE_TOLERANCE = 1E-9;
+
+    // Data members
+    private final double width;
+    private final double length;
+    private final double facing;
+    private final double centerX;
+    private final double centerY;
+    /** Unit vector along the width of the box. */
+    private final double ux;
+    private final double uy;
+    /** Unit vector along the length of the box. */
+    private final double vx;
+    private final double vy;
+    private final double halfWidth;
+    private final double halfLength;
+
+    /**
+     * Constructor.
+     * @param xLoc the X location of the center.
+     * @param yLoc the Y location of the center.
+     * @param width the width.
+     * @param length the length.
+     * @param facing the facing (degrees clockwise from North).
+     */
+    OrientedBox(double xLoc, double yLoc, double width, double length, double facing) {
+        // Same rotation as LocalAreaUtil.getPathFromRectangleRotation().
+        AffineTransform at = AffineTransform.getRotateInstance(facing * (Math.PI / 180D));
+        double[] axes = { 1D, 0D, 0D, 1D };
+        at.deltaTransform(axes, 0, axes, 0, 2);
+
+        this.width = width;
+        this.length = length;
+        this.facing = facing;
+        this.centerX = xLoc;
+        this.centerY = yLoc;
+        this.ux = axes[0];
+        this.uy = axes[1];
+        this.vx = axes[2];
+        this.vy = axes[3];
+        this.halfWidth = width / 2D;
+        this.halfLength = length / 2D;
+    }
+
+    /**
+     * Constructor for the box covered by a local bounded object.
+     * @param object the local bounded object.
+     */
+    OrientedBox(LocalBoundedObject object) {
+        this(object.getXLocation(), object.getYLocation(), object.getWidth(), object.getLength(),
+                object.getFacing());
+    }
+
+    /**
+     * Creates the thin box standing for a line path, 1 mm wide as in LocalAreaUtil.
+     * @param line the line.
+     * @return the box.
+     */
+    static OrientedBox createLineBox(Line2D line) {
+        double length = line.getP1().distance(line.getP2());
+        double centerX = (line.getX1() + line.getX2()) / 2D;
+        double centerY = (line.getY1() + line.getY2()) / 2D;
+        double facing = LocalAreaUtil.getDirection(line.getP1(), line.getP2());
+        return new OrientedBox(centerX, centerY, LINE_WIDTH, length, facing);
+    }
+
+    /**
+     * Checks if a point is inside the box.
+     * @param xLoc the X location.
+     * @param yLoc the Y location.
+     * @return true if the point is inside the box.
+     */
+    boolean contains(double xLoc, double yLoc) {
+        double dx = xLoc - centerX;
+        double dy = yLoc - centerY;
+        double gap = Math.max(Math.abs(dx * ux + dy * uy) - halfWidth, Math.abs(dx * vx + dy * vy) - halfLength);
+        if (gap < -EDGE_TOLERANCE) {
+            return true;
+        }
+        else if (gap > EDGE_TOLERANCE) {
+            return false;
+        }
+        return new Area(getPath()).contains(xLoc, yLoc);
+    }
+
+    /**
+     * Checks if the interiors of two boxes overlap.
+     * @param other the other box.
+     * @return true if the boxes intersect.
+     */
+    boolean intersects(OrientedBox other) {
+        double dx = other.centerX - centerX;
+        double dy = other.centerY - centerY;
+        double gap = Math.max(Math.max(getGap(ux, uy, dx, dy, other), getGap(vx, vy, dx, dy, other)),
+                Math.max(getGap(other.ux, other.uy, dx, dy, other), getGap(other.vx, other.vy, dx, dy, other)));
+        if (gap < -EDGE_TOLERANCE) {
+            return true;
+        }
+        else if (gap > EDGE_TOLERANCE) {
+            return false;
+        }
+        Area area = new Area(getPath());
+        area.intersect(new Area(other.getPath()));
+        return !area.isEmpty();
+    }
+
+    /**
+     * Gets the gap between the projections of this box and another on an axis.
+     * @param ax the X component of the axis.
+     * @param ay the Y component of the axis.
+     * @param dx the X offset of the other center.
+     * @param dy the Y offset of the other center.
+     * @param other the other box.
+     * @return the gap, positive if the axis separates the boxes and negative if they overlap on it.
+     */
+    private double getGap(double ax, double ay, double dx, double dy, OrientedBox other) {
+        double distance = Math.abs(dx * ax + dy * ay);
+        return distance - (getRadius(ax, ay) + other.getRadius(ax, ay));
+    }
+
+    /**
+     * Gets the rotated rectangle as a path, as LocalAreaUtil builds it.
+     * @return path.
+     */
+    private Path2D getPath() {
+        Rectangle2D rect = new Rectangle2D.Double(centerX - (width / 2D), centerY - (length / 2D), width,
+                length);
+        return LocalAreaUtil.getPathFromRectangleRotation(rect, facing);
+    }
+
+    /**
+     * Gets half the extent of the box projected on an axis.
+     * @param ax the X component of the axis.
+     * @param ay the Y component of the axis.
+     * @return the projected half extent.
+     */
+    private double getRadius(double ax, double ay) {
+        return halfWidth * Math.abs(ax * ux + ay * uy) + halfLength * Math.abs(ax * vx + ay * vy);
+    }
+
+    /**
+     * Gets the bounding rectangle of the box.
+     * @return bounding rectangle.
+     */
+    Rectangle2D getBounds() {
+        double extentX = halfWidth * Math.abs(ux) + halfLength * Math.abs(vx);
+        double extentY = halfWidth * Math.abs(uy) + halfLength * Math.abs(vy);
+        return new Rectangle2D.Double(centerX - extentX, centerY - extentY, extentX * 2D, extentY * 2D);
+    }
+
+    double getMinX() {
+        return centerX - (halfWidth * Math.abs(ux) + halfLength * Math.abs(vx));
+    }
+
+    double getMaxX() {
+        return centerX + (halfWidth * Math.abs(ux) + halfLength * Math.abs(vx));
+    }
+
+    double getMinY() {
+        return centerY - (halfWidth * Math.abs(uy) + halfLength * Math.abs(vy));
+    }
+
+    double getMaxY() {
+        return centerY + (halfWidth * Math.abs(uy) + halfLength * Math.abs(vy));
+    }
+}
@@ -6,8 +6,11 @@
  */
 package org.mars_sim.msp.core;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 //import it.unimi.dsi.util.XorShift1024StarRandom;
 
@@ -23,7 +26,6 @@ public final class RandomUtil {
 	 * MersenneTwisterFast provides a fast, much "more" random than the linear congruential
 	 * of the java.util.Random
 	 */
-	private final static MersenneTwisterFast random = new MersenneTwisterFast();
 	// Note 1: it is compatible with standard java.util.Randrom's method and require no mapping
 	// See intro at https://cran.r-project.org/web/packages/randtoolbox/vignettes/fullpres.pdf
 
@@ -37,13 +39,160 @@ public final class RandomUtil {
 	// private final static SFMT19937 random = new SFMT19937();
 	// private final static SFMT19937j random = new SFMT19937j();
 
+	/*
+	 * Every generator is split from the master seed : the master stream (0) is
+	 * drawn by the thread running the simulation, and any other thread draws from
+	 * a stream of its own, so no two threads ever share the state of a generator.
+	 */
+
+	/** The seed of the run. */
+	private static long seed = System.nanoTime() ^ System.currentTimeMillis();
+	/** The seed set by the user, or null to start each run from a new one. */
+	private static Long userSeed;
+	/** The master stream. */
+	private static volatile MersenneTwisterFast random = createGenerator(seed, 0L);
+	/** The thread drawing from the master stream. */
+	private static volatile Thread masterThread;
+	/** The next stream handed out to a thread. */
+	private final static AtomicLong nextStream = new AtomicLong(1L);
+
+	/** The streams of the calling thread. */
+	private final static ThreadLocal<Streams> threadStreams = ThreadLocal.withInitial(Streams::new);
+
+	/**
+	 * Sets the seed of the master stream and lets the calling thread draw from it.
+	 * The runs created afterwards start from the same seed.
+	 * @param seed the seed
+	 */
+	public static synchronized void setSeed(long seed) {
+		userSeed = seed;
+		reset(seed);
+	}
+
+	/**
+	 * Gets the seed of the current run.
+	 * @return the seed
+	 */
+	public static long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Starts the master stream of a new run from the seed set by the user, or
+	 * from a new one, and lets the calling thread draw from it.
+	 */
+	static synchronized void startRun() {
+		reset(userSeed != null ? userSeed : System.nanoTime() ^ random.nextLong());
+	}
+
+	/**
+	 * Restores the master stream of a saved run and lets the calling thread draw
+	 * from it.
+	 * @param seed the seed of the run
+	 * @param generator the state of the master stream
+	 */
+	static synchronized void restoreRun(long seed, MersenneTwisterFast generator) {
+		RandomUtil.seed = seed;
+		random = generator;
+		masterThread = Thread.currentThread();
+	}
+
+	/**
+	 * Gets a copy of the state of the master stream, to be saved while the
+	 * simulation is halted.
+	 * @return the copy
+	 */
+	static synchronized MersenneTwisterFast getMasterState() {
+		return (MersenneTwisterFast) random.clone();
+	}
+
+	private static void reset(long seed) {
+		RandomUtil.seed = seed;
+		random = createGenerator(seed, 0L);
+		nextStream.set(1L);
+		masterThread = Thread.currentThread();
+	}
+
+	/**
+	 * Lets the calling thread draw from the master stream. Only one thread does
+	 * at a time, and the thread that had it goes back to a stream of its own.
+	 */
+	public static void claimMasterStream() {
+		Thread t = Thread.currentThread();
+		if (masterThread != t)
+			masterThread = t;
+	}
+
+	/**
+	 * Creates a generator for a stream of the current run. The same stream of
+	 * the same seed always gives the same numbers.
+	 * @param stream the stream
+	 * @return the generator
+	 */
+	public static MersenneTwisterFast createStream(long stream) {
+		return createGenerator(seed, stream);
+	}
+
+	/**
+	 * Creates a generator for a stream split from a seed, using all the bits of
+	 * both.
+	 * @param seed the seed
+	 * @param stream the stream
+	 * @return the generator
+	 */
+	static MersenneTwisterFast createGenerator(long seed, long stream) {
+		return new MersenneTwisterFast(new int[] { (int) seed, (int) (seed >>> 32), (int) stream, (int) (stream >>> 32) });
+	}
+
+	/**
+	 * Sets the generator to be used by the calling thread.
+	 * @param generator the generator or null to go back to the thread's stream
+	 */
+	static void setThreadGenerator(MersenneTwisterFast generator) {
+		threadStreams.get().override = generator;
+	}
+
+	/**
+	 * Gets the generator set for the calling thread.
+	 * @return the generator or null if the thread uses its stream
+	 */
+	static MersenneTwisterFast getThreadGenerator() {
+		return threadStreams.get().override;
+	}
+
+	/**
+	 * Gets the generator for the calling thread.
+	 * @return the thread's generator, the master stream or the thread's stream
+	 */
+	private static MersenneTwisterFast generator() {
+		Streams s = threadStreams.get();
+		if (s.override != null)
+			return s.override;
+		if (s.thread == masterThread)
+			return random;
+		if (s.own == null)
+			s.own = createStream(nextStream.getAndIncrement());
+		return s.own;
+	}
+
+	/**
+	 * The generators of a thread.
+	 */
+	private static final class Streams {
+		private final Thread thread = Thread.currentThread();
+		/** The generator set for the thread, e.g. the one of a settlement partition. */
+		private MersenneTwisterFast override;
+		/** The stream of the thread, created on its first draw. */
+		private MersenneTwisterFast own;
+	}
+
 	/**
 	 * Returns true if given number is less than a random percentage.
 	 * @param randomLimit the random percentage limit
 	 * @return true if random percent is less than percentage limit
 	 */
 	public static boolean lessThanRandPercent(int randomLimit) {
-		int rand = random.nextInt(100) + 1;
+		int rand = generator().nextInt(100) + 1;
 		return rand < randomLimit;
 	}
 
@@ -53,7 +202,7 @@ public final class RandomUtil {
 	 * @return true if random percent is less than percentage limit
 	 */
 	public static boolean lessThanRandPercent(double randomLimit) {
-		double rand = random.nextDouble() * 100D;
+		double rand = generator().nextDouble() * 100D;
 		return rand < randomLimit;
 	}
 
@@ -65,7 +214,7 @@ public final class RandomUtil {
 	 */
 	public static int getRandomInt(int ceiling) {
 		if (ceiling < 0) throw new IllegalArgumentException(Msg.getString("RandomUtil.log.ceilingMustBePositive") + ceiling); //$NON-NLS-1$
-		return random.nextInt(ceiling + 1);
+		return generator().nextInt(ceiling + 1);
 	}
 
 	/**Returns a random int number from a given base number
@@ -76,7 +225,7 @@ public final class RandomUtil {
 	 */
 	public static int getRandomInt(int base, int ceiling) {
 		if (ceiling < base) throw new IllegalArgumentException(Msg.getString("RandomUtil.log.ceilingMustGreaterBase")); //$NON-NLS-1$
-		return random.nextInt(ceiling - base + 1) + base;
+		return generator().nextInt(ceiling - base + 1) + base;
 	}
 
 	/**Returns a random double number from 0
@@ -85,7 +234,15 @@ public final class RandomUtil {
 	 * @return the random number
 	 */
 	public static double getRandomDouble(double ceiling) {
-		return random.nextDouble() * ceiling;
+		return generator().nextDouble() * ceiling;
+	}
+
+	/**
+	 * Returns a random long number.
+	 * @return the random number
+	 */
+	public static long getRandomLong() {
+		return generator().nextLong();
 	}
 
 	/**Returns a random double number under Gaussian ("normally") distributed 
@@ -94,7 +251,19 @@ public final class RandomUtil {
 	 * @return the random number
 	 */
 	public static double getGaussianDouble() {
-		return random.nextGaussian();
+		return generator().nextGaussian();
+	}
+
+	/**
+	 * Randomly permutes a list with the generator of the calling thread, so the
+	 * order replays from the seed like any other draw.
+	 * @param list the list to shuffle
+	 */
+	public static void shuffle(List<?> list) {
+		MersenneTwisterFast generator = generator();
+		for (int i = list.size() - 1; i > 0; i--) {
+			Collections.swap(list, i, generator.nextInt(i + 1));
+		}
 	}
 	
 	/**
@@ -0,0 +1,304 @@
+/**
+ * Mars Simulation Project
+ * SettlementTickEngine.java
+ * @version 3.1.0 2018-08-21
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.equipment.Equipment;
+import org.mars_sim.msp.core.events.HistoricalEventManager;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.ai.task.TaskManager;
+import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.vehicle.Vehicle;
+
+/**
+ * The SettlementTickEngine class is the parallel tick mode of the
+ * {@link UnitManager}. Units are partitioned by their owning settlement
+ * (the settlement itself plus its people, robots, parked vehicles and
+ * equipment) and each partition is ticked on a ForkJoinPool worker.
+ * Units that may touch another settlement (anyone on a mission, vehicles
+ * reserved for a mission or away from home, units outside) are held back
+ * and ticked serially in a barrier phase after all partitions have joined.
+ * <br>
+ * Each partition draws its random numbers from a stream of its own, split
+ * at every tick from a key drawn from the master stream by the identifier
+ * of its settlement, so a run replays the same way no matter how the
+ * workers get scheduled.
+ * <br>
+ * If {@link TaskManager#isParallelEvaluation()}, the task probabilities of
+ * the people of a partition who need a new task are worked out in parallel
+ * before the partition is ticked, each person drawing from a generator of
+ * its own.
+ */
+public class SettlementTickEngine {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(SettlementTickEngine.class.getName());
+
+	/** The number of worker threads. */
+	private int parallelism;
+	/** The pool running the partitions. */
+	private ForkJoinPool pool;
+
+	/** Reusable partitions keyed by owning settlement, in order of first appearance. */
+	private Map<Settlement, Partition> partitions = new HashMap<>();
+	/** The partitions in use for the current tick. */
+	private List<Partition> active = new ArrayList<>();
+	/** Units ticked serially after the barrier. */
+	private List<Unit> barrier = new ArrayList<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism the number of worker threads.
+	 */
+	public SettlementTickEngine(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be at least 1 : " + parallelism);
+		this.parallelism = parallelism;
+		this.pool = new ForkJoinPool(parallelism, p -> {
+			ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			t.setName("tick-worker-" + t.getPoolIndex());
+			t.setDaemon(true);
+			return t;
+		}, null, false);
+		logger.info("Parallel tick mode enabled with " + parallelism + " worker thread(s).");
+	}
+
+	/**
+	 * Gets the number of worker threads.
+	 *
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Notifies all the units that time has passed, one partition per settlement.
+	 *
+	 * @param units the units in the order they are normally ticked.
+	 * @param time  the amount time passing (in millisols)
+	 */
+	void timePassing(Collection<Unit> units, double time) {
+		partition(units);
+
+		// Seed each partition on the clock thread so that the draws do not
+		// depend on the order the workers happen to run in. Likewise the goods
+		// values a settlement reads from the others are the ones before the tick.
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(active.size());
+		long key = RandomUtil.getRandomLong();
+		for (Partition p : active) {
+			p.seed(key);
+			p.settlement.getGoodsManager().publishGoodsValues();
+		}
+
+		// The event listeners are Swing models, so the events registered by the
+		// workers are delivered on the clock thread once they have all joined.
+		HistoricalEventManager eventManager = Simulation.instance().getEventManager();
+		eventManager.holdEvents();
+
+		for (Partition p : active) {
+			tasks.add(pool.submit(p.prepare(time)));
+		}
+
+		RuntimeException failure = null;
+		for (ForkJoinTask<?> task : tasks) {
+			try {
+				task.join();
+			} catch (RuntimeException e) {
+				if (failure == null)
+					failure = e;
+			}
+		}
+
+		eventManager.deliverPendingEvents();
+
+		for (Partition p : active) {
+			p.units.clear();
+		}
+		active.clear();
+
+		if (failure != null) {
+			barrier.clear();
+			throw failure;
+		}
+
+		// Barrier phase : cross-settlement interactions run on the clock thread.
+		for (Unit u : barrier) {
+			UnitManager.timePassing(u, time);
+		}
+		barrier.clear();
+	}
+
+	/**
+	 * Sorts the units into the settlement partitions and the barrier list.
+	 *
+	 * @param units the units
+	 */
+	private void partition(Collection<Unit> units) {
+		for (Unit u : units) {
+			Settlement owner = getLocalOwner(u);
+			if (owner == null) {
+				barrier.add(u);
+			} else {
+				Partition p = partitions.get(owner);
+				if (p == null) {
+					p = new Partition(owner);
+					partitions.put(owner, p);
+				}
+				if (p.units.isEmpty())
+					active.add(p);
+				p.units.add(u);
+			}
+		}
+	}
+
+	/**
+	 * Gets the settlement a unit can safely be ticked with.
+	 *
+	 * @param u the unit
+	 * @return the owning settlement or null if the unit belongs in the barrier phase.
+	 */
+	private static Settlement getLocalOwner(Unit u) {
+		if (u instanceof Settlement)
+			return (Settlement) u;
+
+		Settlement home = null;
+		if (u instanceof Person) {
+			Person p = (Person) u;
+			if (p.getMind() != null && p.getMind().getMission() != null)
+				return null;
+			home = p.getAssociatedSettlement();
+		} else if (u instanceof Robot) {
+			Robot r = (Robot) u;
+			if (r.getBotMind() != null && r.getBotMind().getMission() != null)
+				return null;
+			home = r.getAssociatedSettlement();
+		} else if (u instanceof Vehicle) {
+			Vehicle v = (Vehicle) u;
+			if (v.isReservedForMission())
+				return null;
+			home = v.getAssociatedSettlement();
+		} else if (u instanceof Equipment) {
+			// Equipment doesn't keep track of its settlement, so goes with the one
+			// it is in.
+			Unit top = u.getTopContainerUnit();
+			if (top instanceof Settlement)
+				return (Settlement) top;
+		}
+
+		// Only units physically at home stay in the partition.
+		if (home != null && u.getTopContainerUnit() == home)
+			return home;
+		return null;
+	}
+
+	/**
+	 * Shuts down the worker threads.
+	 */
+	public void destroy() {
+		pool.shutdownNow();
+		for (Settlement s : partitions.keySet()) {
+			if (s.getGoodsManager() != null)
+				s.getGoodsManager().unpublishGoodsValues();
+		}
+		partitions.clear();
+		active.clear();
+		barrier.clear();
+	}
+
+	/**
+	 * Works out in parallel the task probabilities of the people in a settlement
+	 * with no active task. Each person draws from a stream split by its
+	 * identifier, so the outcome doesn't depend on the scheduling either.
+	 *
+	 * @param units the units of the partition
+	 * @param seed  the seed of the generators
+	 */
+	private static void prepareTaskProbabilities(List<Unit> units, long seed) {
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (Unit u : units) {
+			if (u instanceof Person) {
+				Person p = (Person) u;
+				if (p.getMind() != null && p.isInSettlement() && !p.getMind().getTaskManager().hasActiveTask()) {
+					TaskManager manager = p.getMind().getTaskManager();
+					MersenneTwisterFast generator = RandomUtil.createGenerator(seed, p.getIdentifier());
+					tasks.add(ForkJoinTask.adapt(() -> prepareTaskProbabilities(manager, generator)));
+				}
+			}
+		}
+		ForkJoinTask.invokeAll(tasks);
+	}
+
+	/**
+	 * Works out the task probabilities of a person with a given generator.
+	 *
+	 * @param manager   the task manager of the person
+	 * @param generator the generator
+	 */
+	private static void prepareTaskProbabilities(TaskManager manager, MersenneTwisterFast generator) {
+		// The task may run on the thread of the partition, whose generator is put back after.
+		MersenneTwisterFast previous = RandomUtil.getThreadGenerator();
+		RandomUtil.setThreadGenerator(generator);
+		try {
+			manager.prepareTaskProbabilities();
+		} finally {
+			RandomUtil.setThreadGenerator(previous);
+		}
+	}
+
+	/**
+	 * The units of one settlement and the random generator they share.
+	 */
+	private static class Partition implements Runnable {
+
+		private Settlement settlement;
+		private List<Unit> units = new ArrayList<>();
+		private MersenneTwisterFast random;
+		private double time;
+
+		Partition(Settlement settlement) {
+			this.settlement = settlement;
+		}
+
+		void seed(long key) {
+			random = RandomUtil.createGenerator(key, settlement.getIdentifier());
+		}
+
+		Partition prepare(double time) {
+			this.time = time;
+			return this;
+		}
+
+		@Override
+		public void run() {
+			// A worker waiting on the task probabilities may run another partition
+			// meanwhile, so the generator is put back rather than cleared.
+			MersenneTwisterFast previous = RandomUtil.getThreadGenerator();
+			RandomUtil.setThreadGenerator(random);
+			try {
+				if (TaskManager.isParallelEvaluation())
+					prepareTaskProbabilities(units, random.nextLong());
+				for (Unit u : units) {
+					UnitManager.timePassing(u, time);
+				}
+			} finally {
+				RandomUtil.setThreadGenerator(previous);
+			}
+		}
+	}
+}
@@ -6,12 +6,14 @@
  */
 package org.mars_sim.msp.core;
 
+import java.io.BufferedInputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
@@ -21,8 +23,10 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -38,8 +42,11 @@ import org.mars_sim.msp.core.person.health.MedicalManager;
 import org.mars_sim.msp.core.resource.ResourceUtil;
 import org.mars_sim.msp.core.science.ScientificStudyManager;
 import org.mars_sim.msp.core.structure.goods.CreditManager;
+import org.mars_sim.msp.core.time.BatchReport;
 import org.mars_sim.msp.core.time.ClockListener;
 import org.mars_sim.msp.core.time.MasterClock;
+import org.mars_sim.msp.core.time.SubsystemTimer;
+import org.mars_sim.msp.core.time.TickProfiler;
 import org.mars_sim.msp.core.time.SystemDateTime;
 import org.mars_sim.msp.core.time.UpTimer;
 
@@ -47,9 +54,7 @@ import org.mars_sim.msp.core.time.UpTimer;
 //import org.reactfx.util.FxTimer;
 //import org.reactfx.util.Timer;
 
-import org.tukaani.xz.LZMA2Options;
 import org.tukaani.xz.XZInputStream;
-import org.tukaani.xz.XZOutputStream;
 
 //import mikera.gui.Frames;
 //import mikera.gui.JConsole;
@@ -91,8 +96,6 @@ implements ClockListener, Serializable {
     private final static String OS_ARCH = (System.getProperty("os.arch").contains("64") ? "64-bit" : "32-bit");
     /** Default save filename. */
     private final static String DEFAULT_FILE = Msg.getString("Simulation.defaultFile"); //$NON-NLS-1$
-    /** Default temp filename. */
-    private final static String TEMP_FILE = Msg.getString("Simulation.tempFile"); //$NON-NLS-1$
     /** Default save filename extension. */
     private final static String DEFAULT_EXTENSION = Msg.getString("Simulation.defaultFile.extension"); //$NON-NLS-1$
 
@@ -164,6 +167,19 @@ implements ClockListener, Serializable {
     private transient ExecutorService clockExecutor;
     
     private transient ExecutorService simExecutor;
+    /** Writes the autosave snapshots in the background. */
+    private transient ExecutorService saveExecutor;
+    /** Adds up the time spent in each subsystem at the clock pulses. */
+    private transient SubsystemTimer subsystemTimer = new SubsystemTimer();
+    /** The background write of the last autosave snapshot. */
+    private transient volatile Future<?> pendingSave;
+
+    /** True if autosaves are captured in memory and written while the simulation runs. */
+    private volatile boolean snapshotAutosave = true;
+    /** The time the simulation was halted to capture the last autosave snapshot (milliseconds). */
+    private transient volatile long lastCaptureTime;
+    /** The time taken to compress and write the last autosave snapshot (milliseconds). */
+    private transient volatile long lastWriteTime;
 
     
     // Intransient data members (stored in save file)
@@ -282,6 +298,10 @@ implements ClockListener, Serializable {
 
         sim.initialSimulationCreated = true;
 
+        // Draw the new world from a master seed of its own, recorded in the saves.
+        RandomUtil.startRun();
+        logger.config("Creating the new simulation from random seed " + RandomUtil.getSeed());
+
         // Initialize intransient data members.
         sim.initializeIntransientData(timeRatio);
 
@@ -377,6 +397,7 @@ implements ClockListener, Serializable {
 
         masterClock.addClockListener(this);
         masterClock.startClockListenerExecutor();
+        TickProfiler.instance().register();
 
         if (clockExecutor == null || clockExecutor.isShutdown() || clockExecutor.isTerminated()) {
 
@@ -481,37 +502,23 @@ implements ClockListener, Serializable {
 
     private synchronized void readFromFile(File file) throws ClassNotFoundException, IOException {
     	//logger.info("Simulation : running readFromFile()");
-        byte[] buf = new byte[8192];
         ObjectInputStream ois = null;
-        //FileInputStream in = null;
-        FileInputStream in = null;
-        //boolean no_go = false;
+        InputStream in = null;
 
         try {
-        	//System.out.println("Simulation : inside try. starting decompressing");
-            //in = new FileInputStream(file);
-            in = new FileInputStream(file);
-            
-           	// Replace gzip with xz compression (based on LZMA2)
-            
-            // Since XZInputStream does some buffering internally
-            // anyway, BufferedInputStream doesn't seem to be
-            // needed here to improve performance.
-            // in = new BufferedInputStream(in);
-        	XZInputStream xzin = new XZInputStream(in, 256 * 1024);
-            // limit memory usage to 256 MB
-
-            // define a temporary uncompressed file
-            File uncompressed = new File(DEFAULT_DIR, TEMP_FILE);
-            // Decompress a xz compressed file
-            //FileOutputStream fos = new FileOutputStream(uncompressed);
-            FileOutputStream fos = new FileOutputStream(uncompressed);
-
-            int size;
-            while ((size = xzin.read(buf)) != -1)
-            	fos.write(buf, 0, size);
+            if (BlockCompressedInputStream.isBlockCompressed(file)) {
+                // Decompress the blocks in parallel while deserializing.
+                BlockCompressedInputStream bin = new BlockCompressedInputStream(file, NUM_THREADS);
+                logger.info("Reading " + bin.getBlockCount() + " blocks saved in build " + bin.getBuild());
+                in = bin;
+            }
+            else {
+                // Sim files of earlier builds are a single xz stream.
+                // Limit memory usage to 256 MB.
+                in = new BufferedInputStream(new XZInputStream(new FileInputStream(file), 256 * 1024), 64 * 1024);
+            }
 
-            ois = new ObjectInputStream(new FileInputStream(uncompressed));
+            ois = new ObjectInputStream(in);
 
             // Load intransient objects.
             SimulationConfig.setInstance((SimulationConfig) ois.readObject());
@@ -530,15 +537,18 @@ implements ClockListener, Serializable {
             unitManager = (UnitManager) ois.readObject();
             masterClock = (MasterClock) ois.readObject();
 
+            // The sim files of earlier builds end without the random seed of the run.
+            try {
+                long seed = ois.readLong();
+                RandomUtil.restoreRun(seed, (MersenneTwisterFast) ois.readObject());
+                logger.config("Continuing the run of random seed " + seed);
+            } catch (EOFException e) {
+                RandomUtil.startRun();
+                logger.config("No random seed saved. Continuing from random seed " + RandomUtil.getSeed());
+            }
 
-	        if (ois != null) {
-	            ois.close();
-	        }
-            // Close FileInputStream (directly or indirectly via XZInputStream, it doesn't matter).
-            in.close();
-            xzin.close();
-            fos.close();
-            uncompressed.delete();
+	        // Also closes the underlying file.
+	        ois.close();
 
         	// Compute the size of the saved sim
 			fileSize = (file.length() / 1000D);
@@ -607,6 +617,11 @@ implements ClockListener, Serializable {
      */
     public synchronized void saveSimulation(int type, File file) throws IOException {
 //        logger.info("Simulation's saveSimulation() is on " + Thread.currentThread().getName() + " Thread");
+        if (snapshotAutosave && (type == AUTOSAVE_AS_DEFAULT || type == AUTOSAVE)) {
+        	autosaveSnapshot(type);
+        	return;
+        }
+
     	logger.config(Msg.getString("Simulation.log.saveSimTo") + file); //$NON-NLS-1$
     	//System.out.println("file is " + file);
     	
@@ -678,10 +693,7 @@ implements ClockListener, Serializable {
         }
 
         else if (type == AUTOSAVE) {
-            String autosaveFilename = lastSaveStr
-            		+ "_Sol" + masterClock.getMarsClock().getMissionSol()
-            		+ "_r" + BUILD
-            		+ DEFAULT_EXTENSION;
+            String autosaveFilename = getAutosaveFilename();
             file = new File(AUTOSAVE_DIR, autosaveFilename);
             logger.info("Autosaving as " + autosaveFilename);
 
@@ -692,61 +704,19 @@ implements ClockListener, Serializable {
             file.getParentFile().mkdirs();
         }
 
-        ObjectOutputStream oos = null;
-        FileInputStream fis = null;
-        FileOutputStream fos = new FileOutputStream(file);
-        XZOutputStream xzout = null;
-        File uncompressed = null;
+        BlockCompressedOutputStream bout = null;
 
         try {
 
-            // Replace gzip with xz compression (based on LZMA2)
-            // See (1) http://stackoverflow.com/questions/5481487/how-to-use-lzma-sdk-to-compress-decompress-in-java
-            //     (2) http://tukaani.org/xz/xz-javadoc/
+            // Stream the objects straight into blocks compressed in parallel, without a temp file.
+            bout = new BlockCompressedOutputStream(new FileOutputStream(file), VERSION, BUILD, NUM_THREADS);
+            ObjectOutputStream oos = new ObjectOutputStream(bout);
 
-            // STEP 1: combine all objects into one single uncompressed file, namely "default"
-            uncompressed = new File(DEFAULT_DIR, TEMP_FILE);
+            writeObjects(oos);
 
-            // if the default save directory does not exist, create one now
-            if (!uncompressed.getParentFile().exists()) {
-            	uncompressed.getParentFile().mkdirs();
-            }
+            // Compresses the last block and writes the block index.
+            oos.close();
 
-        	oos = new ObjectOutputStream(new FileOutputStream(uncompressed));
-
-            // Store the in-transient objects.
-            oos.writeObject(SimulationConfig.instance());
-    		oos.writeObject(ResourceUtil.getInstance());
-            oos.writeObject(malfunctionFactory);
-            oos.writeObject(mars);
-            oos.writeObject(missionManager);
-            oos.writeObject(medicalManager);
-            oos.writeObject(scientificStudyManager);
-            oos.writeObject(transportManager);
-            oos.writeObject(creditManager);
-            oos.writeObject(eventManager);
-            oos.writeObject(relationshipManager);
-            oos.writeObject(unitManager);
-            oos.writeObject(masterClock);
-
-            oos.flush();
-            //oos.close();
-
-            // STEP 2: convert the uncompressed file into a fis
-            fis = new FileInputStream(uncompressed);
-			LZMA2Options options = new LZMA2Options();
-			// Set to 6. For mid sized archives (>8mb), 7 works better.
-			options.setPreset(6);
-			xzout = new XZOutputStream(fos, options);
-
-			// STEP 3: set up buffer and create outxz and save as a .sim file
-			byte[] buf = new byte[8192];
-			int size;
-			while ((size = fis.read(buf)) != -1)
-			   xzout.write(buf, 0, size);
-
-			xzout.finish();
-			
 	        logger.info("Done saving. Resuming the sim.");
 
 
@@ -755,10 +725,9 @@ implements ClockListener, Serializable {
             logger.log(Level.SEVERE, Msg.getString("Simulation.log.saveError"), e0); //$NON-NLS-1$
             e0.printStackTrace();
             
-	        if (fos != null)
-	        	fos.close();
-	        if (xzout != null)
-	        	xzout.close();
+	        // Leave the file without a block index so it can't be mistaken for a complete save.
+	        if (bout != null)
+	        	bout.abort();
             
             if (type == AUTOSAVE_AS_DEFAULT
             		|| type == SAVE_DEFAULT) {
@@ -776,10 +745,9 @@ implements ClockListener, Serializable {
             logger.log(Level.SEVERE, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
             e.printStackTrace();
             
-	        if (fos != null)
-	        	fos.close();
-	        if (xzout != null)
-	        	xzout.close();
+	        // Leave the file without a block index so it can't be mistaken for a complete save.
+	        if (bout != null)
+	        	bout.abort();
             
             if (type == AUTOSAVE_AS_DEFAULT
             		|| type == SAVE_DEFAULT) {
@@ -795,39 +763,233 @@ implements ClockListener, Serializable {
         }
         
         finally {
-			uncompressed = null;			
-	        //uncompressed.delete(); // cannot be deleted;
-
-	        //fis.close(); // fis closed automatically
-	        //fos.close(); // fos closed automatically
-	        if (oos != null)
-	            oos.close();
-	        
-	        if (xzout != null)
-	        	xzout.close();
+	        if (bout != null)
+	        	bout.abort();
    
 	        sim.proceed();
 
 	     	justSaved = true;
 	     	
-			// Check if it was previously on pause
-			boolean now = masterClock.isPaused();
-			if (!previous) {
-				if (now) {
-					masterClock.setPaused(false, false);
-		    		//System.out.println("previous is false. now is true. Unpaused sim");
-				}
-			} else {
-				if (!now) {
-					masterClock.setPaused(false, false);
-		    		//System.out.println("previous is true. now is false. Unpaused sim");
-				}
+	     	restorePause(previous);
+        }
+
+
+    }
+
+    /**
+     * Writes the in-transient objects of the simulation.
+     * @param oos the object output stream.
+     * @throws IOException if the objects can't be written.
+     */
+    private void writeObjects(ObjectOutputStream oos) throws IOException {
+        oos.writeObject(SimulationConfig.instance());
+		oos.writeObject(ResourceUtil.getInstance());
+        oos.writeObject(malfunctionFactory);
+        oos.writeObject(mars);
+        oos.writeObject(missionManager);
+        oos.writeObject(medicalManager);
+        oos.writeObject(scientificStudyManager);
+        oos.writeObject(transportManager);
+        oos.writeObject(creditManager);
+        oos.writeObject(eventManager);
+        oos.writeObject(relationshipManager);
+        oos.writeObject(unitManager);
+        oos.writeObject(masterClock);
+        // The seed and the master random stream, so the run can be replayed or continued exactly.
+        oos.writeLong(RandomUtil.getSeed());
+        oos.writeObject(RandomUtil.getMasterState());
+    }
+
+    /**
+     * Restores the pause state of the master clock after a save.
+     * @param previous true if the clock was paused before the save.
+     */
+    private void restorePause(boolean previous) {
+		// Check if it was previously on pause
+		boolean now = masterClock.isPaused();
+		if (!previous) {
+			if (now) {
+				masterClock.setPaused(false, false);
 			}
-			
-			
+		} else {
+			if (!now) {
+				masterClock.setPaused(false, false);
+			}
+		}
+    }
+
+    /**
+     * Gets the name of a new autosave file.
+     * @return file name.
+     */
+    private String getAutosaveFilename() {
+        return lastSaveStr
+        		+ "_Sol" + masterClock.getMarsClock().getMissionSol()
+        		+ "_r" + BUILD
+        		+ DEFAULT_EXTENSION;
+    }
+
+    /**
+     * Autosaves the simulation without keeping the clock halted while the file is written.
+     * The clock is halted at a tick boundary only while the objects are serialized into
+     * memory. The snapshot is then compressed and written on a background thread while
+     * the clock keeps pulsing. The file appears under its name once complete, so that a
+     * failed write leaves the previous save in place.
+     * @param type AUTOSAVE_AS_DEFAULT or AUTOSAVE.
+     */
+    private void autosaveSnapshot(int type) {
+
+        Future<?> pending = pendingSave;
+        if (pending != null && !pending.isDone()) {
+            logger.warning("The previous autosave is still being written. Skipping this autosave.");
+            return;
+        }
+
+		boolean previous = masterClock.isPaused();
+		if (!previous) {
+			masterClock.setPaused(true, false);
+		}
+
+        long start = System.nanoTime();
+        halt();
+
+        SnapshotBuffer snapshot = new SnapshotBuffer(BlockCompressedOutputStream.DEFAULT_BLOCK_SIZE);
+        File file = null;
+        try {
+            // Let the listeners finish the pulses already fired, so the state is the one of a tick boundary.
+            masterClock.awaitClockListeners(10_000L);
+
+        	lastSaveStr = new SystemDateTime().getDateTimeStr();
+        	changed = true;
+
+            if (type == AUTOSAVE_AS_DEFAULT) {
+            	file = new File(DEFAULT_DIR, DEFAULT_FILE + DEFAULT_EXTENSION);
+            }
+            else {
+                file = new File(AUTOSAVE_DIR, getAutosaveFilename());
+            }
+
+            try (ObjectOutputStream oos = new ObjectOutputStream(snapshot)) {
+                writeObjects(oos);
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
+            file = null;
+        } finally {
+            proceed();
+	     	restorePause(previous);
         }
 
+        lastCaptureTime = (System.nanoTime() - start) / 1_000_000L;
+        if (file == null) {
+            return;
+        }
+        logger.info("Captured a snapshot of " + Math.round(snapshot.size() / 1024D / 1024D * 100D) / 100D
+        		+ " MB in " + lastCaptureTime + " ms. Autosaving as " + file.getName() + " in the background.");
+
+        if (saveExecutor == null) {
+            saveExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "autosave-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        File target = file;
+        pendingSave = saveExecutor.submit(() -> writeSnapshot(snapshot, target, type == AUTOSAVE_AS_DEFAULT));
+    }
+
+    /**
+     * Compresses a snapshot to a file. Called on the autosave writer thread.
+     * @param snapshot the serialized simulation.
+     * @param file the file.
+     * @param backup true if an existing file is kept as previous.sim.
+     */
+    private void writeSnapshot(SnapshotBuffer snapshot, File file, boolean backup) {
+
+        long start = System.nanoTime();
+        File partFile = new File(file.getParentFile(), file.getName() + ".part");
+        BlockCompressedOutputStream bout = null;
+        try {
+            if (!file.getParentFile().exists()) {
+                file.getParentFile().mkdirs();
+            }
 
+            bout = new BlockCompressedOutputStream(new FileOutputStream(partFile), VERSION, BUILD, NUM_THREADS);
+            snapshot.writeTo(bout);
+            bout.close();
+            bout = null;
+
+            if (backup && file.exists() && !file.isDirectory()) {
+                File backupFile = new File(DEFAULT_DIR, "previous" + DEFAULT_EXTENSION);
+                Files.move(file.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            lastWriteTime = (System.nanoTime() - start) / 1_000_000L;
+            justSaved = true;
+            logger.info("Done autosaving " + file.getName() + " in " + lastWriteTime
+            		+ " ms, after halting the simulation for " + lastCaptureTime + " ms.");
+
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
+            try {
+                if (bout != null) {
+                    bout.abort();
+                }
+                Files.deleteIfExists(partFile.toPath());
+            } catch (IOException e1) {
+                logger.log(Level.WARNING, "Could not remove " + partFile, e1);
+            }
+        }
+    }
+
+    /**
+     * Waits for the autosave being written in the background, if any.
+     */
+    public void awaitPendingSave() {
+        Future<?> pending = pendingSave;
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.log(Level.SEVERE, Msg.getString("Simulation.log.saveError"), e.getCause()); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Checks if autosaves are captured in memory and written while the simulation runs.
+     * @return true if autosaves don't halt the simulation while being written.
+     */
+    public boolean isSnapshotAutosave() {
+        return snapshotAutosave;
+    }
+
+    /**
+     * Sets if autosaves are captured in memory and written while the simulation runs,
+     * rather than written with the simulation halted as manual saves are.
+     * @param value true to write autosaves in the background.
+     */
+    public void setSnapshotAutosave(boolean value) {
+        snapshotAutosave = value;
+    }
+
+    /**
+     * Gets the time the simulation was halted to capture the last autosave.
+     * @return capture time (milliseconds).
+     */
+    public long getLastCaptureTime() {
+        return lastCaptureTime;
+    }
+
+    /**
+     * Gets the time taken to compress and write the last autosave in the background.
+     * @return write time (milliseconds).
+     */
+    public long getLastWriteTime() {
+        return lastWriteTime;
     }
 
 
@@ -835,6 +997,7 @@ implements ClockListener, Serializable {
      * Ends the current simulation
      */
     public void endSimulation() {
+        awaitPendingSave();
         instance().defaultLoad = false;
         instance().stop();
         masterClock.endClockListenerExecutor();
@@ -1184,6 +1347,8 @@ implements ClockListener, Serializable {
     public void clockPulse(double time) {
 		//logger.info("Simulation's clockPulse() is in " + Thread.currentThread().getName() + " Thread");
 		// it's in pool-4-thread-1 Thread
+		// The thread running the simulation draws from the master random stream.
+		RandomUtil.claimMasterStream();
         //UpTimer ut = null;
         //if (masterClock != null)
         //	ut = masterClock.getUpTimer();
@@ -1201,7 +1366,9 @@ implements ClockListener, Serializable {
                                 )
                         );
             }
+            long t = System.nanoTime();
             mars.timePassing(time);
+            t = subsystemTimer.record("Mars", t);
             ut.updateTime();
 
             if (debug) {
@@ -1213,7 +1380,9 @@ implements ClockListener, Serializable {
                                 )
                         );
             }
+            t = System.nanoTime();
             missionManager.timePassing(time);
+            t = subsystemTimer.record("Missions", t);
             ut.updateTime();
 
             if (debug) {
@@ -1225,7 +1394,9 @@ implements ClockListener, Serializable {
                                 )
                         );
             }
+            t = System.nanoTime();
             unitManager.timePassing(time);
+            t = subsystemTimer.record("Units", t);
             ut.updateTime();
 
             if (debug) {
@@ -1237,7 +1408,9 @@ implements ClockListener, Serializable {
                                 )
                         );
             }
+            t = System.nanoTime();
             scientificStudyManager.updateStudies();
+            t = subsystemTimer.record("Scientific studies", t);
             ut.updateTime();
 
 
@@ -1250,16 +1423,44 @@ implements ClockListener, Serializable {
                                 )
                         );
             }
+            t = System.nanoTime();
             transportManager.timePassing(time);
+            subsystemTimer.record("Transport", t);
+
+            TickProfiler.instance().checkLogDump();
 
         }
     }
 
+    /**
+     * Runs the simulation as fast as possible for a number of sols in fixed steps on the
+     * calling thread, instead of starting the master clock thread.
+     * @param sols the number of sols to run.
+     * @param step the length of a clock pulse (millisols).
+     * @return the throughput report of the run.
+     */
+    public BatchReport runBatch(double sols, double step) {
+        masterClock.addClockListener(this);
+        TickProfiler.instance().register();
+	    ut = masterClock.getUpTimer();
+	    subsystemTimer.reset();
+	    logger.info("Running " + sols + " sols in steps of " + step + " millisols as fast as possible.");
+        return masterClock.runBatch(sols, step);
+    }
+
+    /**
+     * Gets the timer of the subsystems updated at each clock pulse.
+     * @return subsystem timer.
+     */
+    public SubsystemTimer getSubsystemTimer() {
+    	return subsystemTimer;
+    }
+
     
 	@Override
 	public void uiPulse(double time) {
-		// TODO Auto-generated method stub
-		
+		// Deliver the unit events of the pulses since the last one in a batch.
+		UnitEventBus.instance().drain();
 	}
 	
     @Override
@@ -1276,6 +1477,8 @@ implements ClockListener, Serializable {
 
 		autosaveService = null;
 
+		UnitEventBus.instance().clear();
+
         if (malfunctionFactory != null) {
             malfunctionFactory.destroy();
             malfunctionFactory = null;
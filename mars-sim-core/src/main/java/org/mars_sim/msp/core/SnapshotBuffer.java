@@ -0,0 +1,94 @@
+/**
+ * Mars Simulation Project
+ * SnapshotBuffer.java
+ * @version 3.1.0 2018-08-28
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-memory output stream holding a serialized snapshot of the simulation
+ * in fixed size chunks, so that a large snapshot is never copied to grow an
+ * array and can be handed to another thread to be written out.
+ */
+final class SnapshotBuffer extends OutputStream {
+
+    // Data members
+    private final int chunkSize;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] current;
+    private int count;
+    private long size;
+
+    /**
+     * Constructor.
+     * @param chunkSize the size of a chunk (bytes).
+     */
+    SnapshotBuffer(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive : " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void write(int b) {
+        if ((current == null) || (count == chunkSize)) {
+            nextChunk();
+        }
+        current[count++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            if ((current == null) || (count == chunkSize)) {
+                nextChunk();
+            }
+            int length = Math.min(len, chunkSize - count);
+            System.arraycopy(b, off, current, count, length);
+            count += length;
+            off += length;
+            len -= length;
+            size += length;
+        }
+    }
+
+    private void nextChunk() {
+        current = new byte[chunkSize];
+        chunks.add(current);
+        count = 0;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     * @return size (bytes).
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Writes the snapshot to an output stream, releasing each chunk once
+     * written. The buffer is empty afterwards.
+     * @param out the output stream.
+     * @throws IOException if the output stream fails.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        int last = chunks.size() - 1;
+        for (int x = 0; x <= last; x++) {
+            byte[] chunk = chunks.set(x, null);
+            out.write(chunk, 0, (x == last) ? count : chunkSize);
+        }
+        chunks.clear();
+        current = null;
+        count = 0;
+        size = 0L;
+    }
+}
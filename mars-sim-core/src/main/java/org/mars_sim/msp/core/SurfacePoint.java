@@ -0,0 +1,226 @@
+/**
+ * Mars Simulation Project
+ * SurfacePoint.java
+ * @version 3.1.0 2018-09-12
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.io.Serializable;
+
+import org.mars_sim.msp.core.mars.Mars;
+
+/**
+ * An immutable location on the surface of Mars, in the same spherical
+ * coordinates as {@link Coordinates}, carrying the sine and cosine of its
+ * angles so that the distance and direction to another point take no
+ * trigonometric call but the final arc tangent.<br/>
+ * The static kernels work on the primitive sines and cosines, so a caller
+ * holding them in arrays needs no object at all. Latitude terms follow from
+ * phi being measured from the north pole : sin(lat) = cos(phi) and
+ * cos(lat) = sin(phi).
+ */
+public final class SurfacePoint implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	private static final double TWO_PI = Math.PI * 2D;
+
+	/** Phi, the angle from the north pole in (0 - PI) radians. */
+	private final double phi;
+	/** Theta, the longitude in (0 - 2PI) radians. */
+	private final double theta;
+	private final double sinPhi;
+	private final double cosPhi;
+	private final double sinTheta;
+	private final double cosTheta;
+
+	/**
+	 * Constructor. Phi is clamped to (0 - PI) and theta wrapped into (0 - 2PI)
+	 * as in {@link Coordinates}.
+	 * @param phi the phi angle
+	 * @param theta the theta angle
+	 */
+	public SurfacePoint(double phi, double theta) {
+		this.phi = clampPhi(phi);
+		this.theta = wrapTheta(theta);
+		sinPhi = sinPhi(this.phi);
+		cosPhi = cosPhi(this.phi);
+		sinTheta = Math.sin(this.theta);
+		cosTheta = Math.cos(this.theta);
+	}
+
+	/**
+	 * Constructor from angles already normalized and their sines and cosines.
+	 */
+	SurfacePoint(double phi, double theta, double sinPhi, double cosPhi, double sinTheta, double cosTheta) {
+		this.phi = phi;
+		this.theta = theta;
+		this.sinPhi = sinPhi;
+		this.cosPhi = cosPhi;
+		this.sinTheta = sinTheta;
+		this.cosTheta = cosTheta;
+	}
+
+	/**
+	 * Clamps a phi angle to (0 - PI).
+	 * @param phi the angle
+	 * @return the clamped angle
+	 */
+	static double clampPhi(double phi) {
+		if (phi <= 0D)
+			return 0D;
+		if (phi > Math.PI)
+			return Math.PI;
+		return phi;
+	}
+
+	/**
+	 * Computes the sine of phi as the cosine of the latitude, which is exact
+	 * on the equator where the kernels need it.
+	 * @param phi the angle
+	 * @return the sine
+	 */
+	static double sinPhi(double phi) {
+		return Math.cos((Math.PI / 2D) - phi);
+	}
+
+	/**
+	 * Computes the cosine of phi as the sine of the latitude, which is 0 on
+	 * the equator rather than a rounding error.
+	 * @param phi the angle
+	 * @return the cosine
+	 */
+	static double cosPhi(double phi) {
+		return Math.sin((Math.PI / 2D) - phi);
+	}
+
+	/**
+	 * Wraps a theta angle into (0 - 2PI).
+	 * @param theta the angle
+	 * @return the wrapped angle
+	 */
+	static double wrapTheta(double theta) {
+		while (theta < 0D) theta += TWO_PI;
+		while (theta > TWO_PI) theta -= TWO_PI;
+		return theta;
+	}
+
+	public double getPhi() {
+		return phi;
+	}
+
+	public double getTheta() {
+		return theta;
+	}
+
+	public double getSinPhi() {
+		return sinPhi;
+	}
+
+	public double getCosPhi() {
+		return cosPhi;
+	}
+
+	public double getSinTheta() {
+		return sinTheta;
+	}
+
+	public double getCosTheta() {
+		return cosTheta;
+	}
+
+	/**
+	 * Gets the arc angle to another point.
+	 * @param other the other point
+	 * @return the arc angle (radians)
+	 */
+	public double getAngle(SurfacePoint other) {
+		return angle(sinPhi, cosPhi, sinTheta, cosTheta, other.sinPhi, other.cosPhi, other.sinTheta, other.cosTheta);
+	}
+
+	/**
+	 * Gets the distance to another point.
+	 * @param other the other point
+	 * @return the distance (km)
+	 */
+	public double getDistance(SurfacePoint other) {
+		return Mars.MARS_RADIUS_KM * getAngle(other);
+	}
+
+	/**
+	 * Gets the direction to another point, 0 being north (clockwise).
+	 * @param other the other point
+	 * @return the direction (radians), between -PI and PI
+	 */
+	public double getDirectionTo(SurfacePoint other) {
+		return direction(sinPhi, cosPhi, sinTheta, cosTheta, other.sinPhi, other.cosPhi, other.sinTheta, other.cosTheta);
+	}
+
+	/**
+	 * Gets the distances to an array of points.
+	 * @param points the points
+	 * @param distances the array the distances (km) are put in, at least as long as points
+	 */
+	public void getDistances(SurfacePoint[] points, double[] distances) {
+		for (int i = 0; i < points.length; i++) {
+			SurfacePoint p = points[i];
+			distances[i] = Mars.MARS_RADIUS_KM
+					* angle(sinPhi, cosPhi, sinTheta, cosTheta, p.sinPhi, p.cosPhi, p.sinTheta, p.cosTheta);
+		}
+	}
+
+	/**
+	 * Computes the arc angle between two points with Vincenty's formula.
+	 * http://en.wikipedia.org/wiki/Vincenty%27s_formulae
+	 * The sine of the longitude difference is only used squared, so its sign
+	 * doesn't matter.
+	 * @return the arc angle (radians)
+	 */
+	public static double angle(double sinPhi1, double cosPhi1, double sinTheta1, double cosTheta1,
+			double sinPhi2, double cosPhi2, double sinTheta2, double cosTheta2) {
+		double sinDiffTheta = sinTheta2 * cosTheta1 - cosTheta2 * sinTheta1;
+		double cosDiffTheta = cosTheta2 * cosTheta1 + sinTheta2 * sinTheta1;
+
+		double temp1 = sinPhi2 * sinDiffTheta;
+		double temp2 = sinPhi1 * cosPhi2 - cosPhi1 * sinPhi2 * cosDiffTheta;
+		double y = Math.sqrt(temp1 * temp1 + temp2 * temp2);
+		double x = cosPhi1 * cosPhi2 + sinPhi1 * sinPhi2 * cosDiffTheta;
+		return Math.atan2(y, x);
+	}
+
+	/**
+	 * Computes the initial direction from a point to another, 0 being north
+	 * (clockwise).
+	 * @return the direction (radians), between -PI and PI
+	 */
+	public static double direction(double sinPhi1, double cosPhi1, double sinTheta1, double cosTheta1,
+			double sinPhi2, double cosPhi2, double sinTheta2, double cosTheta2) {
+		double sinDiffTheta = sinTheta2 * cosTheta1 - cosTheta2 * sinTheta1;
+		double cosDiffTheta = cosTheta2 * cosTheta1 + sinTheta2 * sinTheta1;
+
+		double y = sinDiffTheta * sinPhi2;
+		double x = sinPhi1 * cosPhi2 - cosPhi1 * sinPhi2 * cosDiffTheta;
+		return Math.atan2(y, x);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof SurfacePoint) {
+			SurfacePoint other = (SurfacePoint) o;
+			return phi == other.phi && theta == other.theta;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Double.hashCode(phi) * 31 + Double.hashCode(theta);
+	}
+
+	@Override
+	public String toString() {
+		return Coordinates.getFormattedLatitudeString(phi) + " " + Coordinates.getFormattedLongitudeString(theta);
+	}
+}
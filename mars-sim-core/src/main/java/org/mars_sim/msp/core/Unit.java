@@ -7,9 +7,8 @@
 package org.mars_sim.msp.core;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -68,6 +67,8 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 
 	/** Unit listeners. */
 	private transient List<UnitListener> listeners;// = Collections.synchronizedList(new ArrayList<UnitListener>());
+	/** The events of this unit waiting for delivery by the unit event bus. */
+	private transient volatile UnitEventBus.PendingEvents pendingEvents;
 
 	/**
 	 * Must be synchronised to prevent duplicate ids being assigned via different
@@ -79,6 +80,17 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 		return unitIdentifer++;
 	}
 
+	/**
+	 * Makes sure identifiers handed out from now on are greater than the given
+	 * one. Needed after loading a saved sim since the counter is not saved.
+	 * 
+	 * @param id an identifier already in use
+	 */
+	static synchronized void reserveIdentifier(int id) {
+		if (unitIdentifer <= id)
+			unitIdentifer = id + 1;
+	}
+
 	/**
 	 * Constructor.
 	 * 
@@ -86,7 +98,7 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 	 * @param location {@link Coordinates} the unit's location
 	 */
 	public Unit(String name, Coordinates location) {
-		listeners = Collections.synchronizedList(new ArrayList<UnitListener>()); // Unit listeners.
+		listeners = new CopyOnWriteArrayList<UnitListener>(); // Unit listeners.
 
 		this.identifier = getNextIdentifier();
 
@@ -256,6 +268,11 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 	 */
 	public void setCoordinates(Coordinates newLocation) {
 		// if (location == null) location = new Coordinates(0D, 0D);
+		if ((this instanceof LocalBoundedObject) && !location.equals(newLocation)) {
+			// Obstacles are indexed by location.
+			LocalAreaUtil.clearObstacleCache(location);
+			LocalAreaUtil.clearObstacleCache(newLocation);
+		}
 		location.setCoords(newLocation);
 		inventory.setCoordinates(newLocation);
 		fireUnitUpdate(UnitEventType.LOCATION_EVENT, newLocation);
@@ -506,7 +523,7 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 		if (newListener == null)
 			throw new IllegalArgumentException();
 		if (listeners == null)
-			listeners = Collections.synchronizedList(new ArrayList<UnitListener>());
+			listeners = new CopyOnWriteArrayList<UnitListener>();
 
 		if (!listeners.contains(newListener)) {
 			listeners.add(newListener);
@@ -531,7 +548,7 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 			throw new IllegalArgumentException();
 
 		if (listeners == null) {
-			listeners = Collections.synchronizedList(new ArrayList<UnitListener>());
+			listeners = new CopyOnWriteArrayList<UnitListener>();
 		}
 		if (listeners.size() < 1)
 			return;
@@ -557,21 +574,36 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 		// logger.info("Unit's fireUnitUpdate() is on " +
 		// Thread.currentThread().getName() + " Thread");
 
-		if (listeners == null || listeners.size() < 1) {
-			// listeners = Collections.synchronizedList(new ArrayList<UnitListener>());
+		// Subscribers of the event bus get it with the next ui pulse.
+		UnitEventBus.instance().publish(this, updateType, target);
+
+		List<UnitListener> list = listeners;
+		if (list == null || list.isEmpty()) {
 			// we don't do anything if there's no listeners attached
 			return;
 		}
 		final UnitEvent ue = new UnitEvent(this, updateType, target);
-		synchronized (listeners) {
-			// Iterator<UnitListener> i = listeners.iterator();
-			// while (i.hasNext()) {
-			// i.next().unitUpdate(ue);
-			// }
-			for (UnitListener u : listeners) {
-				u.unitUpdate(ue);
+		// The copy on write list is iterated without a lock.
+		for (UnitListener u : list) {
+			u.unitUpdate(ue);
+		}
+	}
+
+	/**
+	 * Gets the events of this unit waiting for delivery by the unit event bus.
+	 * 
+	 * @return pending events.
+	 */
+	UnitEventBus.PendingEvents getPendingEvents() {
+		UnitEventBus.PendingEvents result = pendingEvents;
+		if (result == null) {
+			synchronized (this) {
+				if (pendingEvents == null)
+					pendingEvents = new UnitEventBus.PendingEvents();
+				result = pendingEvents;
 			}
 		}
+		return result;
 	}
 
 	/**
@@ -586,6 +618,18 @@ public abstract class Unit implements Serializable, Comparable<Unit> {
 		return name.compareToIgnoreCase(o.name);
 	}
 
+	/**
+	 * Gets the hash code of the unit from its identifier rather than its identity,
+	 * so hashed collections of units iterate in the same order on any thread.
+	 * Units stay equal only to themselves.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return identifier;
+	}
+
 	public LocationSituation getLocationSituation() {
 		return null;
 	}
@@ -0,0 +1,397 @@
+/**
+ * Mars Simulation Project
+ * UnitEventBus.java
+ * @version 3.1.0 2018-09-01
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers unit events to subscribers in batches, once per ui pulse, instead of
+ * calling every unit listener at once.
+ * <br>
+ * A subscriber only receives the event types it subscribed to, and firing an
+ * event of a type no one subscribed to costs a single array read. Otherwise the
+ * type is flagged as pending on the unit, and the unit is put in a lock free
+ * ring buffer the first time one of its types is flagged. A type fired again
+ * before the next delivery only adds its target, so a subscriber gets at most
+ * one event per unit, type and distinct target in each batch. A null target
+ * stands for the whole unit and takes the place of all the others. Firing an
+ * event allocates nothing once the unit has fired its first one, unless its
+ * target is a new one for the batch.
+ */
+public class UnitEventBus {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(UnitEventBus.class.getName());
+
+	/**
+	 * The default number of units the ring buffer holds. A unit is only in the
+	 * buffer once, so this is the number of units that may have events pending.
+	 */
+	private static final int DEFAULT_CAPACITY = 1 << 14;
+
+	private static final UnitEventType[] TYPES = UnitEventType.values();
+
+	/** The pending targets of a type with no event pending. */
+	private static final Object NONE = new Object();
+	/** The pending targets of a type fired with a null target. */
+	private static final Object ALL = new Object();
+
+	private static final UnitEventBus instance = new UnitEventBus(DEFAULT_CAPACITY);
+
+	// Data members
+	/** The number of subscriptions to each event type. */
+	private final AtomicIntegerArray interest = new AtomicIntegerArray(TYPES.length);
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	/** The units with events pending. */
+	private final AtomicReferenceArray<Unit> ring;
+	private final int mask;
+	/** The next slot to fill, claimed by the firing threads. */
+	private final AtomicLong tail = new AtomicLong();
+	/** The next slot to drain. Only the draining thread writes it. */
+	private volatile long head;
+	/** The number of units dropped because the ring buffer was full. */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/** The events delivered in the current batch, reused. */
+	private final List<UnitEvent> batch = new ArrayList<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity the number of units the ring buffer holds, rounded up to a
+	 *                 power of two.
+	 */
+	UnitEventBus(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive : " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		ring = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Gets the unit event bus.
+	 *
+	 * @return bus.
+	 */
+	public static UnitEventBus instance() {
+		return instance;
+	}
+
+	/**
+	 * Subscribes to unit events.
+	 *
+	 * @param subscriber the subscriber.
+	 * @param types      the event types to receive.
+	 * @return the subscription, to cancel when no longer interested.
+	 */
+	public Subscription subscribe(UnitEventSubscriber subscriber, UnitEventType... types) {
+		if (subscriber == null || types == null || types.length == 0)
+			throw new IllegalArgumentException("A subscriber and at least one event type are needed");
+
+		Subscription subscription = new Subscription(subscriber, types);
+		subscriptions.add(subscription);
+		for (int x = 0; x < TYPES.length; x++) {
+			if (subscription.types[x])
+				interest.incrementAndGet(x);
+		}
+		return subscription;
+	}
+
+	/**
+	 * Checks if an event type has any subscriber.
+	 *
+	 * @param type the event type.
+	 * @return true if subscribed to.
+	 */
+	public boolean isSubscribed(UnitEventType type) {
+		return interest.get(type.ordinal()) > 0;
+	}
+
+	/**
+	 * Publishes a unit event for delivery with the next batch. Does nothing if no
+	 * one subscribed to its type. Safe to call from several threads.
+	 *
+	 * @param unit   the unit.
+	 * @param type   the event type.
+	 * @param target the event target object or null if none.
+	 */
+	void publish(Unit unit, UnitEventType type, Object target) {
+		int ordinal = type.ordinal();
+		if (interest.get(ordinal) == 0)
+			return;
+
+		PendingEvents pending = unit.getPendingEvents();
+		pending.addTarget(ordinal, target);
+		pending.flag(ordinal);
+		if (pending.queued.compareAndSet(false, true) && !offer(unit)) {
+			// Try again with the next event of the unit.
+			pending.queued.set(false);
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Puts a unit in the ring buffer.
+	 *
+	 * @param unit the unit.
+	 * @return false if the buffer is full.
+	 */
+	private boolean offer(Unit unit) {
+		long slot;
+		do {
+			slot = tail.get();
+			if (slot - head > mask)
+				return false;
+		} while (!tail.compareAndSet(slot, slot + 1));
+		ring.set((int) (slot & mask), unit);
+		return true;
+	}
+
+	/**
+	 * Delivers the pending events to the subscribers, one batch each. Called once
+	 * per ui pulse. Must not be called from several threads at once.
+	 */
+	public void drain() {
+		long next = head;
+		while (true) {
+			int index = (int) (next & mask);
+			Unit unit = ring.get(index);
+			if (unit == null) {
+				// Empty, or the slot is claimed but not filled yet.
+				break;
+			}
+			ring.set(index, null);
+			head = ++next;
+			collect(unit);
+		}
+
+		if (batch.isEmpty())
+			return;
+
+		List<UnitEvent> events = new ArrayList<>(batch.size());
+		for (Subscription subscription : subscriptions) {
+			events.clear();
+			for (UnitEvent event : batch) {
+				if (subscription.types[event.getType().ordinal()])
+					events.add(event);
+			}
+			if (!events.isEmpty() && !subscription.cancelled) {
+				try {
+					subscription.subscriber.unitUpdates(events);
+				} catch (RuntimeException e) {
+					logger.log(Level.SEVERE, "Unit event delivery failed for " + subscription.subscriber, e);
+				}
+			}
+		}
+		batch.clear();
+	}
+
+	/**
+	 * Turns the pending events of a unit into the events of the batch.
+	 *
+	 * @param unit the unit.
+	 */
+	private void collect(Unit unit) {
+		PendingEvents pending = unit.getPendingEvents();
+		// Events flagged from now on queue the unit again.
+		pending.queued.set(false);
+		for (int word = 0; word < pending.flags.length(); word++) {
+			long bits = pending.flags.getAndSet(word, 0L);
+			while (bits != 0L) {
+				int bit = Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1L;
+				int ordinal = word * Long.SIZE + bit;
+				// The targets may have gone with the batch before the flag was set.
+				Object targets = pending.targets.getAndSet(ordinal, NONE);
+				if (targets == NONE || interest.get(ordinal) == 0)
+					continue;
+				if (targets == ALL)
+					batch.add(new UnitEvent(unit, TYPES[ordinal], null));
+				else if (targets instanceof TargetSet) {
+					for (Object target : ((TargetSet) targets).items)
+						batch.add(new UnitEvent(unit, TYPES[ordinal], target));
+				} else
+					batch.add(new UnitEvent(unit, TYPES[ordinal], targets));
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of times a unit could not be queued because the ring buffer
+	 * was full. Its events are delivered after its next event instead.
+	 *
+	 * @return count.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Discards the pending events, e.g. those of the units of a former simulation.
+	 * Must not be called while events are drained.
+	 */
+	public void clear() {
+		long next = head;
+		long end = tail.get();
+		while (next < end) {
+			int index = (int) (next & mask);
+			Unit unit = ring.getAndSet(index, null);
+			if (unit != null)
+				unit.getPendingEvents().clearAll();
+			next++;
+		}
+		head = next;
+		batch.clear();
+	}
+
+	/**
+	 * A subscription to unit events.
+	 */
+	public final class Subscription {
+
+		private final UnitEventSubscriber subscriber;
+		private final boolean[] types = new boolean[TYPES.length];
+		private volatile boolean cancelled;
+
+		private Subscription(UnitEventSubscriber subscriber, UnitEventType[] types) {
+			this.subscriber = subscriber;
+			for (UnitEventType type : types)
+				this.types[type.ordinal()] = true;
+		}
+
+		/**
+		 * Stops the delivery of events to the subscriber. Does nothing if already
+		 * cancelled.
+		 */
+		public synchronized void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				subscriptions.remove(this);
+				for (int x = 0; x < TYPES.length; x++) {
+					if (types[x])
+						interest.decrementAndGet(x);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The distinct targets of an event type pending on a unit, in the order they
+	 * were fired. Never changed once shared.
+	 */
+	private static final class TargetSet {
+
+		private final Object[] items;
+
+		private TargetSet(Object[] items) {
+			this.items = items;
+		}
+
+		/**
+		 * Gets the targets with one more.
+		 *
+		 * @param pending the pending targets, a single one or a set.
+		 * @param target  the target to add.
+		 * @return the pending targets, the same if the target was in already.
+		 */
+		private static Object add(Object pending, Object target) {
+			if (pending instanceof TargetSet) {
+				Object[] items = ((TargetSet) pending).items;
+				for (Object item : items) {
+					if (item.equals(target))
+						return pending;
+				}
+				Object[] more = Arrays.copyOf(items, items.length + 1);
+				more[items.length] = target;
+				return new TargetSet(more);
+			}
+			if (pending.equals(target))
+				return pending;
+			return new TargetSet(new Object[] { pending, target });
+		}
+	}
+
+	/**
+	 * The event types flagged on a unit since its last delivery, with their
+	 * targets.
+	 */
+	static final class PendingEvents {
+
+		private final AtomicLongArray flags = new AtomicLongArray((TYPES.length + Long.SIZE - 1) / Long.SIZE);
+		/** The targets of each type : NONE, ALL, a single target or a set. */
+		private final AtomicReferenceArray<Object> targets = new AtomicReferenceArray<>(TYPES.length);
+		/** True while the unit is in the ring buffer. */
+		private final AtomicBoolean queued = new AtomicBoolean();
+
+		PendingEvents() {
+			for (int x = 0; x < TYPES.length; x++)
+				targets.set(x, NONE);
+		}
+
+		/**
+		 * Adds a target to the pending ones of an event type.
+		 *
+		 * @param ordinal the ordinal of the event type.
+		 * @param target  the target or null for the whole unit.
+		 */
+		private void addTarget(int ordinal, Object target) {
+			Object current;
+			Object next;
+			do {
+				current = targets.get(ordinal);
+				if (current == ALL)
+					return;
+				if (target == null)
+					next = ALL;
+				else if (current == NONE)
+					next = target;
+				else
+					next = TargetSet.add(current, target);
+				if (next == current)
+					return;
+			} while (!targets.compareAndSet(ordinal, current, next));
+		}
+
+		/**
+		 * Flags an event type as pending.
+		 *
+		 * @param ordinal the ordinal of the event type.
+		 */
+		private void flag(int ordinal) {
+			int word = ordinal / Long.SIZE;
+			long bit = 1L << (ordinal % Long.SIZE);
+			long bits;
+			do {
+				bits = flags.get(word);
+				if ((bits & bit) != 0L)
+					return;
+			} while (!flags.compareAndSet(word, bits, bits | bit));
+		}
+
+		private void clearAll() {
+			for (int word = 0; word < flags.length(); word++)
+				flags.set(word, 0L);
+			for (int x = 0; x < targets.length(); x++)
+				targets.set(x, NONE);
+			queued.set(false);
+		}
+	}
+}
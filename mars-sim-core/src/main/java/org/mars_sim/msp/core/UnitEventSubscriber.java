@@ -0,0 +1,26 @@
+/**
+ * Mars Simulation Project
+ * UnitEventSubscriber.java
+ * @version 3.1.0 2018-09-01
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.util.List;
+
+/**
+ * A subscriber of the {@link UnitEventBus}, receiving the unit events of the
+ * types it subscribed to in batches.
+ */
+public interface UnitEventSubscriber {
+
+	/**
+	 * Catch a batch of unit update events. Called once per ui pulse at most, on the
+	 * thread sending the ui pulses, so a user interface should hand the batch over
+	 * to its own thread in one go.
+	 *
+	 * @param events the unit events, at most one per unit and type. The list is
+	 *               reused for the next batch, so must be copied to be kept.
+	 */
+	public void unitUpdates(List<UnitEvent> events);
+}
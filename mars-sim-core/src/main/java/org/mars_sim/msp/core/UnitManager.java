@@ -6,15 +6,20 @@
  */
 package org.mars_sim.msp.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -52,8 +57,10 @@ import org.mars_sim.msp.core.structure.ChainOfCommand;
 import org.mars_sim.msp.core.structure.Settlement;
 import org.mars_sim.msp.core.structure.SettlementConfig;
 import org.mars_sim.msp.core.structure.SettlementTemplate;
+import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.time.MarsClock;
 import org.mars_sim.msp.core.time.MasterClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 import org.mars_sim.msp.core.vehicle.LightUtilityVehicle;
 import org.mars_sim.msp.core.vehicle.Rover;
 import org.mars_sim.msp.core.vehicle.Vehicle;
@@ -85,10 +92,18 @@ public class UnitManager implements Serializable {
 	private Collection<Unit> units;
 	
 	// Transient members	
+	/** All units by identifier. */
+	private transient Map<Integer, Unit> unitsByID;
+	/** Units by type, in the order they were added. Salvaged vehicles and equipment are left out. */
+	private transient Map<UnitType, List<Unit>> unitsByType;
+	/** Read-only views of unitsByType. */
+	private transient Map<UnitType, Collection<Unit>> unitViews;
 	/** Flag true if the class has just been deserialized */
 	public transient boolean justReloaded = true;
 	/** List of unit manager listeners. */
 	private transient List<UnitManagerListener> listeners;
+	/** The parallel tick engine, or null if ticking serially. */
+	private transient SettlementTickEngine tickEngine;
 	
 	// Static members
 	/** List of possible settlement names. */
@@ -130,6 +145,9 @@ public class UnitManager implements Serializable {
 
 	private static MasterClock masterClock;
 	private static MarsClock marsClock;
+
+	/** The number of worker threads in the parallel tick mode. 0 if units are ticked serially. */
+	private static int tickThreads = 0;
 	
 	/**
 	 * Constructor.
@@ -148,6 +166,7 @@ public class UnitManager implements Serializable {
 		
 		// Initialize unit collection
 		units = new ConcurrentLinkedQueue<Unit>();
+		initializeRegistries();
 		listeners = Collections.synchronizedList(new ArrayList<UnitManagerListener>());
 		equipmentNumberMap = new HashMap<String, Integer>();
 		vehicleNumberMap = new HashMap<String, Integer>();
@@ -318,8 +337,9 @@ public class UnitManager implements Serializable {
 	 *            new unit to add.
 	 */
 	public void addUnit(Unit unit) {
-		if (!units.contains(unit)) {
+		if (unitsByID.putIfAbsent(unit.getIdentifier(), unit) == null) {
 			units.add(unit);
+			register(unit);
 			Iterator<Unit> i = unit.getInventory().getContainedUnits().iterator();
 			while (i.hasNext()) {
 				addUnit(i.next());
@@ -336,13 +356,127 @@ public class UnitManager implements Serializable {
 	 *            the unit to remove.
 	 */
 	public void removeUnit(Unit unit) {
-		if (units.contains(unit)) {
+		if (unitsByID.remove(unit.getIdentifier(), unit)) {
 			units.remove(unit);
+			unregister(unit);
 			// Fire unit manager event.
 			fireUnitManagerUpdate(UnitManagerEventType.REMOVE_UNIT, unit);
 		}
 	}
 
+	/**
+	 * Takes a salvaged vehicle or piece of equipment off the typed registries. It
+	 * stays a unit of the simulation.
+	 *
+	 * @param unit
+	 *            the salvaged unit.
+	 */
+	public void unitSalvaged(Unit unit) {
+		if (unitsByID.containsKey(unit.getIdentifier())) {
+			unregister(unit);
+		}
+	}
+
+	/**
+	 * Creates the empty typed registries.
+	 */
+	private void initializeRegistries() {
+		unitsByID = new ConcurrentHashMap<>();
+		unitsByType = new EnumMap<>(UnitType.class);
+		unitViews = new EnumMap<>(UnitType.class);
+		for (UnitType type : UnitType.values()) {
+			List<Unit> list = new CopyOnWriteArrayList<>();
+			unitsByType.put(type, list);
+			unitViews.put(type, Collections.unmodifiableCollection(list));
+		}
+	}
+
+	/**
+	 * Adds a unit to its typed registry.
+	 *
+	 * @param unit the unit
+	 */
+	private void register(Unit unit) {
+		UnitType type = getUnitType(unit);
+		if (type != null && !isSalvaged(unit)) {
+			unitsByType.get(type).add(unit);
+		}
+		clearObstacleCache(unit);
+	}
+
+	/**
+	 * Removes a unit from its typed registry.
+	 *
+	 * @param unit the unit
+	 */
+	private void unregister(Unit unit) {
+		UnitType type = getUnitType(unit);
+		if (type != null) {
+			unitsByType.get(type).remove(unit);
+		}
+		clearObstacleCache(unit);
+	}
+
+	/**
+	 * Clears the cached obstacles at the location of a settlement or vehicle
+	 * joining or leaving the registries.
+	 *
+	 * @param unit the unit
+	 */
+	private static void clearObstacleCache(Unit unit) {
+		if ((unit instanceof Settlement) || (unit instanceof Vehicle)) {
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		}
+	}
+
+	/**
+	 * Gets the type of a unit.
+	 *
+	 * @param unit the unit
+	 * @return the unit type or null if unknown
+	 */
+	public static UnitType getUnitType(Unit unit) {
+		if (unit instanceof Person)
+			return UnitType.PERSON;
+		else if (unit instanceof Equipment)
+			return UnitType.EQUIPMENT;
+		else if (unit instanceof Robot)
+			return UnitType.ROBOT;
+		else if (unit instanceof Vehicle)
+			return UnitType.VEHICLE;
+		else if (unit instanceof Settlement)
+			return UnitType.SETTLEMENT;
+		else if (unit instanceof Building)
+			return UnitType.BUILDING;
+		return null;
+	}
+
+	private static boolean isSalvaged(Unit unit) {
+		if (unit instanceof Vehicle)
+			return ((Vehicle) unit).isSalvaged();
+		else if (unit instanceof Equipment)
+			return ((Equipment) unit).isSalvaged();
+		return false;
+	}
+
+	/**
+	 * Rebuilds the typed registries after loading a saved sim.
+	 *
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		initializeRegistries();
+		for (Unit u : units) {
+			unitsByID.put(u.getIdentifier(), u);
+			register(u);
+			Unit.reserveIdentifier(u.getIdentifier());
+		}
+	}
+
 	/**
 	 * Gets a new name for a unit.
 	 * @param unitType {@link UnitType} the type of unit.
@@ -669,7 +803,7 @@ public class UnitManager implements Serializable {
 			// Get person's settlement or randomly determine it if not configured.
 			String preConfigSettlementName = personConfig.getConfiguredPersonDestination(x, crew_id);
 			if (preConfigSettlementName != null) {
-				Collection<Settlement> col = CollectionUtils.getSettlement(units);
+				Collection<Settlement> col = getSettlements();
 				settlement = CollectionUtils.getSettlement(col, preConfigSettlementName);
 				if (settlement == null) {
 					// TODO: If settlement cannot be found that matches the settlement name,
@@ -680,7 +814,7 @@ public class UnitManager implements Serializable {
 				}
 
 			} else {
-				Collection<Settlement> col = CollectionUtils.getSettlement(units);
+				Collection<Settlement> col = getSettlements();
 				settlement = CollectionUtils.getRandomSettlement(col);
 				logger.log(Level.INFO, name + " has no destination settlement specified and goes to "
 						+ preConfigSettlementName + " by random.");
@@ -1376,7 +1510,7 @@ public class UnitManager implements Serializable {
 			// System.out.println("settlementName is " + settlementName);
 			Settlement settlement = null;
 			if (preConfigSettlementName != null) {
-				Collection<Settlement> col = CollectionUtils.getSettlement(units);
+				Collection<Settlement> col = getSettlements();
 				// Find the settlement instance with that name
 				settlement = CollectionUtils.getSettlement(col, preConfigSettlementName);
 				if (settlement == null) {
@@ -1387,7 +1521,7 @@ public class UnitManager implements Serializable {
 				}
 
 			} else {
-				Collection<Settlement> col = CollectionUtils.getSettlement(units);
+				Collection<Settlement> col = getSettlements();
 				settlement = CollectionUtils.getRandomSettlement(col);
 				logger.log(Level.INFO, name + " has no destination settlement specified and goes to "
 						+ preConfigSettlementName + " by random.");
@@ -1810,7 +1944,7 @@ public class UnitManager implements Serializable {
 		if (justReloaded) {
         	partConfig.computeReliability();
         	   
-			Collection<Settlement> c = CollectionUtils.getSettlement(units);
+			Collection<Settlement> c = getSettlements();
 			for (Settlement s : c) {
 				s.updateAllAssociatedPeople();
 				s.updateAllAssociatedRobots();
@@ -1819,20 +1953,74 @@ public class UnitManager implements Serializable {
 			justReloaded = false;
 		}
 
-		for (Unit u : units) {
-			u.timePassing(time);
-	
+		if (tickThreads > 0) {
+			if (tickEngine == null || tickEngine.getParallelism() != tickThreads) {
+				if (tickEngine != null)
+					tickEngine.destroy();
+				tickEngine = new SettlementTickEngine(tickThreads);
+			}
+			tickEngine.timePassing(units, time);
+		}
+
+		else {
+			if (tickEngine != null) {
+				tickEngine.destroy();
+				tickEngine = null;
+			}
+			for (Unit u : units) {
+				timePassing(u, time);
+			}
 		}
 
 	}
 
+	/**
+	 * Notifies a unit that time has passed, timing it by unit type, and by name
+	 * for a settlement.
+	 *
+	 * @param u    the unit
+	 * @param time the amount time passing (in millisols)
+	 */
+	static void timePassing(Unit u, double time) {
+		TickProfiler profiler = TickProfiler.instance();
+		long start = profiler.start(TickProfiler.Category.UNIT);
+		u.timePassing(time);
+		if (start >= 0L) {
+			long nanos = System.nanoTime() - start;
+			profiler.recordDuration(TickProfiler.Category.UNIT, u.getClass(), nanos);
+			if (u instanceof Settlement)
+				profiler.recordDuration(TickProfiler.Category.SETTLEMENT, u.getName(), nanos);
+		}
+	}
+
+	/**
+	 * Sets the number of worker threads for ticking the settlements in parallel.
+	 *
+	 * @param threads the number of threads, or 0 to tick all units serially on the
+	 *                clock thread.
+	 */
+	public static void setTickThreads(int threads) {
+		if (threads < 0)
+			throw new IllegalArgumentException("threads must not be negative : " + threads);
+		tickThreads = threads;
+	}
+
+	/**
+	 * Gets the number of worker threads for ticking the settlements in parallel.
+	 *
+	 * @return the number of threads, 0 if ticking serially.
+	 */
+	public static int getTickThreads() {
+		return tickThreads;
+	}
+
 	/**
 	 * Get number of settlements
 	 *
 	 * @return the number of settlements
 	 */
 	public int getSettlementNum() {
-		return CollectionUtils.getSettlement(units).size();
+		return unitsByType.get(UnitType.SETTLEMENT).size();
 	}
 
 	/**
@@ -1840,8 +2028,9 @@ public class UnitManager implements Serializable {
 	 *
 	 * @return Collection of settlements
 	 */
+	@SuppressWarnings("unchecked")
 	public Collection<Settlement> getSettlements() {
-		return CollectionUtils.getSettlement(units);
+		return (Collection<Settlement>) (Collection<?>) unitViews.get(UnitType.SETTLEMENT);
 	}
 
 //	public Settlement getASettlement() {
@@ -1860,7 +2049,7 @@ public class UnitManager implements Serializable {
 	 * @return the number of vehicles
 	 */
 	public int getVehicleNum() {
-		return CollectionUtils.getVehicle(units).size();
+		return unitsByType.get(UnitType.VEHICLE).size();
 	}
 
 	/**
@@ -1868,8 +2057,9 @@ public class UnitManager implements Serializable {
 	 *
 	 * @return Collection of vehicles
 	 */
+	@SuppressWarnings("unchecked")
 	public Collection<Vehicle> getVehicles() {
-		return CollectionUtils.getVehicle(units);
+		return (Collection<Vehicle>) (Collection<?>) unitViews.get(UnitType.VEHICLE);
 	}
 
 	/**
@@ -1878,7 +2068,7 @@ public class UnitManager implements Serializable {
 	 * @return the number of people
 	 */
 	public int getPeopleNum() {
-		return CollectionUtils.getPerson(units).size();
+		return unitsByType.get(UnitType.PERSON).size();
 	}
 
 	/**
@@ -1886,8 +2076,9 @@ public class UnitManager implements Serializable {
 	 *
 	 * @return Collection of people
 	 */
+	@SuppressWarnings("unchecked")
 	public Collection<Person> getPeople() {
-		return CollectionUtils.getPerson(units);
+		return (Collection<Person>) (Collection<?>) unitViews.get(UnitType.PERSON);
 	}
 
 	/**
@@ -1896,7 +2087,7 @@ public class UnitManager implements Serializable {
 	 * @return Collection of people
 	 */
 	public Collection<Person> getOutsidePeople() {
-		return CollectionUtils.getPerson(units)
+		return getPeople()
 				.stream()
 				.filter(p-> p.getLocationStateType() == LocationStateType.OUTSIDE_SETTLEMENT_VICINITY
 						 || p.getLocationStateType() == LocationStateType.OUTSIDE_ON_MARS)
@@ -1909,7 +2100,7 @@ public class UnitManager implements Serializable {
 	 * @return the number of Robots
 	 */
 	public int getRobotsNum() {
-		return CollectionUtils.getRobot(units).size();
+		return unitsByType.get(UnitType.ROBOT).size();
 	}
 
 	/**
@@ -1917,8 +2108,9 @@ public class UnitManager implements Serializable {
 	 *
 	 * @return Collection of Robots
 	 */
+	@SuppressWarnings("unchecked")
 	public Collection<Robot> getRobots() {
-		return CollectionUtils.getRobot(units);
+		return (Collection<Robot>) (Collection<?>) unitViews.get(UnitType.ROBOT);
 	}
 
 	/**
@@ -1926,15 +2118,16 @@ public class UnitManager implements Serializable {
 	 * @return number
 	 */
 	public int getEquipmentNum() {
-		return CollectionUtils.getEquipment(units).size();
+		return unitsByType.get(UnitType.EQUIPMENT).size();
 	}
 
 	/**
 	 * Get a collection of equipment.
 	 * @return collection
 	 */
+	@SuppressWarnings("unchecked")
 	public Collection<Equipment> getEquipment() {
-		return CollectionUtils.getEquipment(units);
+		return (Collection<Equipment>) (Collection<?>) unitViews.get(UnitType.EQUIPMENT);
 	}
 
 	/**
@@ -1950,7 +2143,74 @@ public class UnitManager implements Serializable {
 	 * @return Colleciton of units
 	 */
 	public Collection<Unit> getUnits() {
-		return units;
+		return Collections.unmodifiableCollection(units);
+	}
+
+	/**
+	 * Gets the units of a given type.
+	 * @param type the unit type
+	 * @return read-only collection of units
+	 */
+	public Collection<Unit> getUnits(UnitType type) {
+		return unitViews.get(type);
+	}
+
+	/**
+	 * Gets the number of units of a given type.
+	 * @param type the unit type
+	 * @return the number of units
+	 */
+	public int getUnitNum(UnitType type) {
+		return unitsByType.get(type).size();
+	}
+
+	/**
+	 * Gets a unit by its identifier.
+	 * @param id the unit identifier
+	 * @return the unit or null if none
+	 */
+	public Unit getUnitByID(int id) {
+		return unitsByID.get(id);
+	}
+
+	/**
+	 * Gets a settlement by its identifier.
+	 * @param id the unit identifier
+	 * @return the settlement or null if none
+	 */
+	public Settlement getSettlementByID(int id) {
+		Unit u = unitsByID.get(id);
+		return (u instanceof Settlement) ? (Settlement) u : null;
+	}
+
+	/**
+	 * Gets a person by its identifier.
+	 * @param id the unit identifier
+	 * @return the person or null if none
+	 */
+	public Person getPersonByID(int id) {
+		Unit u = unitsByID.get(id);
+		return (u instanceof Person) ? (Person) u : null;
+	}
+
+	/**
+	 * Gets a vehicle by its identifier.
+	 * @param id the unit identifier
+	 * @return the vehicle or null if none
+	 */
+	public Vehicle getVehicleByID(int id) {
+		Unit u = unitsByID.get(id);
+		return (u instanceof Vehicle) ? (Vehicle) u : null;
+	}
+
+	/**
+	 * Gets a robot by its identifier.
+	 * @param id the unit identifier
+	 * @return the robot or null if none
+	 */
+	public Robot getRobotByID(int id) {
+		Unit u = unitsByID.get(id);
+		return (u instanceof Robot) ? (Robot) u : null;
 	}
 
 	/**
@@ -2091,6 +2351,10 @@ public class UnitManager implements Serializable {
 		}
 		units.clear();
 		units = null;
+		unitsByID.clear();
+		unitsByID = null;
+		unitsByType = null;
+		unitViews = null;
 
 		settlementNames.clear();
 		settlementNames = null;
@@ -2102,6 +2366,10 @@ public class UnitManager implements Serializable {
 		personFemaleNames = null;
 		listeners.clear();
 		listeners = null;
+		if (tickEngine != null) {
+			tickEngine.destroy();
+			tickEngine = null;
+		}
 		//personExecutor = null;
 		//settlementExecutor = null;
 		equipmentNumberMap.clear();
@@ -0,0 +1,458 @@
+/**
+ * Mars Simulation Project
+ * EventStore.java
+ * @version 3.1.0 2018-09-07
+ * @author Manny Kung
+ */
+
+package org.mars_sim.msp.core.events;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.Simulation;
+
+/**
+ * A store of the registered events, with a column of primitives for each field
+ * of an event and the strings of the events kept once in dictionaries.
+ * <br>
+ * Only a window of the most recent events is kept in memory, using the columns
+ * as a ring. Older events are appended to a spill file of fixed size records,
+ * from which they can still be read back for the rest of the run. The events in
+ * the window are indexed by category, type and settlement.
+ * <br>
+ * Events are numbered in the order they were added, from 0. The store is not
+ * thread safe.
+ */
+class EventStore implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+	/* default logger. */
+	private static Logger logger = Logger.getLogger(EventStore.class.getName());
+
+	/** The size of an event in the spill file (bytes). */
+	private static final int RECORD_SIZE = 18;
+
+	private static final File SPILL_DIR = new File(System.getProperty("user.home"),
+			Simulation.MARS_SIM_DIRECTORY + File.separator + "events");
+
+	// Data members
+	private final int capacity;
+	/** The number of events added. */
+	private int count;
+
+	// The columns, indexed by event number modulo the capacity.
+	private final short[] sols;
+	private final float[] millisols;
+	private final byte[] categories;
+	private final byte[] types;
+	private final short[] whats;
+	private final short[] whileDoings;
+	private final short[] whos;
+	private final short[] loc0s;
+	private final short[] loc1s;
+
+	private final StringDictionary whatDictionary = new StringDictionary();
+	private final StringDictionary whileDoingDictionary = new StringDictionary();
+	private final StringDictionary whoDictionary = new StringDictionary();
+	private final StringDictionary loc0Dictionary = new StringDictionary();
+	private final StringDictionary loc1Dictionary = new StringDictionary();
+
+	// The event numbers in the window, oldest first.
+	private final EventList[] categoryIndex = new EventList[HistoricalEventCategory.values().length];
+	private final Map<Byte, EventList> typeIndex = new HashMap<>();
+	private final Map<Short, EventList> settlementIndex = new HashMap<>();
+
+	/** The spill file, created when the window first fills up. */
+	private File spillFile;
+	/** The number of events written to the spill file. */
+	private int spilled;
+	private transient DataOutputStream spillOut;
+	private transient RandomAccessFile spillIn;
+	private boolean spillFailed = false;
+
+	/**
+	 * Constructor.
+	 * @param capacity the number of events kept in memory.
+	 */
+	EventStore(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The event window must be positive: " + capacity);
+		this.capacity = capacity;
+		sols = new short[capacity];
+		millisols = new float[capacity];
+		categories = new byte[capacity];
+		types = new byte[capacity];
+		whats = new short[capacity];
+		whileDoings = new short[capacity];
+		whos = new short[capacity];
+		loc0s = new short[capacity];
+		loc1s = new short[capacity];
+		for (int x = 0; x < categoryIndex.length; x++)
+			categoryIndex[x] = new EventList();
+	}
+
+	/**
+	 * Adds an event, moving the oldest event in memory to the spill file if the
+	 * window is full.
+	 * @return the number of the event.
+	 */
+	int add(short missionSol, float millisol, byte category, byte type, String what, String whileDoing,
+			String who, String loc0, String loc1) {
+		int slot = count % capacity;
+		if (count >= capacity)
+			evict(count - capacity, slot);
+
+		sols[slot] = missionSol;
+		millisols[slot] = millisol;
+		categories[slot] = category;
+		types[slot] = type;
+		whats[slot] = whatDictionary.getID(what);
+		whileDoings[slot] = whileDoingDictionary.getID(whileDoing);
+		whos[slot] = whoDictionary.getID(who);
+		loc0s[slot] = loc0Dictionary.getID(loc0);
+		loc1s[slot] = loc1Dictionary.getID(loc1);
+
+		int number = count++;
+		categoryIndex[category].add(number);
+		getList(typeIndex, type).add(number);
+		getList(settlementIndex, loc1s[slot]).add(number);
+		return number;
+	}
+
+	/**
+	 * Removes the oldest event in memory from the indexes and spills it.
+	 * @param number the number of the event.
+	 * @param slot the slot of the event in the columns.
+	 */
+	private void evict(int number, int slot) {
+		categoryIndex[categories[slot]].removeFirst(number);
+		typeIndex.get(types[slot]).removeFirst(number);
+		settlementIndex.get(loc1s[slot]).removeFirst(number);
+
+		if (spillFailed)
+			return;
+		try {
+			if (spillOut == null)
+				openSpillFile();
+			spillOut.writeShort(sols[slot]);
+			spillOut.writeFloat(millisols[slot]);
+			spillOut.writeByte(categories[slot]);
+			spillOut.writeByte(types[slot]);
+			spillOut.writeShort(whats[slot]);
+			spillOut.writeShort(whileDoings[slot]);
+			spillOut.writeShort(whos[slot]);
+			spillOut.writeShort(loc0s[slot]);
+			spillOut.writeShort(loc1s[slot]);
+			spilled++;
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Could not spill events to " + spillFile + ", dropping older events.", e);
+			spillFailed = true;
+		}
+	}
+
+	/**
+	 * Opens the spill file for appending, creating it if needed.
+	 * @throws IOException if the file can't be opened, or is missing events.
+	 */
+	private void openSpillFile() throws IOException {
+		if (spillFile == null) {
+			SPILL_DIR.mkdirs();
+			spillFile = File.createTempFile("events", ".dat", SPILL_DIR);
+			spillFile.deleteOnExit();
+		}
+		if (spillFile.length() != (long) spilled * RECORD_SIZE)
+			throw new IOException(spillFile + " doesn't hold the " + spilled + " spilled events");
+		spillOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile, true)));
+	}
+
+	/**
+	 * Gets an event.
+	 * @param number the number of the event.
+	 * @return the event, or null if it was dropped or its spill file is gone.
+	 */
+	SimpleEvent get(int number) {
+		if ((number < 0) || (number >= count))
+			throw new IndexOutOfBoundsException("No event " + number + " of " + count);
+
+		if (number >= count - capacity) {
+			int slot = number % capacity;
+			return new SimpleEvent(sols[slot], millisols[slot], categories[slot], types[slot], whats[slot],
+					whileDoings[slot], whos[slot], loc0s[slot], loc1s[slot]);
+		}
+		else if (number < spilled) {
+			try {
+				return readSpilled(number);
+			}
+			catch (IOException e) {
+				logger.log(Level.WARNING, "Could not read event " + number + " from " + spillFile, e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads an event back from the spill file.
+	 * @param number the number of the event.
+	 * @return the event.
+	 * @throws IOException if the event can't be read.
+	 */
+	private SimpleEvent readSpilled(int number) throws IOException {
+		if (spillOut != null)
+			spillOut.flush();
+		if (spillIn == null)
+			spillIn = new RandomAccessFile(spillFile, "r");
+		spillIn.seek((long) number * RECORD_SIZE);
+		return new SimpleEvent(spillIn.readShort(), spillIn.readFloat(), spillIn.readByte(), spillIn.readByte(),
+				spillIn.readShort(), spillIn.readShort(), spillIn.readShort(), spillIn.readShort(),
+				spillIn.readShort());
+	}
+
+	/**
+	 * Gets the number of events added.
+	 * @return number of events.
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of events kept in memory.
+	 * @return number of events.
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the events in memory in any of some categories or of any of some types.
+	 * @param categories the categories.
+	 * @param eventTypes the event type ordinals.
+	 * @return the event numbers, most recent first.
+	 */
+	int[] find(List<HistoricalEventCategory> categories, List<Byte> eventTypes) {
+		List<EventList> lists = new ArrayList<>();
+		for (HistoricalEventCategory category : categories)
+			lists.add(categoryIndex[category.ordinal()]);
+		for (Byte type : eventTypes) {
+			EventList list = typeIndex.get(type);
+			if (list != null)
+				lists.add(list);
+		}
+		return merge(lists);
+	}
+
+	/**
+	 * Gets the events in memory at a settlement.
+	 * @param settlement the name of the settlement.
+	 * @return the event numbers, most recent first.
+	 */
+	int[] findAtSettlement(String settlement) {
+		List<EventList> lists = new ArrayList<>();
+		Short id = loc1Dictionary.findID(settlement);
+		if (id != null) {
+			EventList list = settlementIndex.get(id);
+			if (list != null)
+				lists.add(list);
+		}
+		return merge(lists);
+	}
+
+	/**
+	 * Gets the events in memory on a sol, which are all together since the events
+	 * are added in time order.
+	 * @param missionSol the mission sol.
+	 * @return the event numbers, most recent first.
+	 */
+	int[] findOnSol(int missionSol) {
+		int first = Math.max(0, count - capacity);
+		int start = searchSol(first, missionSol);
+		int end = searchSol(start, missionSol + 1);
+		int[] result = new int[end - start];
+		for (int x = 0; x < result.length; x++)
+			result[x] = end - 1 - x;
+		return result;
+	}
+
+	/**
+	 * Finds the first event in memory on or after a sol.
+	 * @param from the event number to search from.
+	 * @param missionSol the mission sol.
+	 * @return the event number, or the number of events if there is none.
+	 */
+	private int searchSol(int from, int missionSol) {
+		int low = from;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sols[middle % capacity] < missionSol)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Merges lists of event numbers.
+	 * @param lists the lists, each oldest first.
+	 * @return the event numbers in any of the lists, most recent first.
+	 */
+	private static int[] merge(List<EventList> lists) {
+		int size = 0;
+		for (EventList list : lists)
+			size += list.size();
+		int[] result = new int[size];
+		int x = 0;
+		for (EventList list : lists)
+			x = list.copyTo(result, x);
+		Arrays.sort(result);
+
+		// Skip the events in more than one list, then reverse.
+		int unique = 0;
+		for (int y = 0; y < size; y++) {
+			if ((unique == 0) || (result[y] != result[unique - 1]))
+				result[unique++] = result[y];
+		}
+		for (int y = 0; y < unique / 2; y++) {
+			int number = result[y];
+			result[y] = result[unique - 1 - y];
+			result[unique - 1 - y] = number;
+		}
+		return (unique == size) ? result : Arrays.copyOf(result, unique);
+	}
+
+	private static <K> EventList getList(Map<K, EventList> index, K key) {
+		EventList result = index.get(key);
+		if (result == null) {
+			result = new EventList();
+			index.put(key, result);
+		}
+		return result;
+	}
+
+	String getWhat(int id) {
+		return whatDictionary.get(id);
+	}
+
+	String getWhileDoing(int id) {
+		return whileDoingDictionary.get(id);
+	}
+
+	String getWho(int id) {
+		return whoDictionary.get(id);
+	}
+
+	String getLoc0(int id) {
+		return loc0Dictionary.get(id);
+	}
+
+	String getLoc1(int id) {
+		return loc1Dictionary.get(id);
+	}
+
+	/**
+	 * Closes the spill file.
+	 */
+	void close() {
+		try {
+			if (spillOut != null)
+				spillOut.close();
+			if (spillIn != null)
+				spillIn.close();
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Could not close " + spillFile, e);
+		}
+		spillOut = null;
+		spillIn = null;
+	}
+
+	/**
+	 * Strings numbered in the order they were first seen.
+	 */
+	private static class StringDictionary implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Short> ids = new HashMap<>();
+
+		short getID(String s) {
+			Short id = ids.get(s);
+			if (id == null) {
+				id = (short) strings.size();
+				strings.add(s);
+				ids.put(s, id);
+			}
+			return id;
+		}
+
+		Short findID(String s) {
+			return ids.get(s);
+		}
+
+		String get(int id) {
+			return strings.get(id);
+		}
+	}
+
+	/**
+	 * A list of event numbers in increasing order, added to at the end and
+	 * removed from at the start.
+	 */
+	private static class EventList implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private int[] numbers = new int[8];
+		private int start;
+		private int end;
+
+		void add(int number) {
+			if (end == numbers.length) {
+				if (start > numbers.length / 2) {
+					// Reuse the space at the start.
+					System.arraycopy(numbers, start, numbers, 0, end - start);
+				}
+				else {
+					int[] grown = new int[numbers.length * 2];
+					System.arraycopy(numbers, start, grown, 0, end - start);
+					numbers = grown;
+				}
+				end -= start;
+				start = 0;
+			}
+			numbers[end++] = number;
+		}
+
+		void removeFirst(int number) {
+			if ((start == end) || (numbers[start] != number))
+				throw new IllegalStateException("Event " + number + " is not the first in the list");
+			start++;
+		}
+
+		int size() {
+			return end - start;
+		}
+
+		int copyTo(int[] array, int offset) {
+			System.arraycopy(numbers, start, array, offset, end - start);
+			return offset + end - start;
+		}
+	}
+}
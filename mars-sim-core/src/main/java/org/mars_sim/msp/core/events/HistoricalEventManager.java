@@ -12,9 +12,11 @@ import org.mars_sim.msp.core.narrator.Narrator;
 import org.mars_sim.msp.core.person.EventType;
 import org.mars_sim.msp.core.time.MarsClock;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -27,6 +29,9 @@ import java.util.List;
  * time, i.e. most recent event first. It should be noted that the throughput of
  * new events of the manager can be in the order of 100 event per simulation
  * tick.
+ * <br>
+ * Only a window of the most recent events is kept in memory. Older events are
+ * moved to a spill file and can only be read back during the current run.
  */
 public class HistoricalEventManager implements Serializable {
 
@@ -38,23 +43,27 @@ public class HistoricalEventManager implements Serializable {
 	 */
 //	private final static int TRANSIENT_EVENTS = 5000;
 
+	/** The default number of events kept in memory. */
+	public static final int DEFAULT_EVENT_WINDOW = 10000;
+
+	/** The number of events kept in memory by new managers. */
+	private static int eventWindow = DEFAULT_EVENT_WINDOW;
+
 	private transient List<HistoricalEventListener> listeners;
 
+	/** True while the listener notifications are held back. */
+	private transient boolean holding;
+	/** The notifications held back, in the order the events were registered. */
+	private transient List<PendingEvent> pending = new ArrayList<>();
+
 	private Narrator narrator;
 
 	private MarsClock marsClock;
 
 	private volatile static List<HistoricalEvent> lastEvents = new ArrayList<>();
 
-	// The following list cannot be static since it needs to be serialized
-	private List<SimpleEvent> eventsRegistry;
-
-	// The following 4 list cannot be static since they need to be serialized
-	private List<String> whatList;
-	private List<String> whileDoingList;
-	private List<String> whoList;
-	private List<String> loc0List;
-	private List<String> loc1List;
+	// The store cannot be static since it needs to be serialized
+	private EventStore store;
 
 	/**
 	 * Create a new EventManager that represents a particular simulation.
@@ -66,19 +75,21 @@ public class HistoricalEventManager implements Serializable {
 		// start
 		listeners = new ArrayList<HistoricalEventListener>();
 //		events = new LinkedList<HistoricalEvent>();
-		eventsRegistry = new ArrayList<>();
+		store = new EventStore(eventWindow);
 		narrator = new Narrator();
 //		lastEvents = new ArrayList<>();
-		initMaps();
 	}
 
-	private void initMaps() {
-		whatList = new ArrayList<>();
-		whileDoingList = new ArrayList<>();
-		whoList = new ArrayList<>();
-		loc0List = new ArrayList<>();
-		loc1List = new ArrayList<>();
-
+	/**
+	 * Sets the number of events kept in memory by the managers created from now
+	 * on.
+	 * 
+	 * @param size the number of events.
+	 */
+	public static void setEventWindow(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("The event window must be positive: " + size);
+		eventWindow = size;
 	}
 
 	/**
@@ -87,7 +98,7 @@ public class HistoricalEventManager implements Serializable {
 	 * @param newListener listener to add.
 	 */
 	// 5 models or panels called addListener()
-	public void addListener(HistoricalEventListener newListener) {
+	public synchronized void addListener(HistoricalEventListener newListener) {
 		if (listeners == null)
 			listeners = new ArrayList<HistoricalEventListener>();
 		if (!listeners.contains(newListener))
@@ -99,8 +110,8 @@ public class HistoricalEventManager implements Serializable {
 	 * 
 	 * @param oldListener listener to remove.
 	 */
-	public void removeListener(HistoricalEventListener oldListener) {
-		if (listeners.contains(oldListener))
+	public synchronized void removeListener(HistoricalEventListener oldListener) {
+		if (listeners != null && listeners.contains(oldListener))
 			listeners.remove(oldListener);
 	}
 
@@ -113,14 +124,110 @@ public class HistoricalEventManager implements Serializable {
 //		return events.get(index);
 //	}
 
+	/**
+	 * Holds back the listener notifications until
+	 * {@link #deliverPendingEvents()} is called. Settlements ticked in parallel
+	 * register events from worker threads, whereas the listeners expect the
+	 * clock thread.
+	 */
+	public synchronized void holdEvents() {
+		holding = true;
+	}
+
+	/**
+	 * Notifies the listeners of the events held back since
+	 * {@link #holdEvents()} and stops holding them back.
+	 */
+	public void deliverPendingEvents() {
+		List<PendingEvent> events;
+		List<HistoricalEventListener> targets;
+
+		synchronized (this) {
+			holding = false;
+			if (pending.isEmpty())
+				return;
+			events = new ArrayList<>(pending);
+			pending.clear();
+			if (listeners == null) {
+				listeners = new ArrayList<HistoricalEventListener>();
+			}
+			targets = new ArrayList<>(listeners);
+		}
+
+		for (PendingEvent e : events) {
+			notifyListeners(targets, e.simpleEvent, e.event);
+		}
+	}
+
 	/**
 	 * Get the event at a specified index.
 	 * 
-	 * @param index Index of event to retrieve.
-	 * @return Historical event.
+	 * @param index Index of event to retrieve, 0 being the most recent.
+	 * @return Historical event, or null if it is no longer available.
 	 */
-	public SimpleEvent getEvent(int index) {
-		return eventsRegistry.get(index);
+	public synchronized SimpleEvent getEvent(int index) {
+		return store.get(store.size() - 1 - index);
+	}
+
+	/**
+	 * Get the number of events registered.
+	 * 
+	 * @return event count.
+	 */
+	public synchronized int size() {
+		return store.size();
+	}
+
+	/**
+	 * Get the number of events kept in memory, which the queries are limited to.
+	 * 
+	 * @return event count.
+	 */
+	public int getWindowSize() {
+		return store.getCapacity();
+	}
+
+	/**
+	 * Gets the recent events that are in any of some categories or of any of some
+	 * types.
+	 * 
+	 * @param categories the categories.
+	 * @param eventTypes the event types.
+	 * @return the events, most recent first.
+	 */
+	public synchronized List<SimpleEvent> getEvents(Collection<HistoricalEventCategory> categories,
+			Collection<EventType> eventTypes) {
+		List<Byte> types = new ArrayList<>(eventTypes.size());
+		for (EventType type : eventTypes)
+			types.add((byte) type.ordinal());
+		return getEvents(store.find(new ArrayList<>(categories), types));
+	}
+
+	/**
+	 * Gets the recent events at a settlement.
+	 * 
+	 * @param settlement the name of the settlement.
+	 * @return the events, most recent first.
+	 */
+	public synchronized List<SimpleEvent> getSettlementEvents(String settlement) {
+		return getEvents(store.findAtSettlement(settlement));
+	}
+
+	/**
+	 * Gets the recent events on a mission sol.
+	 * 
+	 * @param missionSol the mission sol.
+	 * @return the events, most recent first.
+	 */
+	public synchronized List<SimpleEvent> getSolEvents(int missionSol) {
+		return getEvents(store.findOnSol(missionSol));
+	}
+
+	private List<SimpleEvent> getEvents(int[] numbers) {
+		List<SimpleEvent> result = new ArrayList<>(numbers.length);
+		for (int number : numbers)
+			result.add(store.get(number));
+		return result;
 	}
 
 	public boolean isSameEvent(HistoricalEvent newEvent) {
@@ -146,61 +253,77 @@ public class HistoricalEventManager implements Serializable {
 	/**
 	 * An new event needs registering with the manager. The event will be time
 	 * stamped with the current clock time and inserted at position zero.
+	 * <br>
+	 * The listeners are notified outside the lock of the manager, since the UI
+	 * models lock themselves first and then query the manager.
 	 * 
 	 * @param newEvent The event to register.
 	 */
-	public synchronized void registerNewEvent(HistoricalEvent newEvent) {
-//		HistoricalEventCategory category = newEvent.getCategory();
-		if (newEvent.getCategory() == HistoricalEventCategory.TASK)
-			return;
-		else if (newEvent.getType() == EventType.MISSION_START)
-			return;
-		else if (newEvent.getType() == EventType.MISSION_JOINING)
-			return;
-		else if (newEvent.getType() == EventType.MISSION_FINISH)
-			return;
-		else if (newEvent.getType() == EventType.MISSION_NOT_ENOUGH_RESOURCES)
-			return;
-		else if (isSameEvent(newEvent))
-			return;
-
-		if (lastEvents == null)
-			lastEvents = new ArrayList<>();
-
-		lastEvents.add(newEvent);
-		if (lastEvents.size() > 7)
-			lastEvents.remove(0);
-
-		// check if event is MALFUNCTION or MEDICAL, save it for notification box
-		// display
-		// Make space for the new event.
-//			if (events.size() >= TRANSIENT_EVENTS) {
-//				int excess = events.size() - (TRANSIENT_EVENTS - 1);
-//				removeEvents(events.size() - excess, excess);
-//			}
-		// Note : the elaborate if-else conditions below is for passing the maven test
-		if (marsClock == null)
-			marsClock = Simulation.instance().getMasterClock().getMarsClock();
-
-		MarsClock timestamp = (MarsClock) marsClock.clone();
-
-		if (timestamp == null)
-			throw new IllegalStateException("timestamp is null");
-
-		newEvent.setTimestamp(timestamp);
-
-		SimpleEvent se = convert2SimpleEvent(newEvent, timestamp);
-
-		if (listeners == null) {
-			listeners = new ArrayList<HistoricalEventListener>();
+	public void registerNewEvent(HistoricalEvent newEvent) {
+		SimpleEvent se;
+		List<HistoricalEventListener> targets;
+
+		synchronized (this) {
+//			HistoricalEventCategory category = newEvent.getCategory();
+			if (newEvent.getCategory() == HistoricalEventCategory.TASK)
+				return;
+			else if (newEvent.getType() == EventType.MISSION_START)
+				return;
+			else if (newEvent.getType() == EventType.MISSION_JOINING)
+				return;
+			else if (newEvent.getType() == EventType.MISSION_FINISH)
+				return;
+			else if (newEvent.getType() == EventType.MISSION_NOT_ENOUGH_RESOURCES)
+				return;
+			else if (isSameEvent(newEvent))
+				return;
+
+			if (lastEvents == null)
+				lastEvents = new ArrayList<>();
+
+			lastEvents.add(newEvent);
+			if (lastEvents.size() > 7)
+				lastEvents.remove(0);
+
+			// Note : the elaborate if-else conditions below is for passing the maven test
+			if (marsClock == null)
+				marsClock = Simulation.instance().getMasterClock().getMarsClock();
+
+			MarsClock timestamp = (MarsClock) marsClock.clone();
+
+			if (timestamp == null)
+				throw new IllegalStateException("timestamp is null");
+
+			newEvent.setTimestamp(timestamp);
+
+			se = convert2SimpleEvent(newEvent, timestamp);
+
+			if (holding) {
+				pending.add(new PendingEvent(se, newEvent));
+				return;
+			}
+
+			if (listeners == null) {
+				listeners = new ArrayList<HistoricalEventListener>();
+			}
+			targets = new ArrayList<>(listeners);
 		}
 
-		Iterator<HistoricalEventListener> iter = listeners.iterator();
+		notifyListeners(targets, se, newEvent);
+	}
+
+	/**
+	 * Notifies some listeners of a new event.
+	 * 
+	 * @param targets  the listeners.
+	 * @param se       the stored event.
+	 * @param newEvent the event registered.
+	 */
+	private void notifyListeners(List<HistoricalEventListener> targets, SimpleEvent se, HistoricalEvent newEvent) {
+		Iterator<HistoricalEventListener> iter = targets.iterator();
 		while (iter.hasNext()) {
 			HistoricalEventListener l = iter.next();
 			l.eventAdded(0, se, newEvent);
-//			l.eventAdded(0, se);
-//			l.eventAdded(0, newEvent);
 		}
 
 		narrator.translate(newEvent);
@@ -211,69 +334,30 @@ public class HistoricalEventManager implements Serializable {
 		float millisols = (float) (event.getTimestamp().getMillisol());
 		byte cat = (byte) (event.getCategory().ordinal());
 		byte type = (byte) (event.getType().ordinal());
-		short what = (short) (getID(whatList, event.getWhatCause()));
-		short whileDoing = (short) (getID(whileDoingList, event.getWhileDoing()));
-		short who = (short) (getID(whoList, event.getWho()));
-		short loc0 = (short) (getID(loc0List, event.getLocation0()));
-		short loc1 = (short) (getID(loc1List, event.getLocation1()));
-
-//		System.out.println("HistoricalEventManager's mission sol : " + missionSol);
-		SimpleEvent se = new SimpleEvent(missionSol, millisols, cat, type, what, whileDoing, who, loc0, loc1);
-		eventsRegistry.add(0, se);
-		return se;
-	}
 
-//	public int getID(Map<Integer, String> map, String s) {
-//		if (map.containsValue(s)) {
-//			Set<Integer> id = map.keySet();
-//			for (Integer i : id)
-//				return i;
-////			List<String> values = new ArrayList<>(map.values());
-//			
-//		} else {
-//			int size = map.size();
-//			map.put(size + 1, s);
-//			return size + 1;
-//		}
-//		return -1;
-//	}
-	
-	public int getID(List<String> list, String s) {
-		if (list.contains(s)) {
-			return list.indexOf(s);
-		} else {
-			int size = list.size();
-			list.add(s);
-			return size;
-		}
+		int number = store.add(missionSol, millisols, cat, type, event.getWhatCause(), event.getWhileDoing(),
+				event.getWho(), event.getLocation0(), event.getLocation1());
+		return store.get(number);
 	}
-	
-//	public String getStr(Map<Integer, String> map, Integer id) {
-//		return map.get(id);
-//	}
 
-//	public String getStr(List<String> list, Integer id) {
-//		return list.get(id);
-//	}
-	
-	public String getWhat(int id) {
-		return whatList.get(id);
+	public synchronized String getWhat(int id) {
+		return store.getWhat(id);
 	}
 
-	public String getWhileDoing(int id) {
-		return whileDoingList.get(id);
+	public synchronized String getWhileDoing(int id) {
+		return store.getWhileDoing(id);
 	}
 
-	public String getWho(int id) {
-		return whoList.get(id);
+	public synchronized String getWho(int id) {
+		return store.getWho(id);
 	}
 
-	public String getLoc0(int id) {
-		return loc0List.get(id);
+	public synchronized String getLoc0(int id) {
+		return store.getLoc0(id);
 	}
 
-	public String getLoc1(int id) {
-		return loc1List.get(id);
+	public synchronized String getLoc1(int id) {
+		return store.getLoc1(id);
 	}
 
 //	/**
@@ -304,8 +388,76 @@ public class HistoricalEventManager implements Serializable {
 //		return events;
 //	}
 
-	public List<SimpleEvent> getEvents() {
-		return eventsRegistry;
+	/**
+	 * Reads the manager from a saved simulation. Saves made before the events
+	 * were kept in an event store have their events replayed into a new one.
+	 * 
+	 * @param in the input stream.
+	 * @throws IOException            if the stream cannot be read.
+	 * @throws ClassNotFoundException if a class of the stream is missing.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+
+		narrator = (Narrator) fields.get("narrator", null);
+		marsClock = (MarsClock) fields.get("marsClock", null);
+		store = (EventStore) getOldField(fields, "store");
+
+		if (narrator == null)
+			narrator = new Narrator();
+
+		if (store == null) {
+			store = new EventStore(eventWindow);
+			List<SimpleEvent> oldEvents = (List<SimpleEvent>) getOldField(fields, "eventsRegistry");
+			if (oldEvents != null) {
+				List<String> whatList = (List<String>) getOldField(fields, "whatList");
+				List<String> whileDoingList = (List<String>) getOldField(fields, "whileDoingList");
+				List<String> whoList = (List<String>) getOldField(fields, "whoList");
+				List<String> loc0List = (List<String>) getOldField(fields, "loc0List");
+				List<String> loc1List = (List<String>) getOldField(fields, "loc1List");
+
+				// The old events are most recent first.
+				for (int i = oldEvents.size() - 1; i >= 0; i--) {
+					SimpleEvent e = oldEvents.get(i);
+					store.add(e.getSol(), e.getMsol(), e.getCat(), e.getType(), getOldString(whatList, e.getWhat()),
+							getOldString(whileDoingList, e.getWhileDoing()), getOldString(whoList, e.getWho()),
+							getOldString(loc0List, e.getLoc0()), getOldString(loc1List, e.getLoc1()));
+				}
+			}
+		}
+
+		listeners = new ArrayList<HistoricalEventListener>();
+		pending = new ArrayList<>();
+	}
+
+	/**
+	 * Gets a field from an older saved simulation.
+	 * 
+	 * @param fields the fields read from the stream.
+	 * @param name   the field name.
+	 * @return the field value or null if not in the stream.
+	 * @throws IOException if error reading the field.
+	 */
+	private static Object getOldField(ObjectInputStream.GetField fields, String name) throws IOException {
+		try {
+			return fields.get(name, null);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets a string of an event from an older saved simulation.
+	 * 
+	 * @param list the strings of the old manager.
+	 * @param id   the id of the string.
+	 * @return the string, or null if missing.
+	 */
+	private static String getOldString(List<String> list, short id) {
+		if ((list == null) || (id < 0) || (id >= list.size()))
+			return null;
+		return list.get(id);
 	}
 
 	/**
@@ -316,7 +468,21 @@ public class HistoricalEventManager implements Serializable {
 		listeners = null;
 //		events.clear();
 //		events = null;
-		eventsRegistry.clear();
-		eventsRegistry = null;
+		store.close();
+		store = null;
+	}
+
+	/**
+	 * An event whose listener notification is held back.
+	 */
+	private static class PendingEvent {
+
+		private SimpleEvent simpleEvent;
+		private HistoricalEvent event;
+
+		PendingEvent(SimpleEvent simpleEvent, HistoricalEvent event) {
+			this.simpleEvent = simpleEvent;
+			this.event = event;
+		}
 	}
 }
\ No newline at end of file
@@ -33,7 +33,7 @@ public class SimpleEvent implements Serializable {
 	private short loc1;
 	private String dateTime = null;
 
-	private DecimalFormat df = new DecimalFormat("000.000");
+	private static final DecimalFormat df = new DecimalFormat("000.000");
 
 	public SimpleEvent(short missionSol, float msol, byte cat, byte type, short what, short whileDoing, short who, short loc0,
 			short loc1) {
@@ -46,10 +46,6 @@ public class SimpleEvent implements Serializable {
 		this.who = who;
 		this.loc0 = loc0;
 		this.loc1 = loc1;
-		
-		df.setMinimumFractionDigits(3);
-		df.setMinimumIntegerDigits(3);
-		
 	}
 
 	public String getFullDateTimeString() {
@@ -63,6 +59,10 @@ public class SimpleEvent implements Serializable {
 		return missionSol;
 	}
 
+	public float getMsol() {
+		return msol;
+	}
+
 //	/**
 //	 * Returns the time string in the non-decimal format of xxx
 //	 * 
@@ -110,7 +110,10 @@ public class SimpleEvent implements Serializable {
 	 * @return the time string
 	 */
 	public String getDecimalMillisol() {
-		return df.format(msol);
+		// DecimalFormat isn't thread safe
+		synchronized (df) {
+			return df.format(msol);
+		}
 	}
 	
 	public byte getCat() {
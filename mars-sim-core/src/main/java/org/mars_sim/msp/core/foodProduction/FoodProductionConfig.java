@@ -62,7 +62,7 @@ public class FoodProductionConfig implements Serializable {
      * @throws Exception if error getting info.
      */
     @SuppressWarnings("unchecked")
-    public List<FoodProductionProcessInfo> getFoodProductionProcessList() {
+    public synchronized List<FoodProductionProcessInfo> getFoodProductionProcessList() {
 
         if (foodproductionProcessList == null) {
 
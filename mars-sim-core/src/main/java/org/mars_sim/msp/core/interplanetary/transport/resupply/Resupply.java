@@ -430,7 +430,7 @@ public class Resupply implements Serializable, Transportable {
 		}
 
 		List<Building> list = mgr.getBuildings(FunctionType.LIFE_SUPPORT);
-		Collections.shuffle(list);
+		RandomUtil.shuffle(list);
 
 		Iterator<Building> i = list.iterator();
 		while (i.hasNext()) {
@@ -698,7 +698,7 @@ public class Resupply implements Serializable, Transportable {
 				// greenhouse, lander hab, research hab...)
 				List<Building> inhabitableBuildings = settlement.getBuildingManager()
 						.getBuildings(FunctionType.LIFE_SUPPORT);
-				Collections.shuffle(inhabitableBuildings);
+				RandomUtil.shuffle(inhabitableBuildings);
 				// System.out.println("inhabitableBuildings.size() is "+
 				// inhabitableBuildings.size());
 				// System.out.println("Building type is "+ buildingType);
@@ -773,7 +773,7 @@ public class Resupply implements Serializable, Transportable {
 					List<Building> allBuildings = buildingManager.getACopyOfBuildings();
 					// System.out.println("allBuildings.size() is "+ allBuildings.size());
 					// System.out.println("Building type is "+ buildingType);
-					Collections.shuffle(allBuildings);
+					RandomUtil.shuffle(allBuildings);
 					Iterator<Building> i = allBuildings.iterator();
 					while (i.hasNext()) {
 						Building building = i.next();
@@ -837,7 +837,7 @@ public class Resupply implements Serializable, Transportable {
 		List<Building> sameTypeBuildings = settlement.getBuildingManager().getBuildingsOfSameType(buildingType);
 		// logger.info("sameBuildings.size() is "+ sameTypeBuildings.size());
 		// logger.info("Building type is "+ buildingType);
-		Collections.shuffle(sameTypeBuildings);
+		RandomUtil.shuffle(sameTypeBuildings);
 		Iterator<Building> j = sameTypeBuildings.iterator();
 		while (j.hasNext()) {
 			Building building = j.next();
@@ -883,7 +883,7 @@ public class Resupply implements Serializable, Transportable {
 
 		BuildingManager manager = settlement.getBuildingManager();
 		List<Building> inhabitableBuildings = manager.getBuildings(FunctionType.LIFE_SUPPORT);
-		Collections.shuffle(inhabitableBuildings);
+		RandomUtil.shuffle(inhabitableBuildings);
 
 		// Case 1
 		// Try to find a connection between an inhabitable building without access to
@@ -1095,7 +1095,7 @@ public class Resupply implements Serializable, Transportable {
 		directions.add(back);
 		directions.add(right);
 		directions.add(left);
-		Collections.shuffle(directions);
+		RandomUtil.shuffle(directions);
 
 		double direction = 0D;
 		double structureDistance = 0D;
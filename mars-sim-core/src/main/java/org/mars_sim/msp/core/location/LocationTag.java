@@ -40,6 +40,9 @@ public class LocationTag implements LocationState, Serializable {
 	private Building b = null;
 	private Vehicle v = null;
 
+	/** The formatted coordinates of the unit when last asked for. */
+	private transient volatile CoordinatesLabel coordinatesLabel;
+
 	public LocationTag(Unit unit) {
 		this.unit = unit;
 		if (unit instanceof Person)
@@ -60,17 +63,17 @@ public class LocationTag implements LocationState, Serializable {
 			if (p.getSettlement() != null)
 				return p.getSettlement().getName();
 			else
-				return p.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		} else if (e != null) {
 			if (e.getSettlement() != null)
 				return e.getSettlement().getName();
 			else
-				return e.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		} else if (r != null) {
 			if (r.getSettlement() != null)
 				return r.getSettlement().getName();
 			else
-				return r.getCoordinates().getFormattedString();// OUTSIDE_ON_MARS;
+				return getCoordinatesLabel();// OUTSIDE_ON_MARS;
 		} else if (b != null) {
 			return b.getSettlement().getName();
 		}
@@ -79,7 +82,7 @@ public class LocationTag implements LocationState, Serializable {
 			if (v.getSettlement() != null)
 				return v.getSettlement().getName();
 			else
-				return v.getCoordinates().getFormattedString();// OUTSIDE_ON_MARS;
+				return getCoordinatesLabel();// OUTSIDE_ON_MARS;
 		}
 
 		return UNKNOWN;
@@ -100,7 +103,7 @@ public class LocationTag implements LocationState, Serializable {
 			else if (p.getBuriedSettlement() != null)
 				return p.getBuriedSettlement().getName();
 			else
-				return p.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		}
 
 		else if (e != null) {
@@ -109,7 +112,7 @@ public class LocationTag implements LocationState, Serializable {
 			else if (e.getTopContainerUnit() != null)
 				return e.getTopContainerUnit().getName();
 			else
-				return e.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		}
 
 		else if (r != null) {
@@ -118,7 +121,7 @@ public class LocationTag implements LocationState, Serializable {
 			else if (r.getVehicle() != null)
 				return r.getVehicle().getName();
 			else
-				return r.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 
 		} else if (b != null) {
 			return b.getNickName() + " in " + b.getSettlement().getName();
@@ -131,7 +134,7 @@ public class LocationTag implements LocationState, Serializable {
 				else
 					return v.getSettlement().getName();
 			} else
-				return v.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		}
 
 		return UNKNOWN;
@@ -147,7 +150,7 @@ public class LocationTag implements LocationState, Serializable {
 			if (p.getSettlement() != null)
 				return p.getSettlement().getName();
 			else
-				return p.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		}
 
 		else if (e != null) {
@@ -157,7 +160,7 @@ public class LocationTag implements LocationState, Serializable {
 				return e.getTopContainerUnit().getLocationTag().getLocale();
 			else
 				// if its top container is null
-				return e.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 		}
 
 		else if (r != null) {
@@ -166,7 +169,7 @@ public class LocationTag implements LocationState, Serializable {
 //			else if (r.getVehicle() != null)
 //				return r.getVehicle().getName();
 			else
-				return r.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 
 		} else if (b != null) {
 			return b.getSettlement().getName();
@@ -182,7 +185,7 @@ public class LocationTag implements LocationState, Serializable {
 //				if (v.getLocationStateType() == LocationStateType.OUTSIDE_SETTLEMENT_VICINITY)
 //					return v.getAssociatedSettlement().getName() + " Vicinity";
 //				else
-				return v.getCoordinates().getFormattedString();
+				return getCoordinatesLabel();
 			}
 		}
 
@@ -342,6 +345,22 @@ public class LocationTag implements LocationState, Serializable {
 		return UNKNOWN;
 	}
 
+	/**
+	 * Gets the formatted coordinates of the unit, only formatting them again
+	 * when the unit has moved.
+	 * 
+	 * @return the coordinates string
+	 */
+	private String getCoordinatesLabel() {
+		Coordinates c = unit.getCoordinates();
+		CoordinatesLabel label = coordinatesLabel;
+		if ((label == null) || (c.getPhi() != label.phi) || (c.getTheta() != label.theta)) {
+			label = new CoordinatesLabel(c.getPhi(), c.getTheta(), c.getFormattedString());
+			coordinatesLabel = label;
+		}
+		return label.text;
+	}
+
 	public Settlement findSettlementVicinity() {
 		Coordinates c = unit.getCoordinates();
 
@@ -387,4 +406,20 @@ public class LocationTag implements LocationState, Serializable {
 		v = null;
 	}
 
+	/**
+	 * Formatted coordinates with the coordinates they were formatted from, so
+	 * the threads reading them never see the text of other coordinates.
+	 */
+	private static final class CoordinatesLabel {
+
+		private final double phi;
+		private final double theta;
+		private final String text;
+
+		CoordinatesLabel(double phi, double theta, String text) {
+			this.phi = phi;
+			this.theta = theta;
+			this.text = text;
+		}
+	}
 }
\ No newline at end of file
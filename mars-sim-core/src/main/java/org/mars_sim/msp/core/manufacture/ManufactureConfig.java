@@ -69,7 +69,7 @@ public class ManufactureConfig implements Serializable {
      * @throws Exception if error getting info.
      */
     @SuppressWarnings("unchecked")
-    public List<ManufactureProcessInfo> getManufactureProcessList() {
+    public synchronized List<ManufactureProcessInfo> getManufactureProcessList() {
 
         if (manufactureProcessList == null) {
 
@@ -245,7 +245,7 @@ public class ManufactureConfig implements Serializable {
      * @throws Exception if error getting info.
      */
     @SuppressWarnings("unchecked")
-    List<SalvageProcessInfo> getSalvageList() {
+    synchronized List<SalvageProcessInfo> getSalvageList() {
 
         if (salvageList == null) {
 
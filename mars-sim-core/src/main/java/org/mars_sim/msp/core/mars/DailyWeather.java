@@ -8,6 +8,7 @@
 package org.mars_sim.msp.core.mars;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.mars_sim.msp.core.time.MarsClock;
 
@@ -52,6 +53,30 @@ public class DailyWeather implements Serializable {
 		return pressure;
 	}
 
+	/**
+	 * Averages the weather samples of a sol into one daily weather.
+	 * @param samples the samples, at least one.
+	 * @return daily weather with both its values and daily averages set to the averages.
+	 */
+	public static DailyWeather getAverage(List<DailyWeather> samples) {
+		if (samples.isEmpty())
+			throw new IllegalArgumentException("No weather samples to average");
+
+		double t = 0, p = 0, d = 0, w = 0, s = 0, o = 0;
+		for (DailyWeather sample : samples) {
+			t += sample.temperature;
+			p += sample.pressure;
+			d += sample.airDensity;
+			w += sample.windSpeed;
+			s += sample.solarIrradiance;
+			o += sample.opticalDepth;
+		}
+		int n = samples.size();
+		DailyWeather result = new DailyWeather(samples.get(n - 1).clock, t / n, p / n, d / n, w / n, s / n, o / n);
+		result.setDailyAverage(t / n, p / n, d / n, s / n, o / n, w / n);
+		return result;
+	}
+
 	//public int getSol() {
 	//	return marsClock.getSolElapsedFromStart();
 	//}
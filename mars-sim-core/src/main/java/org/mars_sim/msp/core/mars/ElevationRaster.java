@@ -0,0 +1,197 @@
+/**
+ * Mars Simulation Project
+ * ElevationRaster.java
+ * @version 3.1.0 2018-09-03
+ * @author Manny Kung
+ */
+
+package org.mars_sim.msp.core.mars;
+
+import java.awt.Color;
+
+import org.mars_sim.mapdata.MapData;
+import org.mars_sim.mapdata.MapDataUtil;
+
+/**
+ * The elevations of the topographical map, decoded from its colors once per
+ * process and kept in meters, one row of map pixels per array.
+ * <br>
+ * The rows of the map get shorter towards the poles, so an elevation is looked
+ * up by interpolating along the two nearest rows, each at its own width, and then
+ * between them. The slope of the terrain comes from the same four pixels.
+ */
+class ElevationRaster {
+
+	private static final double TWO_PI = Math.PI * 2D;
+	/** The sine of phi below which eastward moves are taken as no slope. */
+	private static final double MIN_SIN_PHI = 1E-6;
+
+	/** The raster of the topographical map, built on first use. */
+	private static volatile ElevationRaster instance;
+
+	// Data members
+	/** The elevations (m), by row from north to south and column eastward from theta PI. */
+	private final short[][] rows;
+
+	/**
+	 * Constructor.
+	 * @param mapData the topographical map data.
+	 */
+	ElevationRaster(MapData mapData) {
+		int rowCount = mapData.getRowCount();
+		if (rowCount == 0)
+			throw new IllegalArgumentException("The map data has no rows");
+
+		rows = new short[rowCount][];
+		float[] hsb = new float[3];
+		for (int y = 0; y < rowCount; y++) {
+			int[] colors = mapData.getRGBRow(y);
+			short[] row = new short[colors.length];
+			for (int x = 0; x < colors.length; x++) {
+				int rgb = colors[x];
+				Color.RGBtoHSB((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, hsb);
+				row[x] = (short) Math.round(decodeElevation(hsb[0], hsb[1]));
+			}
+			rows[y] = row;
+		}
+	}
+
+	/**
+	 * Gets the raster of the topographical map.
+	 * @return raster.
+	 */
+	static ElevationRaster instance() {
+		ElevationRaster result = instance;
+		if (result == null) {
+			synchronized (ElevationRaster.class) {
+				result = instance;
+				if (result == null) {
+					result = new ElevationRaster(MapDataUtil.instance().getTopoMapData());
+					instance = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Works out the elevation of a topographical map color.
+	 * @param hue the hue of the color.
+	 * @param saturation the saturation of the color.
+	 * @return elevation (m).
+	 */
+	static double decodeElevation(float hue, float saturation) {
+		// TODO This code (calculate terrain elevation) needs updating.
+		if ((hue < .792F) && (hue > .033F))
+			return (-13801.99D * hue) + 2500D;
+		else
+			return (-21527.78D * saturation) + 19375D + 2500D;
+	}
+
+	/**
+	 * Gets the elevation at a location, interpolated between the nearest pixels.
+	 * @param phi the phi location.
+	 * @param theta the theta location.
+	 * @return elevation (km).
+	 */
+	double getElevation(double phi, double theta) {
+		// Row y is centered on phi y * PI / row count.
+		int last = rows.length - 1;
+		double y = phi * (rows.length / Math.PI);
+		if (y <= 0D)
+			return getRowElevation(rows[0], theta) / 1000D;
+		if (y >= last)
+			return getRowElevation(rows[last], theta) / 1000D;
+
+		int y0 = (int) y;
+		double fy = y - y0;
+		double north = getRowElevation(rows[y0], theta);
+		double south = getRowElevation(rows[y0 + 1], theta);
+		return (north + (south - north) * fy) / 1000D;
+	}
+
+	/**
+	 * Gets the slope of the terrain at a location in a direction, that is the rate
+	 * of change of the interpolated elevation as one moves that way.
+	 * @param phi the phi location.
+	 * @param theta the theta location.
+	 * @param sinDirection the sine of the direction, 0 being north and clockwise.
+	 * @param cosDirection the cosine of the direction.
+	 * @return slope (km of elevation per km moved, positive uphill).
+	 */
+	double getSlope(double phi, double theta, double sinDirection, double cosDirection) {
+		int last = rows.length - 1;
+		double y = phi * (rows.length / Math.PI);
+
+		// Elevation change per radian (m), southward and eastward.
+		double perPhi;
+		double perTheta;
+		if (y <= 0D) {
+			perPhi = 0D;
+			perTheta = getRowGradient(rows[0], theta);
+		} else if (y >= last) {
+			perPhi = 0D;
+			perTheta = getRowGradient(rows[last], theta);
+		} else {
+			int y0 = (int) y;
+			double fy = y - y0;
+			perPhi = (getRowElevation(rows[y0 + 1], theta) - getRowElevation(rows[y0], theta))
+					* (rows.length / Math.PI);
+			double north = getRowGradient(rows[y0], theta);
+			double south = getRowGradient(rows[y0 + 1], theta);
+			perTheta = north + (south - north) * fy;
+		}
+
+		// Moving north decreases phi. A km eastward is 1 / sin(phi) radians of
+		// theta, which has no bound at the poles, so only the northward part
+		// counts there.
+		double result = -cosDirection * perPhi;
+		double sinPhi = Math.sin(phi);
+		if (sinPhi > MIN_SIN_PHI)
+			result += sinDirection * perTheta / sinPhi;
+		return result / (1000D * Mars.MARS_RADIUS_KM);
+	}
+
+	/**
+	 * Gets the elevation along a row of pixels, interpolated between the nearest
+	 * two and wrapping around the planet.
+	 * @param row the row.
+	 * @param theta the theta location.
+	 * @return elevation (m).
+	 */
+	private static double getRowElevation(short[] row, double theta) {
+		// The map is PI offset from theta.
+		double corrected = (theta + Math.PI) % TWO_PI;
+		if (corrected < 0D)
+			corrected += TWO_PI;
+
+		int width = row.length;
+		double x = corrected * (width / TWO_PI);
+		int x0 = (int) x;
+		double fx = x - x0;
+		if (x0 >= width)
+			x0 -= width;
+		int x1 = (x0 + 1 == width) ? 0 : x0 + 1;
+		return row[x0] + (row[x1] - row[x0]) * fx;
+	}
+
+	/**
+	 * Gets the rate of change of the elevation along a row of pixels, between the
+	 * nearest two.
+	 * @param row the row.
+	 * @param theta the theta location.
+	 * @return elevation change per radian of theta (m).
+	 */
+	private static double getRowGradient(short[] row, double theta) {
+		double corrected = (theta + Math.PI) % TWO_PI;
+		if (corrected < 0D)
+			corrected += TWO_PI;
+
+		int width = row.length;
+		int x0 = (int) (corrected * (width / TWO_PI));
+		if (x0 >= width)
+			x0 -= width;
+		int x1 = (x0 + 1 == width) ? 0 : x0 + 1;
+		return (row[x1] - row[x0]) * (width / TWO_PI);
+	}
+}
@@ -26,6 +26,9 @@ import java.util.logging.Logger;
 
 /**
  * A randomly generated mineral map of Mars.
+ * <br>
+ * The mineral concentrations are indexed in a grid of cells by location, so a
+ * query only looks at the concentrations in the cells near its location.
  */
 public class RandomMineralMap implements Serializable, MineralMap {
 
@@ -47,19 +50,37 @@ public class RandomMineralMap implements Serializable, MineralMap {
 	private static final String RARE_FREQUENCY = "rare";
 	private static final String VERY_RARE_FREQUENCY = "very rare";
 	
+	/** The grid cells, about as big as the .04 radians a concentration may reach. */
+	private static final int CELL_ROWS = 80;
+	private static final int CELL_COLUMNS = 160;
+	private static final double CELL_ANGLE = Math.PI / CELL_ROWS;
+	
 	// List of all mineral concentrations.
 	private List<MineralConcentration> mineralConcentrations;
 	
+	/** The mineral concentrations by grid cell, built on first use. */
+	private transient volatile Map<Integer, List<MineralConcentration>> grid;
+	/** The largest concentration, which is also the largest range (km). */
+	private transient double maxConcentration;
+	
 	/**
 	 * Constructor
 	 */
 	RandomMineralMap() {
-		mineralConcentrations = new ArrayList<MineralConcentration>(2000);
+		this(2000);
 		
 		// Determine mineral concentrations.
 		determineMineralConcentrations();
 	}
 	
+	/**
+	 * Constructor with no mineral concentrations.
+	 * @param capacity the number of mineral concentrations expected.
+	 */
+	RandomMineralMap(int capacity) {
+		mineralConcentrations = new ArrayList<MineralConcentration>(capacity);
+	}
+	
 	/**
 	 * Determine all mineral concentrations.
 	 */
@@ -98,8 +119,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
 						double distance = RandomUtil.getRandomDouble(pixelRadius);
 						Coordinates location = regionLocation.getNewLocation(direction, distance);
 						double concentration = RandomUtil.getRandomDouble(100D);
-						mineralConcentrations.add(new MineralConcentration(
-								location, concentration, mineralType.name));
+						addMineralConcentration(location, concentration, mineralType.name);
 					}
 				}
 				else {
@@ -111,8 +131,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
 						double theta = Coordinates.getRandomLongitude();
 						Coordinates location = new Coordinates(phi, theta);
 						double concentration = RandomUtil.getRandomDouble(100D);
-						mineralConcentrations.add(new MineralConcentration(
-								location, concentration, mineralType.name));
+						addMineralConcentration(location, concentration, mineralType.name);
 					}
 				}
 			}
@@ -123,6 +142,18 @@ public class RandomMineralMap implements Serializable, MineralMap {
 		}
 	}
 	
+	/**
+	 * Adds a mineral concentration.
+	 * @param location the center of the concentration.
+	 * @param concentration the concentration at the center, which is also its range (km).
+	 * @param mineralType the mineral type.
+	 */
+	void addMineralConcentration(Coordinates location, double concentration, String mineralType) {
+		mineralConcentrations.add(new MineralConcentration(location, concentration, mineralType));
+		// The grid is built again on next use.
+		grid = null;
+	}
+	
 	/**
 	 * Gets the dividend due to frequency of mineral type.
 	 * @param frequency the frequency ("common", "uncommon", "rare" or "very rare").
@@ -185,7 +216,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
 		Map<String, Double> result = Collections.emptyMap();
 		boolean emptyMap = true;
 		
-		Iterator<MineralConcentration> i = mineralConcentrations.iterator();
+		Iterator<MineralConcentration> i = getNearbyConcentrations(location, 0D).iterator();
 		while (i.hasNext()) {
 			MineralConcentration mineralConcentration = i.next();
 			double effect = getMineralConcentrationEffect(mineralConcentration, location);
@@ -215,7 +246,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
 			Coordinates location) {
 		double result = 0D;
 		
-		Iterator<MineralConcentration> i = mineralConcentrations.iterator();
+		Iterator<MineralConcentration> i = getNearbyConcentrations(location, 0D).iterator();
 		while (i.hasNext()) {
 			MineralConcentration mineralConcentration = i.next();
 			if (mineralConcentration.getMineralType().equalsIgnoreCase(mineralType)) {
@@ -227,6 +258,99 @@ public class RandomMineralMap implements Serializable, MineralMap {
 		return result;
 	}
 	
+	/**
+	 * Gets the mineral concentrations that may reach within a distance of a
+	 * location, from the grid cells near it.
+	 * @param location the location.
+	 * @param range the distance (km).
+	 * @return list of mineral concentrations, some of which may be too far.
+	 */
+	private List<MineralConcentration> getNearbyConcentrations(Coordinates location, double range) {
+		Map<Integer, List<MineralConcentration>> cells = getGrid();
+		List<MineralConcentration> result = new ArrayList<MineralConcentration>();
+		
+		// The arc angle a concentration may be from the location.
+		double angle = ((range + maxConcentration) / Mars.MARS_RADIUS_KM) + .000001D;
+		double phi = location.getPhi();
+		int firstRow = getCellRow(phi - angle);
+		int lastRow = getCellRow(phi + angle);
+		
+		// Unless a pole is in reach, the concentrations are within a theta range.
+		int firstColumn = 0;
+		int lastColumn = CELL_COLUMNS - 1;
+		if ((phi - angle > 0D) && (phi + angle < Math.PI) && (Math.sin(angle) < Math.sin(phi))) {
+			double thetaRange = Math.asin(Math.sin(angle) / Math.sin(phi));
+			int columns = (int) Math.floor((location.getTheta() + thetaRange) / CELL_ANGLE)
+					- (int) Math.floor((location.getTheta() - thetaRange) / CELL_ANGLE) + 1;
+			if (columns < CELL_COLUMNS) {
+				firstColumn = (int) Math.floor((location.getTheta() - thetaRange) / CELL_ANGLE);
+				lastColumn = firstColumn + columns - 1;
+			}
+		}
+		
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int wrappedColumn = ((column % CELL_COLUMNS) + CELL_COLUMNS) % CELL_COLUMNS;
+				List<MineralConcentration> cell = cells.get((row * CELL_COLUMNS) + wrappedColumn);
+				if (cell != null) result.addAll(cell);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Gets the grid of mineral concentrations, building it if needed.
+	 * @return map of cell index and the concentrations in the cell.
+	 */
+	private Map<Integer, List<MineralConcentration>> getGrid() {
+		Map<Integer, List<MineralConcentration>> result = grid;
+		if (result == null) {
+			result = new HashMap<Integer, List<MineralConcentration>>();
+			double max = 0D;
+			Iterator<MineralConcentration> i = mineralConcentrations.iterator();
+			while (i.hasNext()) {
+				MineralConcentration mineralConcentration = i.next();
+				Coordinates location = mineralConcentration.getLocation();
+				int cellIndex = (getCellRow(location.getPhi()) * CELL_COLUMNS) + getCellColumn(location.getTheta());
+				List<MineralConcentration> cell = result.get(cellIndex);
+				if (cell == null) {
+					cell = new ArrayList<MineralConcentration>(1);
+					result.put(cellIndex, cell);
+				}
+				cell.add(mineralConcentration);
+				if (mineralConcentration.getConcentration() > max) max = mineralConcentration.getConcentration();
+			}
+			maxConcentration = max;
+			grid = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets the grid row of a phi location.
+	 * @param phi the phi location.
+	 * @return row index, clamped to the grid.
+	 */
+	private static int getCellRow(double phi) {
+		int row = (int) Math.floor(phi / CELL_ANGLE);
+		if (row < 0) row = 0;
+		if (row >= CELL_ROWS) row = CELL_ROWS - 1;
+		return row;
+	}
+	
+	/**
+	 * Gets the grid column of a theta location.
+	 * @param theta the theta location.
+	 * @return column index, clamped to the grid.
+	 */
+	private static int getCellColumn(double theta) {
+		int column = (int) Math.floor(theta / CELL_ANGLE);
+		if (column < 0) column = 0;
+		if (column >= CELL_COLUMNS) column = CELL_COLUMNS - 1;
+		return column;
+	}
+	
 	/**
 	 * Gets the effect of a given mineral concentration on a location.
 	 * @param concentration the mineral concentration.
@@ -287,7 +411,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
         
         List<MineralConcentration> locales = new ArrayList<MineralConcentration>(0);
         
-        Iterator<MineralConcentration> i = mineralConcentrations.iterator();
+        Iterator<MineralConcentration> i = getNearbyConcentrations(startingLocation, range).iterator();
         while (i.hasNext()) {
             MineralConcentration mineralConc = i.next();
             double distance = startingLocation.getDistance(mineralConc.getLocation());
@@ -314,6 +438,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
     public void destroy() {
         mineralConcentrations.clear();
         mineralConcentrations = null;
+        grid = null;
     }
 	
     /**
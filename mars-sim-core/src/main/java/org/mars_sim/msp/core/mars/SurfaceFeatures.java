@@ -40,6 +40,9 @@ public class SurfaceFeatures implements Serializable {
 	// see http://ccar.colorado.edu/asen5050/projects/projects_2001/benoit/solar_irradiance_on_mars.htm
 
 	private static final double HALF_PI = Math.PI / 2d;
+	/** The solar zenith angles where twilight starts and ends (radians). */
+	public static final double TWILIGHT_START = 1.4708;
+	public static final double TWILIGHT_END = 1.6708;
 
 	// Data members
 
@@ -170,16 +173,7 @@ public class SurfaceFeatures implements Serializable {
     	if (orbitInfo != null) {
     	    double z =  orbitInfo.getSolarZenithAngle(location);
     	    //System.out.println("z2 : " + Math.round(z * 180D / Math.PI * 1000D)/1000D);
-
-    	    //double twilightzone = .2D;
-    	    if (z  < 1.4708) {
-    	        result = 1D;
-    	    } else if (z  > 1.6708) {
-    	        result = 0D;
-    	    } else {
-    	        //double twilightAngle = z - 1.6708;
-    	        result = 8.354 - 5 * z;
-    	    }
+    	    result = getSunlight(z);
     	}
 
     	else  {
@@ -197,6 +191,22 @@ public class SurfaceFeatures implements Serializable {
         return result;
     }
 
+    /**
+     * Returns the sunlight conditions for a solar zenith angle, with a twilight
+     * zone of .2 radians around the horizon.
+     * @param z the solar zenith angle (radians).
+     * @return value from 0.0 - 1.0
+     */
+    public static double getSunlight(double z) {
+        if (z < TWILIGHT_START) {
+            return 1D;
+        } else if (z > TWILIGHT_END) {
+            return 0D;
+        } else {
+            return 8.354 - 5 * z;
+        }
+    }
+
     public double getOpticalDepth(Coordinates location) {
         if (opticalDepthMap.containsKey(location))
             return opticalDepthMap.get(location);
@@ -260,9 +270,13 @@ public class SurfaceFeatures implements Serializable {
     public double getSolarIrradiance(Coordinates location) {
 
         MarsClock currentTime = sim.getMasterClock().getMarsClock();
-        if (!currentTime.equals(solarIrradianceMapCacheTime)) {
-        	solarIrradianceMapCache.clear();
-            solarIrradianceMapCacheTime = (MarsClock) currentTime.clone();
+        // Settlements ticked in parallel share the cache, so only the first of them
+        // in a tick may clear it.
+        synchronized (solarIrradianceMapCache) {
+	        if (!currentTime.equals(solarIrradianceMapCacheTime)) {
+	        	solarIrradianceMapCache.clear();
+	            solarIrradianceMapCacheTime = (MarsClock) currentTime.clone();
+	        }
         }
         
         // If location is not in cache, calculate solar irradiance.
@@ -7,11 +7,9 @@
 
 package org.mars_sim.msp.core.mars;
 
-import org.mars_sim.mapdata.MapDataUtil;
 import org.mars_sim.msp.core.Coordinates;
 import org.mars_sim.msp.core.Direction;
 
-import java.awt.Color;
 import java.io.Serializable;
 
 /** 
@@ -27,6 +25,11 @@ public class TerrainElevation implements Serializable {
 	private static final double OLYMPUS_MONS_CALDERA_THETA = 3.944444D;
 	private static final double ASCRAEUS_MONS_PHI = 1.363102D;
 	private static final double ASCRAEUS_MONS_THETA = 4.459316D;
+	/** The elevation (km) below which the mountain tops are patched, and what to. */
+	private static final double PATCH_BELOW = 3D;
+	private static final double PATCHED_ELEVATION = 20D;
+	/** The distance ahead (km) the terrain difficulty used to be sampled at. */
+	private static final double SAMPLE_DISTANCE = 1.5D;
 
     /** 
      * Constructor
@@ -35,18 +38,24 @@ public class TerrainElevation implements Serializable {
     	
     }
 
-    /** Returns terrain steepness angle from location by sampling 11.1
-      *  km in given direction
+    /** Returns terrain steepness angle from location by the slope of the
+      *  terrain in given direction, as if sampled 1.5 km ahead over 11.1 km
       *  @param currentLocation the coordinates of the current location
       *  @param currentDirection the current direction (in radians)
       *  @return terrain steepness angle (in radians)
       */
     public double determineTerrainDifficulty(Coordinates currentLocation, Direction currentDirection) {
-        double newY = -1.5D * currentDirection.getCosDirection();
-        double newX = 1.5D * currentDirection.getSinDirection();
-        Coordinates sampleLocation = currentLocation.convertRectToSpherical(newX, newY);
-        double elevationChange = getElevation(sampleLocation) - getElevation(currentLocation);
-        double result = Math.atan(elevationChange / 11.1D);
+        double phi = currentLocation.getPhi();
+        double theta = currentLocation.getTheta();
+        ElevationRaster raster = ElevationRaster.instance();
+
+        // The patched caldera tops are flat.
+        if (isPatched(phi, theta) && (raster.getElevation(phi, theta) < PATCH_BELOW))
+            return 0D;
+
+        double slope = raster.getSlope(phi, theta, currentDirection.getSinDirection(),
+                currentDirection.getCosDirection());
+        double result = Math.atan(slope * SAMPLE_DISTANCE / 11.1D);
 
         return result;
     }
@@ -57,20 +66,8 @@ public class TerrainElevation implements Serializable {
      */
     public double getElevation(Coordinates location) {
     	
-    	// Find hue and saturation color components at location.
-        Color color = MapDataUtil.instance().getTopoMapData().getRGBColor(location.getPhi(), location.getTheta());
-        float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-        float hue = hsb[0];
-        float saturation = hsb[1];
-
-		// Determine elevation in meters.
-		// TODO This code (calculate terrain elevation) needs updating.
-        double elevation = 0D;
-        if ((hue < .792F) && (hue > .033F)) elevation = (-13801.99D * hue) + 2500D;
-        else elevation = (-21527.78D * saturation) + 19375D + 2500D;
-        
-        // Determine elevation in kilometers.
-        elevation = elevation / 1000D;
+    	// Interpolate the elevation decoded from the topographical map.
+        double elevation = ElevationRaster.instance().getElevation(location.getPhi(), location.getTheta());
         
         // Patch elevation problems at certain locations.
 		elevation = patchElevation(elevation, location);
@@ -86,21 +83,34 @@ public class TerrainElevation implements Serializable {
      */
     private double patchElevation(double elevation, Coordinates location) {
     	double result = elevation;
-    	
-    	// Patch errors at Olympus Mons caldera.
-		if (Math.abs(location.getTheta() - OLYMPUS_MONS_CALDERA_THETA) < .04D) {
-			if (Math.abs(location.getPhi() - OLYMPUS_MONS_CALDERA_PHI) < .04D) {
-				if (elevation < 3D) result = 20D;
-			}
-    	}
-    	
-    	// Patch errors at Ascraeus Mons.
-		if (Math.abs(location.getTheta() - ASCRAEUS_MONS_THETA) < .02D) {
-			if (Math.abs(location.getPhi() - ASCRAEUS_MONS_PHI) < .02D) {
-				if (elevation < 3D) result = 20D;
-			}
+
+    	// Patch errors at Olympus Mons caldera and Ascraeus Mons.
+		if (isPatched(location.getPhi(), location.getTheta())) {
+			if (elevation < PATCH_BELOW) result = PATCHED_ELEVATION;
 		}
-    	
+
     	return result;
     }
+
+    /**
+     * Checks if a location is on a mountain top whose elevation errors are patched.
+     * @param phi the phi location.
+     * @param theta the theta location.
+     * @return true if patched.
+     */
+    private static boolean isPatched(double phi, double theta) {
+    	// Olympus Mons caldera.
+		if (Math.abs(theta - OLYMPUS_MONS_CALDERA_THETA) < .04D) {
+			if (Math.abs(phi - OLYMPUS_MONS_CALDERA_PHI) < .04D)
+				return true;
+    	}
+
+    	// Ascraeus Mons.
+		if (Math.abs(theta - ASCRAEUS_MONS_THETA) < .02D) {
+			if (Math.abs(phi - ASCRAEUS_MONS_PHI) < .02D)
+				return true;
+		}
+
+    	return false;
+    }
 }
\ No newline at end of file
@@ -7,6 +7,8 @@
  */
 package org.mars_sim.msp.core.mars;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -59,6 +61,11 @@ implements Serializable {
 
 	private static final int RECORDING_FREQUENCY = 50; // in millisols
 
+	/** The most grid cells each weather cache holds. */
+	private static final int MAX_CACHED_CELLS = 1024;
+	/** The most locations whose weather is recorded. */
+	private static final int MAX_RECORDED_LOCATIONS = 64;
+
 	private int quotientCache;
 
 	private int msols;
@@ -83,16 +90,17 @@ implements Serializable {
 
 	private int newStormID = 1;
 
-	private Map <Coordinates, Map<Integer, List<DailyWeather>>> weatherDataMap = new ConcurrentHashMap<>();
-	private Map <Integer, List<DailyWeather>> dailyRecordMap = new ConcurrentHashMap<>();
-
-	private List<DailyWeather> todayWeather = new CopyOnWriteArrayList<>();
-	private List<Coordinates> coordinateList = new CopyOnWriteArrayList<>();
+	/** The weather of the recorded locations, averaged by sol. */
+	private WeatherCellMap<Map<Integer, DailyWeather>> dailyWeatherMap = new WeatherCellMap<>(MAX_RECORDED_LOCATIONS);
+	/** The weather samples of the recorded locations today. */
+	private Map<Coordinates, List<DailyWeather>> todaySamples = new ConcurrentHashMap<>();
+	/** The locations whose weather is recorded, the most recently asked about. */
+	private WeatherCellMap<Coordinates> recordedLocations = new WeatherCellMap<>(MAX_RECORDED_LOCATIONS);
 
-	private transient Map<Coordinates, Double> temperatureCacheMap;
-	private transient Map<Coordinates, Double> airPressureCacheMap;
-	private transient Map<Coordinates, Double> windSpeedCacheMap;
-	private transient Map<Coordinates, Integer> windDirCacheMap;
+	private transient volatile WeatherCellMap<Reading> temperatureCacheMap;
+	private transient volatile WeatherCellMap<Reading> airPressureCacheMap;
+	private transient volatile WeatherCellMap<Reading> windSpeedCacheMap;
+	private transient volatile WeatherCellMap<Reading> windDirCacheMap;
 
 	private List<DustStorm> planetEncirclingDustStorms = new CopyOnWriteArrayList <>();
 	private List<DustStorm> regionalDustStorms = new CopyOnWriteArrayList <>();
@@ -139,8 +147,19 @@ implements Serializable {
 	 */
 	// 2015-03-17 Added computeAirDensity()
 	public void checkLocation(Coordinates location) {
-		if (!coordinateList.contains(location))
-			coordinateList.add(location);
+		if (recordedLocations.get(location) == null)
+			recordedLocations.put(location, location);
+	}
+
+	/**
+	 * Gets the weather update period of the current time. A cached reading is
+	 * worked out again in a new period.
+	 * @return update period, counted from the start of the sim.
+	 */
+	private int getUpdatePeriod() {
+		if (marsClock == null)
+			return 0;
+		return ((marsClock.getMissionSol() * 1000) + marsClock.getMsol0()) / MILLISOLS_PER_UPDATE;
 	}
 
 	/**
@@ -173,7 +192,12 @@ implements Serializable {
 		double new_speed = 0;
 
 		if (windSpeedCacheMap == null)
-			windSpeedCacheMap = new ConcurrentHashMap<>();
+			initializeCacheMaps();
+
+		int period = getUpdatePeriod();
+		Reading reading = windSpeedCacheMap.get(location);
+		if ((reading != null) && (reading.period == period))
+			return reading.value;
 
 		// On sol 214 in this list of Viking wind speeds, 25.9 m/sec (93.24 km/hr) was recorded.	
 		
@@ -182,7 +206,7 @@ implements Serializable {
 		// had increased to 17 m/s (61 km/h), with gusts up to 26 m/s (94 km/h)
 		// https://en.wikipedia.org/wiki/Climate_of_Mars
 		
-		if (windSpeedCacheMap.containsKey(location)) {
+		if (reading != null) {
 			
 			double rand = RandomUtil.getRandomDouble(1) - RandomUtil.getRandomDouble(1);
 			
@@ -236,11 +260,11 @@ implements Serializable {
 			}
 			else {
 				
-				new_speed = windSpeedCacheMap.get(location) + rand;	
+				new_speed = reading.value + rand;	
 
 			}
 			
-			new_speed = windSpeedCacheMap.get(location) + rand;
+			new_speed = reading.value + rand;
 
 		}
 		else {
@@ -258,11 +282,26 @@ implements Serializable {
 		if (new_speed < 0)
 			new_speed = 0;
 
-		windSpeedCacheMap.put(location, new_speed);
+		windSpeedCacheMap.put(location, new Reading(new_speed, period));
 		
 		return new_speed;
 	}
 
+	/**
+	 * Creates the cache maps that are missing. Settlements ticked in parallel
+	 * would otherwise each create one and lose the readings of the others.
+	 */
+	private synchronized void initializeCacheMaps() {
+		if (temperatureCacheMap == null)
+			temperatureCacheMap = new WeatherCellMap<>(MAX_CACHED_CELLS);
+		if (airPressureCacheMap == null)
+			airPressureCacheMap = new WeatherCellMap<>(MAX_CACHED_CELLS);
+		if (windSpeedCacheMap == null)
+			windSpeedCacheMap = new WeatherCellMap<>(MAX_CACHED_CELLS);
+		if (windDirCacheMap == null)
+			windDirCacheMap = new WeatherCellMap<>(MAX_CACHED_CELLS);
+	}
+
 	/**
 	 * Gets the wind speed at a given location.
 	 * @return wind speed in m/s.
@@ -286,14 +325,19 @@ implements Serializable {
 		
 		//checkLocation(location);
 
-		int newDir = RandomUtil.getRandomInt(359);
-
 		if (windDirCacheMap == null)
-			windDirCacheMap = new ConcurrentHashMap<>();
+			initializeCacheMaps();
+
+		int period = getUpdatePeriod();
+		Reading reading = windDirCacheMap.get(location);
+		if ((reading != null) && (reading.period == period))
+			return (int) reading.value;
 
-		if (windDirCacheMap.containsKey(location))
+		int newDir = RandomUtil.getRandomInt(359);
+
+		if (reading != null)
 			// TODO: should the ratio of the weight of the past direction and present direction of the wind be 9 to 1 ?
-			result = (windDirCacheMap.get(location) * 9 + newDir) / 10;
+			result = ((int) reading.value * 9 + newDir) / 10;
 		else {
 			result = newDir;
 		}
@@ -301,7 +345,7 @@ implements Serializable {
 		if (result > 360)
 			result = result - 360;
 
-		windDirCacheMap.put(location, result);
+		windDirCacheMap.put(location, new Reading(result, period));
 
 		return result;
 	}
@@ -338,21 +382,16 @@ implements Serializable {
 */
 	    // Lazy instantiation of airPressureCacheMap.
 	    if (airPressureCacheMap == null) {
-	        airPressureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
+	        initializeCacheMaps();
         }
 
-
-		if (msols % MILLISOLS_PER_UPDATE == 1) {
-			//System.out.println("marsClock : "+ marsClock);
-			//System.out.println("millisols : "+ millisols);
-			double newP = calculateAirPressure(location, 0);
-			airPressureCacheMap.put(location, newP);
-			//System.out.println("air pressure : "+cache);
-			return newP;
-		}
-		else {
-		    return getCachedReading(airPressureCacheMap, location);//, AIR_PRESSURE);
+		int period = getUpdatePeriod();
+		Reading reading = airPressureCacheMap.get(location);
+		if ((reading == null) || (reading.period != period)) {
+			reading = new Reading(calculateAirPressure(location, 0), period);
+			airPressureCacheMap.put(location, reading);
 		}
+		return reading.value;
 	}
 
 	/**
@@ -417,18 +456,16 @@ implements Serializable {
 */
 	    // Lazy instantiation of temperatureCacheMap.
 	    if (temperatureCacheMap == null) {
-            temperatureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
+            initializeCacheMaps();
         }
 
-		if (msols % MILLISOLS_PER_UPDATE == 0) {
-			double newT = calculateTemperature(location);
-			temperatureCacheMap.put(location, newT);
-			//System.out.println("Weather.java: temperatureCache is " + temperatureCache);
-			return newT;
-		}
-		else {
-		    return getCachedReading(temperatureCacheMap, location);//, TEMPERATURE);
+		int period = getUpdatePeriod();
+		Reading reading = temperatureCacheMap.get(location);
+		if ((reading == null) || (reading.period != period)) {
+			reading = new Reading(calculateTemperature(location), period);
+			temperatureCacheMap.put(location, reading);
 		}
+		return reading.value;
 	}
 
 
@@ -610,20 +647,22 @@ implements Serializable {
 
 			double wind_dt = 0;
 			if (windSpeedCacheMap == null)
-				windSpeedCacheMap = new ConcurrentHashMap<>();
+				initializeCacheMaps();
 
-			if (windSpeedCacheMap.containsKey(location))
-				wind_dt = windSpeedCacheMap.get(location) * 1.5D;
+			Reading wind = windSpeedCacheMap.get(location);
+			if (wind != null)
+				wind_dt = wind.value * 1.5D;
 
 			t = equatorial_temperature + viking_dt - lat_dt - terrain_dt + seasonal_dt - wind_dt + up - down;
 
 			double previous_t = 0;
 			if (temperatureCacheMap == null) {
-			    temperatureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
+			    initializeCacheMaps();
 			}
 
-			if (temperatureCacheMap.containsKey(location)) {
-				previous_t = temperatureCacheMap.get(location);
+			Reading previous = temperatureCacheMap.get(location);
+			if (previous != null) {
+				previous_t = previous.value;
 			}
 
 			t = Math.round ((t + previous_t )/2.0 *100.0)/100.0;
@@ -636,7 +675,7 @@ implements Serializable {
 	}
 
 	/**
-	 * Clears weather-related parameter cache map to prevent excessive build-up of key-value sets
+	 * Clears the temperature and air pressure caches.
 	 */
 	// 2015-03-06 Added clearMap()
     public synchronized void clearMap() {
@@ -649,35 +688,6 @@ implements Serializable {
         }
     }
 
-	/**
-	 * Provides the surface temperature /air pressure at a given location from the temperatureCacheMap.
-	 * If calling the given location for the first time from the cache map, call update temperature/air pressure instead
-	 * @return temperature or pressure
-	 */
-	// 2015-03-06 Added getCachedReading()
-    public double getCachedReading(Map<Coordinates, Double> map, Coordinates location) {//, int value) {
-    	double result;
-
-       	if (map.containsKey(location)) {
-       		result = map.get(location);
-    	}
-    	else {
-    		double cache = 0;
-    		//if (value == TEMPERATURE )
-    		if (map.equals(temperatureCacheMap))
-    			cache = calculateTemperature(location);
-    		//else if (value == AIR_PRESSURE )
-    		else  if (map.equals(airPressureCacheMap))
-    			cache = calculateAirPressure(location, 0);
-
-			map.put(location, cache);
-
-    		result = cache;
-    	}
-		//System.out.println("air pressure cache : "+ result);
-    	return result;
-    }
-
 	/**
 	 * Time passing in the simulation.
 	 * @param time time in millisols
@@ -698,12 +708,17 @@ implements Serializable {
 
 	    if (quotientCache != quotient) {
 
-	    	coordinateList.forEach(location -> {
-	    		DailyWeather weather = new DailyWeather(marsClock, getTemperature(location), getAirPressure(location),
-	    				getAirDensity(location), getWindSpeed(location),
+	    	for (Coordinates location : recordedLocations.getValues()) {
+	    		DailyWeather weather = new DailyWeather((MarsClock) marsClock.clone(), getTemperature(location),
+	    				getAirPressure(location), getAirDensity(location), getWindSpeed(location),
 	    				surfaceFeatures.getSolarIrradiance(location), surfaceFeatures.getOpticalDepth(location));
-		    	todayWeather.add(weather);
-	    	});
+	    		List<DailyWeather> samples = todaySamples.get(location);
+	    		if (samples == null) {
+	    			samples = new ArrayList<>();
+	    			todaySamples.put(location, samples);
+	    		}
+	    		samples.add(weather);
+	    	}
 
 	    	quotientCache = quotient;
 
@@ -769,20 +784,16 @@ implements Serializable {
 
 			checkOnDustDevils();
 
-	    	coordinateList.forEach(location -> {
-	    		// compute the average pressure
-	    		//todayWeather.forEach( d -> {
-	    		//	sum = d.getPressure();
-	    		//});
-	    		//double ave = sum / todayWeather.size();
-	    		//dailyVariationAirPressure = Math.abs(dailyVariationAirPressure - ave);
-	    		// save the todayWeather into dailyRecordMap
-	    		dailyRecordMap.put(solCache, todayWeather);
-	    		// save the dailyRecordMap into weatherDataMap
-	       		weatherDataMap.put(location, dailyRecordMap);
-	    	});
-    		// create a brand new list
-    		todayWeather = new CopyOnWriteArrayList<>();
+	    	// Compact the samples of each location today into a daily average.
+	    	for (Map.Entry<Coordinates, List<DailyWeather>> entry : todaySamples.entrySet()) {
+	    		Map<Integer, DailyWeather> dailyRecordMap = dailyWeatherMap.get(entry.getKey());
+	    		if (dailyRecordMap == null)
+	    			dailyRecordMap = new ConcurrentHashMap<>();
+	    		dailyRecordMap.put(solCache, DailyWeather.getAverage(entry.getValue()));
+	       		dailyWeatherMap.put(entry.getKey(), dailyRecordMap);
+	    	}
+    		// create a brand new map
+    		todaySamples = new ConcurrentHashMap<>();
 			solCache = newSol;
 			//computeDailyVariationAirPressure();
 		}
@@ -980,15 +991,101 @@ implements Serializable {
 		return dailyVariationAirPressure;
 	}
 
+	/**
+	 * Implementing readObject method for serialization.
+	 * Older saved simulations hold the weather samples of each location by sol in
+	 * weatherDataMap, which are averaged into dailyWeatherMap here, and the
+	 * recorded locations in coordinateList. Their samples of the current sol carry
+	 * no location and are dropped.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		ObjectInputStream.GetField fields = in.readFields();
+
+		quotientCache = fields.get("quotientCache", 0);
+		msols = fields.get("msols", 0);
+		checkStorm = fields.get("checkStorm", 0);
+		solCache = fields.get("solCache", 0);
+		L_s_cache = fields.get("L_s_cache", 0);
+		dx = fields.get("dx", 255D * Math.PI/180D - Math.PI);
+		viking_dt = fields.get("viking_dt", 0D);
+		TEMPERATURE_DELTA_PER_DEG_LAT = fields.get("TEMPERATURE_DELTA_PER_DEG_LAT", 0D);
+		dailyVariationAirPressure = fields.get("dailyVariationAirPressure", 0D);
+		newStormID = fields.get("newStormID", 1);
+		planetEncirclingDustStorms = (List<DustStorm>) fields.get("planetEncirclingDustStorms", null);
+		regionalDustStorms = (List<DustStorm>) fields.get("regionalDustStorms", null);
+		localDustStorms = (List<DustStorm>) fields.get("localDustStorms", null);
+		dustDevils = (List<DustStorm>) fields.get("dustDevils", null);
+
+		dailyWeatherMap = (WeatherCellMap<Map<Integer, DailyWeather>>) fields.get("dailyWeatherMap", null);
+		todaySamples = (Map<Coordinates, List<DailyWeather>>) fields.get("todaySamples", null);
+		recordedLocations = (WeatherCellMap<Coordinates>) fields.get("recordedLocations", null);
+
+		if (dailyWeatherMap == null) {
+			dailyWeatherMap = new WeatherCellMap<>(MAX_RECORDED_LOCATIONS);
+			Map<Coordinates, Map<Integer, List<DailyWeather>>> oldData =
+					(Map<Coordinates, Map<Integer, List<DailyWeather>>>) getOldField(fields, "weatherDataMap");
+			if (oldData != null) {
+				for (Map.Entry<Coordinates, Map<Integer, List<DailyWeather>>> e : oldData.entrySet()) {
+					Map<Integer, DailyWeather> dailyRecordMap = new ConcurrentHashMap<>();
+					for (Map.Entry<Integer, List<DailyWeather>> sol : e.getValue().entrySet()) {
+						if (!sol.getValue().isEmpty())
+							dailyRecordMap.put(sol.getKey(), DailyWeather.getAverage(sol.getValue()));
+					}
+					dailyWeatherMap.put(e.getKey(), dailyRecordMap);
+				}
+			}
+		}
+
+		if (todaySamples == null)
+			todaySamples = new ConcurrentHashMap<>();
+
+		if (recordedLocations == null) {
+			recordedLocations = new WeatherCellMap<>(MAX_RECORDED_LOCATIONS);
+			List<Coordinates> oldLocations = (List<Coordinates>) getOldField(fields, "coordinateList");
+			if (oldLocations != null) {
+				for (Coordinates location : oldLocations)
+					recordedLocations.put(location, location);
+			}
+		}
+
+		if (planetEncirclingDustStorms == null)
+			planetEncirclingDustStorms = new CopyOnWriteArrayList<>();
+		if (regionalDustStorms == null)
+			regionalDustStorms = new CopyOnWriteArrayList<>();
+		if (localDustStorms == null)
+			localDustStorms = new CopyOnWriteArrayList<>();
+		if (dustDevils == null)
+			dustDevils = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Gets a field from an older saved simulation.
+	 * @param fields the fields read from the stream.
+	 * @param name the field name.
+	 * @return the field value or null if not in the stream.
+	 * @throws IOException if error reading the field.
+	 */
+	private static Object getOldField(ObjectInputStream.GetField fields, String name) throws IOException {
+		try {
+			return fields.get(name, null);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Prepare object for garbage collection.
 	 */
 	public void destroy() {
 
-		weatherDataMap = null;
-		dailyRecordMap = null;
-		todayWeather = null;
-		coordinateList = null;
+		dailyWeatherMap = null;
+		todaySamples = null;
+		recordedLocations = null;
 		if (temperatureCacheMap != null) {
 		    temperatureCacheMap.clear();
 		    temperatureCacheMap = null;
@@ -1002,4 +1099,18 @@ implements Serializable {
 		terrainElevation = null;
 		masterClock = null;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * A cached weather reading and the update period it was worked out in.
+	 */
+	private static class Reading {
+
+		private final double value;
+		private final int period;
+
+		private Reading(double value, int period) {
+			this.value = value;
+			this.period = period;
+		}
+	}
+}
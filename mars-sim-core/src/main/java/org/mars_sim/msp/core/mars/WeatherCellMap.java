@@ -0,0 +1,116 @@
+/**
+ * Mars Simulation Project
+ * WeatherCellMap.java
+ * @version 3.1.0 2018-09-06
+ * @author Manny Kung
+ */
+
+package org.mars_sim.msp.core.mars;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.mars_sim.msp.core.Coordinates;
+
+/**
+ * A map of weather values by location, where nearby locations share a grid
+ * cell of about 6 km and so a value.
+ * <br>
+ * The map holds up to a maximum number of cells, dropping the least recently
+ * used cell when a new one is added, so locations passed by moving vehicles and
+ * people don't build up.
+ */
+class WeatherCellMap<V> implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of cell rows from pole to pole, each .1 degree. */
+	private static final int CELL_ROWS = 1800;
+	private static final int CELL_COLUMNS = CELL_ROWS * 2;
+	private static final double CELL_ANGLE = Math.PI / CELL_ROWS;
+
+	// Data members
+	private final int maxCells;
+	/** The values by cell, least recently used first. */
+	private final LinkedHashMap<Integer, V> values;
+
+	/**
+	 * Constructor.
+	 * @param maxCells the most cells held.
+	 */
+	WeatherCellMap(int maxCells) {
+		if (maxCells < 1)
+			throw new IllegalArgumentException("maxCells must be positive: " + maxCells);
+		this.maxCells = maxCells;
+		values = new LinkedHashMap<Integer, V>(16, .75F, true);
+	}
+
+	/**
+	 * Gets the grid cell of a location.
+	 * @param location the location.
+	 * @return cell index.
+	 */
+	static int getCell(Coordinates location) {
+		int row = (int) (location.getPhi() / CELL_ANGLE);
+		if (row >= CELL_ROWS)
+			row = CELL_ROWS - 1;
+		int column = (int) (location.getTheta() / CELL_ANGLE);
+		if (column >= CELL_COLUMNS)
+			column = CELL_COLUMNS - 1;
+		return (row * CELL_COLUMNS) + column;
+	}
+
+	/**
+	 * Gets the value of the cell of a location.
+	 * @param location the location.
+	 * @return value or null if none.
+	 */
+	synchronized V get(Coordinates location) {
+		return values.get(getCell(location));
+	}
+
+	/**
+	 * Sets the value of the cell of a location, dropping the least recently used
+	 * cell if the map is full.
+	 * @param location the location.
+	 * @param value the value.
+	 */
+	synchronized void put(Coordinates location, V value) {
+		values.put(getCell(location), value);
+		if (values.size() > maxCells) {
+			Iterator<V> i = values.values().iterator();
+			i.next();
+			i.remove();
+		}
+	}
+
+	/**
+	 * Gets all the values, ordered by cell. The order the cells were used in
+	 * depends on how settlements ticked in parallel interleave, so it is not
+	 * handed out.
+	 * @return list of values.
+	 */
+	synchronized List<V> getValues() {
+		return new ArrayList<V>(new TreeMap<Integer, V>(values).values());
+	}
+
+	/**
+	 * Gets the number of cells held.
+	 * @return number of cells.
+	 */
+	synchronized int size() {
+		return values.size();
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	synchronized void clear() {
+		values.clear();
+	}
+}
@@ -384,29 +384,27 @@ public class PhysicalCondition implements Serializable {
 				solCache = solElapsed;
 			}
 			
-			String loc = person.getLocationTag().getQuickLocation();
-
 			// Check life support system
 			try {	
 
 				if (consumeOxygen(support, o2_consumption * (time / 1000D)))
 					LogConsolidated.log(logger, Level.SEVERE, 5000, sourceName,
-						"[" + loc + "] " + name + " has insufficient oxygen.", null);
+						"[" + person.getLocationTag().getQuickLocation() + "] " + name + " has insufficient oxygen.", null);
 				// if (consumeWater(support, h2o_consumption * (time / 1000D)))
 				// LogConsolidated.log(logger, Level.SEVERE, 5000, sourceName, name + " has
 				// insufficient water.", null);
 				if (requireAirPressure(support, minimum_air_pressure))
 					LogConsolidated.log(logger, Level.SEVERE, 5000, sourceName,
-						"[" + loc + "] " + name + " is under insufficient air pressure.", null);
+						"[" + person.getLocationTag().getQuickLocation() + "] " + name + " is under insufficient air pressure.", null);
 				if (requireTemperature(support, min_temperature, max_temperature))
 					LogConsolidated.log(logger, Level.SEVERE, 5000, sourceName, 
-						"[" + loc + "] " + name + " cannot survive long at this extreme temperature.", null);
+						"[" + person.getLocationTag().getQuickLocation() + "] " + name + " cannot survive long at this extreme temperature.", null);
 
 				// TODO: how to run to another building/location
 			} catch (Exception e) {
 				e.printStackTrace();
 				LogConsolidated.log(logger, Level.SEVERE, 5000, sourceName,
-						"[" + loc + "] " + name + "'s life support system is failing !", null);
+						"[" + person.getLocationTag().getQuickLocation() + "] " + name + "'s life support system is failing !", null);
 			}
 
 			// Update radiation counter
@@ -143,9 +143,8 @@ public class TaskSchedule implements Serializable {
     		// Removed the sol log from LAST_SOL ago
         	if (solElapsed > NUM_SOLS) {
         		int diff = solElapsed - NUM_SOLS;
-        		allActivities.remove(diff);
-        		if (allActivities.containsKey(diff-1))
-        			allActivities.remove(diff-1);
+        		// A task may not be recorded on every sol, so remove every sol up to diff
+        		allActivities.keySet().removeIf(sol -> sol <= diff);
 
         	}
 
@@ -30,6 +30,7 @@ import org.mars_sim.msp.core.person.ai.task.TaskManager;
 import org.mars_sim.msp.core.structure.ChainOfCommand;
 import org.mars_sim.msp.core.structure.Settlement;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 
 /**
  * The Mind class represents a person's mind. It keeps track of missions and
@@ -217,7 +218,12 @@ public class Mind implements Serializable {
 			}
 
 			if (hasActiveMission) {
+				TickProfiler profiler = TickProfiler.instance();
+				// The mission may end while performed.
+				Class<?> type = mission.getClass();
+				long start = profiler.start(TickProfiler.Category.MISSION);
 				mission.performMission(person);
+				profiler.record(TickProfiler.Category.MISSION, type, start);
 			}
 
 			if (!taskManager.hasActiveTask()) {
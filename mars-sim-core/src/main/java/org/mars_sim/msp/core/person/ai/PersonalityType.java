@@ -309,7 +309,7 @@ implements Serializable {
 	 * Prepare object for garbage collection.
 	 */
     public void destroy() {
-        if (personalityDistribution != null) personalityDistribution.clear();
+        // The distribution is the one held by PersonConfig, so don't clear it.
         personalityDistribution = null;
         personalityType = null;
         person = null;
@@ -1113,7 +1113,7 @@ implements Serializable {
     	boolean goodPosition = false;
         // Try to put building next to the same building type.
         List<Building> sameBuildings = site.getSettlement().getBuildingManager().getBuildingsOfSameType(buildingType);
-        Collections.shuffle(sameBuildings);
+        RandomUtil.shuffle(sameBuildings);
         for (Building b : sameBuildings) {
         	logger.info("Positioning next to " + b.getNickName());
             goodPosition = positionNextToBuilding(site, b, dist, false);
@@ -1166,7 +1166,7 @@ implements Serializable {
             	else {
 	                // Try to put building next to another inhabitable building.
 	                List<Building> inhabitableBuildings = settlement.getBuildingManager().getBuildings(FunctionType.LIFE_SUPPORT);
-	                Collections.shuffle(inhabitableBuildings);
+	                RandomUtil.shuffle(inhabitableBuildings);
 	                for (Building b : inhabitableBuildings) {
 	                	// Match the floor area (e.g look more organize to put all 7m x 9m next to one another)
 		                if (b.getFloorArea() == site.getWidth()*site.getLength()) {
@@ -1191,7 +1191,7 @@ implements Serializable {
         	logger.info("buildingType : " + buildingType);
             // Try to put building next to another inhabitable building.
             List<Building> inhabitableBuildings = s.getBuildingManager().getBuildings();//FunctionType.LIFE_SUPPORT);
-            Collections.shuffle(inhabitableBuildings);
+            RandomUtil.shuffle(inhabitableBuildings);
             for (Building b : inhabitableBuildings) {
             	// Match the floor area (e.g look more organize to put all 7m x 9m next to one another)
                 if (b.getFloorArea() == site.getWidth()*site.getLength()) {
@@ -1211,7 +1211,7 @@ implements Serializable {
             if (buildingManager.getNumBuilding() > 0) {
                 for (int x = 10; !goodPosition; x+= 10) {
                     List<Building> allBuildings = buildingManager.getACopyOfBuildings();
-                    Collections.shuffle(allBuildings);
+                    RandomUtil.shuffle(allBuildings);
                     for (Building b : allBuildings) {
                         goodPosition = positionNextToBuilding(site, b, (double) x, false);
                         if (goodPosition) {
@@ -1242,7 +1242,7 @@ implements Serializable {
 
         BuildingManager manager = settlement.getBuildingManager();
         List<Building> inhabitableBuildings = manager.getBuildings(FunctionType.LIFE_SUPPORT);
-        Collections.shuffle(inhabitableBuildings);
+        RandomUtil.shuffle(inhabitableBuildings);
 
         BuildingConfig buildingConfig = SimulationConfig.instance().getBuildingConfiguration();
         int baseLevel = buildingConfig.getBaseLevel(buildingType);
@@ -1578,7 +1578,7 @@ implements Serializable {
         directions.add(back);
         directions.add(right);
         directions.add(left);
-        Collections.shuffle(directions);
+        RandomUtil.shuffle(directions);
 
         double direction = 0D;
         double structureDistance = 0D;
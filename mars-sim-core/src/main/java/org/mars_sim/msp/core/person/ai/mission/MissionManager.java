@@ -9,14 +9,18 @@ package org.mars_sim.msp.core.person.ai.mission;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.Unit;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.person.ai.mission.meta.MetaMission;
 import org.mars_sim.msp.core.person.ai.mission.meta.MetaMissionUtil;
@@ -24,6 +28,7 @@ import org.mars_sim.msp.core.robot.Robot;
 import org.mars_sim.msp.core.structure.Settlement;
 import org.mars_sim.msp.core.structure.building.function.FunctionType;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.vehicle.GroundVehicle;
 import org.mars_sim.msp.core.vehicle.Rover;
 import org.mars_sim.msp.core.vehicle.Vehicle;
 
@@ -31,10 +36,13 @@ import org.mars_sim.msp.core.vehicle.Vehicle;
  * This class keeps track of ongoing missions
  * in the simulation.<br>
  * <br>
- * The simulation has only one mission manager.
+ * The simulation has only one mission manager.<br>
+ * <br>
+ * The missions of members, vehicles and settlements are indexed, and the
+ * indexes kept up to date by listening to the missions.
  */
 public class MissionManager
-implements Serializable {
+implements Serializable, MissionListener {
 
 	/** default serial id. */
 	private static final long serialVersionUID = 1L;
@@ -48,38 +56,26 @@ implements Serializable {
 	/** Mission listeners. */
 	private transient List<MissionManagerListener> listeners;
 
-	// Cache variables.
-	private transient double totalProbCache;
-
 	//private String phaseDescriptionCache;
 	
     // Transient members
-	//private transient Person personCache;
-	//private transient Robot robotCache;
-	private transient MarsClock personTimeCache;
-	private transient MarsClock robotTimeCache;
-	private transient Map<MetaMission, Double> missionProbCache;
-	private transient Map<MetaMission, Double> robotMissionProbCache;
+	/** The mission probabilities of each person and robot, worked out in the current pulse. */
+	private transient volatile Map<Unit, MissionProbabilities> probCaches;
+
+	/** The indexes of the missions, rebuilt after loading. */
+	private transient volatile Indexes indexes;
 
 	/**
 	 * Constructor.
 	 */
 	public MissionManager() {
-		// Initialize cache values.
-		//personCache = null;
-		//robotCache = null;
-		personTimeCache = null;
-		robotTimeCache = null;
-		totalProbCache = 0D;
-
 		//if (Simulation.instance().getMasterClock() != null)
 		//	currentTime = Simulation.instance().getMasterClock().getMarsClock();
 		
 		// Initialize data members
-		missions = new ArrayList<Mission>(0);
+		missions = new CopyOnWriteArrayList<Mission>();
 		listeners = Collections.synchronizedList(new ArrayList<MissionManagerListener>(0));
-		missionProbCache = new HashMap<MetaMission, Double>(MetaMissionUtil.getMetaMissions().size());
-		robotMissionProbCache = new HashMap<MetaMission, Double>(MetaMissionUtil.getRobotMetaMissions().size());
+		probCaches = new ConcurrentHashMap<Unit, MissionProbabilities>();
 	}
 
 
@@ -143,11 +139,12 @@ implements Serializable {
 	 * @return mission for that member
 	 */
 	public Mission getMission(MissionMember member) {
-		Mission result = null;
-		for (Mission tempMission : missions) {
-		    if (tempMission.hasMember(member)) {
-				result = tempMission;
-			}
+		Map<MissionMember, Mission> memberIndex = getIndexes().members;
+		Mission result = memberIndex.get(member);
+		if ((result != null) && !result.hasMember(member)) {
+			// The member left without an event, e.g. a robot.
+			memberIndex.remove(member, result);
+			result = null;
 		}
 
 		return result;
@@ -211,8 +208,11 @@ implements Serializable {
 			throw new IllegalArgumentException("newMission is null");
 		}
 
-		if (!missions.contains(newMission)) {
-			missions.add(newMission);
+		getIndexes();
+		if (addToMissions(newMission)) {
+			// Not holding the lock, as the mission holds its listeners while firing events.
+			newMission.addMissionListener(this);
+			indexMission(newMission);
 
 			// Update listeners.
 			if (listeners == null) {
@@ -233,14 +233,29 @@ implements Serializable {
 		}
 	}
 
+	/**
+	 * Adds a mission to the mission list if not there already.
+	 * @param newMission the mission.
+	 * @return true if added.
+	 */
+	private synchronized boolean addToMissions(Mission newMission) {
+		if (missions.contains(newMission)) {
+			return false;
+		}
+		missions.add(newMission);
+		return true;
+	}
+
 	/**
 	 * Removes a mission from the mission list.
 	 * @param the mission to be removed
 	 */
 	private void removeMission(Mission oldMission) {
 
-		if (missions.contains(oldMission)) {
-			missions.remove(oldMission);
+		if (missions.remove(oldMission)) {
+			// Not holding the lock, as the mission holds its listeners while firing events.
+			oldMission.removeMissionListener(this);
+			unindexMission(oldMission);
 
 			// Update listeners.
 			if (listeners == null) {
@@ -265,19 +280,11 @@ implements Serializable {
 	 * @return total probability weight
 	 */
 	public double getTotalMissionProbability(Person person) {
-		// If cache is not current, calculate the probabilities.
-		if (!useCache(person)) {
-			calculateProbability(person);
-		}
-		return totalProbCache;
+		return getProbabilities(person).total;
 	}
 
 	public double getTotalMissionProbability(Robot robot) {
-		// If cache is not current, calculate the probabilities.
-		if (!useCache(robot)) {
-			calculateProbability(robot);
-		}
-		return totalProbCache;
+		return getProbabilities(robot).total;
 	}
 
 	/**
@@ -288,12 +295,10 @@ implements Serializable {
 	public Mission getNewMission(Person person) {
 		Mission result = null;
 		// If cache is not current, calculate the probabilities.
-		if (!useCache(person)) {
-			calculateProbability(person);
-		}
+		MissionProbabilities probabilities = getProbabilities(person);
 
 		// Get a random number from 0 to the total weight
-		double totalProbability = getTotalMissionProbability(person);
+		double totalProbability = probabilities.total;
 
 		if (totalProbability == 0D) {
 			throw new IllegalStateException(person +
@@ -305,10 +310,10 @@ implements Serializable {
 
 		// Determine which mission is selected.
 		MetaMission selectedMetaMission = null;
-		Iterator<MetaMission> i = missionProbCache.keySet().iterator();
+		Iterator<MetaMission> i = probabilities.probs.keySet().iterator();
 		while (i.hasNext() && (selectedMetaMission == null)) {
 			MetaMission metaMission = i.next();
-			double probWeight = missionProbCache.get(metaMission);
+			double probWeight = probabilities.probs.get(metaMission);
 			if (r <= probWeight) {
 				selectedMetaMission = metaMission;
 			}
@@ -325,7 +330,7 @@ implements Serializable {
 		result = selectedMetaMission.constructInstance(person);
 
 		// Clear time cache.
-		personTimeCache = null;
+		getProbabilityCaches().remove(person);
 
 		return result;
 	}
@@ -386,17 +391,19 @@ implements Serializable {
 			throw new IllegalArgumentException("settlement is null");
 		}
 
-		List<Mission> settlementMissions = new ArrayList<Mission>();
-		if (!getMissions().isEmpty()) {
-			Iterator<Mission> i = getMissions().iterator();
-			while (i.hasNext()) {
-				Mission mission = i.next();
-				if (!mission.isDone() && (settlement == mission.getAssociatedSettlement())) {
-					settlementMissions.add(mission);
-				}
+		List<Mission> settlementMissions = getIndexes().settlements.get(settlement);
+		if (settlementMissions == null) {
+			return Collections.emptyList();
+		}
+
+		for (Mission mission : settlementMissions) {
+			if (mission.isDone()) {
+				// The mission was set done without an event.
+				updateSettlementIndex(mission);
+				return getMissionsForSettlement(settlement);
 			}
 		}
-		
+
 		return settlementMissions;
 	}
 
@@ -411,158 +418,398 @@ implements Serializable {
 			throw new IllegalArgumentException("vehicle is null");
 		}
 
-		Mission result = null;
+		Map<Vehicle, Mission> vehicleIndex = getIndexes().vehicles;
+		Mission result = vehicleIndex.get(vehicle);
+		if ((result != null) && !result.isDone() && isMissionVehicle(result, vehicle)) {
+			return result;
+		}
 
-		Iterator<Mission> i = getMissions().iterator();
-		while (i.hasNext()) {
-			Mission mission = i.next();
-			if (!mission.isDone()) {
-				if (mission instanceof VehicleMission) {
-					if (((VehicleMission) mission).getVehicle() == vehicle) {
-						result = mission;
-					}
+		if ((result != null) || vehicle.isReservedForMission()) {
+			// Some vehicles are taken on by a mission without an event, so look
+			// through the missions when the index may be out of date.
+			result = null;
+			for (Mission mission : missions) {
+				if (!mission.isDone() && isMissionVehicle(mission, vehicle)) {
+					result = mission;
+				}
+			}
 
-					if (mission instanceof Mining) {
-						if (((Mining)mission).getLightUtilityVehicle() == vehicle) {
-							result = mission;
-						}
-					}
+			if (result != null)
+				vehicleIndex.put(vehicle, result);
+			else
+				vehicleIndex.remove(vehicle);
+		}
 
-					if (mission instanceof Trade) {
-						Rover towingRover = (Rover) ((Trade) mission).getVehicle();
-						if (towingRover != null) {
-							if (towingRover.getTowedVehicle() == vehicle) {
-								result = mission;
-							}
-						}
-					}
-				}
-				else if (mission instanceof BuildingConstructionMission) {
-					BuildingConstructionMission construction = (BuildingConstructionMission) mission;
-					if (construction.getConstructionVehicles() != null) {
-						if (construction.getConstructionVehicles().contains(vehicle)) {
-							result = mission;
-							//logger.info(vehicle.getName() + " has been reserved for the building construction mission.");
-						}
-					}
-					//else {
-						// 2015-12-28
-					//	result = null;
-					//}
+		return result;
+	}
+
+	/**
+	 * Checks if a vehicle is a part of a mission.
+	 * @param mission the mission.
+	 * @param vehicle the vehicle.
+	 * @return true if the vehicle is a part of the mission.
+	 */
+	private static boolean isMissionVehicle(Mission mission, Vehicle vehicle) {
+		if (mission instanceof VehicleMission) {
+			if (((VehicleMission) mission).getVehicle() == vehicle) {
+				return true;
+			}
+
+			if (mission instanceof Mining) {
+				if (((Mining)mission).getLightUtilityVehicle() == vehicle) {
+					return true;
 				}
-				else if (mission instanceof BuildingSalvageMission) {
-					BuildingSalvageMission salvage = (BuildingSalvageMission) mission;
-					if (salvage.getConstructionVehicles().contains(vehicle)) {
-						result = mission;
+			}
+
+			if (mission instanceof Trade) {
+				Rover towingRover = (Rover) ((Trade) mission).getVehicle();
+				if (towingRover != null) {
+					if (towingRover.getTowedVehicle() == vehicle) {
+						return true;
 					}
 				}
 			}
 		}
+		else if (mission instanceof BuildingConstructionMission) {
+			List<GroundVehicle> vehicles = ((BuildingConstructionMission) mission).getConstructionVehicles();
+			if ((vehicles != null) && vehicles.contains(vehicle)) {
+				return true;
+			}
+		}
+		else if (mission instanceof BuildingSalvageMission) {
+			List<GroundVehicle> vehicles = ((BuildingSalvageMission) mission).getConstructionVehicles();
+			if ((vehicles != null) && vehicles.contains(vehicle)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
 
+	/**
+	 * Gets the indexes, building them if needed, e.g. after loading a saved
+	 * simulation. The first lookup may come from several settlements ticked in
+	 * parallel, so the indexes are built whole and only then published.
+	 * @return the indexes.
+	 */
+	private Indexes getIndexes() {
+		Indexes result = indexes;
+		if (result == null) {
+			// Listen to the missions first and outside the lock, as a mission holds
+			// its listeners while firing events. An event fired before the indexes
+			// are published is already seen by buildIndexes.
+			for (Mission mission : getMissionList()) {
+				mission.addMissionListener(this);
+			}
+			result = buildIndexes();
+		}
 		return result;
 	}
 
 	/**
-	 * Remove missions that are already completed.
+	 * Gets the mission list, converting it if saved by an older version.
+	 * @return the missions.
 	 */
-	private void cleanMissions() {
+	private synchronized List<Mission> getMissionList() {
+		if (missions == null) { // for passing maven test
+			missions = new CopyOnWriteArrayList<Mission>();
+		}
+		else if (!(missions instanceof CopyOnWriteArrayList)) {
+			// Saved by an older version.
+			missions = new CopyOnWriteArrayList<Mission>(missions);
+		}
+		return missions;
+	}
 
-		int index = 0;
-		if (missions != null) { // for passing maven test
-			while (index < missions.size()) {
-				Mission tempMission = missions.get(index);
-				if ((tempMission == null) || tempMission.isDone()) {
-					removeMission(tempMission);
+	/**
+	 * Builds the indexes from the missions and publishes them, if not done yet.
+	 * @return the indexes.
+	 */
+	private synchronized Indexes buildIndexes() {
+		if (indexes == null) {
+			Indexes result = new Indexes();
+			for (Mission mission : getMissionList()) {
+				for (MissionMember member : mission.getMembers()) {
+					result.members.put(member, mission);
 				}
-				else {
-					index++;
+				indexVehicles(result, mission);
+				Settlement settlement = mission.getAssociatedSettlement();
+				if ((settlement != null) && !mission.isDone()) {
+					result.missionSettlements.put(mission, settlement);
 				}
 			}
+			for (Settlement settlement : new HashSet<Settlement>(result.missionSettlements.values())) {
+				setSettlementMissions(result, settlement);
+			}
+			indexes = result;
 		}
+		return indexes;
 	}
 
 	/**
-	 * Calculates and caches the probabilities.
-	 * @param person the person to check for.
+	 * Adds a mission to the indexes.
+	 * @param mission the mission.
 	 */
-	private void calculateProbability(Person person) {
-		if (missionProbCache == null) {
-			missionProbCache = new HashMap<MetaMission, Double>(MetaMissionUtil.getMetaMissions().size());
+	private synchronized void indexMission(Mission mission) {
+		for (MissionMember member : mission.getMembers()) {
+			indexes.members.put(member, mission);
 		}
+		updateVehicleIndex(mission);
+		updateSettlementIndex(mission);
+	}
 
-		// Clear total probabilities.
-		totalProbCache = 0D;
+	/**
+	 * Removes a mission from the indexes.
+	 * @param mission the mission.
+	 */
+	private synchronized void unindexMission(Mission mission) {
+		if (indexes == null) {
+			return;
+		}
+		indexes.members.values().removeAll(Collections.singleton(mission));
+		indexes.vehicles.values().removeAll(Collections.singleton(mission));
+		updateSettlementIndex(mission);
+	}
 
-		// Determine probabilities.
-		Iterator<MetaMission> i = MetaMissionUtil.getMetaMissions().iterator();
-		while (i.hasNext()) {
-			MetaMission metaMission = i.next();
-			double probability = metaMission.getProbability(person);
-			if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
-				missionProbCache.put(metaMission, probability);
-				totalProbCache += probability;
+	/**
+	 * Updates a member of a mission in the index.
+	 * @param mission the mission.
+	 * @param member the member.
+	 * @param joined true if the member joined the mission, false if left.
+	 */
+	private synchronized void updateMemberIndex(Mission mission, MissionMember member, boolean joined) {
+		if (indexes == null) {
+			return;
+		}
+		if (joined) {
+			indexes.members.put(member, mission);
+		}
+		else {
+			indexes.members.remove(member, mission);
+		}
+	}
+
+	/**
+	 * Updates the vehicles of a mission in the index.
+	 * @param mission the mission.
+	 */
+	private synchronized void updateVehicleIndex(Mission mission) {
+		if (indexes == null) {
+			return;
+		}
+		indexes.vehicles.values().removeAll(Collections.singleton(mission));
+		if (missions.contains(mission)) {
+			indexVehicles(indexes, mission);
+		}
+	}
+
+	/**
+	 * Adds the vehicles of a mission to an index, unless it is done.
+	 * @param index the indexes.
+	 * @param mission the mission.
+	 */
+	private static void indexVehicles(Indexes index, Mission mission) {
+		if (mission.isDone()) {
+			return;
+		}
+
+		Map<Vehicle, Mission> vehicleIndex = index.vehicles;
+		if (mission instanceof VehicleMission) {
+			Vehicle vehicle = ((VehicleMission) mission).getVehicle();
+			if (vehicle != null) {
+				vehicleIndex.put(vehicle, mission);
 			}
-			else {
-				missionProbCache.put(metaMission, 0D);
-				logger.severe(person.getName() + " bad mission probability: " +  metaMission.getName() +
-						" probability: " + probability);
+			if (mission instanceof Trade) {
+				Rover towingRover = (Rover) vehicle;
+				if ((towingRover != null) && (towingRover.getTowedVehicle() != null)) {
+					vehicleIndex.put(towingRover.getTowedVehicle(), mission);
+				}
+			}
+			if (mission instanceof Mining) {
+				Vehicle luv = ((Mining) mission).getLightUtilityVehicle();
+				if (luv != null) {
+					vehicleIndex.put(luv, mission);
+				}
+			}
+		}
+		else if (mission instanceof BuildingConstructionMission) {
+			List<GroundVehicle> vehicles = ((BuildingConstructionMission) mission).getConstructionVehicles();
+			if (vehicles != null) {
+				for (GroundVehicle vehicle : vehicles) {
+					vehicleIndex.put(vehicle, mission);
+				}
+			}
+		}
+		else if (mission instanceof BuildingSalvageMission) {
+			List<GroundVehicle> vehicles = ((BuildingSalvageMission) mission).getConstructionVehicles();
+			if (vehicles != null) {
+				for (GroundVehicle vehicle : vehicles) {
+					vehicleIndex.put(vehicle, mission);
+				}
 			}
 		}
-
-		// Set the time cache to the current time.
-		personTimeCache = (MarsClock) Simulation.instance().getMasterClock().getMarsClock().clone();
 	}
 
-	private void calculateProbability(Robot robot) {
-		if (robotMissionProbCache == null) {
-			robotMissionProbCache = new HashMap<MetaMission, Double>(MetaMissionUtil.getRobotMetaMissions().size());
+	/**
+	 * Updates the associated settlement of a mission in the index.
+	 * @param mission the mission.
+	 */
+	private synchronized void updateSettlementIndex(Mission mission) {
+		if (indexes == null) {
+			return;
 		}
 
-		// Clear total probabilities.
-		totalProbCache = 0D;
+		Settlement oldSettlement = indexes.missionSettlements.remove(mission);
+		if (oldSettlement != null) {
+			setSettlementMissions(indexes, oldSettlement);
+		}
 
-		// Determine probabilities.
-		Iterator<MetaMission> i = MetaMissionUtil.getRobotMetaMissions().iterator();
-		while (i.hasNext()) {
-			MetaMission metaMission = i.next();
-			double probability = metaMission.getProbability(robot);
-			if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
-				robotMissionProbCache.put(metaMission, probability);
-				totalProbCache += probability;
-			}
-			else {
-				robotMissionProbCache.put(metaMission, 0D);
-				logger.severe(robot.getName() + " bad mission probability: " +  metaMission.getName() +
-						" probability: " + probability);
+		Settlement settlement = mission.getAssociatedSettlement();
+		if ((settlement != null) && !mission.isDone() && missions.contains(mission)) {
+			indexes.missionSettlements.put(mission, settlement);
+			setSettlementMissions(indexes, settlement);
+		}
+	}
+
+	/**
+	 * Replaces the missions of a settlement in an index, keeping them in the
+	 * order they were added.
+	 * @param index the indexes.
+	 * @param settlement the settlement.
+	 */
+	private void setSettlementMissions(Indexes index, Settlement settlement) {
+		List<Mission> list = new ArrayList<Mission>();
+		for (Mission m : missions) {
+			if (index.missionSettlements.get(m) == settlement) {
+				list.add(m);
 			}
 		}
 
-		// Set the time cache to the current time.
-		robotTimeCache = (MarsClock) Simulation.instance().getMasterClock().getMarsClock().clone();
+		if (list.isEmpty())
+			index.settlements.remove(settlement);
+		else
+			index.settlements.put(settlement, Collections.unmodifiableList(list));
+	}
+
+	/**
+	 * Catches mission update events to keep the indexes up to date.
+	 * @param event the mission event.
+	 */
+	@Override
+	public void missionUpdate(MissionEvent event) {
+		Mission mission = (Mission) event.getSource();
 
+		MissionEventType type = event.getType();
+		if (type == MissionEventType.ADD_MEMBER_EVENT) {
+			updateMemberIndex(mission, (MissionMember) event.getTarget(), true);
+		}
+		else if (type == MissionEventType.REMOVE_MEMBER_EVENT) {
+			updateMemberIndex(mission, (MissionMember) event.getTarget(), false);
+		}
+		else if (type == MissionEventType.VEHICLE_EVENT) {
+			updateVehicleIndex(mission);
+		}
+		else if (type == MissionEventType.END_MISSION_EVENT) {
+			updateVehicleIndex(mission);
+			updateSettlementIndex(mission);
+		}
+		else if ((type == MissionEventType.ASSOCIATED_SETTLEMENT_EVENT)
+				|| (type == MissionEventType.STARTING_SETTLEMENT_EVENT)) {
+			updateSettlementIndex(mission);
+		}
 	}
 
 	/**
-	 * Checks if task probability cache should be used.
-	 * @param the person to check for.
-	 * @return true if cache should be used.
+	 * Remove missions that are already completed.
 	 */
-	private boolean useCache(Person person) {
-		//if (currentTime == null)
+	private void cleanMissions() {
+
+		int index = 0;
+		if (missions != null) { // for passing maven test
+			while (index < missions.size()) {
+				Mission tempMission = missions.get(index);
+				if ((tempMission == null) || tempMission.isDone()) {
+					removeMission(tempMission);
+				}
+				else {
+					index++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the cached mission probabilities of the people and robots, creating
+	 * the cache if needed, e.g. after loading a saved simulation.
+	 * @return the caches.
+	 */
+	private Map<Unit, MissionProbabilities> getProbabilityCaches() {
+		if (probCaches == null) {
+			synchronized (this) {
+				if (probCaches == null) {
+					probCaches = new ConcurrentHashMap<Unit, MissionProbabilities>();
+				}
+			}
+		}
+		return probCaches;
+	}
+
+	/**
+	 * Gets the mission probabilities of a person, calculating them if not done
+	 * yet at the current time. Every person has probabilities of their own, so
+	 * the people of settlements ticked in parallel never see each other's.
+	 * @param person the person to check for.
+	 * @return the probabilities.
+	 */
+	private MissionProbabilities getProbabilities(Person person) {
 		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
-		return currentTime.equals(personTimeCache);// && (person == personCache);
+		MissionProbabilities result = getProbabilityCaches().get(person);
+		if ((result == null) || !currentTime.equals(result.time)) {
+			result = new MissionProbabilities((MarsClock) currentTime.clone());
+			for (MetaMission metaMission : MetaMissionUtil.getMetaMissions()) {
+				double probability = metaMission.getProbability(person);
+				if (!result.put(metaMission, probability)) {
+					logger.severe(person.getName() + " bad mission probability: " +  metaMission.getName() +
+							" probability: " + probability);
+				}
+			}
+			getProbabilityCaches().put(person, result);
+		}
+		return result;
 	}
 
-	private boolean useCache(Robot robot) {
-		//if (currentTime == null)
+	/**
+	 * Gets the mission probabilities of a robot, calculating them if not done
+	 * yet at the current time.
+	 * @param robot the robot to check for.
+	 * @return the probabilities.
+	 */
+	private MissionProbabilities getProbabilities(Robot robot) {
 		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
-		return currentTime.equals(robotTimeCache);// && (robot == robotCache);
+		MissionProbabilities result = getProbabilityCaches().get(robot);
+		if ((result == null) || !currentTime.equals(result.time)) {
+			result = new MissionProbabilities((MarsClock) currentTime.clone());
+			for (MetaMission metaMission : MetaMissionUtil.getRobotMetaMissions()) {
+				double probability = metaMission.getProbability(robot);
+				if (!result.put(metaMission, probability)) {
+					logger.severe(robot.getName() + " bad mission probability: " +  metaMission.getName() +
+							" probability: " + probability);
+				}
+			}
+			getProbabilityCaches().put(robot, result);
+		}
+		return result;
 	}
+
 	/**
 	 * Updates mission based on passing time.
 	 * @param time amount of time passing (millisols)
 	 */
 	public void timePassing(double time) {
+		// The probabilities are only good for the time they were worked out at.
+		getProbabilityCaches().clear();
+		// Remove inactive missions, no longer done by the settlement lookups.
+		cleanMissions();
 		Iterator<Mission> i = missions.iterator();
 		while (i.hasNext()) {
 			i.next().timePassing(time);
@@ -575,25 +822,62 @@ implements Serializable {
 	public void destroy() {
 		// take care to avoid null exceptions
 		if (missions != null) {
+			for (Mission mission : missions) {
+				mission.removeMissionListener(this);
+			}
 			missions.clear();
 			missions = null;
 		}
+		indexes = null;
 		if (listeners != null) {
 			listeners.clear();
 			listeners = null;
 		}
 		
-		//personCache = null;
-		personTimeCache = null;
-		robotTimeCache = null;
-		if (missionProbCache != null) {
-			missionProbCache.clear();
-			missionProbCache = null;
+		if (probCaches != null) {
+			probCaches.clear();
+			probCaches = null;
 		}
-		if (robotMissionProbCache != null) {
-			robotMissionProbCache.clear();
-			robotMissionProbCache = null;
+	}
+
+	/**
+	 * The indexes of the missions. Only the maps change once published.
+	 */
+	private static class Indexes {
+
+		private final Map<MissionMember, Mission> members = new ConcurrentHashMap<MissionMember, Mission>();
+		private final Map<Vehicle, Mission> vehicles = new ConcurrentHashMap<Vehicle, Mission>();
+		/** The active missions of each settlement, replaced rather than changed. */
+		private final Map<Settlement, List<Mission>> settlements = new ConcurrentHashMap<Settlement, List<Mission>>();
+		private final Map<Mission, Settlement> missionSettlements = new ConcurrentHashMap<Mission, Settlement>();
+	}
+
+	/**
+	 * The mission probabilities of a person or robot at a given time, in the
+	 * order of the meta missions.
+	 */
+	private static class MissionProbabilities {
+
+		private final MarsClock time;
+		private final Map<MetaMission, Double> probs = new LinkedHashMap<MetaMission, Double>();
+		private double total;
+
+		MissionProbabilities(MarsClock time) {
+			this.time = time;
 		}
 
+		/**
+		 * Adds the probability of a meta mission, counting an invalid one as 0.
+		 * @return false if the probability is invalid.
+		 */
+		boolean put(MetaMission metaMission, double probability) {
+			if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
+				probs.put(metaMission, probability);
+				total += probability;
+				return true;
+			}
+			probs.put(metaMission, 0D);
+			return false;
+		}
 	}
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -82,8 +83,8 @@ implements Serializable {
 	public static final double MAX_STARTING_PROBABILITY = 10D;
 
 	// Static cache for holding trade profit info.
-	public static final Map<Settlement, TradeProfitInfo> TRADE_PROFIT_CACHE = new HashMap<Settlement, TradeProfitInfo>();
-	public static final Map<Settlement, Settlement> TRADE_SETTLEMENT_CACHE = new HashMap<Settlement, Settlement>();
+	public static final Map<Settlement, TradeProfitInfo> TRADE_PROFIT_CACHE = new ConcurrentHashMap<Settlement, TradeProfitInfo>();
+	public static final Map<Settlement, Settlement> TRADE_SETTLEMENT_CACHE = new ConcurrentHashMap<Settlement, Settlement>();
 
 	static final int MAX_MEMBERS = 2;
 	
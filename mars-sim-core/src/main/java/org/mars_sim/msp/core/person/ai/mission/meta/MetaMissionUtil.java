@@ -62,7 +62,7 @@ public class MetaMissionUtil {
 	 * 
 	 * @return list of meta missions.
 	 */
-	public static List<MetaMission> getMetaMissions() {
+	public static synchronized List<MetaMission> getMetaMissions() {
 
 		// Lazy initialize meta missions list if necessary.
 		if (metaMissions == null) {
@@ -74,7 +74,7 @@ public class MetaMissionUtil {
 		return metaMissions;
 	}
 
-	public static List<MetaMission> getRobotMetaMissions() {
+	public static synchronized List<MetaMission> getRobotMetaMissions() {
 
 		// Lazy initialize meta missions list if necessary.
 		if (robotMetaMissions == null) {
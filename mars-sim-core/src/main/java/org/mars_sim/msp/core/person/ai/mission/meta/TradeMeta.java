@@ -179,15 +179,22 @@ public class TradeMeta implements MetaMission {
 				}
 
 				if (!useCache) {
-					double startTime = System.currentTimeMillis();
-					tradeProfit = TradeUtil.getBestTradeProfit(settlement, rover);
-					double endTime = System.currentTimeMillis();
-//					logger.info("[" + settlement.getName() + "] " // getBestTradeProfit: " + (endTime - startTime)
-//					// + " milliseconds "
-//							+ " Profit: " + (int) tradeProfit + " VP");
-					Trade.TRADE_PROFIT_CACHE.put(settlement,
-							new TradeProfitInfo(tradeProfit, (MarsClock) currentTime.clone()));
-					Trade.TRADE_SETTLEMENT_CACHE.put(settlement, TradeUtil.bestTradeSettlementCache);
+					// TradeUtil keeps the best settlement in a static field, so it is read
+					// back under the same lock as it was worked out.
+					synchronized (TradeUtil.class) {
+						double startTime = System.currentTimeMillis();
+						tradeProfit = TradeUtil.getBestTradeProfit(settlement, rover);
+						double endTime = System.currentTimeMillis();
+//						logger.info("[" + settlement.getName() + "] " // getBestTradeProfit: " + (endTime - startTime)
+//						// + " milliseconds "
+//								+ " Profit: " + (int) tradeProfit + " VP");
+						Trade.TRADE_PROFIT_CACHE.put(settlement,
+								new TradeProfitInfo(tradeProfit, (MarsClock) currentTime.clone()));
+						if (TradeUtil.bestTradeSettlementCache != null)
+							Trade.TRADE_SETTLEMENT_CACHE.put(settlement, TradeUtil.bestTradeSettlementCache);
+						else
+							Trade.TRADE_SETTLEMENT_CACHE.remove(settlement);
+					}
 				}
 			}
 		} catch (Exception e) {
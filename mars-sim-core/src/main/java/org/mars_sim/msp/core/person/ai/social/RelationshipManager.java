@@ -34,7 +34,8 @@ import com.phoenixst.plexus.Traverser;
  * The RelationshipManager class keeps track of all the social
  * relationships between people.<br/>
  * <br/>
- * The simulation instance has only one relationship manager.
+ * The simulation instance has only one relationship manager. It is shared by
+ * the settlements ticked in parallel, so its methods are synchronized.
  */
 public class RelationshipManager // extends Thread
 implements Serializable {
@@ -82,7 +83,7 @@ implements Serializable {
 	 * @param person the person to add.
 	 * @param settlement the settlement the person starts at.
 	 */
-	public void addInitialSettler(Person person, Settlement settlement) {
+	public synchronized void addInitialSettler(Person person, Settlement settlement) {
 		addPerson(person, settlement.getIndoorPeople());
 	}
 
@@ -92,7 +93,7 @@ implements Serializable {
 	 * @param person the person to add.
 	 * @param immigrantGroup the groups of immigrants this person belongs to.
 	 */
-	public void addNewImmigrant(Person person, Collection<Person> immigrantGroup) {
+	public synchronized void addNewImmigrant(Person person, Collection<Person> immigrantGroup) {
 		addPerson(person, immigrantGroup);
 	}
 
@@ -128,7 +129,7 @@ implements Serializable {
 	 * @param person2 the second person (order isn't important)
 	 * @param relationshipType the type of relationship (see Relationship static members)
 	 */
-	public void addRelationship(Person person1, Person person2, String relationshipType) {
+	public synchronized void addRelationship(Person person1, Person person2, String relationshipType) {
 		try {
 			Relationship relationship = new Relationship(person1, person2, relationshipType);
 			relationshipGraph.addEdge(relationship, person1, person2, false);
@@ -143,7 +144,7 @@ implements Serializable {
 	 * @param person2 the second person (order isn't important)
 	 * @return true if the two people have a relationship
 	 */
-	public boolean hasRelationship(Person person1, Person person2) {
+	public synchronized boolean hasRelationship(Person person1, Person person2) {
 		EdgePredicate edgePredicate = EdgePredicateFactory.createEqualsNodes(person1, person2, GraphUtils.UNDIRECTED_MASK);
 		return (relationshipGraph.getEdge(edgePredicate) != null);
 	}
@@ -154,7 +155,7 @@ implements Serializable {
 	 * @param person2 the second person (order isn't important)
 	 * @return the relationship or null if none.
 	 */
-	public Relationship getRelationship(Person person1, Person person2) {
+	public synchronized Relationship getRelationship(Person person1, Person person2) {
 		Relationship result = null;
 		if (hasRelationship(person1, person2)) {
 			EdgePredicate edgePredicate = EdgePredicateFactory.createEqualsNodes(person1, person2, GraphUtils.UNDIRECTED_MASK);
@@ -168,7 +169,7 @@ implements Serializable {
 	 * @param person the person
 	 * @return a list of the person's Relationship objects.
 	 */
-	public List<Relationship> getAllRelationships(Person person) {
+	public synchronized List<Relationship> getAllRelationships(Person person) {
 		List<Relationship> result = new ArrayList<Relationship>();
 		Traverser traverser = relationshipGraph.traverser(person, GraphUtils.UNDIRECTED_TRAVERSER_PREDICATE);
 		while (traverser.hasNext()) {
@@ -184,7 +185,7 @@ implements Serializable {
 	 * @param person the person
 	 * @return a list of the people the person knows.
 	 */
-	public Collection<Person> getAllKnownPeople(Person person) {
+	public synchronized Collection<Person> getAllKnownPeople(Person person) {
 		Collection<Person> result = new ConcurrentLinkedQueue<Person>();
 		Traverser traverser = relationshipGraph.traverser(person, GraphUtils.UNDIRECTED_TRAVERSER_PREDICATE);
 		while (traverser.hasNext()) {
@@ -201,7 +202,7 @@ implements Serializable {
 	 * @param person2 the person who the opinion is of.
 	 * @return opinion value from 0 (enemy) to 50 (indifferent) to 100 (close friend).
 	 */
-	public double getOpinionOfPerson(Person person1, Person person2) {
+	public synchronized double getOpinionOfPerson(Person person1, Person person2) {
 		double result = 50D;
 
 		if (hasRelationship(person1, person2)) {
@@ -219,7 +220,7 @@ implements Serializable {
 	 * @param people the collection of people who the opinion is of.
 	 * @return opinion value from 0 (enemy) to 50 (indifferent) to 100 (close friend).
 	 */
-	public double getAverageOpinionOfPeople(Person person1, Collection<Person> people) {
+	public synchronized double getAverageOpinionOfPeople(Person person1, Collection<Person> people) {
 
 		if (people == null) throw new IllegalArgumentException("people is null");
 
@@ -243,7 +244,7 @@ implements Serializable {
 	 * @param time the time passing (millisols)
 	 * @throws Exception if error.
 	 */
-	public void timePassing(Person person, double time) {
+	public synchronized void timePassing(Person person, double time) {
 
 		// Update the person's relationships.
 		updateRelationships(person, time);
@@ -360,7 +361,7 @@ implements Serializable {
 	/**
 	 * Prepare object for garbage collection.
 	 */
-	public void destroy() {
+	public synchronized void destroy() {
 		relationshipGraph = null;
 	}
 }
\ No newline at end of file
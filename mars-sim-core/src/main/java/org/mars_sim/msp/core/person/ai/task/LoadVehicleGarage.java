@@ -80,8 +80,10 @@ implements Serializable {
 	/** The amount of resources (kg) one person of average strength can load per millisol. */
 	private static double LOAD_RATE = 20D;
 
-	/** The duration of the loading task (millisols). */
-	private static double DURATION = RandomUtil.getRandomDouble(50D) + 10D;
+	/** The shortest duration of the loading task (millisols). */
+	private static final double MIN_DURATION = 10D;
+	/** The longest extra duration of the loading task (millisols). */
+	private static final double EXTRA_DURATION = 50D;
 
 	// Data members
 	/** The vehicle that needs to be loaded. */
@@ -114,7 +116,7 @@ implements Serializable {
 	 */
 	public LoadVehicleGarage(Person person) {
     	// Use Task constructor
-    	super(NAME, person, true, false, STRESS_MODIFIER, true, DURATION);
+    	super(NAME, person, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
     	if (personConfig == null)
     		personConfig = SimulationConfig.instance().getPersonConfiguration();
@@ -157,7 +159,7 @@ implements Serializable {
     }
 	public LoadVehicleGarage(Robot robot) {
     	// Use Task constructor
-    	super(NAME, robot, true, false, STRESS_MODIFIER, true, DURATION);
+    	super(NAME, robot, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
     	VehicleMission mission = getMissionNeedingLoading();
     	if (mission != null) {
@@ -209,7 +211,7 @@ implements Serializable {
             Map<Integer, Number> optionalResources, Map<Integer, Integer> requiredEquipment,
             Map<Integer, Integer> optionalEquipment) {
     	// Use Task constructor.
-    	super("Loading vehicle", person, true, false, STRESS_MODIFIER, true, DURATION);
+    	super("Loading vehicle", person, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
     	setDescription(Msg.getString("Task.description.loadVehicleGarage.detail",
                 vehicle.getName())); //$NON-NLS-1$
@@ -246,7 +248,7 @@ implements Serializable {
             Map<Integer, Number> optionalResources, Map<Integer, Integer> requiredEquipment,
             Map<Integer, Integer> optionalEquipment) {
     	// Use Task constructor.
-    	super("Loading vehicle", robot, true, false, STRESS_MODIFIER, true, DURATION);
+    	super("Loading vehicle", robot, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
     	setDescription(Msg.getString("Task.description.loadVehicleGarage.detail",
                 vehicle.getName())); //$NON-NLS-1$
@@ -8,8 +8,8 @@ package org.mars_sim.msp.core.person.ai.task;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -660,7 +660,7 @@ implements Serializable {
 
             // Determine all manufacturing processes that are possible and profitable.
             Map<ManufactureProcessInfo, Double> processProbMap =
-                    new HashMap<ManufactureProcessInfo, Double>();
+                    new LinkedHashMap<ManufactureProcessInfo, Double>();
             Iterator<ManufactureProcessInfo> i = ManufactureUtil
                     .getManufactureProcessesForTechSkillLevel(techLevel,
                     skillLevel).iterator();
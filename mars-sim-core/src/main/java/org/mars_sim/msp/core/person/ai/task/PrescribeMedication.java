@@ -56,7 +56,7 @@ implements Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.prescribeMedication"); //$NON-NLS-1$
 
-	private static final double AVERAGE_MEDICAL_WASTE = .1 * RandomUtil.getRandomDouble(2);
+	private static final double AVERAGE_MEDICAL_WASTE = .1;
 
     /** Task phases. */
     private static final TaskPhase MEDICATING = new TaskPhase(Msg.getString(
@@ -406,7 +406,7 @@ implements Serializable {
 
         if (containerUnit != null) {
             Inventory inv = containerUnit.getInventory();
-            Storage.storeAnResource(AVERAGE_MEDICAL_WASTE, ResourceUtil.toxicWasteAR, inv, 
+            Storage.storeAnResource(AVERAGE_MEDICAL_WASTE * RandomUtil.getRandomDouble(2), ResourceUtil.toxicWasteAR, inv, 
             		sourceName + "::produceMedicalWaste");
         }
 	}
@@ -7,7 +7,7 @@
 package org.mars_sim.msp.core.person.ai.task;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -26,8 +26,10 @@ import org.mars_sim.msp.core.person.ai.Mind;
 import org.mars_sim.msp.core.person.ai.mission.MissionManager;
 import org.mars_sim.msp.core.person.ai.task.meta.MetaTask;
 import org.mars_sim.msp.core.person.ai.task.meta.MetaTaskUtil;
+import org.mars_sim.msp.core.person.ai.task.meta.TaskContext;
 import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 import org.mars_sim.msp.core.vehicle.Vehicle;
 
 /**
@@ -47,6 +49,11 @@ implements Serializable {
 	private static Logger logger = Logger.getLogger(TaskManager.class.getName());
 
 	private static String sourceName = logger.getName().substring(logger.getName().lastIndexOf(".") + 1, logger.getName().length());
+
+	private static final LogConsolidated.Key INVALID_PROBABILITY = LogConsolidated.register("invalid task probability");
+
+	/** True if the task probabilities of the people in a settlement are worked out in parallel. */
+	private static volatile boolean parallelEvaluation = false;
 	
 	// Data members
     /** The cache for msolInt */     
@@ -108,7 +115,7 @@ implements Serializable {
 
 		// Initialize cache values.
 		timeCache = null;
-		taskProbCache = new HashMap<MetaTask, Double>();
+		taskProbCache = new LinkedHashMap<MetaTask, Double>();
 		totalProbCache = 0D;
 
 		if (Simulation.instance().getMasterClock() != null)
@@ -595,6 +602,35 @@ implements Serializable {
 		return totalProbCache;
 	}
 
+	/**
+	 * Works out the task probabilities in advance if not current, so that the
+	 * next call to {@link #getNewTask()} in this pulse uses them.
+	 */
+	public void prepareTaskProbabilities() {
+		if (!useCache()) {
+			calculateProbability();
+		}
+	}
+
+	/**
+	 * Checks if the task probabilities of the people in a settlement are worked
+	 * out in parallel before the settlement is ticked.
+	 * @return true if in parallel.
+	 */
+	public static boolean isParallelEvaluation() {
+		return parallelEvaluation;
+	}
+
+	/**
+	 * Sets if the task probabilities of the people in a settlement are worked out
+	 * in parallel before the settlement is ticked. Only applies to the parallel
+	 * tick mode.
+	 * @param parallel true for in parallel.
+	 */
+	public static void setParallelEvaluation(boolean parallel) {
+		parallelEvaluation = parallel;
+	}
+
 	/**
 	 * Calculates and caches the probabilities.
 	 */
@@ -648,15 +684,21 @@ implements Serializable {
 		    if (mtListCache != mtList && mtList != null) {
 		    	// TODO: is there a better way to compare them this way ?
 		    	mtListCache = mtList;
-		    	taskProbCache = new HashMap<MetaTask, Double>(mtListCache.size());
+		    	taskProbCache = new LinkedHashMap<MetaTask, Double>(mtListCache.size());
 		    }
 		    
 	
 			// Clear total probabilities.
 			totalProbCache = 0D;
 			// Determine probabilities.
+			// The facts shared by everyone in the settlement, if in one.
+			TaskContext context = person.isInSettlement() ? person.getSettlement().getTaskContext() : null;
+			TickProfiler profiler = TickProfiler.instance();
 			for (MetaTask mt : mtListCache) {
-				double probability = mt.getProbability(person);
+				long start = profiler.start(TickProfiler.Category.META_TASK);
+				double probability = (context != null) ? mt.getProbability(person, context)
+						: mt.getProbability(person);
+				profiler.record(TickProfiler.Category.META_TASK, mt.getClass(), start);
 	
 				if ((probability >= 0D) && (!Double.isNaN(probability)) 
 						&& (!Double.isInfinite(probability))) {
@@ -666,8 +708,8 @@ implements Serializable {
 				else {
 					taskProbCache.put(mt, 0D);
 	
-					LogConsolidated.log(logger, Level.WARNING, 5000, sourceName, 
-							"Task probability is invalid when calculating for " + mind.getPerson().getName() 
+					LogConsolidated.log(INVALID_PROBABILITY, logger, Level.WARNING, 5000, sourceName, 
+							() -> "Task probability is invalid when calculating for " + mind.getPerson().getName() 
 								+ " on " + mt.getName() + " : Probability is " + probability + ".", null);
 				}
 			}
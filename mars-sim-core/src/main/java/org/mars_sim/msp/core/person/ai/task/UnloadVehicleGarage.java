@@ -67,8 +67,10 @@ implements Serializable {
     /** The stress modified per millisol. */
     private static final double STRESS_MODIFIER = .1D;
 
-    /** The duration of the task (millisols). */
-    private static final double DURATION = RandomUtil.getRandomDouble(40D) + 10D;
+    /** The shortest duration of the task (millisols). */
+    private static final double MIN_DURATION = 10D;
+    /** The longest extra duration of the task (millisols). */
+    private static final double EXTRA_DURATION = 40D;
 
     // Data members
     /** The vehicle that needs to be unloaded. */
@@ -82,7 +84,7 @@ implements Serializable {
      */
     public UnloadVehicleGarage(Person person) {
         // Use Task constructor.
-        super(NAME, person, true, false, STRESS_MODIFIER, true, DURATION);
+        super(NAME, person, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
         settlement = person.getSettlement();
 
@@ -121,7 +123,7 @@ implements Serializable {
     }
     public UnloadVehicleGarage(Robot robot) {
         // Use Task constructor.
-        super(NAME, robot, true, false, STRESS_MODIFIER, true, DURATION);
+        super(NAME, robot, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
         settlement = robot.getSettlement();
 
@@ -165,7 +167,7 @@ implements Serializable {
      */
     public UnloadVehicleGarage(Person person, Vehicle vehicle) {
         // Use Task constructor.
-        super("Unloading vehicle", person, true, false, STRESS_MODIFIER, true, DURATION);
+        super("Unloading vehicle", person, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
         setDescription(Msg.getString("Task.description.unloadVehicleGarage.detail", 
                 vehicle.getName()));  //$NON-NLS-1$;
@@ -189,7 +191,7 @@ implements Serializable {
     
     public UnloadVehicleGarage(Robot robot, Vehicle vehicle) {
         // Use Task constructor.
-        super("Unloading vehicle", robot, true, false, STRESS_MODIFIER, true, DURATION);
+        super("Unloading vehicle", robot, true, false, STRESS_MODIFIER, true, RandomUtil.getRandomDouble(EXTRA_DURATION) + MIN_DURATION);
 
         setDescription(Msg.getString("Task.description.unloadVehicleGarage.detail", 
                 vehicle.getName()));  //$NON-NLS-1$;
@@ -6,23 +6,19 @@
  */
 package org.mars_sim.msp.core.person.ai.task;
 
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.Coordinates;
 import org.mars_sim.msp.core.Inventory;
 import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.LocalBoundedObject;
+import org.mars_sim.msp.core.LocalPathFinder;
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
@@ -183,15 +179,7 @@ implements Serializable {
         result.add(startLoc);
 
         // Check if direct walking path to destination is free of obstacles.
-        Line2D line = new Line2D.Double(startXLocation, startYLocation, destinationXLocation,
-                destinationYLocation);
-
-        boolean freePath = false;
-
-		if (person != null)
-        	freePath = LocalAreaUtil.checkLinePathCollision(line, person.getCoordinates(), true);
-		else if (robot != null)
-        	freePath = LocalAreaUtil.checkLinePathCollision(line, robot.getCoordinates(), true);
+        boolean freePath = LocalPathFinder.isLineClear(startLoc, destinationLoc, getCoordinates());
 
         if (freePath) {
             result.add(destinationLoc);
@@ -223,124 +211,17 @@ implements Serializable {
      */
     List<Point2D> determineObstacleAvoidancePath() {
 
-        List<Point2D> result = null;
-
         Point2D startLoc = new Point2D.Double(startXLocation, startYLocation);
         Point2D endLoc = new Point2D.Double(destinationXLocation, destinationYLocation);
 
-        // Check if start or destination locations are within obstacles.
-        // Return null if either are within obstacles.
-        boolean startLocWithinObstacle = false;
-        boolean destinationLocWithinObstacle = false;
-
-		if (person != null) {
-	        startLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(startXLocation,
-	                startYLocation, person.getCoordinates());
-	        destinationLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(destinationXLocation,
-	                destinationYLocation, person.getCoordinates());
-
-		}
-		else if (robot != null) {
-	        startLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(startXLocation,
-	                startYLocation, robot.getCoordinates());
-	        destinationLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(destinationXLocation,
-	                destinationYLocation, robot.getCoordinates());
-		}
-
-
-        if (startLocWithinObstacle || destinationLocWithinObstacle) {
-            return null;
-        }
-
-        // Using A* path planning algorithm, testing out neighbor locations in a 1m x 1m grid.
-        // http://en.wikipedia.org/wiki/A*
-
-        // The set of locations already evaluated.
-        Set<Point2D> closedSet = new HashSet<Point2D>();
-
-        // The set of tentative locations to be evaluated
-        Set<Point2D> openSet = new HashSet<Point2D>();
-
-        // Initially add starting location to openSet.
-        openSet.add(startLoc);
-
-        // The map of navigated locations.
-        Map<Point2D, Point2D> cameFrom = new HashMap<Point2D, Point2D>();
-
-        // Check each location in openSet.
-        while (openSet.size() > 0) {
-
-            // Find loc in openSet with lowest fScore value.
-            // FScore is distance (m) from start through currentLoc to destination.
-            Point2D currentLoc = getLowestFScore(openSet);
-
-            // Check if clear path to destination.
-            if (checkClearPathToDestination(currentLoc, endLoc)) {
-
-                // Create path from currentLoc.
-                List<Point2D> path = recreatePath(cameFrom, currentLoc);
-                result = optimizePath(path);
-                break;
-            }
-
-            // Remove currentLoc from openSet.
-            openSet.remove(currentLoc);
-
-            // Add currentLoc to closedSet.
-            closedSet.add(currentLoc);
-
-            double currentGScore = getGScore(currentLoc);
-
-            // Go through each reachable neighbor location.
-            Iterator<Point2D> i = getNeighbors(currentLoc).iterator();
-            while (i.hasNext()) {
-
-                Point2D neighborLoc = i.next();
-
-                if (closedSet.contains(neighborLoc)) {
-                    continue;
-                }
-
-                double tentativeGScore = currentGScore + NEIGHBOR_DISTANCE;
-                double neighborGScore = getGScore(neighborLoc);
-                if ((!openSet.contains(neighborLoc) || (tentativeGScore < neighborGScore)) &&
-                        withinObstacleSearch(neighborLoc)) {
-
-                    // Map neighbor location from current location in cameFrom.
-                    cameFrom.put(neighborLoc, currentLoc);
-
-                    // Add neighbor location to openSet.
-                    if (!openSet.contains(neighborLoc)) {
-                        openSet.add(neighborLoc);
-                    }
-                }
-            }
-        }
-
-        return result;
-    }
-
-    /**
-     * Find location in openSet with lowest fScore value.
-     * The fScore value is the distance (m) from start through location to destination.
-     * @param openSet a set of locations.
-     * @return location with lowest fScore value.
-     */
-    private Point2D getLowestFScore(Set<Point2D> openSet) {
-
-        double lowestFScore = Double.POSITIVE_INFINITY;
-        Point2D result = null;
-        Iterator<Point2D> i = openSet.iterator();
-        while (i.hasNext()) {
-            Point2D loc = i.next();
-            double fScore = getFScore(loc);
-            if (fScore < lowestFScore) {
-                result = loc;
-                lowestFScore = fScore;
-            }
+        Coordinates location = getCoordinates();
+        if (obstacleSearchLimits == null) {
+            obstacleSearchLimits = getLocalObstacleSearchLimits(location);
         }
 
-        return result;
+        // Search a lattice of neighbor locations around the obstacles.
+        // Returns null if start or destination locations are within obstacles.
+        return LocalPathFinder.findPath(startLoc, endLoc, NEIGHBOR_DISTANCE, obstacleSearchLimits, location);
     }
 
     /**
@@ -350,202 +231,20 @@ implements Serializable {
      * @return true if path free of obstacles.
      */
     boolean checkClearPathToDestination(Point2D currentLoc, Point2D endLoc) {
-
-    	boolean result = false;
-
-        Line2D line = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), endLoc.getX(),
-                endLoc.getY());
-
-		if (person != null) {
-			result = LocalAreaUtil.checkLinePathCollision(line, person.getCoordinates(), true);
-		}
-		else if (robot != null) {
-			result = LocalAreaUtil.checkLinePathCollision(line, robot.getCoordinates(), true);
-		}
-
-		 return result;
+        return LocalPathFinder.isLineClear(currentLoc, endLoc, getCoordinates());
     }
 
     /**
-     * Recreate a path from the cameFromMap.
-     * @param cameFromMap a map of locations and their previous locations.
-     * @param endLocation the last location in a path (not destination location).
-     * @return path as list of points.
+     * Gets the global coordinate location of the person or robot walking.
+     * @return coordinates.
      */
-    private List<Point2D> recreatePath(Map<Point2D, Point2D> cameFromMap, Point2D endLocation) {
-
-        List<Point2D> result = new ArrayList<Point2D>();
-
-        // Add destination location to end of path.
-        result.add(new Point2D.Double(destinationXLocation, destinationYLocation));
-
-        // Add endLocation location to start of path.
-        result.add(0, endLocation);
-
-        Point2D currentLoc = endLocation;
-        while (cameFromMap.containsKey(currentLoc)) {
-            Point2D cameFromLoc = cameFromMap.get(currentLoc);
-
-            // Add came from location to start of path.
-            result.add(0, cameFromLoc);
-
-            // Remove currentLoc key from cameFromMap to prevent endless loops.
-            cameFromMap.remove(currentLoc);
-
-            currentLoc = cameFromLoc;
+    private Coordinates getCoordinates() {
+        if (person != null) {
+            return person.getCoordinates();
         }
-
-        return result;
-    }
-
-    /**
-     * Optimizes a path by removing unnecessary locations.
-     * @param initialPath the initial path to optimize.
-     * @return optimized path.
-     */
-    private List<Point2D> optimizePath(List<Point2D> initialPath) {
-
-        List<Point2D> optimizedPath = new ArrayList<Point2D>(initialPath);
-
-        Iterator<Point2D> i = optimizedPath.iterator();
-        while (i.hasNext()) {
-            Point2D loc = i.next();
-            int locIndex = optimizedPath.indexOf(loc);
-            if ((locIndex > 0) && (locIndex < (optimizedPath.size() - 1))) {
-                Point2D prevLoc = optimizedPath.get(locIndex - 1);
-                Point2D nextLoc = optimizedPath.get(locIndex + 1);
-
-                // If clear path between previous and next location,
-                // remove this location from path.
-                Line2D line = new Line2D.Double(prevLoc.getX(), prevLoc.getY(),
-                        nextLoc.getX(), nextLoc.getY());
-
-				if (person != null) {
-	                if (LocalAreaUtil.checkLinePathCollision(line, person.getCoordinates(), true)) {
-	                    i.remove();
-	                }
-				}
-				else if (robot != null) {
-	                if (LocalAreaUtil.checkLinePathCollision(line, robot.getCoordinates(), true)) {
-	                    i.remove();
-	                }
-				}
-
-
-
-            }
+        else {
+            return robot.getCoordinates();
         }
-
-        return optimizedPath;
-    }
-
-    /**
-     * Gets the gScore value for a location.
-     * The gScore value is the distance (m) from the starting location to this location.
-     * @param loc the location.
-     * @return gScore value.
-     */
-    private double getGScore(Point2D loc) {
-        return Point2D.distance(startXLocation, startYLocation, loc.getX(), loc.getY());
-    }
-
-    /**
-     * Gets the fScore value for a location.
-     * The fScore value is the total distance (m) from the starting location to this location
-     * and then to the destination location.
-     * @param loc the location.
-     * @return the fScore value.
-     */
-    private double getFScore(Point2D loc) {
-        double gScore = getGScore(loc);
-        double fScore = gScore + Point2D.distance(loc.getX(), loc.getY(), destinationXLocation,
-                destinationYLocation);
-        return fScore;
-    }
-
-    /**
-     * Get search location neighbors to a given location.
-     * This method gets a set of four locations at 1m distance North, South, East and West of the
-     * current location.
-     * @param currentLoc the current location.
-     * @return set of neighbor locations.
-     */
-    private Set<Point2D> getNeighbors(Point2D currentLoc) {
-
-        Set<Point2D> result = new HashSet<Point2D>(8);
-
-        // Get location North of currentLoc.
-        Point2D northLoc = new Point2D.Double(currentLoc.getX(), currentLoc.getY() + NEIGHBOR_DISTANCE);
-        Line2D northLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), northLoc.getX(),
-                northLoc.getY());
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(northLine, person.getCoordinates(), true)) {
-	            result.add(northLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(northLine, robot.getCoordinates(), true)) {
-	            result.add(northLoc);
-	        }
-		}
-
-
-
-        // Get location East of currentLoc.
-        Point2D eastLoc = new Point2D.Double(currentLoc.getX() - NEIGHBOR_DISTANCE, currentLoc.getY());
-        Line2D eastLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), eastLoc.getX(),
-                eastLoc.getY());
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(eastLine, person.getCoordinates(), true)) {
-	            result.add(eastLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(eastLine, robot.getCoordinates(), true)) {
-	            result.add(eastLoc);
-	        }
-		}
-
-
-
-
-        // Get location South of currentLoc.
-        Point2D southLoc = new Point2D.Double(currentLoc.getX(), currentLoc.getY() - NEIGHBOR_DISTANCE);
-        Line2D southLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), southLoc.getX(),
-                southLoc.getY());
-
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(southLine, person.getCoordinates(), true)) {
-	            result.add(southLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(southLine, robot.getCoordinates(), true)) {
-	            result.add(southLoc);
-	        }
-		}
-
-
-
-        // Get location West of currentLoc.
-        Point2D westLoc = new Point2D.Double(currentLoc.getX() + NEIGHBOR_DISTANCE, currentLoc.getY());
-        Line2D westLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), westLoc.getX(),
-                westLoc.getY());
-
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(westLine, person.getCoordinates(), true)) {
-	            result.add(westLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(westLine, robot.getCoordinates(), true)) {
-	            result.add(westLoc);
-	        }
-		}
-
-
-
-        return result;
     }
 
     /**
@@ -625,52 +324,6 @@ implements Serializable {
         return result;
     }
 
-    /**
-     * Check if point location is within the obstacle search limits.
-     * @param location the location.
-     * @return true if location is within search limits.
-     */
-    private boolean withinObstacleSearch(Point2D location) {
-
-		if (person != null) {
-	        if (obstacleSearchLimits == null) {
-	            obstacleSearchLimits = getLocalObstacleSearchLimits(person.getCoordinates());
-	        }
-		}
-		else if (robot != null) {
-	        if (obstacleSearchLimits == null) {
-	            obstacleSearchLimits = getLocalObstacleSearchLimits(robot.getCoordinates());
-	        }
-		}
-
-
-
-
-        boolean result = true;
-
-        // Check if X value is larger than X max limit.
-        if (location.getX() > obstacleSearchLimits[0]) {
-            result = false;
-        }
-
-        // Check if X value is smaller than X min limit.
-        if (location.getX() < obstacleSearchLimits[1]) {
-            result = false;
-        }
-
-        // Check if Y value is larger than Y max limit.
-        if (location.getY() > obstacleSearchLimits[2]) {
-            result = false;
-        }
-
-        // Check if Y value is smaller thank Y min limit.
-        if (location.getY() < obstacleSearchLimits[3]) {
-            result = false;
-        }
-
-        return result;
-    }
-
     /**
      * Check if there are any obstacles in the walking path.
      * @return true if any obstacles in walking path.
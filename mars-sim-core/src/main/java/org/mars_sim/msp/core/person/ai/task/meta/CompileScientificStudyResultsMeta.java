@@ -40,8 +40,6 @@ public class CompileScientificStudyResultsMeta implements MetaTask, Serializable
     /** default logger. */
     private static Logger logger = Logger.getLogger(CompileScientificStudyResultsMeta.class.getName());
 
-    private static ScientificStudyManager studyManager;
-    
     @Override
     public String getName() {
         return NAME;
@@ -69,8 +67,7 @@ public class CompileScientificStudyResultsMeta implements MetaTask, Serializable
         
         if (person.isInside()) {
 	        // Add probability for researcher's primary study (if any).
-	        if (studyManager == null)
-	        	studyManager = Simulation.instance().getScientificStudyManager();
+	        ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        ScientificStudy primaryStudy = studyManager.getOngoingPrimaryStudy(person);
 	        if ((primaryStudy != null) 
         		&& ScientificStudy.PAPER_PHASE.equals(primaryStudy.getPhase())
@@ -12,7 +12,6 @@ import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.person.PhysicalCondition;
-import org.mars_sim.msp.core.person.RoleType;
 import org.mars_sim.msp.core.person.ai.task.ConnectWithEarth;
 import org.mars_sim.msp.core.person.ai.task.Task;
 import org.mars_sim.msp.core.robot.Robot;
@@ -30,8 +29,6 @@ public class ConnectWithEarthMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.connectWithEarth"); //$NON-NLS-1$
 
-    public RoleType roleType;
-
     @Override
     public String getName() {
         return NAME;
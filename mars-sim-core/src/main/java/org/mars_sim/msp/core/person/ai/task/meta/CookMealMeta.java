@@ -53,9 +53,21 @@ public class CookMealMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
 
+        if (context != null) {
+            // The settlement kitchens and meal time are the same for everyone.
+            if (!context.isMealTime() || context.getKitchensNeedingCooks().isEmpty()) {
+                return 0;
+            }
+        }
+
         if (person.isInside() && CookMeal.isMealTime(person.getCoordinates())) {
             // See if there is an available kitchen.
             Building kitchenBuilding = CookMeal.getAvailableKitchen(person);
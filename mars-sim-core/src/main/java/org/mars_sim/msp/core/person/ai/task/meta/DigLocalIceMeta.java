@@ -43,8 +43,6 @@ public class DigLocalIceMeta implements MetaTask, Serializable {
     /** default logger. */
     //private static Logger logger = Logger.getLogger(DigLocalIceMeta.class.getName());
 
-    private static SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -57,93 +55,101 @@ public class DigLocalIceMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+	@Override
+	public double getProbability(Person person, TaskContext context) {
+
+		double result = 0D;
+
+		if (person.isInSettlement()) {
+
+			if ((context != null) && (context.isExposedToSEP() || context.isTooDarkForEVA())) {
+				// No EVA for anyone in the settlement.
+				return 0;
+			}
+
+			Settlement settlement = person.getSettlement();
+
+			// Check if an airlock is available
+			if (EVAOperation.getWalkableAvailableAirlock(person) == null)
+				return 0;
+
+			//2016-10-04 Checked for radiation events
+			boolean[] exposed = settlement.getExposed();
 
-        double result = 0D;
-   
-        if (person.isInSettlement()) {
-        	
-	    	Settlement settlement = person.getSettlement();
-	     
-	    	// Check if an airlock is available
-	        if (EVAOperation.getWalkableAvailableAirlock(person) == null)
-	    		return 0;
-	
-	        //2016-10-04 Checked for radiation events
-	    	boolean[] exposed = settlement.getExposed();
-	
-	
 			if (exposed[2]) {
 				// SEP can give lethal dose of radiation
-	            return 0;
+				return 0;
 			}
-			
-            // Check if it is night time.
-			if (surface == null)
-				surface = Simulation.instance().getMars().getSurfaceFeatures();
-            if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
-                if (!surface.inDarkPolarRegion(person.getCoordinates())) {
-                    return 0;
-                }
-            }
 
-            Inventory inv = settlement.getInventory();
+			// Check if it is night time.
+			SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
+			if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
+				if (!surface.inDarkPolarRegion(person.getCoordinates())) {
+					return 0;
+				}
+			}
 
-            // Check at least one EVA suit at settlement.
-            int numSuits = inv.findNumUnitsOfClass(EVASuit.class);
-            if (numSuits == 0) {
-                return 0;
-            }
+			Inventory inv = settlement.getInventory();
 
-            // Check if at least one empty bag at settlement.
-            int numEmptyBags = inv.findNumEmptyUnitsOfClass(Bag.class, false);
-            if (numEmptyBags == 0) {
-                return 0;
-            }
+			// Check at least one EVA suit at settlement.
+			int numSuits = inv.findNumUnitsOfClass(EVASuit.class);
+			if (numSuits == 0) {
+				return 0;
+			}
+
+			// Check if at least one empty bag at settlement.
+			int numEmptyBags = inv.findNumEmptyUnitsOfClass(Bag.class, false);
+			if (numEmptyBags == 0) {
+				return 0;
+			}
 
-            result = settlement.getIceProbabilityValue() * 4000D;
+			result = settlement.getIceProbabilityValue() * 4000D;
 
-            if (result < 1)
-            	return 0;
+			if (result < 1)
+				return 0;
 
-            // Crowded settlement modifier
-            if (settlement.getIndoorPeopleCount() > settlement.getPopulationCapacity())
-                result *= 1.5D;
+			// Crowded settlement modifier
+			if (settlement.getIndoorPeopleCount() > settlement.getPopulationCapacity())
+				result *= 1.5D;
 
-            if (settlement.getIndoorPeopleCount() <= 4)
-                result *= 1.5D;
+			if (settlement.getIndoorPeopleCount() <= 4)
+				result *= 1.5D;
 
-            // Effort-driven task modifier.
-            result *= person.getPerformanceRating();
+			// Effort-driven task modifier.
+			result *= person.getPerformanceRating();
 
-            // Job modifier.
-            Job job = person.getMind().getJob();
-            if (job != null)
-                result *= job.getStartTaskProbabilityModifier(DigLocalIce.class);
+			// Job modifier.
+			Job job = person.getMind().getJob();
+			if (job != null)
+				result *= job.getStartTaskProbabilityModifier(DigLocalIce.class);
 
-            // Modify if field work is the person's favorite activity.
-            if (person.getFavorite().getFavoriteActivity() == FavoriteType.FIELD_WORK)
-                result *= RandomUtil.getRandomInt(1, 3);
+			// Modify if field work is the person's favorite activity.
+			if (person.getFavorite().getFavoriteActivity() == FavoriteType.FIELD_WORK)
+				result *= RandomUtil.getRandomInt(1, 3);
 
-            if (result > 0)
-            	result = result + result * person.getPreference().getPreferenceScore(this)/5D;
+			if (result > 0)
+				result = result + result * person.getPreference().getPreferenceScore(this)/5D;
 
-            //logger.info("DigLocalIceMeta's probability : " + Math.round(result*100D)/100D);
+			//logger.info("DigLocalIceMeta's probability : " + Math.round(result*100D)/100D);
 
-	    	if (exposed[0]) {
+			if (exposed[0]) {
 				result = result/2D;// Baseline can give a fair amount dose of radiation
 			}
 
-	    	if (exposed[1]) {// GCR can give nearly lethal dose of radiation
+			if (exposed[1]) {// GCR can give nearly lethal dose of radiation
 				result = result/4D;
 			}
-	    	
-            if (result < 0D) {
-                result = 0D;
-            }
-        }
 
-        return result;
-    }
+			if (result < 0D) {
+				result = 0D;
+			}
+		}
+
+		return result;
+	}
 
 	@Override
 	public Task constructInstance(Robot robot) {
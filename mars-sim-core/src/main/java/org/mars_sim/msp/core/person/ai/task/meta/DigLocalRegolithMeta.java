@@ -39,8 +39,6 @@ public class DigLocalRegolithMeta implements MetaTask, Serializable {
     /** default logger. */
     //private static Logger logger = Logger.getLogger(DigLocalRegolithMeta.class.getName());
 
-    private static SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -53,11 +51,21 @@ public class DigLocalRegolithMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
        
         if (person.isInSettlement()) {
         	
+		if ((context != null) && (context.isExposedToSEP() || context.isTooDarkForEVA())) {
+			// No EVA for anyone in the settlement.
+			return 0;
+		}
+
 	    	Settlement settlement = person.getSettlement();
 	     
 	    	// Check if an airlock is available
@@ -73,8 +81,7 @@ public class DigLocalRegolithMeta implements MetaTask, Serializable {
 			}
 			
 	        // Check if it is night time.
-	        if (surface == null)
-	            surface = Simulation.instance().getMars().getSurfaceFeatures();
+	        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 	        
 	        if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
 	            if (!surface.inDarkPolarRegion(person.getCoordinates())) {
@@ -36,8 +36,6 @@ public class HaveConversationMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.haveConversation"); //$NON-NLS-1$
     
-    private static MarsClock marsClock;
-    
     @Override
     public String getName() {
         return NAME;
@@ -155,8 +153,7 @@ public class HaveConversationMeta implements MetaTask, Serializable {
         // Effort-driven task modifier.
         result *= person.getPerformanceRating();
 
-        if (marsClock == null)
-        	marsClock = Simulation.instance().getMasterClock().getMarsClock();
+        MarsClock marsClock = Simulation.instance().getMasterClock().getMarsClock();
     	int now = marsClock.getMsol0();
         boolean isOnShiftNow = person.getTaskSchedule().isShiftHour(now);
         if (isOnShiftNow)
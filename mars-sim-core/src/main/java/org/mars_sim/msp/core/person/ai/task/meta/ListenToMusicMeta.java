@@ -39,8 +39,6 @@ public class ListenToMusicMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(ListenToMusicMeta.class.getName());
 
-    private static MarsClock marsClock;
-    
     @Override
     public String getName() {
         return NAME;
@@ -99,8 +97,7 @@ public class ListenToMusicMeta implements MetaTask, Serializable {
                 logger.log(Level.SEVERE, e.getMessage());
             }
             
-            if (marsClock == null)
-            	marsClock = Simulation.instance().getMasterClock().getMarsClock();
+            MarsClock marsClock = Simulation.instance().getMasterClock().getMarsClock();
             // Modify probability if during person's work shift.
             int millisols = marsClock.getMsol0();
             boolean isShiftHour = person.getTaskSchedule().isShiftHour(millisols);
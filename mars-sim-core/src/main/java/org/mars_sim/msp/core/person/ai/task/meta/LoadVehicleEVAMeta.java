@@ -40,8 +40,6 @@ public class LoadVehicleEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(LoadVehicleEVAMeta.class.getName());
 
-    private static SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -72,8 +70,7 @@ public class LoadVehicleEVAMeta implements MetaTask, Serializable {
 	    		return 0;
 	
 	        // Check if it is night time.
-	        if (surface == null)
-	            surface = Simulation.instance().getMars().getSurfaceFeatures();
+	        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 	
 	        if (surface.getSolarIrradiance(person.getCoordinates()) == 0D)
 	            if (!surface.inDarkPolarRegion(person.getCoordinates()))
@@ -36,8 +36,6 @@ public class MaintainGroundVehicleEVAMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.maintainGroundVehicleEVA"); //$NON-NLS-1$
 
-    private static SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -72,8 +70,7 @@ public class MaintainGroundVehicleEVAMeta implements MetaTask, Serializable {
 		    		return 0;
 	
 	            // Check if it is night time.
-	            if (surface == null)
-	                surface = Simulation.instance().getMars().getSurfaceFeatures();
+	            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 	
 	            if (surface.getSolarIrradiance(person.getCoordinates()) == 0D)
 	                if (!surface.inDarkPolarRegion(person.getCoordinates()))
@@ -45,8 +45,6 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(MaintenanceEVAMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -59,10 +57,20 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
         double result = 0D;
   
         if (person.isInSettlement()) {
         	
+		if ((context != null) && (context.isExposedToSEP() || context.isTooDarkForEVA())) {
+			// No EVA for anyone in the settlement.
+			return 0;
+		}
+
         	Settlement settlement = person.getSettlement();
     	
         	//2016-10-04 Checked for radiation events
@@ -77,8 +85,7 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
 	    		return 0;
 
             // Check if it is night time.
-            if (surface == null)
-                surface = Simulation.instance().getMars().getSurfaceFeatures();
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 
             if (surface.getSolarIrradiance(person.getCoordinates()) == 0D)
                 if (!surface.inDarkPolarRegion(person.getCoordinates()))
@@ -89,7 +96,8 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
 
             try {
                 // Total probabilities for all malfunctionable entities in person's local.
-                Iterator<Malfunctionable> i = MalfunctionFactory.getMalfunctionables(person).iterator();
+                Iterator<Malfunctionable> i = ((context != null) ? context.getMalfunctionables(person)
+                        : MalfunctionFactory.getMalfunctionables(person)).iterator();
 
                 while (i.hasNext()) {
                     Malfunctionable entity = i.next();
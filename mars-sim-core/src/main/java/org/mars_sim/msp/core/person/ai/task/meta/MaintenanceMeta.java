@@ -52,13 +52,19 @@ public class MaintenanceMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
         double result = 0D;
 
         if (person.isInSettlement()) {
 
 	        try {
 	            // Total probabilities for all malfunctionable entities in person's local.
-	            Iterator<Malfunctionable> i = MalfunctionFactory.getMalfunctionables(person).iterator();
+	            Iterator<Malfunctionable> i = ((context != null) ? context.getMalfunctionables(person)
+	                    : MalfunctionFactory.getMalfunctionables(person)).iterator();
 	            while (i.hasNext()) {
 	                Malfunctionable entity = i.next();
 	                boolean isVehicle = (entity instanceof Vehicle);
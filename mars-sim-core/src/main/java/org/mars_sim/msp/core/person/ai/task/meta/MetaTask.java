@@ -36,5 +36,18 @@ public interface MetaTask {
      * @return weighted probability value (0 -> positive value).
      */
     public double getProbability(Person person);
+
+    /**
+     * Gets the weighted probability value that the person might perform this task,
+     * using the facts worked out once for everyone in the person's settlement.
+     * Meta tasks not using them fall back on {@link #getProbability(Person)}.
+     * @param person the person to perform the task, in the settlement of the context.
+     * @param context the task context of the person's settlement.
+     * @return weighted probability value (0 -> positive value).
+     */
+    public default double getProbability(Person person, TaskContext context) {
+        return getProbability(person);
+    }
+
     public double getProbability(Robot robot);
 }
\ No newline at end of file
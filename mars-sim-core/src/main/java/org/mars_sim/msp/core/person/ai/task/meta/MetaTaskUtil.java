@@ -308,7 +308,7 @@ public class MetaTaskUtil {
     * Gets a list of all meta tasks.
     * @return list of meta tasks.
     */
-   public static List<MetaTask> getAllMetaTasks() {
+   public static synchronized List<MetaTask> getAllMetaTasks() {
 
        // Lazy initialize meta tasks list if necessary.
        if (allMetaTasks == null) {
@@ -326,7 +326,7 @@ public class MetaTaskUtil {
     * Gets a list of all work hour meta tasks.
     * @return list of work hour meta tasks.
     */
-   public static List<MetaTask> getWorkHourMetaTasks() {
+   public static synchronized List<MetaTask> getWorkHourMetaTasks() {
 
        // Lazy initialize work hour meta tasks list if necessary.
        if (workHourMetaTasks == null) {
@@ -342,7 +342,7 @@ public class MetaTaskUtil {
     * Gets a list of all non work hour meta tasks.
     * @return list of work hour meta tasks.
     */
-   public static List<MetaTask> getNonWorkHourMetaTasks() {
+   public static synchronized List<MetaTask> getNonWorkHourMetaTasks() {
 
        // Lazy initialize non work hour meta tasks list if necessary.
        if (nonWorkHourMetaTasks == null) {
@@ -358,7 +358,7 @@ public class MetaTaskUtil {
     * Gets a list of any hour meta tasks.
     * @return list of any hour meta tasks.
     */
-   public static List<MetaTask> getAnyHourTasks() {
+   public static synchronized List<MetaTask> getAnyHourTasks() {
 
        // Lazy initialize all hour meta tasks list if necessary.
        if (anyHourMetaTasks == null) {
@@ -388,7 +388,7 @@ public class MetaTaskUtil {
     	return metaTask;
     }
 
-    public static List<MetaTask> getRobotMetaTasks() {
+    public static synchronized List<MetaTask> getRobotMetaTasks() {
 
         // Lazy initialize meta tasks list if necessary.
         if (robotMetaTasks == null) {
@@ -33,8 +33,6 @@ public class PeerReviewStudyPaperMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.peerReviewStudyPaper"); //$NON-NLS-1$
 
-    private static ScientificStudyManager studyManager;
-    
     @Override
     public String getName() {
         return NAME;
@@ -52,8 +50,7 @@ public class PeerReviewStudyPaperMeta implements MetaTask, Serializable {
         
         if (person.isInside()) {
 	        // Get all studies in the peer review phase.
-	        if (studyManager == null)
-	        	studyManager = Simulation.instance().getScientificStudyManager();
+	        ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        //ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        Iterator<ScientificStudy> i = studyManager.getOngoingStudies().iterator();
 	        while (i.hasNext()) {
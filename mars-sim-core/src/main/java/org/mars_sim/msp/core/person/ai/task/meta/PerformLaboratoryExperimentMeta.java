@@ -39,8 +39,6 @@ public class PerformLaboratoryExperimentMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(PerformLaboratoryExperimentMeta.class.getName());
 
-    private static ScientificStudyManager studyManager;
-    
     @Override
     public String getName() {
         return NAME;
@@ -53,8 +51,18 @@ public class PerformLaboratoryExperimentMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
+
+        if ((context != null) && !context.hasLabSpace()) {
+            // No lab in the settlement can take another researcher.
+            return 0;
+        }
         
         if (person.isInVehicle()) {	
 	        // Check if person is in a moving rover.
@@ -71,8 +79,7 @@ public class PerformLaboratoryExperimentMeta implements MetaTask, Serializable {
 	        List<ScienceType> experimentalSciences = PerformLaboratoryExperiment.getExperimentalSciences();
 
 	        // Add probability for researcher's primary study (if any).
-	        if (studyManager == null)
-	        	studyManager = Simulation.instance().getScientificStudyManager();
+	        ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        //ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        ScientificStudy primaryStudy = studyManager.getOngoingPrimaryStudy(person);
 	        if ((primaryStudy != null) && ScientificStudy.RESEARCH_PHASE.equals(primaryStudy.getPhase())) {
@@ -42,8 +42,6 @@ public class PerformLaboratoryResearchMeta implements MetaTask, Serializable {
 
     private static String sourceName = logger.getName().substring(logger.getName().lastIndexOf(".") + 1, logger.getName().length());
 
-    private static ScientificStudyManager studyManager;
-    
     @Override
     public String getName() {
         return NAME;
@@ -56,14 +54,23 @@ public class PerformLaboratoryResearchMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
+
+        if ((context != null) && !context.hasLabSpace()) {
+            // No lab in the settlement can take another researcher.
+            return 0;
+        }
         
         if (person.isInSettlement()) {
    
 	        // Add probability for researcher's primary study (if any).
-	        if (studyManager == null)
-	        	studyManager = Simulation.instance().getScientificStudyManager();
+	        ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        //ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        ScientificStudy primaryStudy = studyManager.getOngoingPrimaryStudy(person);
 	        if ((primaryStudy != null) && ScientificStudy.RESEARCH_PHASE.equals(primaryStudy.getPhase())) {
@@ -39,8 +39,6 @@ public class PerformMathematicalModelingMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(PerformMathematicalModelingMeta.class.getName());
 
-    private static ScientificStudyManager studyManager;
-    
     
     @Override
     public String getName() {
@@ -54,9 +52,19 @@ public class PerformMathematicalModelingMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
 
+        if ((context != null) && !context.hasLabSpace()) {
+            // No lab in the settlement can take another researcher.
+            return 0;
+        }
+
         // Check if person is in a moving rover.
         if (person.isInVehicle() && PerformLaboratoryExperiment.inMovingRover(person)) {
 	        // the bonus for being inside a vehicle since there's little things to do
@@ -68,8 +76,7 @@ public class PerformMathematicalModelingMeta implements MetaTask, Serializable {
 	        ScienceType mathematics = ScienceType.MATHEMATICS;
 
 	        // Add probability for researcher's primary study (if any).
-	        if (studyManager == null)
-	        	studyManager = Simulation.instance().getScientificStudyManager();
+	        ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        //ScientificStudyManager studyManager = Simulation.instance().getScientificStudyManager();
 	        ScientificStudy primaryStudy = studyManager.getOngoingPrimaryStudy(person);
 	        if ((primaryStudy != null) && ScientificStudy.RESEARCH_PHASE.equals(primaryStudy.getPhase())) {
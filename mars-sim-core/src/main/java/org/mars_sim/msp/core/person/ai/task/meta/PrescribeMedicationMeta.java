@@ -7,8 +7,10 @@
 package org.mars_sim.msp.core.person.ai.task.meta;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Unit;
@@ -40,8 +42,6 @@ public class PrescribeMedicationMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.prescribeMedication"); //$NON-NLS-1$
 
-    private int numPatients;
-    
     @Override
     public String getName() {
         return NAME;
@@ -64,10 +64,12 @@ public class PrescribeMedicationMeta implements MetaTask, Serializable {
         if (person.isOutside())
         	return 0;	
         
-        Person patient = determinePatients(person);
-        if (patient == null || numPatients == 0) {
+        List<Person> patients = determinePatients(person);
+        int numPatients = patients.size();
+        if (numPatients == 0) {
         	return 0;
         }
+        Person patient = patients.get(numPatients - 1);
         	
         Job job = person.getMind().getJob();
         
@@ -138,8 +140,8 @@ public class PrescribeMedicationMeta implements MetaTask, Serializable {
         if (robot.getBotMind().getRobotJob() instanceof Medicbot) {
         	
             // Determine patient needing medication.
-        	Person patient = determinePatients(robot);
-            if (patient == null || numPatients == 0) {
+        	int numPatients = determinePatients(robot).size();
+            if (numPatients == 0) {
             	return 0;
             }
 	
@@ -155,8 +157,13 @@ public class PrescribeMedicationMeta implements MetaTask, Serializable {
     }
 
 
-	public Person determinePatients(Unit doctor) {
-		Person patient = null;
+	/**
+	 * Determines the patients needing medication.
+	 * @param doctor the person or robot prescribing.
+	 * @return the patients, in the order they were found.
+	 */
+	public List<Person> determinePatients(Unit doctor) {
+		List<Person> patients = new ArrayList<Person>();
         Person p = null;
         Robot r = null;
         if (doctor instanceof Person)
@@ -205,21 +212,19 @@ public class PrescribeMedicationMeta implements MetaTask, Serializable {
                 	if (condition.isStressedOut()) {
                         // Only prescribing anti-stress medication at the moment.
                         if (!condition.hasMedication(AnxietyMedication.NAME)) {
-                        	patient = person;
-                            numPatients++;
+                        	patients.add(person);
                         }
                 	}
                 	else if (exposure.isSick()) {
                         if (!condition.hasMedication(RadioProtectiveAgent.NAME)) {
-                        	patient = person;
-                        	numPatients++;
+                        	patients.add(person);
                         }
                 	}
                 }
             }
         }
 
-        return patient;
+        return patients;
 	}
 
 }
\ No newline at end of file
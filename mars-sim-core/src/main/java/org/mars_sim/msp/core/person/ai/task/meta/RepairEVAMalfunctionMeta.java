@@ -35,8 +35,6 @@ public class RepairEVAMalfunctionMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.repairEVAMalfunction"); //$NON-NLS-1$
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -49,10 +47,20 @@ public class RepairEVAMalfunctionMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
         double result = 0D;
     	
         if (person.isInSettlement()) { 
   
+		if ((context != null) && (context.isExposedToSEP() || context.isTooDarkForEVA())) {
+			// No EVA for anyone in the settlement.
+			return 0;
+		}
+
 	    	Settlement settlement = person.getSettlement();
 	     
 	        //2016-10-04 Checked for radiation events
@@ -67,15 +75,15 @@ public class RepairEVAMalfunctionMeta implements MetaTask, Serializable {
 	    		return 0;
 	
 	        // Check if it is night time.
-	        if (surface == null)
-	            surface = Simulation.instance().getMars().getSurfaceFeatures();
+	        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 	
 	        if (surface.getSolarIrradiance(person.getCoordinates()) == 0D)
 	            if (!surface.inDarkPolarRegion(person.getCoordinates()))
 	                return 0;
 	
 	        // Add probability for all malfunctionable entities in person's local.
-	        Iterator<Malfunctionable> i = MalfunctionFactory.getMalfunctionables(person).iterator();
+	        Iterator<Malfunctionable> i = ((context != null) ? context.getMalfunctionables(person)
+	                : MalfunctionFactory.getMalfunctionables(person)).iterator();
 	        while (i.hasNext()) {
 	            Malfunctionable entity = i.next();
 	            MalfunctionManager manager = entity.getMalfunctionManager();
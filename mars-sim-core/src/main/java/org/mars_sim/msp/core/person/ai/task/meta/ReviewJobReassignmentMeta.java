@@ -36,10 +36,6 @@ public class ReviewJobReassignmentMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.reviewJobReassignment"); //$NON-NLS-1$
 
-    public RoleType roleType;
-
-    public MarsClock marsClock;
-
     @Override
     public String getName() {
         return NAME;
@@ -60,7 +56,7 @@ public class ReviewJobReassignmentMeta implements MetaTask, Serializable {
 
         	//if (roleType == null)
         	//NOTE: sometimes enum is null. sometimes it is NOT. why?
-            roleType = person.getRole().getType();
+            RoleType roleType = person.getRole().getType();
 
             //System.out.println("ReviewJobReassignmentMeta " + person.getName() + " (" + roleType + ") checking in");
 
@@ -109,8 +105,7 @@ public class ReviewJobReassignmentMeta implements MetaTask, Serializable {
 		                    	//result = result + result * preference / 10D ;
 		                    	
 		                    	// 2015-09-24 Added adjustment based on how many sol the request has since been submitted
-	                            if (marsClock == null)
-	                               marsClock = Simulation.instance().getMasterClock().getMarsClock();
+	                            MarsClock marsClock = Simulation.instance().getMasterClock().getMarsClock();
 	                            // if the job assignment submitted date is > 1 sol
 	                            int sol = marsClock.getMissionSol();
 	                            int solRequest = list.get(list.size()-1).getSolSubmitted();
@@ -49,10 +49,6 @@ public class SleepMeta implements MetaTask, Serializable {
 	private static MasterClock masterClock;// = sim.getMasterClock();
 	private static MarsClock marsClock;// = masterClock.getMarsClock();
 
-	private TaskSchedule ts;// = person.getTaskSchedule();
-	private PhysicalCondition pc;// = person.getPhysicalCondition();
-	private CircadianClock circadian;// = person.getCircadianClock();
-	
 	public SleepMeta() {
         sourceName = sourceName.substring(sourceName.lastIndexOf(".") + 1, sourceName.length());
 
@@ -97,9 +93,9 @@ public class SleepMeta implements MetaTask, Serializable {
         	// each millisol generates 1 fatigue point
         	// 500 millisols is 12 hours
 
-           	ts = person.getTaskSchedule();
-        	pc = person.getPhysicalCondition();
-        	circadian = person.getCircadianClock();
+           	TaskSchedule ts = person.getTaskSchedule();
+        	PhysicalCondition pc = person.getPhysicalCondition();
+        	CircadianClock circadian = person.getCircadianClock();
 
         	int now = marsClock.getMsol0();
            // boolean isOnCall = ts.getShiftType() == ShiftType.ON_CALL;
@@ -273,6 +269,9 @@ public class SleepMeta implements MetaTask, Serializable {
     public double refreshSleepHabit(Person person) {
         double result = 0;
 
+        TaskSchedule ts = person.getTaskSchedule();
+        CircadianClock circadian = person.getCircadianClock();
+
     	int now = marsClock.getMsol0();
   	  	//boolean isOnShiftNow = ts.isShiftHour(now);
         //boolean isOnCall = ts.getShiftType() == ShiftType.ON_CALL;
@@ -394,9 +393,6 @@ public class SleepMeta implements MetaTask, Serializable {
     	sim = null;
     	masterClock = null;
     	marsClock = null;
-    	ts = null;
-    	pc = null;
-    	circadian = null;
 
     }
 }
\ No newline at end of file
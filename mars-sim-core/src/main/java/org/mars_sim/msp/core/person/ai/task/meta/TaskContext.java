@@ -0,0 +1,238 @@
+/**
+ * Mars Simulation Project
+ * TaskContext.java
+ * @version 3.1.0 2018-09-02
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.person.ai.task.meta;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.malfunction.MalfunctionFactory;
+import org.mars_sim.msp.core.malfunction.Malfunctionable;
+import org.mars_sim.msp.core.mars.SurfaceFeatures;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.ai.task.CookMeal;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.mars_sim.msp.core.structure.building.function.FunctionType;
+import org.mars_sim.msp.core.structure.building.function.Research;
+import org.mars_sim.msp.core.structure.building.function.cooking.Cooking;
+import org.mars_sim.msp.core.time.MarsClock;
+
+/**
+ * The facts about a settlement shared by the meta tasks of everyone in it,
+ * worked out once per clock pulse instead of once per person and meta task.
+ * <br>
+ * Each fact is worked out the first time it is asked for in a pulse and kept
+ * until the Mars clock moves on. The facts kept only depend on the time and
+ * on the buildings and units of the settlement. Whether a kitchen or lab can
+ * take another person changes as the people ahead in the same pulse pick
+ * their tasks, so it is checked again on every call.
+ */
+public class TaskContext {
+
+    // Data members
+    private final Settlement settlement;
+
+    /** The time the facts were worked out at. */
+    private int solCache = -1;
+    private double millisolCache = -1D;
+
+    private List<Malfunctionable> malfunctionables;
+    private List<Building> kitchens;
+    private Boolean mealTime;
+    private List<Building> labs;
+    private Double solarIrradiance;
+    private Boolean tooDarkForEVA;
+
+    /**
+     * Constructor.
+     * @param settlement the settlement.
+     */
+    public TaskContext(Settlement settlement) {
+        this.settlement = settlement;
+    }
+
+    /**
+     * Gets the settlement.
+     * @return settlement.
+     */
+    public Settlement getSettlement() {
+        return settlement;
+    }
+
+    /**
+     * Forgets the facts if the Mars clock has moved on since they were worked out.
+     */
+    private void checkTime() {
+        MarsClock clock = Simulation.instance().getMasterClock().getMarsClock();
+        int sol = clock.getMissionSol();
+        double millisol = clock.getMillisol();
+        if ((sol != solCache) || (millisol != millisolCache)) {
+            solCache = sol;
+            millisolCache = millisol;
+            malfunctionables = null;
+            kitchens = null;
+            mealTime = null;
+            labs = null;
+            solarIrradiance = null;
+            tooDarkForEVA = null;
+        }
+    }
+
+    /**
+     * Gets the malfunctionable entities of the settlement, i.e. its buildings and
+     * the malfunctionable units in its inventory.
+     * @return malfunctionable entities. Must not be modified.
+     */
+    public synchronized List<Malfunctionable> getMalfunctionables() {
+        checkTime();
+        if (malfunctionables == null) {
+            malfunctionables = new ArrayList<>(MalfunctionFactory.getMalfunctionables(settlement));
+        }
+        return malfunctionables;
+    }
+
+    /**
+     * Gets the malfunctionable entities local to a person in the settlement, as
+     * {@link MalfunctionFactory#getMalfunctionables(Person)} does.
+     * @param person the person.
+     * @return malfunctionable entities.
+     */
+    public Collection<Malfunctionable> getMalfunctionables(Person person) {
+        List<Malfunctionable> settlementEntities = getMalfunctionables();
+        Collection<Unit> inventoryUnits = person.getInventory().getContainedUnits();
+        if (inventoryUnits.isEmpty()) {
+            return settlementEntities;
+        }
+
+        List<Malfunctionable> result = new ArrayList<>(settlementEntities);
+        for (Unit unit : inventoryUnits) {
+            if ((unit instanceof Malfunctionable) && !settlementEntities.contains(unit)) {
+                result.add((Malfunctionable) unit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the farms needing work.
+     * @return farm buildings.
+     */
+    public List<Building> getFarmsNeedingWork() {
+        // The building manager keeps these for a few millisols already.
+        List<Building> result = settlement.getBuildingManager().getFarmsNeedingWork();
+        return (result != null) ? result : new ArrayList<>();
+    }
+
+    /**
+     * Checks if it is meal time at the settlement.
+     * @return true if meal time.
+     */
+    public synchronized boolean isMealTime() {
+        checkTime();
+        if (mealTime == null) {
+            mealTime = CookMeal.isMealTime(settlement.getCoordinates());
+        }
+        return mealTime;
+    }
+
+    /**
+     * Gets the kitchens without malfunction which can take another cook.
+     * @return kitchen buildings.
+     */
+    public List<Building> getKitchensNeedingCooks() {
+        List<Building> result = new ArrayList<>();
+        for (Building building : getKitchens()) {
+            Cooking kitchen = building.getCooking();
+            if (!building.getMalfunctionManager().hasMalfunction()
+                    && (kitchen.getNumCooks() < kitchen.getCookCapacity())) {
+                result.add(building);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the kitchens of the settlement.
+     * @return kitchen buildings.
+     */
+    private synchronized List<Building> getKitchens() {
+        checkTime();
+        if (kitchens == null) {
+            kitchens = new ArrayList<>(settlement.getBuildingManager().getBuildings(FunctionType.COOKING));
+        }
+        return kitchens;
+    }
+
+    /**
+     * Checks if any lab without malfunction can take another researcher,
+     * whatever its specialties.
+     * @return true if there is lab space.
+     */
+    public boolean hasLabSpace() {
+        for (Building building : getLabs()) {
+            Research lab = building.getResearch();
+            if (!building.getMalfunctionManager().hasMalfunction()
+                    && (lab.getResearcherNum() < lab.getLaboratorySize())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the labs of the settlement.
+     * @return lab buildings.
+     */
+    private synchronized List<Building> getLabs() {
+        checkTime();
+        if (labs == null) {
+            labs = new ArrayList<>(settlement.getBuildingManager().getBuildings(FunctionType.RESEARCH));
+        }
+        return labs;
+    }
+
+    /**
+     * Gets the solar irradiance at the settlement.
+     * @return solar irradiance (W/m2).
+     */
+    public synchronized double getSolarIrradiance() {
+        checkTime();
+        if (solarIrradiance == null) {
+            solarIrradiance = getSurfaceFeatures().getSolarIrradiance(settlement.getCoordinates());
+        }
+        return solarIrradiance;
+    }
+
+    /**
+     * Checks if it is too dark outside the settlement for EVA, i.e. night time
+     * outside of the dark polar regions.
+     * @return true if too dark.
+     */
+    public synchronized boolean isTooDarkForEVA() {
+        checkTime();
+        if (tooDarkForEVA == null) {
+            tooDarkForEVA = (getSolarIrradiance() == 0D)
+                    && !getSurfaceFeatures().inDarkPolarRegion(settlement.getCoordinates());
+        }
+        return tooDarkForEVA;
+    }
+
+    /**
+     * Checks if a solar energetic particle event makes EVA lethal.
+     * @return true if exposed.
+     */
+    public boolean isExposedToSEP() {
+        return settlement.getExposed()[2];
+    }
+
+    private static SurfaceFeatures getSurfaceFeatures() {
+        return Simulation.instance().getMars().getSurfaceFeatures();
+    }
+}
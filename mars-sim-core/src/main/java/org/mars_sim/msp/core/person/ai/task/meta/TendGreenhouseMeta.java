@@ -45,10 +45,19 @@ public class TendGreenhouseMeta implements MetaTask, Serializable {
 
     @Override
     public double getProbability(Person person) {
+        return getProbability(person, null);
+    }
+
+    @Override
+    public double getProbability(Person person, TaskContext context) {
 
         double result = 0D;
 
         if (person.isInSettlement()) {
+            if ((context != null) && context.getFarmsNeedingWork().isEmpty()) {
+                return 0;
+            }
+
             try {
                 // See if there is an available greenhouse.
                 Building farmingBuilding = TendGreenhouse.getAvailableGreenhouse(person);
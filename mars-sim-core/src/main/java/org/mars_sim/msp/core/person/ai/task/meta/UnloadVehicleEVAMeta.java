@@ -37,8 +37,6 @@ public class UnloadVehicleEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(UnloadVehicleEVAMeta.class.getName());
 
-    private static SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -69,8 +67,7 @@ public class UnloadVehicleEVAMeta implements MetaTask, Serializable {
 	    		return 0;
 	
 	        // Check if it is night time.
-	        if (surface == null)
-	            surface = Simulation.instance().getMars().getSurfaceFeatures();
+	        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 	
 	        if (surface.getSolarIrradiance(person.getCoordinates()) == 0D)
 	            if (!surface.inDarkPolarRegion(person.getCoordinates()))
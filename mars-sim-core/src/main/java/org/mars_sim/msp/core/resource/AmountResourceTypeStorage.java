@@ -2,8 +2,7 @@
  * Mars Simulation Project
  * AmountResourceTypeStorage.java
  * @version 3.07 2014-12-06
-
- * @author Scott Davis 
+ * @author Scott Davis
  */
 
 package org.mars_sim.msp.core.resource;
@@ -11,30 +10,38 @@ package org.mars_sim.msp.core.resource;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Storage for types of amount resource.
+ * <br>
+ * Amount resource ids are small dense integers, so the capacity and the stored
+ * amount of each type are kept in primitive arrays indexed by resource id and
+ * grown on demand. A bit set records which types have capacity, since a type
+ * with capacity may still have a zero amount stored.
  */
 class AmountResourceTypeStorage implements Serializable {
 
 	/** default serial id. */
 	private static final long serialVersionUID = 1L;
 
+	/** The initial length of the arrays. */
+	private static final int INITIAL_SIZE = 16;
+
 	// Data members
 
-	/** Capacity for each type of amount resource. */
-	//private Map<AmountResource, ResourceAmount> amountResourceTypeCapacities = null;
-	private Map<Integer, ResourceAmount> typeCapacities = null;
+	/** Capacity for each type of amount resource, indexed by resource id. */
+	private double[] capacities = null;
+
+	/** Stored resources by type, indexed by resource id. */
+	private double[] stored = null;
 
-	/** Stored resources by type. */
-	//private Map<AmountResource, ResourceAmount> amountResourceTypeStored = null;
-	private Map<Integer, ResourceAmount> typeStored = null;
+	/** The resource types that have capacity. */
+	private BitSet capacityTypes = null;
 
 	/** Cache value for the total amount of resources stored. */
 	private transient double totalAmountCache = 0D;
@@ -47,25 +54,8 @@ class AmountResourceTypeStorage implements Serializable {
      */
     void addAmountResourceTypeCapacity(AmountResource resource, double capacity)  {
     	addTypeCapacity(resource.getID(), capacity);
-/*    	
-        if (capacity < 0D) {
-            throw new IllegalStateException("Cannot add negative type capacity: " + capacity);
-        }
-
-        if (amountResourceTypeCapacities == null) {
-            amountResourceTypeCapacities = new HashMap<AmountResource, ResourceAmount>();
-        }
-
-        if (hasAmountResourceTypeCapacity(resource)) {
-            ResourceAmount existingCapacity = amountResourceTypeCapacities.get(resource);
-            existingCapacity.setAmount(existingCapacity.getAmount() + capacity);
-        }
-        else {
-            amountResourceTypeCapacities.put(resource, new ResourceAmount(capacity));
-        }
-*/
     }
-  
+
     /**
      * Adds capacity for a resource type.
      * @param resource the resource.
@@ -77,19 +67,11 @@ class AmountResourceTypeStorage implements Serializable {
             throw new IllegalStateException("Cannot add negative type capacity: " + capacity);
         }
 
-        if (typeCapacities == null) {
-            typeCapacities = new HashMap<Integer, ResourceAmount>();
-        }
-
-        if (hasARTypeCapacity(resource)) {
-            ResourceAmount existingCapacity = typeCapacities.get(resource);
-            existingCapacity.setAmount(existingCapacity.getAmount() + capacity);
-        }
-        else {
-            typeCapacities.put(resource, new ResourceAmount(capacity));
-        }
+        ensureSize(resource);
+        capacities[resource] += capacity;
+        capacityTypes.set(resource);
     }
-    
+
     /**
      * Removes capacity for a resource type.
      * @param resource the resource.
@@ -97,35 +79,6 @@ class AmountResourceTypeStorage implements Serializable {
      */
     void removeAmountResourceTypeCapacity(AmountResource resource, double capacity) {
     	removeTypeCapacity(resource.getID(), capacity);
-    	
-/*       
-        if (capacity < 0D) {
-            throw new IllegalStateException("Cannot remove negative type capacity: " + capacity);
-        }
-        
-        if (amountResourceTypeCapacities == null) {
-            amountResourceTypeCapacities = new HashMap<AmountResource, ResourceAmount>();
-        }
-        
-        double existingCapacity = getAmountResourceTypeCapacity(resource);
-        double newCapacity = existingCapacity - capacity;
-        if (newCapacity > 0D) {
-            if (hasAmountResourceTypeCapacity(resource)) {
-                ResourceAmount existingCapacityAmount = amountResourceTypeCapacities.get(resource);
-                existingCapacityAmount.setAmount(newCapacity);
-            }
-            else {
-                amountResourceTypeCapacities.put(resource, new ResourceAmount(newCapacity));
-            }
-        }
-        else if (newCapacity == 0D) {
-            amountResourceTypeCapacities.remove(resource);
-        }
-        else {
-            throw new IllegalStateException("Insufficient existing resource type capacity to remove - existing: " + 
-                    existingCapacity + ", removed: " + capacity);
-        }
-*/        
     }
 
     /**
@@ -134,53 +87,37 @@ class AmountResourceTypeStorage implements Serializable {
      * @param capacity the capacity amount (kg).
      */
     void removeTypeCapacity(int resource, double capacity) {
-        
+
         if (capacity < 0D) {
             throw new IllegalStateException("Cannot remove negative type capacity: " + capacity);
         }
-        
-        if (typeCapacities == null) {
-            typeCapacities = new HashMap<Integer, ResourceAmount>();
-        }
-        
+
         double existingCapacity = getARTypeCapacity(resource);
         double newCapacity = existingCapacity - capacity;
         if (newCapacity > 0D) {
-            if (hasARTypeCapacity(resource)) {
-                ResourceAmount existingCapacityAmount = typeCapacities.get(resource);
-                existingCapacityAmount.setAmount(newCapacity);
-            }
-            else {
-               typeCapacities.put(resource, new ResourceAmount(newCapacity));
-            }
+            ensureSize(resource);
+            capacities[resource] = newCapacity;
+            capacityTypes.set(resource);
         }
         else if (newCapacity == 0D) {
-            typeCapacities.remove(resource);
+            if (hasARTypeCapacity(resource)) {
+                capacities[resource] = 0D;
+                capacityTypes.clear(resource);
+            }
         }
         else {
-            throw new IllegalStateException("Insufficient existing resource type capacity to remove - existing: " + 
+            throw new IllegalStateException("Insufficient existing resource type capacity to remove - existing: " +
                     existingCapacity + ", removed: " + capacity);
         }
     }
-    
+
     /**
      * Checks if storage has capacity for a resource type.
      * @param resource the resource.
      * @return true if storage capacity.
      */
     boolean hasAmountResourceTypeCapacity(AmountResource resource) {
-
-        boolean result = false;
-
-        //if (amountResourceTypeCapacities != null) {
-        //    result = amountResourceTypeCapacities.containsKey(resource);
-        //}
-
-        if (typeCapacities != null) {
-            result = typeCapacities.containsKey(resource.getID());
-        }
-        
-        return result;
+        return hasARTypeCapacity(resource.getID());
     }
 
     /**
@@ -189,34 +126,16 @@ class AmountResourceTypeStorage implements Serializable {
      * @return true if storage capacity.
      */
     boolean hasARTypeCapacity(int resource) {
-
-        boolean result = false;
-
-        if (typeCapacities != null) {
-            result = typeCapacities.containsKey(resource);
-        }
-
-        return result;
+        return capacityTypes != null && resource >= 0 && capacityTypes.get(resource);
     }
-    
+
     /**
      * Gets the storage capacity for a resource type.
      * @param resource the resource.
      * @return capacity amount (kg).
      */
     double getAmountResourceTypeCapacity(AmountResource resource) {
-
-        double result = 0D;
-
-        //if (hasAmountResourceTypeCapacity(resource)) {
-        //    result = (amountResourceTypeCapacities.get(resource)).getAmount();
-        //}
-        
-        if (hasARTypeCapacity(resource.getID())) {
-            result = (typeCapacities.get(resource.getID())).getAmount();
-        }
-
-        return result;
+        return getARTypeCapacity(resource.getID());
     }
 
     /**
@@ -229,27 +148,19 @@ class AmountResourceTypeStorage implements Serializable {
         double result = 0D;
 
         if (hasARTypeCapacity(resource)) {
-            result = (typeCapacities.get(resource)).getAmount();
+            result = capacities[resource];
         }
 
         return result;
     }
-    
+
     /**
      * Gets the amount of a resource type stored.
      * @param resource the resource.
      * @return stored amount (kg).
      */
     double getAmountResourceTypeStored(AmountResource resource) {
-
-        double result = 0D;
-
-        ResourceAmount storedAmount = getARTypeStoredObject(resource.getID());//getAmountResourceTypeStoredObject(resource);
-        if (storedAmount != null) {
-            result = storedAmount.getAmount();
-        }
-        
-        return result;
+        return getARTypeStored(resource.getID());
     }
 
     /**
@@ -261,62 +172,20 @@ class AmountResourceTypeStorage implements Serializable {
 
         double result = 0D;
 
-        ResourceAmount storedAmount = getARTypeStoredObject(resource);
-        if (storedAmount != null) {
-            result = storedAmount.getAmount();
+        if (stored != null && resource >= 0 && resource < stored.length) {
+            result = stored[resource];
         }
-        
-        return result;
-    }
-    
-    /**
-     * Gets the amount of a resource type stored.
-     * @param resource the resource.
-     * @return stored amount as ResourceAmount object.
-     */
-    private ResourceAmount getAmountResourceTypeStoredObject(AmountResource resource) {
-
-        ResourceAmount result = null;
 
-        //if (amountResourceTypeStored != null) {
-        //    result = amountResourceTypeStored.get(resource);
-        //}
-        if (typeStored != null) {
-            result = typeStored.get(resource.getID());
-        }
-        
         return result;
     }
 
-    /**
-     * Gets the amount of a resource type stored.
-     * @param resource the resource.
-     * @return stored amount as ResourceAmount object.
-     */
-    private ResourceAmount getARTypeStoredObject(int resource) {
-
-        ResourceAmount result = null;
-
-        if (typeStored != null) {
-            result = typeStored.get(resource);
-        }
-
-        return result;
-    }
-    
     /**
      * Gets the total amount of resources stored.
      * @param allowDirty will allow dirty (possibly out of date) results.
      * @return stored amount (kg).
      */
     double getTotalAmountResourceTypesStored(boolean allowDirty) {
-
-        if (totalAmountCacheDirty && !allowDirty) {
-            // Update total amount cache.
-            updateTotalAmountResourceTypesStored();
-        }
-
-        return totalAmountCache;
+        return getTotalTypesStored(allowDirty);
     }
 
     /**
@@ -333,33 +202,6 @@ class AmountResourceTypeStorage implements Serializable {
 
         return totalAmountCache;
     }
-    
-    /**
-     * Updates the total amount of resources stored.
-     */
-    private void updateTotalAmountResourceTypesStored() {
-
-        double totalAmount = 0D;
-/*
-        if (amountResourceTypeStored != null) {
-            Map<AmountResource, ResourceAmount> tempMap = Collections.unmodifiableMap(amountResourceTypeStored);
-            Iterator<AmountResource> i = tempMap.keySet().iterator();
-            while (i.hasNext()) {
-                totalAmount += tempMap.get(i.next()).getAmount();
-            }
-        }
-*/     
-        if (typeStored != null) {
-            Map<Integer, ResourceAmount> tempMap = Collections.unmodifiableMap(typeStored);
-            Iterator<Integer> i = tempMap.keySet().iterator();
-            while (i.hasNext()) {
-                totalAmount += tempMap.get(i.next()).getAmount();
-            }
-        }
-
-        totalAmountCache = totalAmount;
-        totalAmountCacheDirty = false;
-    }
 
     /**
      * Updates the total amount of resources stored.
@@ -368,18 +210,16 @@ class AmountResourceTypeStorage implements Serializable {
 
         double totalAmount = 0D;
 
-        if (typeStored != null) {
-            Map<Integer, ResourceAmount> tempMap = Collections.unmodifiableMap(typeStored);
-            Iterator<Integer> i = tempMap.keySet().iterator();
-            while (i.hasNext()) {
-                totalAmount += tempMap.get(i.next()).getAmount();
+        if (stored != null) {
+            for (double amount : stored) {
+                totalAmount += amount;
             }
         }
 
         totalAmountCache = totalAmount;
         totalAmountCacheDirty = false;
     }
-    
+
     /**
      * Gets a set of resources stored.
      * @return set of resources.
@@ -390,25 +230,6 @@ class AmountResourceTypeStorage implements Serializable {
     		set.add(ResourceUtil.findAmountResource(ar));
     	}
     	return set;
-        
-/*
-        if (amountResourceTypeStored != null) {
-            result = new HashSet<AmountResource>(amountResourceTypeStored.size());
-            Iterator<AmountResource> i = amountResourceTypeStored.keySet().iterator();
-            while (i.hasNext()) {
-                AmountResource resource = i.next();
-                if (getAmountResourceTypeStored(resource) > 0D) {
-                    result.add(resource);
-                }
-            }
-        }
-        else {
-            result = new HashSet<AmountResource>(0);
-        }
-
-        
-        return result;
-*/    
     }
 
     /**
@@ -417,39 +238,26 @@ class AmountResourceTypeStorage implements Serializable {
      */
     Set<Integer> getAllARStored() {
 
-        Set<Integer> result = null;
+        Set<Integer> result = new HashSet<Integer>();
 
-        if (typeStored != null) {
-            result = new HashSet<Integer>(typeStored.size());
-            Iterator<Integer> i = typeStored.keySet().iterator();
-            while (i.hasNext()) {
-            	Integer resource = i.next();
-                if (getARTypeStored(resource) > 0D) {
+        if (stored != null) {
+            for (int resource = 0; resource < stored.length; resource++) {
+                if (stored[resource] > 0D) {
                     result.add(resource);
                 }
             }
         }
-        else {
-            result = new HashSet<Integer>(0);
-        }
 
         return result;
     }
-    
+
     /**
      * Gets the remaining capacity available for a resource type.
      * @param resource the resource.
      * @return remaining capacity amount (kg).
      */
     double getAmountResourceTypeRemainingCapacity(AmountResource resource) {
-
-        double result = 0D;
-
-        if (hasAmountResourceTypeCapacity(resource)) {
-            result = getAmountResourceTypeCapacity(resource) - getAmountResourceTypeStored(resource);
-        }
-
-        return result;
+        return getARTypeRemainingCapacity(resource.getID());
     }
 
     /**
@@ -462,12 +270,12 @@ class AmountResourceTypeStorage implements Serializable {
         double result = 0D;
 
         if (hasARTypeCapacity(resource)) {
-            result = getARTypeCapacity(resource) - getARTypeStored(resource);
+            result = capacities[resource] - getARTypeStored(resource);
         }
 
         return result;
     }
-    
+
     /**
      * Store an amount of a resource type.
      * @param resource the resource.
@@ -475,35 +283,8 @@ class AmountResourceTypeStorage implements Serializable {
      */
     void storeAmountResourceType(AmountResource resource, double amount) {
     	storeARType(resource.getID(), amount);
-/*    	
-        if (amount < 0D) {
-            throw new IllegalStateException("Cannot store negative amount of type: " + amount);
-        }
-
-        if (amount > 0D) {
-            if (getAmountResourceTypeRemainingCapacity(resource) >= amount) {
-
-                // Set total amount cache to dirty since value is changing.
-                totalAmountCacheDirty = true;
-
-                if (amountResourceTypeStored == null) {
-                    amountResourceTypeStored = new HashMap<AmountResource, ResourceAmount>();
-                }
-
-                ResourceAmount stored = getAmountResourceTypeStoredObject(resource);
-                if (stored != null) {
-                    stored.setAmount(stored.getAmount() + amount);
-                }
-                else {
-                    amountResourceTypeStored.put(resource, new ResourceAmount(amount));
-                }
-            }
-            else throw new IllegalStateException("Amount resource could not be added in type storage.");
-        }
-*/        
     }
 
-    
     /**
      * Store an amount of a resource type.
      * @param resource the resource.
@@ -521,22 +302,13 @@ class AmountResourceTypeStorage implements Serializable {
                 // Set total amount cache to dirty since value is changing.
                 totalAmountCacheDirty = true;
 
-                if (typeStored == null) {
-                    typeStored = new HashMap<Integer, ResourceAmount>();
-                }
-
-                ResourceAmount stored = getARTypeStoredObject(resource);
-                if (stored != null) {
-                    stored.setAmount(stored.getAmount() + amount);
-                }
-                else {
-                    typeStored.put(resource, new ResourceAmount(amount));
-                }
+                // Capacity exists, so the arrays already cover the resource.
+                stored[resource] += amount;
             }
             else throw new IllegalStateException("Amount resource could not be added in type storage.");
         }
     }
-    
+
     /**
      * Retrieves an amount of a resource type from storage.
      * @param resource the resource.
@@ -545,26 +317,24 @@ class AmountResourceTypeStorage implements Serializable {
     void retrieveAmountResourceType(AmountResource resource, double amount) {
 
         if (amount < 0D) {
-            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount); 
+            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount);
         }
 
         if (amount > 0D) {
-            if (getAmountResourceTypeStored(resource) >= amount) {
+            if (getARTypeStored(resource.getID()) >= amount) {
 
                 // Set total amount cache to dirty since value is changing.
                 totalAmountCacheDirty = true;
 
-                ResourceAmount stored = getAmountResourceTypeStoredObject(resource);
-                stored.setAmount(stored.getAmount() - amount);
+                stored[resource.getID()] -= amount;
             }
             else {
-                throw new IllegalStateException("Amount resource (" + resource.getName() +  
+                throw new IllegalStateException("Amount resource (" + resource.getName() +
                         ":" + amount + ") could not be retrieved from type storage");
             }
         }
     }
 
-    
     /**
      * Retrieves an amount of a resource type from storage.
      * @param resource the resource.
@@ -573,7 +343,7 @@ class AmountResourceTypeStorage implements Serializable {
     void retrieveARType(int resource, double amount) {
 
         if (amount < 0D) {
-            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount); 
+            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount);
         }
 
         if (amount > 0D) {
@@ -582,18 +352,41 @@ class AmountResourceTypeStorage implements Serializable {
                 // Set total amount cache to dirty since value is changing.
                 totalAmountCacheDirty = true;
 
-                ResourceAmount stored = getARTypeStoredObject(resource);
-                stored.setAmount(stored.getAmount() - amount);
+                stored[resource] -= amount;
             }
             else {
-                throw new IllegalStateException("Amount resource (" + resource +  
+                throw new IllegalStateException("Amount resource (" + resource +
                         ":" + amount + ") could not be retrieved from type storage");
             }
         }
     }
-    
+
+    /**
+     * Makes sure the arrays can hold a resource id.
+     * @param resource the resource.
+     */
+    private void ensureSize(int resource) {
+
+        if (resource < 0) {
+            throw new IllegalStateException("Invalid amount resource id: " + resource);
+        }
+
+        if (capacities == null) {
+            int size = Math.max(INITIAL_SIZE, resource + 1);
+            capacities = new double[size];
+            stored = new double[size];
+            capacityTypes = new BitSet(size);
+        }
+        else if (resource >= capacities.length) {
+            int size = Math.max(capacities.length * 2, resource + 1);
+            capacities = Arrays.copyOf(capacities, size);
+            stored = Arrays.copyOf(stored, size);
+        }
+    }
+
     /**
      * Internal class for storing type resource amounts.
+     * Only kept to read saved simulations from before the arrays were used.
      */
     private static class ResourceAmount implements Serializable {
 
@@ -602,97 +395,73 @@ class AmountResourceTypeStorage implements Serializable {
         private ResourceAmount(double amount) {
             this.amount = amount;
         }
-
-        private void setAmount(double amount) {
-            this.amount = amount;
-        }
-
-        private double getAmount() {
-            return amount;
-        }
     }
 
     public void restoreARs(AmountResource[] ars) {
- /*   	
-    	if (amountResourceTypeCapacities != null && !amountResourceTypeCapacities.isEmpty()) {
-	    	for (AmountResource r : amountResourceTypeCapacities.keySet()) {
-	    		for (AmountResource ar : ars) {
-	    			if (r.getName().equals(ar.getName())) {
-	    				ResourceAmount ra = amountResourceTypeCapacities.get(r);
-	    				// Replace the old AmountResource reference with the new
-	    				amountResourceTypeCapacities.put(ar, ra);
-	    				System.out.println("amountResourceTypeCapacities: " + ar.getName());
-	    			}
-	    		}
-	    	}
-    	}
-    	
-    	if (amountResourceTypeStored != null && !amountResourceTypeStored.isEmpty()) {
-	    	for (AmountResource r : amountResourceTypeStored.keySet()) {
-	    		for (AmountResource ar : ars) {
-	    			if (r.getName().equals(ar.getName())) {
-	    				ResourceAmount ra = amountResourceTypeStored.get(r);
-	    				// Replace the old AmountResource reference with the new
-	    				amountResourceTypeStored.put(ar, ra);
-	       				System.out.println("amountResourceTypeStored: " + ar.getName());
-	    			}
-	    		}
-	    	}
-    	}
-
-    	if (typeCapacities != null && !typeCapacities.isEmpty()) {
-	    	for (int r : typeCapacities.keySet()) {
-	    		for (AmountResource ar : ars) {
-	    			if (ResourceUtil.findAmountResource(r).getName().equals(ar.getName())) {
-	    				ResourceAmount ra = typeCapacities.get(r);
-	    				// Replace the old AmountResource reference with the new
-	    				typeCapacities.put(r, ra);
-	    				System.out.println("amountResourceTypeCapacities: " + ar.getName());
-	    			}
-	    		}
-	    	}
-    	}
-    	
-    	if (typeStored != null && !typeStored.isEmpty()) {
-	    	for (int r : typeStored.keySet()) {
-	    		for (AmountResource ar : ars) {
-	    			if (ResourceUtil.findAmountResource(r).getName().equals(ar.getName())) {
-	    				ResourceAmount ra = typeStored.get(r);
-	    				// Replace the old AmountResource reference with the new
-	    				typeStored.put(r, ra);
-	       				System.out.println("amountResourceTypeStored: " + ar.getName());
-	    			}
-	    		}
-	    	}
-    	}
-*/	
     }
-    
+
     /**
      * Prepare object for garbage collection.
      */
     public void destroy() {
-    	
-        //if (amountResourceTypeCapacities != null) amountResourceTypeCapacities.clear();
-        //amountResourceTypeCapacities = null;
-        //if (amountResourceTypeStored != null) amountResourceTypeStored.clear();
-        //amountResourceTypeStored = null;
-        
-        typeCapacities = null;
-        typeStored = null;
+        capacities = null;
+        stored = null;
+        capacityTypes = null;
     }
-    
+
     /**
      * Implementing readObject method for serialization.
+     * Older saved simulations hold maps of resource id to amount,
+     * which are copied into the arrays here.
      * @param in the input stream.
      * @throws IOException if error reading from input stream.
      * @throws ClassNotFoundException if error creating class.
      */
+    @SuppressWarnings("unchecked")
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        
-        in.defaultReadObject();
+
+        ObjectInputStream.GetField fields = in.readFields();
+
+        capacities = (double[]) fields.get("capacities", null);
+        stored = (double[]) fields.get("stored", null);
+        capacityTypes = (BitSet) fields.get("capacityTypes", null);
+
+        if (capacities == null) {
+            Map<Integer, ResourceAmount> oldCapacities = (Map<Integer, ResourceAmount>) getOldField(fields, "typeCapacities");
+            Map<Integer, ResourceAmount> oldStored = (Map<Integer, ResourceAmount>) getOldField(fields, "typeStored");
+
+            if (oldCapacities != null) {
+                for (Map.Entry<Integer, ResourceAmount> e : oldCapacities.entrySet()) {
+                    ensureSize(e.getKey());
+                    capacities[e.getKey()] = e.getValue().amount;
+                    capacityTypes.set(e.getKey());
+                }
+            }
+
+            if (oldStored != null) {
+                for (Map.Entry<Integer, ResourceAmount> e : oldStored.entrySet()) {
+                    ensureSize(e.getKey());
+                    stored[e.getKey()] = e.getValue().amount;
+                }
+            }
+        }
 
         // Initialize transient variables that need it.
         totalAmountCacheDirty = true;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets a field from an older saved simulation.
+     * @param fields the fields read from the stream.
+     * @param name the field name.
+     * @return the field value or null if not in the stream.
+     * @throws IOException if error reading the field.
+     */
+    private static Object getOldField(ObjectInputStream.GetField fields, String name) throws IOException {
+        try {
+            return fields.get(name, null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
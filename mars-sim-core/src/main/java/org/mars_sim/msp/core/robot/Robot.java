@@ -842,7 +842,10 @@ implements Salvagable, Malfunctionable, MissionMember, Serializable {
 	  */
 	public Building computeCurrentBuilding() {
 		if (isInSettlement()) {
-			currentBuilding = getSettlement().getBuildingManager().getBuildingAtPosition(getXLocation(), getYLocation());
+			// The building is set as the robot walks between buildings.
+			Settlement settlement = getSettlement();
+			if ((currentBuilding == null) || (currentBuilding.getSettlement() != settlement))
+				currentBuilding = settlement.getBuildingManager().getBuildingAtPosition(getXLocation(), getYLocation());
 		}
 		else
 			currentBuilding = null;
@@ -23,6 +23,7 @@ import org.mars_sim.msp.core.robot.Robot;
 import org.mars_sim.msp.core.robot.ai.job.RobotJob;
 import org.mars_sim.msp.core.robot.ai.task.BotTaskManager;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 
 /**
  * The BotMind class represents a robot's mind. It keeps track of missions and
@@ -160,7 +161,12 @@ implements Serializable {
         else {
 
         	if (activeMission) {
+        		TickProfiler profiler = TickProfiler.instance();
+        		// The mission may end while performed.
+        		Class<?> type = mission.getClass();
+        		long start = profiler.start(TickProfiler.Category.MISSION);
         		mission.performMission(robot);
+        		profiler.record(TickProfiler.Category.MISSION, type, start);
         	}
 
             if (!botTaskManager.hasActiveTask()) {
@@ -7,7 +7,7 @@
 package org.mars_sim.msp.core.robot.ai.task;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -25,6 +25,7 @@ import org.mars_sim.msp.core.robot.SystemCondition;
 import org.mars_sim.msp.core.robot.ai.BotMind;
 import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 import org.mars_sim.msp.core.vehicle.Vehicle;
 
 /**
@@ -79,7 +80,7 @@ implements Serializable {
 
 		// Initialize cache values.
 		timeCache = null;
-		taskProbCache = new HashMap<MetaTask, Double>(MetaTaskUtil.getRobotMetaTasks().size());
+		taskProbCache = new LinkedHashMap<MetaTask, Double>(MetaTaskUtil.getRobotMetaTasks().size());
 		totalProbCache = 0D;
 	
 		if (Simulation.instance().getMasterClock() != null) // use this check to pass maven test
@@ -499,13 +500,16 @@ implements Serializable {
 			List<MetaTask> mtList = MetaTaskUtil.getRobotMetaTasks();
 	
 			if (taskProbCache == null)
-				taskProbCache = new HashMap<MetaTask, Double>(mtList.size());
+				taskProbCache = new LinkedHashMap<MetaTask, Double>(mtList.size());
 	
 			// Clear total probabilities.
 			totalProbCache = 0D;
 			// Determine probabilities.
+			TickProfiler profiler = TickProfiler.instance();
 			for (MetaTask mt : mtList) {
+				long start = profiler.start(TickProfiler.Category.META_TASK);
 				double probability = mt.getProbability(robot);
+				profiler.record(TickProfiler.Category.META_TASK, mt.getClass(), start);
 	
 				if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
 					taskProbCache.put(mt, probability);
@@ -8,6 +8,8 @@
 package org.mars_sim.msp.core.structure;
 
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -16,6 +18,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,6 +54,7 @@ import org.mars_sim.msp.core.person.ai.task.Relax;
 import org.mars_sim.msp.core.person.ai.task.Repair;
 import org.mars_sim.msp.core.person.ai.task.Task;
 import org.mars_sim.msp.core.person.ai.task.Workout;
+import org.mars_sim.msp.core.person.ai.task.meta.TaskContext;
 import org.mars_sim.msp.core.person.health.RadiationExposure;
 import org.mars_sim.msp.core.resource.AmountResource;
 import org.mars_sim.msp.core.resource.ResourceUtil;
@@ -69,6 +73,7 @@ import org.mars_sim.msp.core.structure.construction.ConstructionManager;
 import org.mars_sim.msp.core.structure.goods.GoodsManager;
 import org.mars_sim.msp.core.structure.goods.GoodsUtil;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TimeSeries;
 import org.mars_sim.msp.core.vehicle.LightUtilityVehicle;
 import org.mars_sim.msp.core.vehicle.Vehicle;
 import org.mars_sim.msp.core.vehicle.VehicleType;
@@ -107,6 +112,8 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 	public static final int NUM_CRITICAL_RESOURCES = 9;
 
 	private static final int RESOURCE_STAT_SOLS = 12;
+	/** The number of samples of each critical resource taken in a sol. */
+	private static final int RESOURCE_SAMPLES_PER_SOL = 1000 / SAMPLING_FREQ;
 
 	private static final int SOL_SLEEP_PATTERN_REFRESH = 3;
 
@@ -147,9 +154,6 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 	private int millisolCache = -5;
 	private int numConnectorsCache = 0;
 
-	/** Goods manager update time. */
-	private double goodsManagerUpdateTime = 0D;
-
 	private double currentTemperature = 22.5;
 
 	private double currentPressure = NORMAL_AIR_PRESSURE; // [in kPa], not Pascal
@@ -188,6 +192,8 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 	public transient boolean justReloadedPeople = true;
 
 	public transient boolean justReloadedRobots = true;
+	/** The facts shared by the meta tasks of everyone in the settlement. */
+	private transient TaskContext taskContext;
 
 	private boolean[] exposed = { false, false, false };
 
@@ -235,7 +241,13 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 	/** The settlement's achievement in scientific fields. */
 	private Map<ScienceType, Double> scientificAchievement;
 	// private Map<Integer, Double> resourceMapCache = new HashMap<>();
-	private Map<Integer, Map<Integer, List<Double>>> resourceStat = new HashMap<>();
+	/** The amounts of the critical resources sampled over the last sols. */
+	private TimeSeries[] resourceStats = createResourceStats();
+	/**
+	 * The samples by sol and resource type of older saved simulations, only
+	 * read to fill resourceStats.
+	 */
+	private Map<Integer, Map<Integer, List<Double>>> resourceStat;
 
 	private Collection<Person> allAssociatedPeople = new ConcurrentLinkedQueue<Person>();
 
@@ -1024,7 +1036,7 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 			// millisols in order to balance the simulation load
 			checkRadiationProbability(time);
 
-		// Updates the goodsManager twice per sol at random time.
+		// Updates the goodsManager, which values the goods twice per sol.
 		updateGoodsManager(time);
 
 		// updateRegistry();
@@ -1098,33 +1110,45 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 			resource = ResourceUtil.iceAR;// "ice";
 		}
 
-		if (resourceStat.containsKey(solCache)) {
-			Map<Integer, List<Double>> todayMap = resourceStat.get(solCache);
+		resourceStats[resourceType].add(solCache, getInventory().getAmountResourceStored(resource, false));
+	}
 
-			if (todayMap.containsKey(resourceType)) {
-				List<Double> list = todayMap.get(resourceType);
-				double newAmount = getInventory().getAmountResourceStored(resource, false);
-				list.add(newAmount);
+	/**
+	 * Implementing readObject method for serialization.
+	 * Older saved simulations keep the critical resource samples in resourceStat,
+	 * so they are added to new series, sol by sol.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
 
-			}
+		in.defaultReadObject();
 
-			else {
-				List<Double> list = new ArrayList<>();
-				double newAmount = getInventory().getAmountResourceStored(resource, false);
-				list.add(newAmount);
-				todayMap.put(resourceType, list);
+		if (resourceStats == null) {
+			resourceStats = createResourceStats();
+			if (resourceStat != null) {
+				for (int sol : new TreeSet<>(resourceStat.keySet())) {
+					Map<Integer, List<Double>> solMap = resourceStat.get(sol);
+					for (int i = 0; i < NUM_CRITICAL_RESOURCES; i++) {
+						List<Double> samples = solMap.get(i);
+						if (samples != null) {
+							for (double value : samples)
+								resourceStats[i].add(sol, value);
+						}
+					}
+				}
 			}
-
 		}
+		resourceStat = null;
+	}
 
-		else {
-			List<Double> list = new ArrayList<>();
-			Map<Integer, List<Double>> todayMap = new HashMap<>();
-			double newAmount = getInventory().getAmountResourceStored(resource, false);
-			list.add(newAmount);
-			todayMap.put(resourceType, list);
-			resourceStat.put(solCache, todayMap);
+	private static TimeSeries[] createResourceStats() {
+		TimeSeries[] stats = new TimeSeries[NUM_CRITICAL_RESOURCES];
+		for (int i = 0; i < NUM_CRITICAL_RESOURCES; i++) {
+			stats[i] = new TimeSeries(RESOURCE_SAMPLES_PER_SOL * RESOURCE_STAT_SOLS, RESOURCE_STAT_SOLS);
 		}
+		return stats;
 	}
 
 	/*
@@ -1142,39 +1166,7 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 		else if (solType == -10) // average from 10 sols ago
 			sol = solCache - 10;
 
-		int size = 0;
-		double average = 0;
-
-		if (resourceStat.containsKey(sol)) {
-			Map<Integer, List<Double>> map = resourceStat.get(sol);
-			// System.out.println("Sol " + solCache + " : yes to resourceStat.containsKey("
-			// + sol + ")");
-			// System.out.println("map.containsKey(resourceType) is " +
-			// map.containsKey(resourceType));
-			if (map.containsKey(resourceType)) {
-				List<Double> list = map.get(resourceType);
-				// System.out.println("sol : " + solCache + " solType : " + solType + " list is
-				// " + list);
-				size = list.size();
-				for (int i = 0; i < size; i++) {
-					average += list.get(i);
-					// System.out.println("list.get(i) is " + list.get(i));
-				}
-
-				// System.out.println("size is " + size + " average is " + average);
-				average = average / size;
-
-			} else {
-				average = 0; // how long will it be filled ? ?
-			}
-
-		} else
-			average = 0;
-
-		// if (size != 0)
-		// average = average/size;
-
-		return average;
+		return resourceStats[resourceType].getMean(sol);
 	}
 
 //	 public void updateRegistry() {
@@ -1230,8 +1222,6 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 
 			reassignWorkShift();
 
-			refreshResourceStat();
-
 			refreshSleepMap(solElapsed);
 
 			// getSupplyDemandSampleReport(solElapsed);
@@ -1243,20 +1233,6 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 		}
 	}
 
-	public void refreshResourceStat() {
-		// Remove the resourceStat map data from 12 days ago
-		if (resourceStat.size() > RESOURCE_STAT_SOLS)
-			resourceStat.remove(0);
-		// if (counter30 == 31) {
-		// resourceStat.remove(0);
-		// resourceStat.clear();
-		// resourceStat = new HashMap<>();
-		// counter30--;
-		// }
-		// else
-		// counter30++;
-	}
-
 	/***
 	 * Refreshes the sleep map for each person in the settlement
 	 * 
@@ -1491,20 +1467,13 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 	}
 
 	/**
-	 * Updates the GoodsManager twice per day
+	 * Updates the GoodsManager, which values the goods twice per day
+	 * spread over several ticks.
 	 *
 	 * @param time
 	 */
 	private void updateGoodsManager(double time) {
-
-		goodsManagerUpdateTime += time;
-
-		// Randomly update goods manager twice per Sol.
-		double timeThreshold = 250D + RandomUtil.getRandomDouble(250D);
-		if (!goodsManager.isInitialized() || (goodsManagerUpdateTime > timeThreshold)) {
-			goodsManager.timePassing(time);
-			goodsManagerUpdateTime = 0D;
-		}
+		goodsManager.timePassing(time);
 	}
 
 	/**
@@ -2917,8 +2886,14 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 		}
 	}
 
-	public Map<Integer, Map<Integer, List<Double>>> getResourceStat() {
-		return resourceStat;
+	/**
+	 * Gets the samples of a critical resource taken over the last sols
+	 * 
+	 * @param resourceType
+	 * @return the samples
+	 */
+	public TimeSeries getResourceStat(int resourceType) {
+		return resourceStats[resourceType];
 	}
 
 	public int getSolCache() {
@@ -3138,13 +3113,24 @@ public class Settlement extends Structure implements Serializable, LifeSupportTy
 		sumOfCurrentManuProcesses = sumOfCurrentManuProcesses + value;
 	}
 
+	/**
+	 * Gets the facts shared by the meta tasks of everyone in the settlement.
+	 * 
+	 * @return task context.
+	 */
+	public synchronized TaskContext getTaskContext() {
+		if (taskContext == null)
+			taskContext = new TaskContext(this);
+		return taskContext;
+	}
+
 	/**
 	 * Gets the number of crops that currently need work this Sol.
 	 * 
 	 * @return number of crops.
 	 */
 	// Add caching and relocated from TendGreenhouse
-	public int getCropsNeedingTending() {
+	public synchronized int getCropsNeedingTending() {
 		int result = 0;
 
 		int m = marsClock.getMsol0();
@@ -86,6 +86,7 @@ import org.mars_sim.msp.core.structure.building.function.cooking.PreparingDesser
 import org.mars_sim.msp.core.structure.building.function.farming.Farming;
 import org.mars_sim.msp.core.time.MarsClock;
 import org.mars_sim.msp.core.time.MasterClock;
+import org.mars_sim.msp.core.time.TickProfiler;
 
 /**
  * The Building class is a settlement's building.
@@ -1004,6 +1005,9 @@ public class Building extends Structure implements Malfunctionable, Indoor, // C
 
 	public void setXLocation(double x) {
 		this.xLoc = x;
+		if (manager != null) {
+			manager.clearLocalAreaIndex();
+		}
 	}
 
 	@Override
@@ -1013,6 +1017,9 @@ public class Building extends Structure implements Malfunctionable, Indoor, // C
 
 	public void setYLocation(double y) {
 		this.yLoc = y;
+		if (manager != null) {
+			manager.clearLocalAreaIndex();
+		}
 	}
 
 	@Override
@@ -1022,6 +1029,9 @@ public class Building extends Structure implements Malfunctionable, Indoor, // C
 
 	public void setFacing(double facing) {
 		this.facing = facing;
+		if (manager != null) {
+			manager.clearLocalAreaIndex();
+		}
 	}
 
 	public boolean getInTransport() {
@@ -1334,8 +1344,12 @@ public class Building extends Structure implements Malfunctionable, Indoor, // C
 			throw new IllegalArgumentException("Time must be > 0D");
 
 		// Send time to each building function.
-		for (Function f : functions)
+		TickProfiler profiler = TickProfiler.instance();
+		for (Function f : functions) {
+			long start = profiler.start(TickProfiler.Category.FUNCTION);
 			f.timePassing(time);
+			profiler.record(TickProfiler.Category.FUNCTION, f.getClass(), start);
+		}
 
 		if (masterClock == null)
 			masterClock = Simulation.instance().getMasterClock();
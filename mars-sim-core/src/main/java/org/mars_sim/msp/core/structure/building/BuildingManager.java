@@ -20,6 +20,7 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.mars_sim.msp.core.AlphanumComparator;
+import org.mars_sim.msp.core.LocalAreaIndex;
 import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.LogConsolidated;
 import org.mars_sim.msp.core.RandomUtil;
@@ -120,6 +121,8 @@ public class BuildingManager implements Serializable {
     private Map<String, Double> buildingValuesOldCache;
     private Map<FunctionType, List<Building>> buildingFunctionsMap;
     private Map<String, Integer> buildingTypeIDMap;
+    /** The index of building positions, or null if it needs to be rebuilt. */
+    private transient volatile LocalAreaIndex buildingIndex;
 
     
     /**
@@ -274,6 +277,7 @@ public class BuildingManager implements Serializable {
             oldBuilding.removeFunctionsFromSettlement();
 
             buildings.remove(oldBuilding);
+            clearLocalAreaIndex();
             
             //removeBuildingTypeIDMap(oldBuilding);
             
@@ -355,6 +359,7 @@ public class BuildingManager implements Serializable {
         if (!buildings.contains(newBuilding)) {
 
             buildings.add(newBuilding);
+            clearLocalAreaIndex();
                    
             // 2016-10-17 Insert this new building into buildingFunctionsMap
             addAllFunctionstoBFMap(newBuilding);
@@ -1043,24 +1048,8 @@ public class BuildingManager implements Serializable {
      */
     public static Building getBuilding(Vehicle vehicle) {
         if (vehicle == null) throw new IllegalArgumentException("vehicle is null");
-        Building result = null;
-        Settlement settlement = vehicle.getSettlement();
-        if (settlement != null) {
-            List<Building> list = settlement.getBuildingManager().getBuildings(
-                    FunctionType.GROUND_VEHICLE_MAINTENANCE);
-            for (Building garageBuilding : list) {
-                try {
-                    VehicleMaintenance garage = garageBuilding.getVehicleMaintenance();
-                    if (garage != null && garage.containsVehicle(vehicle)) {
-                        return garageBuilding;
-                    }
-                }
-                catch (Exception e) {
-                    logger.log(Level.SEVERE,"Calling getBuilding(vehicle): " + e.getMessage());
-                }
-            }
-        }
-        return result;
+        // The vehicle keeps track of its garage.
+        return vehicle.getGarage();
     }
 
     /**
@@ -1158,24 +1147,24 @@ public class BuildingManager implements Serializable {
      */
     public Building getBuildingAtPosition(double xLoc, double yLoc) {
 
-		// 2016-12-08 Using Java 8 stream
-		return buildings
-				.stream()
-				.filter(b -> LocalAreaUtil.checkLocationWithinLocalBoundedObject(xLoc, yLoc, b))
-				.findFirst().orElse(null);//get();
-/*
-        Building result = null;
-        //for (Building building : buildings) {
-        Iterator<Building> i = buildings.iterator();
-        while (i.hasNext()) {// && (result == null)) {
-            Building building = i.next();
-            if (LocalAreaUtil.checkLocationWithinLocalBoundedObject(xLoc, yLoc, building)) {
-                result = building;
-            }
+        LocalAreaIndex index = buildingIndex;
+        if (index == null) {
+            index = new LocalAreaIndex(getACopyOfBuildings());
+            buildingIndex = index;
         }
 
-        return result;
-*/
+        return (Building) index.getObjectAt(xLoc, yLoc, null);
+    }
+
+    /**
+     * Clears the indexes of building positions at the settlement.
+     * Called when a building is added, removed, moved or turned.
+     */
+    void clearLocalAreaIndex() {
+        buildingIndex = null;
+        if (settlement != null) {
+            LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
+        }
     }
 
     /**
@@ -1976,7 +1965,7 @@ public class BuildingManager implements Serializable {
      * @return list of farming buildings needing work.
      */
     // 2016-10-28 Modified, added caching and relocated from TendGreenhouse
-    public List<Building> getFarmsNeedingWork() {
+    public synchronized List<Building> getFarmsNeedingWork() {
         List<Building> result = null;
 
         int m = marsClock.getMsol0();
@@ -2062,6 +2051,7 @@ public class BuildingManager implements Serializable {
         }
         //buildings.clear();
         buildings = null;
+        buildingIndex = null;
         settlement = null;
         //buildingValuesNewCache.clear();
         buildingValuesNewCache = null;
@@ -0,0 +1,383 @@
+/**
+ * Mars Simulation Project
+ * BuildingConnectorGraph.java
+ * @version 3.1.0 2018-08-24
+ * @author Scott Davis
+ */
+package org.mars_sim.msp.core.structure.building.connection;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mars_sim.msp.core.structure.building.Building;
+
+/**
+ * A weighted graph of the building connectors at a settlement with precomputed
+ * shortest paths between all of them.
+ * <br>
+ * Each connector is crossed in one of two directions, and each crossing is a
+ * node of the graph. An edge leads from a crossing into a building to a
+ * crossing out of it, through the center of the building, and weighs the
+ * distance walked plus the length of the next connector. Since the walk from
+ * a starting location to the first connector and from the last connector to
+ * an ending location are the only parts of a path that depend on the query,
+ * a query only compares the connectors out of the first building with the
+ * connectors into the last one, and follows the next hop table in between.
+ * <br>
+ * The graph is immutable. The {@link BuildingConnectorManager} drops it when a
+ * connector is added or removed, and builds a new one on the next query.
+ */
+class BuildingConnectorGraph {
+
+    /** Marks the absence of a next hop. */
+    private static final int NONE = -1;
+
+    /** Empty node list for buildings without connectors. */
+    private static final int[] NO_NODES = new int[0];
+
+    // Data members.
+    /** The connector of each node. */
+    private BuildingConnector[] connectors;
+    /** The building each node leaves. */
+    private Building[] fromBuildings;
+    /** The building each node enters. */
+    private Building[] toBuildings;
+    /** The hatch each node leaves through. */
+    private Hatch[] entryHatches;
+    /** The hatch each node enters through. */
+    private Hatch[] exitHatches;
+    /** The walking distance within the connector of each node. */
+    private double[] lengths;
+
+    /** The nodes leaving each building. */
+    private Map<Building, int[]> outgoing = new HashMap<>();
+    /** The nodes entering each building. */
+    private Map<Building, int[]> incoming = new HashMap<>();
+
+    /** The shortest distance from the end of one node to the end of another. */
+    private double[][] distances;
+    /** The node following a node on the shortest path to another. */
+    private int[][] nextHops;
+
+    /**
+     * Constructor.
+     * @param buildingConnectors the building connectors at the settlement.
+     */
+    BuildingConnectorGraph(BuildingConnector[] buildingConnectors) {
+
+        int size = buildingConnectors.length * 2;
+        connectors = new BuildingConnector[size];
+        fromBuildings = new Building[size];
+        toBuildings = new Building[size];
+        entryHatches = new Hatch[size];
+        exitHatches = new Hatch[size];
+        lengths = new double[size];
+
+        for (int x = 0; x < buildingConnectors.length; x++) {
+            BuildingConnector connector = buildingConnectors[x];
+            setNode(x * 2, connector, connector.getBuilding1(), connector.getHatch1(),
+                    connector.getBuilding2(), connector.getHatch2());
+            setNode(x * 2 + 1, connector, connector.getBuilding2(), connector.getHatch2(),
+                    connector.getBuilding1(), connector.getHatch1());
+        }
+
+        for (int node = 0; node < size; node++) {
+            outgoing.put(fromBuildings[node], append(outgoing.get(fromBuildings[node]), node));
+            incoming.put(toBuildings[node], append(incoming.get(toBuildings[node]), node));
+        }
+
+        distances = new double[size][];
+        nextHops = new int[size][];
+        NodeHeap heap = new NodeHeap(size);
+        for (int node = 0; node < size; node++) {
+            findShortestPaths(node, heap);
+        }
+    }
+
+    /**
+     * Sets up a node of the graph.
+     * @param node the node.
+     * @param connector the connector crossed.
+     * @param from the building left.
+     * @param entryHatch the hatch leaving the building.
+     * @param to the building entered.
+     * @param exitHatch the hatch entering the building.
+     */
+    private void setNode(int node, BuildingConnector connector, Building from, Hatch entryHatch,
+            Building to, Hatch exitHatch) {
+        connectors[node] = connector;
+        fromBuildings[node] = from;
+        toBuildings[node] = to;
+        if (connector.isSplitConnection()) {
+            entryHatches[node] = entryHatch;
+            exitHatches[node] = exitHatch;
+            lengths[node] = distance(entryHatch, connector) + distance(connector, exitHatch);
+        }
+    }
+
+    /**
+     * Appends a node to a node list.
+     * @param nodes the node list or null if none.
+     * @param node the node.
+     * @return the new node list.
+     */
+    private static int[] append(int[] nodes, int node) {
+        if (nodes == null) {
+            return new int[] { node };
+        }
+        int[] result = Arrays.copyOf(nodes, nodes.length + 1);
+        result[nodes.length] = node;
+        return result;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a node and fills its rows of the distance and next hop tables.
+     * @param source the source node.
+     * @param heap a heap to reuse.
+     */
+    private void findShortestPaths(int source, NodeHeap heap) {
+
+        int size = connectors.length;
+        double[] distance = new double[size];
+        int[] nextHop = new int[size];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(nextHop, NONE);
+
+        distance[source] = 0D;
+        nextHop[source] = source;
+        heap.clear();
+        heap.update(source, 0D);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            Building building = toBuildings[node];
+            for (int next : getNodes(outgoing, building)) {
+                // Walking back through the same connector never shortens a path.
+                if (connectors[next] == connectors[node]) {
+                    continue;
+                }
+                double newDistance = distance[node] + distance(getEnd(node), building)
+                        + distance(building, getStart(next)) + lengths[next];
+                if (newDistance < distance[next]) {
+                    distance[next] = newDistance;
+                    nextHop[next] = (node == source) ? next : nextHop[node];
+                    heap.update(next, newDistance);
+                }
+            }
+        }
+
+        distances[source] = distance;
+        nextHops[source] = nextHop;
+    }
+
+    /**
+     * Gets the nodes of a building from a node map.
+     * @param nodeMap the node map.
+     * @param building the building.
+     * @return the nodes.
+     */
+    private static int[] getNodes(Map<Building, int[]> nodeMap, Building building) {
+        int[] result = nodeMap.get(building);
+        return (result != null) ? result : NO_NODES;
+    }
+
+    /**
+     * Gets the first location walked through by a node.
+     * @param node the node.
+     * @return location.
+     */
+    private InsidePathLocation getStart(int node) {
+        return (entryHatches[node] != null) ? entryHatches[node] : connectors[node];
+    }
+
+    /**
+     * Gets the last location walked through by a node.
+     * @param node the node.
+     * @return location.
+     */
+    private InsidePathLocation getEnd(int node) {
+        return (exitHatches[node] != null) ? exitHatches[node] : connectors[node];
+    }
+
+    /**
+     * Checks if there is a path between two different buildings.
+     * @param building1 the first building.
+     * @param building2 the second building.
+     * @return true if a path exists.
+     */
+    boolean hasPath(Building building1, Building building2) {
+        for (int first : getNodes(outgoing, building1)) {
+            for (int last : getNodes(incoming, building2)) {
+                if (nextHops[first][last] != NONE) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines the shortest path between locations in two different buildings.
+     * @param start the starting location.
+     * @param end the ending location.
+     * @return shortest path or null if no path found.
+     */
+    InsideBuildingPath determineShortestPath(BuildingLocation start, BuildingLocation end) {
+
+        int bestFirst = NONE;
+        int bestLast = NONE;
+        double bestLength = Double.POSITIVE_INFINITY;
+
+        for (int first : getNodes(outgoing, start.getBuilding())) {
+            double startLength = distance(start, getStart(first)) + lengths[first];
+            for (int last : getNodes(incoming, end.getBuilding())) {
+                double length = startLength + distances[first][last] + distance(getEnd(last), end);
+                if (length < bestLength) {
+                    bestLength = length;
+                    bestFirst = first;
+                    bestLast = last;
+                }
+            }
+        }
+
+        if (bestFirst == NONE) {
+            return null;
+        }
+
+        InsideBuildingPath result = new InsideBuildingPath();
+        result.addPathLocation(start);
+        int node = bestFirst;
+        while (true) {
+            if (entryHatches[node] != null) {
+                result.addPathLocation(entryHatches[node]);
+                result.addPathLocation(connectors[node]);
+                result.addPathLocation(exitHatches[node]);
+            }
+            else {
+                result.addPathLocation(connectors[node]);
+            }
+
+            if (node == bestLast) {
+                break;
+            }
+
+            result.addPathLocation(toBuildings[node]);
+            node = nextHops[node][bestLast];
+        }
+        result.addPathLocation(end);
+
+        return result;
+    }
+
+    /**
+     * Gets the distance between two locations.
+     * @param location1 the first location.
+     * @param location2 the second location.
+     * @return distance (meters).
+     */
+    private static double distance(InsidePathLocation location1, InsidePathLocation location2) {
+        return Point2D.distance(location1.getXLocation(), location1.getYLocation(),
+                location2.getXLocation(), location2.getYLocation());
+    }
+
+    /**
+     * A binary min heap of nodes keyed by distance, supporting decrease key.
+     */
+    private static class NodeHeap {
+
+        private int[] nodes;
+        private double[] keys;
+        /** The index of each node in the heap or NONE. */
+        private int[] positions;
+        private int size;
+
+        NodeHeap(int capacity) {
+            nodes = new int[capacity];
+            keys = new double[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, NONE);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            for (int x = 0; x < size; x++) {
+                positions[nodes[x]] = NONE;
+            }
+            size = 0;
+        }
+
+        /**
+         * Inserts a node or lowers its key.
+         * @param node the node.
+         * @param key the new key.
+         */
+        void update(int node, double key) {
+            int index = positions[node];
+            if (index == NONE) {
+                index = size++;
+            }
+            place(node, key, index);
+            siftUp(index);
+        }
+
+        /**
+         * Removes the node with the lowest key.
+         * @return the node.
+         */
+        int poll() {
+            int result = nodes[0];
+            positions[result] = NONE;
+            size--;
+            if (size > 0) {
+                place(nodes[size], keys[size], 0);
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            int node = nodes[index];
+            double key = keys[index];
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                place(nodes[parent], keys[parent], index);
+                index = parent;
+            }
+            place(node, key, index);
+        }
+
+        private void siftDown(int index) {
+            int node = nodes[index];
+            double key = keys[index];
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if ((child + 1 < size) && (keys[child + 1] < keys[child])) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                place(nodes[child], keys[child], index);
+                index = child;
+            }
+            place(node, key, index);
+        }
+
+        private void place(int node, double key, int index) {
+            nodes[index] = node;
+            keys[index] = key;
+            positions[node] = index;
+        }
+    }
+}
@@ -64,6 +64,9 @@ public class BuildingConnectorManager implements Serializable {
     private Settlement settlement;
     private Set<BuildingConnector> buildingConnections;
 
+    /** The graph of the building connectors, built on demand and dropped when they change. */
+    private transient volatile BuildingConnectorGraph connectorGraph;
+
     /**
      * Constructor
      * @param settlement the settlement.
@@ -214,6 +217,7 @@ public class BuildingConnectorManager implements Serializable {
 
         if (!buildingConnections.contains(buildingConnector)) {
             buildingConnections.add(buildingConnector);
+            connectorGraph = null;
         }
         else {
             throw new IllegalArgumentException("BuildingConnector already exists.");
@@ -228,6 +232,7 @@ public class BuildingConnectorManager implements Serializable {
 
         if (buildingConnections.contains(buildingConnector)) {
             buildingConnections.remove(buildingConnector);
+            connectorGraph = null;
         }
         else {
             throw new IllegalArgumentException("BuildingConnector does not exists.");
@@ -323,10 +328,7 @@ public class BuildingConnectorManager implements Serializable {
             throw new IllegalArgumentException("Building arguments cannot be null");
         }
 
-        InsideBuildingPath validPath = determineShortestPath(building1, building1.getXLocation(),
-                building1.getYLocation(), building2, building2.getXLocation(), building2.getYLocation());
-
-        if (validPath != null) {
+        if (building1.equals(building2) || getConnectorGraph().hasPath(building1, building2)) {
             result = true;
         }
         else {
@@ -357,16 +359,14 @@ public class BuildingConnectorManager implements Serializable {
         BuildingLocation startingLocation = new BuildingLocation(building1, building1XLoc, building1YLoc);
         BuildingLocation endingLocation = new BuildingLocation(building2, building2XLoc, building2YLoc);
 
-        InsideBuildingPath startingPath = new InsideBuildingPath();
-        startingPath.addPathLocation(startingLocation);
-
         InsideBuildingPath finalPath = null;
         if (!building1.equals(building2)) {
-            // Check shortest path to target building from this building.
-            finalPath = determineShortestPath(startingPath, building1, building2, endingLocation);
+            // Look up the shortest path through the building connectors.
+            finalPath = getConnectorGraph().determineShortestPath(startingLocation, endingLocation);
         }
         else {
-            finalPath = startingPath;
+            finalPath = new InsideBuildingPath();
+            finalPath.addPathLocation(startingLocation);
             finalPath.addPathLocation(endingLocation);
         }
 
@@ -379,88 +379,19 @@ public class BuildingConnectorManager implements Serializable {
     }
 
     /**
-     * Recursive method to determine the shortest path between two buildings.
-     * @param existingPath the current path.
-     * @param currentBuilding the current building.
-     * @param targetBuilding the target building.
-     * @param endingLocation the end building location.
-     * @return shortest path or null if none found.
+     * Gets the graph of the building connectors, building it if the connectors have changed.
+     * @return building connector graph.
      */
-    private InsideBuildingPath determineShortestPath(InsideBuildingPath existingPath, Building currentBuilding,
-            Building targetBuilding, BuildingLocation endingLocation) {
-
-        InsideBuildingPath result = null;
-
-        // Try each building connection from current building.
-        Iterator<BuildingConnector> i = getConnectionsToBuilding(currentBuilding).iterator();
-        while (i.hasNext()) {
-            BuildingConnector connector = i.next();
-
-            Building connectionBuilding = null;
-            Hatch nearHatch = null;
-            Hatch farHatch = null;
-            if (connector.getBuilding1().equals(currentBuilding)) {
-                connectionBuilding = connector.getBuilding2();
-                nearHatch = connector.getHatch1();
-                farHatch = connector.getHatch2();
-            }
-            else {
-                connectionBuilding = connector.getBuilding1();
-                nearHatch = connector.getHatch2();
-                farHatch = connector.getHatch1();
-            }
-
-            // Make sure building or connection is not already in existing path.
-            boolean inExistingPath = false;
-            if (existingPath.containsPathLocation(connectionBuilding)) {
-                inExistingPath = true;
-            }
-            if (existingPath.containsPathLocation(connector)) {
-                inExistingPath = true;
-            }
-            if (existingPath.containsPathLocation(nearHatch)) {
-                inExistingPath = true;
-            }
-            if (existingPath.containsPathLocation(farHatch)) {
-                inExistingPath = true;
-            }
-            if (inExistingPath) {
-                continue;
-            }
-
-            // Copy existing path to create new path.
-            InsideBuildingPath newPath = (InsideBuildingPath) existingPath.clone();
-
-            // Add building connector to new path.
-            if (connector.isSplitConnection()) {
-                newPath.addPathLocation(nearHatch);
-                newPath.addPathLocation(connector);
-                newPath.addPathLocation(farHatch);
-            }
-            else {
-                newPath.addPathLocation(connector);
-            }
-
-            InsideBuildingPath bestPath = null;
-            if (connectionBuilding.equals(targetBuilding)) {
-                // Add ending location within connection building.
-                newPath.addPathLocation(endingLocation);
-                bestPath = newPath;
-            }
-            else {
-                // Add connection building to new path.
-                newPath.addPathLocation(connectionBuilding);
+    private BuildingConnectorGraph getConnectorGraph() {
 
-                // Recursively call this method with new path and connection building.
-                bestPath = determineShortestPath(newPath, connectionBuilding, targetBuilding,
-                        endingLocation);
-            }
-
-            if (bestPath != null) {
-                if ((result == null) || (bestPath.getPathLength() < result.getPathLength())) {
-                    result = bestPath;
-                }
+        BuildingConnectorGraph result = connectorGraph;
+        if (result == null) {
+            BuildingConnector[] connectors;
+            synchronized (buildingConnections) {
+                connectors = buildingConnections.toArray(new BuildingConnector[buildingConnections.size()]);
             }
+            result = new BuildingConnectorGraph(connectors);
+            connectorGraph = result;
         }
 
         return result;
@@ -803,6 +734,7 @@ public class BuildingConnectorManager implements Serializable {
         }
         //buildingConnections.clear();
         buildingConnections = null;
+        connectorGraph = null;
     }
 
     /**
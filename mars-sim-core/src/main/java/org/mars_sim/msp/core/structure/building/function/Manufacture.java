@@ -343,6 +343,7 @@ implements Serializable {
         // Set the salvage process info for the salvaged unit.
         //Settlement settlement = getBuilding().getBuildingManager().getSettlement();
         ((Salvagable) salvagedUnit).startSalvage(process.getInfo(), settlement);
+        manager.unitSalvaged(salvagedUnit);
 
         // Recalculate settlement good value for salvaged unit.
         //GoodsManager goodsManager = settlement.getGoodsManager();
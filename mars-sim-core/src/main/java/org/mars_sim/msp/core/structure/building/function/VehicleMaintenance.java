@@ -10,13 +10,13 @@ import java.awt.geom.Point2D;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.LocalAreaUtil;
+import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.structure.building.BuildingException;
 import org.mars_sim.msp.core.vehicle.Crewable;
@@ -99,6 +99,7 @@ implements Serializable {
 
         // Add vehicle to building.
         vehicles.add(vehicle);
+        vehicle.setGarage(getBuilding());
 
         // Put vehicle in assigned parking location within building.
         ParkingLocation location = getEmptyParkingLocation();
@@ -134,6 +135,7 @@ implements Serializable {
         
         else {
             vehicles.remove(vehicle);
+            vehicle.setGarage(null);
 
             ParkingLocation parkedLoc = getVehicleParkedLocation(vehicle);
             if (parkedLoc != null) {
@@ -247,7 +249,7 @@ implements Serializable {
 
         // Randomize empty parking locations and select one.
         if (emptyLocations.size() > 0) {
-            Collections.shuffle(emptyLocations);
+            RandomUtil.shuffle(emptyLocations);
             result = emptyLocations.get(0);
         }
 
@@ -263,6 +265,9 @@ implements Serializable {
     public void destroy() {
         super.destroy();
 
+        for (Vehicle vehicle : vehicles) {
+            vehicle.setGarage(null);
+        }
         vehicles.clear();
         vehicles = null;
 
@@ -633,7 +633,7 @@ implements Serializable {
 /*
  		HotMeal result = null;
  		List<HotMeal> meals = mealConfigMealList;
- 		Collections.shuffle(meals);
+ 		RandomUtil.shuffle(meals);
  	    Iterator<HotMeal> i = mealConfigMealList.iterator();
  	    while (i.hasNext()) {
  	        HotMeal meal = i.next();
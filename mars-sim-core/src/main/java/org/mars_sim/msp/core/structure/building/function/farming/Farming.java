@@ -6,6 +6,8 @@
  */
 package org.mars_sim.msp.core.structure.building.function.farming;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -43,6 +45,7 @@ import org.mars_sim.msp.core.structure.building.function.Storage;
 import org.mars_sim.msp.core.structure.goods.Good;
 import org.mars_sim.msp.core.structure.goods.GoodsUtil;
 import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.TimeSeries;
 
 /**
  * The Farming class is a building function for greenhouse farming.
@@ -58,6 +61,8 @@ public class Farming extends Function implements Serializable {
 	private static String sourceName = logger.getName();
 
 	private static final FunctionType FARMING_FUNCTION = FunctionType.FARMING;
+	/** The number of sols of crop statistics kept in detail. */
+	private static final int CROP_STAT_SOLS = 30;
 
 	public static final String FERTILIZER = "fertilizer";
 	public static final String SOIL = "soil";
@@ -116,11 +121,12 @@ public class Farming extends Function implements Serializable {
 	private Map<String, Integer> cleaningMap, inspectionMap;
 	private List<String> inspectionList, cleaningList;
 
-	private Map<String, List<Double>> cropDailyWaterUsage;
+	/** The daily water usage, O2 generated and CO2 consumed of each crop. */
+	private Map<String, TimeSeries> cropDailyWaterUsage;
 
-	private Map<String, List<Double>> cropDailyO2Generated;
+	private Map<String, TimeSeries> cropDailyO2Generated;
 
-	private Map<String, List<Double>> cropDailyCO2Consumed;
+	private Map<String, TimeSeries> cropDailyCO2Consumed;
 
 	private static MarsClock marsClock;
 	private static SurfaceFeatures surface;
@@ -1445,14 +1451,7 @@ public class Farming extends Function implements Serializable {
 	 * @param usage    average water consumption in kg/m^2/sol
 	 */
 	public void addWaterUsage(String cropName, double usage) {
-		if (cropDailyWaterUsage.containsKey(cropName)) {
-			List<Double> cropWaterData = cropDailyWaterUsage.get(cropName);
-			cropWaterData.add(usage);
-		} else {
-			List<Double> cropWaterData = new ArrayList<>();
-			cropWaterData.add(usage);
-			cropDailyWaterUsage.put(cropName, cropWaterData);
-		}
+		addDailyStat(cropDailyWaterUsage, cropName, usage);
 	}
 
 	/**
@@ -1462,14 +1461,7 @@ public class Farming extends Function implements Serializable {
 	 * @param gen      average O2 generated in kg/m^2/sol
 	 */
 	public void addO2Generated(String cropName, double gen) {
-		if (cropDailyO2Generated.containsKey(cropName)) {
-			List<Double> o2Data = cropDailyO2Generated.get(cropName);
-			o2Data.add(gen);
-		} else {
-			List<Double> o2Data = new ArrayList<>();
-			o2Data.add(gen);
-			cropDailyO2Generated.put(cropName, o2Data);
-		}
+		addDailyStat(cropDailyO2Generated, cropName, gen);
 	}
 
 	/**
@@ -1479,14 +1471,16 @@ public class Farming extends Function implements Serializable {
 	 * @param used     average CO2 consumed in kg/m^2/sol
 	 */
 	public void addCO2Consumed(String cropName, double used) {
-		if (cropDailyCO2Consumed.containsKey(cropName)) {
-			List<Double> co2Data = cropDailyCO2Consumed.get(cropName);
-			co2Data.add(used);
-		} else {
-			List<Double> co2Data = new ArrayList<>();
-			co2Data.add(used);
-			cropDailyCO2Consumed.put(cropName, co2Data);
+		addDailyStat(cropDailyCO2Consumed, cropName, used);
+	}
+
+	private void addDailyStat(Map<String, TimeSeries> stats, String cropName, double value) {
+		TimeSeries series = stats.get(cropName);
+		if (series == null) {
+			series = new TimeSeries(CROP_STAT_SOLS, CROP_STAT_SOLS);
+			stats.put(cropName, series);
 		}
+		series.add(marsClock == null ? 0 : marsClock.getMissionSol(), value);
 	}
 
 	/**
@@ -1495,19 +1489,10 @@ public class Farming extends Function implements Serializable {
 	 * @return average water consumption in kg/m^2/sol
 	 */
 	public double computeCropWaterUsage(String cropName) {
-		if (cropDailyWaterUsage.containsKey(cropName)) {
-			double sum = 0;
-			List<Double> cropWaterData = cropDailyWaterUsage.get(cropName);
-			int size = cropWaterData.size();
-			for (double i : cropWaterData) {
-				sum += i;
-			}
-			if (size == 0)
-				return 0;
-			else
-				return Math.round(sum / size * 1000.0) / 1000.0;
-		}
-		return 0;
+		TimeSeries series = cropDailyWaterUsage.get(cropName);
+		if (series == null)
+			return 0;
+		return Math.round(series.getTotalMean() * 1000.0) / 1000.0;
 	}
 
 	/**
@@ -1537,19 +1522,10 @@ public class Farming extends Function implements Serializable {
 	 * @return average O2 generated in kg/m^2/sol
 	 */
 	public double computeCropO2Generated(String cropName) {
-		if (cropDailyO2Generated.containsKey(cropName)) {
-			double sum = 0;
-			List<Double> o2Data = cropDailyO2Generated.get(cropName);
-			int size = o2Data.size();
-			for (double i : o2Data) {
-				sum += i;
-			}
-			if (size == 0)
-				return 0;
-			else
-				return sum / size;// Math.round(sum/size*1000.0)/1000.0;
-		}
-		return 0;
+		TimeSeries series = cropDailyO2Generated.get(cropName);
+		if (series == null)
+			return 0;
+		return series.getTotalMean();
 	}
 
 	/**
@@ -1579,19 +1555,10 @@ public class Farming extends Function implements Serializable {
 	 * @return average O2 generated in kg/m^2/sol
 	 */
 	public double computeCropCO2Consumed(String cropName) {
-		if (cropDailyCO2Consumed.containsKey(cropName)) {
-			double sum = 0;
-			List<Double> o2Data = cropDailyCO2Consumed.get(cropName);
-			int size = o2Data.size();
-			for (double i : o2Data) {
-				sum += i;
-			}
-			if (size == 0)
-				return 0;
-			else
-				return sum / size;// Math.round(sum/size*1000.0)/1000.0;
-		}
-		return 0;
+		TimeSeries series = cropDailyCO2Consumed.get(cropName);
+		if (series == null)
+			return 0;
+		return series.getTotalMean();
 	}
 
 	/**
@@ -1615,6 +1582,50 @@ public class Farming extends Function implements Serializable {
 			return Math.round(sum / size * 1000.0) / 1000.0;
 	}
 
+	/**
+	 * Implementing readObject method for serialization.
+	 * Older saved simulations hold a list of daily values for each crop, which are
+	 * folded into the all-time totals of a series here.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		cropDailyWaterUsage = toDailyStats(cropDailyWaterUsage);
+		cropDailyO2Generated = toDailyStats(cropDailyO2Generated);
+		cropDailyCO2Consumed = toDailyStats(cropDailyCO2Consumed);
+	}
+
+	/**
+	 * Turns the daily values of each crop read from a saved simulation into series.
+	 * @param stats the values read, either series or older lists of values.
+	 * @return the series of each crop.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, TimeSeries> toDailyStats(Map<String, ?> stats) {
+		Map<String, TimeSeries> result = new HashMap<>();
+		if (stats == null)
+			return result;
+
+		for (Map.Entry<String, ?> e : stats.entrySet()) {
+			if (e.getValue() instanceof TimeSeries) {
+				result.put(e.getKey(), (TimeSeries) e.getValue());
+			} else if (e.getValue() instanceof List) {
+				double sum = 0;
+				List<Double> values = (List<Double>) e.getValue();
+				for (Double value : values)
+					sum += value;
+				TimeSeries series = new TimeSeries(CROP_STAT_SOLS, CROP_STAT_SOLS);
+				series.addTotal(sum, values.size());
+				result.put(e.getKey(), series);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void destroy() {
 		super.destroy();
@@ -77,7 +77,7 @@ public class ConstructionConfig implements Serializable {
      * @return list of construction stage infos.
      * @throws Exception if error parsing list.
      */
-    public List<ConstructionStageInfo> getConstructionStageInfoList(String stageType) {
+    public synchronized List<ConstructionStageInfo> getConstructionStageInfoList(String stageType) {
         
         List<ConstructionStageInfo> stageInfo = null;
         
@@ -7,6 +7,7 @@
 
 package org.mars_sim.msp.core.structure.construction;
 
+import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.LocalBoundedObject;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.person.ai.mission.MissionMember;
@@ -107,6 +108,7 @@ implements Serializable, LocalBoundedObject {
      */
     public void setWidth(double width) {
         this.width = width;
+        clearObstacleCache();
     }
 
     @Override
@@ -120,6 +122,7 @@ implements Serializable, LocalBoundedObject {
      */
     public void setLength(double length) {
         this.length = length;
+        clearObstacleCache();
     }
 
     @Override
@@ -133,6 +136,7 @@ implements Serializable, LocalBoundedObject {
      */
     public void setXLocation(double xLocation) {
         this.xLocation = xLocation;
+        clearObstacleCache();
     }
 
     @Override
@@ -146,6 +150,7 @@ implements Serializable, LocalBoundedObject {
      */
     public void setYLocation(double yLocation) {
         this.yLocation = yLocation;
+        clearObstacleCache();
     }
 
     @Override
@@ -159,6 +164,16 @@ implements Serializable, LocalBoundedObject {
      */
     public void setFacing(double facing) {
         this.facing = facing;
+        clearObstacleCache();
+    }
+
+    /**
+     * Clears the cached obstacles at the settlement after the site has been resized, moved or turned.
+     */
+    private void clearObstacleCache() {
+        if (settlement != null) {
+            LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
+        }
     }
 
     /**
@@ -11,6 +11,7 @@ import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -212,7 +213,7 @@ implements Serializable {
     public Map<ConstructionStageInfo, Double> getNewConstructionStageProfits(
             ConstructionSite site, int constructionSkill) {
 
-        Map<ConstructionStageInfo, Double> result = new HashMap<ConstructionStageInfo, Double>();
+        Map<ConstructionStageInfo, Double> result = new LinkedHashMap<ConstructionStageInfo, Double>();
 
         ConstructionStage lastStage = site.getCurrentConstructionStage();
         if (lastStage != null) {
@@ -242,7 +243,7 @@ implements Serializable {
     public Map<ConstructionStageInfo, Double> getConstructionStageProfit(String stageType, 
             int constructionSkill) {
 
-        Map<ConstructionStageInfo, Double> result = new HashMap<ConstructionStageInfo, Double>();
+        Map<ConstructionStageInfo, Double> result = new LinkedHashMap<ConstructionStageInfo, Double>();
 
         List<ConstructionStageInfo> nextStages = ConstructionUtil.getConstructionStageInfoList(
                 stageType, constructionSkill);
@@ -267,7 +268,7 @@ implements Serializable {
         if ((allStageInfoValueCacheTime == null) || 
                 (MarsClock.getTimeDiff(currentTime, allStageInfoValueCacheTime) > 1000D)) {
             if (allStageInfoValueCache == null) {
-                allStageInfoValueCache = new HashMap<ConstructionStageInfoSkillKey, Double>();
+                allStageInfoValueCache = new LinkedHashMap<ConstructionStageInfoSkillKey, Double>();
             }
             allStageInfoValueCache.clear();
 
@@ -286,7 +287,7 @@ implements Serializable {
         }
         
         // Create result map with just construction stage infos and their values.
-        Map<ConstructionStageInfo, Double> result = new HashMap<ConstructionStageInfo, Double>(allStageInfoValueCache.size());
+        Map<ConstructionStageInfo, Double> result = new LinkedHashMap<ConstructionStageInfo, Double>(allStageInfoValueCache.size());
         Iterator<ConstructionStageInfoSkillKey> j = allStageInfoValueCache.keySet().iterator();
         while (j.hasNext()) {
             ConstructionStageInfoSkillKey key = j.next();
@@ -309,7 +310,7 @@ implements Serializable {
         if ((stageInfoValueCacheTime == null) || 
                 (MarsClock.getTimeDiff(currentTime, stageInfoValueCacheTime) > 1000D)) {
             if (stageInfoValueCache == null) {
-                stageInfoValueCache = new HashMap<ConstructionStageInfoSkillKey, Double>();
+                stageInfoValueCache = new LinkedHashMap<ConstructionStageInfoSkillKey, Double>();
             }
             stageInfoValueCache.clear();
             stageInfoValueCacheTime = (MarsClock) currentTime.clone();
@@ -504,13 +505,13 @@ implements Serializable {
         settlementConstructionValueCacheTime = (MarsClock) currentTime.clone();
 
         if (stageInfoValueCache == null) {
-            stageInfoValueCache = new HashMap<ConstructionStageInfoSkillKey, Double>();
+            stageInfoValueCache = new LinkedHashMap<ConstructionStageInfoSkillKey, Double>();
         }
         stageInfoValueCache.clear();
         stageInfoValueCacheTime = (MarsClock) currentTime.clone();
 
         if (allStageInfoValueCache == null) {
-            allStageInfoValueCache = new HashMap<ConstructionStageInfoSkillKey, Double>();
+            allStageInfoValueCache = new LinkedHashMap<ConstructionStageInfoSkillKey, Double>();
         }
         allStageInfoValueCache.clear();
     }
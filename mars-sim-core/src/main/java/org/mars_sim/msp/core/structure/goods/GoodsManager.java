@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +23,7 @@ import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.Inventory;
 import org.mars_sim.msp.core.LifeSupportType;
+import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.UnitEventType;
@@ -142,6 +145,11 @@ public class GoodsManager implements Serializable {
     private static final double METHANE_AVERAGE_DEMAND = 20;
     private static final double TISSUE_CULTURE_FACTOR = 100;
     private static final double FOOD_FACTOR = .001;
+
+    /** The shortest time (millisols) between two valuation passes. */
+    private static final double PASS_PERIOD = 250D;
+    /** The time (millisols) the recomputes of a valuation pass are spread over. */
+    private static final double PASS_SPREAD = 100D;
     
     private double inflation_rate = .8;
     
@@ -174,6 +182,27 @@ public class GoodsManager implements Serializable {
     private Map<Integer, Double> partsDemandCache;
     private boolean initialized = false;
 
+    /** The time (millisols) since the last valuation pass. */
+    private double passTime = 0D;
+    /** The time (millisols) to wait before the next valuation pass. */
+    private double passThreshold = 0D;
+
+    /** The goods each good value depends on. */
+    private transient GoodsValueGraph valueGraph;
+    /** The goods still to be valued in the current pass. */
+    private transient Set<Good> pendingGoods;
+    /** The goods already valued in the current pass. */
+    private transient Set<Good> valuedGoods;
+    /** The number of goods to value per millisol in the current pass. */
+    private transient double passRate;
+
+    /** The number of goods valued and skipped since the simulation started or was loaded. */
+    private transient long numGoodsRecomputed;
+    private transient long numGoodsSkipped;
+
+    /** The goods values the other settlements read while the settlements are ticked in parallel. */
+    private transient volatile Map<Good, Double> publishedValues;
+
     private Settlement settlement;
     private Inventory inv;
 
@@ -258,17 +287,66 @@ public class GoodsManager implements Serializable {
         }
     }
 
+    /**
+     * Gets the value per item of a good as seen from another settlement. While the
+     * settlements are ticked in parallel this is the value published before the tick,
+     * so it doesn't depend on how far this settlement has got.
+     * @param good the good to check.
+     * @return value (VP)
+     */
+    public double getPublishedValuePerItem(Good good) {
+        Map<Good, Double> values = publishedValues;
+        if (values == null) return getGoodValuePerItem(good);
+        Double value = values.get(good);
+        if (value != null) return Math.round(value*1000.0)/1000.0;
+        logger.log(Level.SEVERE, "Good: " + good + " not valid.");
+        return 0;
+    }
+
+    /**
+     * Publishes a copy of the goods values for the other settlements to read during
+     * the next parallel tick. Must be called on the clock thread between ticks.
+     */
+    public void publishGoodsValues() {
+        publishedValues = new HashMap<Good, Double>(goodsValues);
+    }
+
+    /**
+     * Lets the other settlements read the live goods values again.
+     */
+    public void unpublishGoodsValues() {
+        publishedValues = null;
+    }
+
     public double getGoodValuePerItem(Good good, double supply) {
         if (goodsValues.containsKey(good)) return determineGoodValue(good, supply, true);
         else throw new IllegalArgumentException("Good: " + good + " not valid.");
     }
 
     /**
-     * Time passing
+     * Time passing.
+     * The goods are valued in passes, roughly twice per sol. A pass only values the goods
+     * whose inputs have changed since they were last valued, and spreads the work
+     * over the following ticks.
      * @param time the amount of time passing (millisols).
      */
     public void timePassing(double time) {
-        updateGoodsValues();
+
+        if (!initialized) {
+            updateGoodsValues();
+            return;
+        }
+
+        if (pendingGoods == null || pendingGoods.isEmpty()) {
+            passTime += time;
+            if (passTime > passThreshold) {
+                startValuationPass();
+            }
+        }
+
+        if (pendingGoods != null && !pendingGoods.isEmpty()) {
+            continueValuationPass(time);
+        }
     }
 
     /**
@@ -282,18 +360,23 @@ public class GoodsManager implements Serializable {
         vehicleBuyValueCache.clear();
         vehicleSellValueCache.clear();
 
+        // Any pass in progress is superseded.
+        pendingGoods = null;
+        valuedGoods = null;
+
+        // Record the inputs every good is valued with.
+        GoodsValueGraph graph = getValueGraph();
+        graph.startPass();
+
         Iterator<Good> i = goodsValues.keySet().iterator();
         while (i.hasNext()) updateGoodValue(i.next(), true);
-/* 
-        while (i.hasNext()) {
-        	Good good = i.next();
-        	logger.info("Good : " + good.toString());
-        	updateGoodValue(good, true); 
-        }
-*/    	
+
+        graph.endPass();
+
         settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT);
 
         initialized = true;
+        resetPassTime();
     }
 
     /**
@@ -303,12 +386,142 @@ public class GoodsManager implements Serializable {
      */
     public void updateGoodValue(Good good, boolean collectiveUpdate) {
         if (good != null) {
-            goodsValues.put(good, determineGoodValue(good, getNumberOfGoodForSettlement(good), false));
+            double supply = getNumberOfGoodForSettlement(good);
+            goodsValues.put(good, determineGoodValue(good, supply, false));
+            numGoodsRecomputed++;
+            if (valueGraph != null) valueGraph.recomputed(good, supply);
             if (!collectiveUpdate) settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT, good);
         }
         else throw new IllegalArgumentException("Good is null.");
     }
 
+    /**
+     * Starts a valuation pass by collecting the goods whose inputs have changed.
+     */
+    private void startValuationPass() {
+        GoodsValueGraph graph = getValueGraph();
+        graph.startPass();
+
+        // Clear parts demand cache.
+        partsDemandCache.clear();
+
+        // Clear vehicle caches.
+        vehicleBuyValueCache.clear();
+        vehicleSellValueCache.clear();
+
+        pendingGoods = new LinkedHashSet<Good>();
+        valuedGoods = new HashSet<Good>();
+        for (Good good : goodsValues.keySet()) {
+            if (graph.isDirty(good, getNumberOfGoodForSettlement(good))) {
+                pendingGoods.add(good);
+            }
+        }
+        graph.endPass();
+
+        passRate = pendingGoods.size() / PASS_SPREAD;
+        resetPassTime();
+
+        if (pendingGoods.isEmpty()) {
+            endValuationPass();
+        }
+    }
+
+    /**
+     * Values the next goods of the current pass.
+     * @param time the amount of time passing (millisols).
+     */
+    private void continueValuationPass(double time) {
+        int budget = Math.max(1, (int) Math.ceil(passRate * time));
+
+        while ((budget > 0) && !pendingGoods.isEmpty()) {
+            Good good = pendingGoods.iterator().next();
+            pendingGoods.remove(good);
+            valueGood(good);
+            budget--;
+        }
+
+        if (pendingGoods.isEmpty()) {
+            endValuationPass();
+        }
+    }
+
+    /**
+     * Values a good in the current pass and queues the goods depending on its value.
+     * @param good the good.
+     */
+    private void valueGood(Good good) {
+        double oldValue = goodsValues.get(good);
+        double supply = getNumberOfGoodForSettlement(good);
+        double newValue = determineGoodValue(good, supply, false);
+        goodsValues.put(good, newValue);
+        numGoodsRecomputed++;
+
+        valueGraph.recomputed(good, supply);
+        valuedGoods.add(good);
+
+        for (Good dependent : valueGraph.getDependents(good, oldValue, newValue)) {
+            if (!valuedGoods.contains(dependent)) {
+                pendingGoods.add(dependent);
+            }
+        }
+    }
+
+    /**
+     * Ends the current valuation pass.
+     */
+    private void endValuationPass() {
+        int skipped = 0;
+        for (Good good : goodsValues.keySet()) {
+            if (!valuedGoods.contains(good)) {
+                valueGraph.skipped(good);
+                skipped++;
+            }
+        }
+        numGoodsSkipped += skipped;
+
+        logger.fine(settlement.getName() + " valued " + valuedGoods.size() + " goods and skipped " + skipped + ".");
+
+        pendingGoods = null;
+        valuedGoods = null;
+
+        settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT);
+    }
+
+    /**
+     * Waits a random time, twice per sol on average, before the next valuation pass.
+     */
+    private void resetPassTime() {
+        passTime = 0D;
+        passThreshold = PASS_PERIOD + RandomUtil.getRandomDouble(PASS_PERIOD);
+    }
+
+    /**
+     * Gets the goods value dependency graph, creating it if needed.
+     * @return the graph.
+     */
+    private GoodsValueGraph getValueGraph() {
+        if (valueGraph == null) {
+            valueGraph = new GoodsValueGraph(settlement, goodsValues.keySet());
+        }
+        return valueGraph;
+    }
+
+    /**
+     * Gets the number of goods valued since the simulation started or was loaded.
+     * @return number of goods.
+     */
+    public long getNumGoodsRecomputed() {
+        return numGoodsRecomputed;
+    }
+
+    /**
+     * Gets the number of goods skipped by a valuation pass because none of their inputs changed.
+     * @return number of goods.
+     */
+    public long getNumGoodsSkipped() {
+        return numGoodsSkipped;
+    }
+
     /**
      * Determines the value of a good.
      * @param good the good to check.
@@ -755,24 +968,36 @@ public class GoodsManager implements Serializable {
         return demand;
     }
 
+    /**
+     * Marks every good to be valued again in the next pass.
+     */
+    private void setAllGoodsDirty() {
+        if (valueGraph != null) valueGraph.setAllDirty();
+    }
+
     public void setCropFarmFactor(double value) {
     	cropFarm_factor = value * cropFarm_factor;
+    	setAllGoodsDirty();
     }
 
     public void setManufacturingFactor(double value) {
     	manufacturing_factor = value * manufacturing_factor;
+    	setAllGoodsDirty();
     }
 
     public void setTransportationFactor(double value) {
     	transportation_factor = value * transportation_factor;
+    	setAllGoodsDirty();
     }
 
     public void setResearchFactor(double value) {
     	research_factor = value * research_factor;
+    	setAllGoodsDirty();
     }
 
     public void setTradeFactor(double value) {
     	trade_factor = value * trade_factor;
+    	setAllGoodsDirty();
     }
 
     //public void setFreeMarketFactor(double value) {
@@ -781,6 +1006,7 @@ public class GoodsManager implements Serializable {
 
     public void setTourismFactor(double value) {
     	tourism_factor = value * tourism_factor;
+    	setAllGoodsDirty();
     }
 
 
@@ -2732,7 +2958,7 @@ public class GoodsManager implements Serializable {
             //while (i.hasNext()) {
             for (Settlement tempSettlement : unitManager.getSettlements()) {//= i.next();
                 if (tempSettlement != settlement) {
-                    double baseValue = tempSettlement.getGoodsManager().getGoodValuePerItem(good);
+                    double baseValue = tempSettlement.getGoodsManager().getPublishedValuePerItem(good);
                     double distance = settlement.getCoordinates().getDistance(tempSettlement.getCoordinates());
                     double tradeValue = baseValue / (1D + (distance / 1000D));
                     if (tradeValue > bestTradeValue) bestTradeValue = tradeValue;
@@ -2763,6 +2989,7 @@ public class GoodsManager implements Serializable {
         goodsDemandCache = null;
         goodsTradeCache.clear();
         goodsTradeCache = null;
+        publishedValues = null;
 
         if (vehicleBuyValueCache != null){
             vehicleBuyValueCache.clear();
@@ -0,0 +1,357 @@
+/**
+ * Mars Simulation Project
+ * GoodsValueGraph.java
+ * @version 3.1.0 2018-08-23
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.structure.goods;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.foodProduction.FoodProductionProcessInfo;
+import org.mars_sim.msp.core.foodProduction.FoodProductionProcessItem;
+import org.mars_sim.msp.core.foodProduction.FoodProductionUtil;
+import org.mars_sim.msp.core.malfunction.MalfunctionFactory;
+import org.mars_sim.msp.core.malfunction.Malfunctionable;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessInfo;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessItem;
+import org.mars_sim.msp.core.manufacture.ManufactureUtil;
+import org.mars_sim.msp.core.person.ai.mission.MissionManager;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.mars_sim.msp.core.structure.building.function.FunctionType;
+import org.mars_sim.msp.core.structure.building.function.ResourceProcess;
+import org.mars_sim.msp.core.structure.building.function.ResourceProcessing;
+import org.mars_sim.msp.core.structure.construction.ConstructionSite;
+import org.mars_sim.msp.core.structure.construction.ConstructionStage;
+
+/**
+ * The GoodsValueGraph class records what the value of each good at a settlement
+ * depends on : its own supply, settlement wide inputs such as the population or
+ * the construction stages, and the values of other goods (the outputs of the
+ * processes a good is an input of). The {@link GoodsManager} uses it to find
+ * the goods whose inputs have changed since they were last valued.
+ */
+class GoodsValueGraph {
+
+	/**
+	 * The settlement wide inputs of a good value.
+	 */
+	enum Input {
+		/** People associated with the settlement. */
+		POPULATION,
+		/** Buildings, which bring the processes and farms. */
+		PROCESSES,
+		/** Construction sites and their current stages. */
+		CONSTRUCTION,
+		/** Missions and vehicles of the settlement. */
+		MISSIONS,
+		/** Malfunctions and maintenance of the settlement's entities. */
+		MALFUNCTIONS
+	}
+
+	/** The relative change in supply that makes a good dirty. */
+	private static final double SUPPLY_TOLERANCE = .01D;
+	/** The relative change in value that makes the dependents of a good dirty. */
+	private static final double VALUE_TOLERANCE = .01D;
+	/** The number of passes a good may be skipped before it is valued anyway. */
+	private static final int MAX_SKIPPED_PASSES = 4;
+
+	private Settlement settlement;
+	private Collection<Good> goods;
+
+	/** The goods depending on each settlement wide input. */
+	private Map<Input, Set<Good>> inputDependents = new EnumMap<>(Input.class);
+	/** The goods whose value depends on the value of a good. */
+	private Map<Good, Set<Good>> goodDependents = new HashMap<>();
+
+	/** The last signature of each settlement wide input. */
+	private Map<Input, Long> signatures = new EnumMap<>(Input.class);
+	/** The inputs that changed at the start of the current pass. */
+	private Set<Input> changedInputs = EnumSet.allOf(Input.class);
+
+	/** The supply of each good when it was last valued. */
+	private Map<Good, Double> lastSupply = new HashMap<>();
+	/** The number of passes since each good was last valued. */
+	private Map<Good, Integer> skippedPasses = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 * @param settlement the settlement.
+	 * @param goods the goods to track.
+	 */
+	GoodsValueGraph(Settlement settlement, Collection<Good> goods) {
+		this.settlement = settlement;
+		this.goods = goods;
+
+		for (Input input : Input.values()) {
+			inputDependents.put(input, new LinkedHashSet<Good>());
+		}
+
+		for (Good good : goods) {
+			for (Input input : getInputs(good.getCategory())) {
+				inputDependents.get(input).add(good);
+			}
+		}
+
+		buildGoodDependents();
+	}
+
+	/**
+	 * Gets the settlement wide inputs a category of good depends on.
+	 * @param category the good category.
+	 * @return the inputs.
+	 */
+	private static Set<Input> getInputs(GoodType category) {
+		switch (category) {
+		case AMOUNT_RESOURCE:
+			return EnumSet.of(Input.POPULATION, Input.PROCESSES, Input.CONSTRUCTION, Input.MISSIONS);
+		case ITEM_RESOURCE:
+			return EnumSet.of(Input.PROCESSES, Input.CONSTRUCTION, Input.MISSIONS, Input.MALFUNCTIONS);
+		case EQUIPMENT:
+		case VEHICLE:
+			return EnumSet.of(Input.POPULATION, Input.MISSIONS);
+		default:
+			return EnumSet.allOf(Input.class);
+		}
+	}
+
+	/**
+	 * Links the inputs of every process to its outputs, since the demand for an input
+	 * is derived from the value of the outputs.
+	 */
+	private void buildGoodDependents() {
+		goodDependents.clear();
+
+		for (ManufactureProcessInfo process : ManufactureUtil.getAllManufactureProcesses()) {
+			for (ManufactureProcessItem output : process.getOutputList()) {
+				Good outputGood = ManufactureUtil.getGood(output);
+				for (ManufactureProcessItem input : process.getInputList()) {
+					addDependent(outputGood, ManufactureUtil.getGood(input));
+				}
+			}
+		}
+
+		for (FoodProductionProcessInfo process : FoodProductionUtil.getAllFoodProductionProcesses()) {
+			for (FoodProductionProcessItem output : process.getOutputList()) {
+				Good outputGood = FoodProductionUtil.getGood(output);
+				for (FoodProductionProcessItem input : process.getInputList()) {
+					addDependent(outputGood, FoodProductionUtil.getGood(input));
+				}
+			}
+		}
+
+		for (ResourceProcess process : getResourceProcesses()) {
+			for (int output : process.getOutputResources()) {
+				Good outputGood = GoodsUtil.getResourceGood(output);
+				for (int input : process.getInputResources()) {
+					addDependent(outputGood, GoodsUtil.getResourceGood(input));
+				}
+			}
+		}
+
+		// Container demand is derived from the demand for the resources they hold,
+		// and bag demand from the value of ice and regolith.
+		for (Good good : goods) {
+			if (good.getCategory() == GoodType.AMOUNT_RESOURCE) {
+				for (Good equipment : goods) {
+					if (equipment.getCategory() == GoodType.EQUIPMENT) {
+						addDependent(good, equipment);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a good whose value depends on the value of another good.
+	 * @param good the good.
+	 * @param dependent the dependent good.
+	 */
+	private void addDependent(Good good, Good dependent) {
+		if (good == null || dependent == null || good.equals(dependent))
+			return;
+
+		Set<Good> dependents = goodDependents.get(good);
+		if (dependents == null) {
+			dependents = new LinkedHashSet<>();
+			goodDependents.put(good, dependents);
+		}
+		dependents.add(dependent);
+	}
+
+	/**
+	 * Gets the resource processes in the settlement's buildings.
+	 * @return list of resource processes.
+	 */
+	private List<ResourceProcess> getResourceProcesses() {
+		List<ResourceProcess> processes = new ArrayList<>();
+		for (Building building : settlement.getBuildingManager().getBuildings()) {
+			if (building.hasFunction(FunctionType.RESOURCE_PROCESSING)) {
+				ResourceProcessing processing = (ResourceProcessing) building.getFunction(FunctionType.RESOURCE_PROCESSING);
+				processes.addAll(processing.getProcesses());
+			}
+		}
+		return processes;
+	}
+
+	/**
+	 * Starts a new valuation pass by checking which settlement wide inputs have changed.
+	 */
+	void startPass() {
+		for (Input input : Input.values()) {
+			long signature = computeSignature(input);
+			Long previous = signatures.put(input, signature);
+			if (previous == null || previous != signature) {
+				changedInputs.add(input);
+				// The resource processes come with the buildings.
+				if (input == Input.PROCESSES && previous != null)
+					buildGoodDependents();
+			}
+		}
+	}
+
+	/**
+	 * Computes a signature that changes whenever a settlement wide input does.
+	 * @param input the input.
+	 * @return the signature.
+	 */
+	private long computeSignature(Input input) {
+		long signature = 17L;
+		switch (input) {
+		case POPULATION:
+			signature = 31L * signature + settlement.getAllAssociatedPeople().size();
+			break;
+
+		case PROCESSES:
+			for (Building building : settlement.getBuildingManager().getBuildings()) {
+				signature = 31L * signature + building.getIdentifier();
+			}
+			break;
+
+		case CONSTRUCTION:
+			for (ConstructionSite site : settlement.getConstructionManager().getConstructionSites()) {
+				signature = 31L * signature + site.getIdentifier();
+				ConstructionStage stage = site.getCurrentConstructionStage();
+				if (stage != null)
+					signature = 31L * signature + stage.getInfo().getName().hashCode()
+						+ stage.getRemainingResources().size() + stage.getRemainingParts().size();
+			}
+			break;
+
+		case MISSIONS:
+			MissionManager missionManager = Simulation.instance().getMissionManager();
+			if (missionManager != null)
+				signature = 31L * signature + missionManager.getMissionsForSettlement(settlement).size();
+			signature = 31L * signature + settlement.getAllAssociatedVehicles().size();
+			signature = 31L * signature + settlement.getParkedVehicleNum();
+			break;
+
+		case MALFUNCTIONS:
+			for (Malfunctionable entity : MalfunctionFactory.getAssociatedMalfunctionables(settlement)) {
+				signature = 31L * signature + entity.getMalfunctionManager().getMalfunctions().size();
+				signature = 31L * signature + Math.round(entity.getMalfunctionManager().getWearCondition());
+			}
+			break;
+		}
+		return signature;
+	}
+
+	/**
+	 * Checks if a good needs to be valued again in this pass.
+	 * @param good the good.
+	 * @param supply the current supply of the good.
+	 * @return true if any of its inputs changed since it was last valued.
+	 */
+	boolean isDirty(Good good, double supply) {
+
+		Double previousSupply = lastSupply.get(good);
+		if (previousSupply == null)
+			return true;
+
+		Integer skipped = skippedPasses.get(good);
+		if (skipped != null && skipped >= MAX_SKIPPED_PASSES)
+			return true;
+
+		if (hasChanged(previousSupply, supply, SUPPLY_TOLERANCE))
+			return true;
+
+		for (Input input : changedInputs) {
+			if (inputDependents.get(input).contains(good))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Records that a good has been valued.
+	 * @param good the good.
+	 * @param supply the supply it was valued with.
+	 */
+	void recomputed(Good good, double supply) {
+		lastSupply.put(good, supply);
+		skippedPasses.put(good, 0);
+	}
+
+	/**
+	 * Records that a good has been skipped in this pass.
+	 * @param good the good.
+	 */
+	void skipped(Good good) {
+		Integer skipped = skippedPasses.get(good);
+		skippedPasses.put(good, skipped == null ? 1 : skipped + 1);
+	}
+
+	/**
+	 * Ends the current valuation pass.
+	 */
+	void endPass() {
+		changedInputs.clear();
+	}
+
+	/**
+	 * Marks every good as dirty, e.g. when the settlement objectives change.
+	 */
+	void setAllDirty() {
+		lastSupply.clear();
+	}
+
+	/**
+	 * Gets the goods whose value depends on a good whose value has changed.
+	 * @param good the good.
+	 * @param oldValue the previous value.
+	 * @param newValue the new value.
+	 * @return the dependent goods, empty if the value did not change enough.
+	 */
+	Set<Good> getDependents(Good good, double oldValue, double newValue) {
+		Set<Good> dependents = goodDependents.get(good);
+		if (dependents == null || !hasChanged(oldValue, newValue, VALUE_TOLERANCE))
+			return Collections.emptySet();
+		return dependents;
+	}
+
+	/**
+	 * Checks if a value has changed by more than a relative tolerance.
+	 * @param oldValue the old value.
+	 * @param newValue the new value.
+	 * @param tolerance the relative tolerance.
+	 * @return true if changed.
+	 */
+	private static boolean hasChanged(double oldValue, double newValue, double tolerance) {
+		double scale = Math.max(Math.abs(oldValue), Math.abs(newValue));
+		if (scale == 0D)
+			return false;
+		return Math.abs(newValue - oldValue) > tolerance * scale;
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Mars Simulation Project
+ * BatchReport.java
+ * @version 3.1.0 2018-08-30
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The throughput of a batch run of the master clock : how many sols were run, how
+ * long it took on the wall clock and how that time was shared between the subsystems
+ * of the simulation.
+ */
+public class BatchReport {
+
+	private final double sols;
+	private final long pulses;
+	private final double step;
+	private final long wallTime;
+	private final Map<String, Long> subsystemTimes;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sols           the sols run.
+	 * @param pulses         the number of clock pulses.
+	 * @param step           the length of a pulse (millisols).
+	 * @param wallTime       the wall clock time of the run (nanoseconds).
+	 * @param subsystemTimes the time of each subsystem (nanoseconds).
+	 */
+	public BatchReport(double sols, long pulses, double step, long wallTime, Map<String, Long> subsystemTimes) {
+		this.sols = sols;
+		this.pulses = pulses;
+		this.step = step;
+		this.wallTime = wallTime;
+		this.subsystemTimes = Collections.unmodifiableMap(new LinkedHashMap<>(subsystemTimes));
+	}
+
+	/**
+	 * Gets the sols run.
+	 * 
+	 * @return sols.
+	 */
+	public double getSols() {
+		return sols;
+	}
+
+	/**
+	 * Gets the number of clock pulses.
+	 * 
+	 * @return pulses.
+	 */
+	public long getPulses() {
+		return pulses;
+	}
+
+	/**
+	 * Gets the wall clock time of the run.
+	 * 
+	 * @return time (nanoseconds).
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * Gets the time spent in each subsystem.
+	 * 
+	 * @return unmodifiable map of subsystem names to times (nanoseconds).
+	 */
+	public Map<String, Long> getSubsystemTimes() {
+		return subsystemTimes;
+	}
+
+	/**
+	 * Gets the number of sols run per second of wall clock time.
+	 * 
+	 * @return sols per second.
+	 */
+	public double getSolsPerSecond() {
+		return (wallTime > 0L) ? sols / (wallTime / 1_000_000_000D) : 0D;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Ran %.2f sols in %d pulses of %.3f millisols in %.2f s : %.4f sols per second",
+				sols, pulses, step, wallTime / 1_000_000_000D, getSolsPerSecond()));
+
+		long other = wallTime;
+		for (Map.Entry<String, Long> entry : subsystemTimes.entrySet()) {
+			appendLine(sb, entry.getKey(), entry.getValue());
+			other -= entry.getValue();
+		}
+		appendLine(sb, "Other", Math.max(0L, other));
+
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the time of a subsystem to the report.
+	 */
+	private void appendLine(StringBuilder sb, String subsystem, long time) {
+		double percent = (wallTime > 0L) ? time * 100D / wallTime : 0D;
+		double perPulse = (pulses > 0L) ? time / 1_000_000D / pulses : 0D;
+		sb.append(System.lineSeparator()).append(String.format("  %-24s %10.2f s %6.1f %% %10.4f ms/pulse",
+				subsystem, time / 1_000_000_000D, percent, perPulse));
+	}
+}
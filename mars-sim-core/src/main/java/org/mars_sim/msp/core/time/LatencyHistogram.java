@@ -0,0 +1,167 @@
+/**
+ * Mars Simulation Project
+ * LatencyHistogram.java
+ * @version 3.1.0 2018-08-31
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with a fixed relative precision, in the manner of
+ * HdrHistogram. Durations below 32 nanoseconds have a bucket each, and every
+ * power of two above is split into 16 buckets, so a percentile is within about
+ * 6 % of the true value whatever its magnitude. Recording takes no lock and is
+ * safe from several threads.
+ */
+public class LatencyHistogram {
+
+	/** The number of bits of a duration kept in its bucket. */
+	private static final int SUB_BUCKET_BITS = 4;
+	/** The number of buckets each power of two is split into. */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** The durations below this have a bucket each (nanoseconds). */
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+	/** The highest power of two recorded. Longer durations go in the last bucket (about 9 hours). */
+	private static final int MAX_EXPONENT = 44;
+	/** The number of buckets. */
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	// Data members
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos the duration (nanoseconds). A negative duration counts as zero.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0L, nanos);
+		counts.incrementAndGet(getIndex(value));
+		count.increment();
+		total.add(value);
+		if (value > max.get()) {
+			max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * Gets the bucket of a duration.
+	 *
+	 * @param value the duration (nanoseconds).
+	 * @return the bucket index.
+	 */
+	static int getIndex(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		if (exponent == MAX_EXPONENT && (value >>> MAX_EXPONENT) > 1L) {
+			return BUCKET_COUNT - 1;
+		}
+		int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa;
+	}
+
+	/**
+	 * Gets the highest duration of a bucket.
+	 *
+	 * @param index the bucket index.
+	 * @return the duration (nanoseconds).
+	 */
+	static long getHighestValue(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		int mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return (((long) mantissa + 1L) << (exponent - SUB_BUCKET_BITS)) - 1L;
+	}
+
+	/**
+	 * Gets the number of durations recorded.
+	 *
+	 * @return count.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the sum of the durations recorded.
+	 *
+	 * @return total (nanoseconds).
+	 */
+	public long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * Gets the longest duration recorded.
+	 *
+	 * @return max (nanoseconds).
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets the mean duration.
+	 *
+	 * @return mean (nanoseconds), or 0 if nothing was recorded.
+	 */
+	public double getMean() {
+		long n = getCount();
+		return (n == 0L) ? 0D : (double) getTotal() / n;
+	}
+
+	/**
+	 * Gets the duration below which a percentage of the durations recorded fall.
+	 *
+	 * @param percentile the percentage (0 to 100).
+	 * @return the duration (nanoseconds), or 0 if nothing was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0D || percentile > 100D)
+			throw new IllegalArgumentException("Percentile must be between 0 and 100 : " + percentile);
+
+		long n = 0L;
+		long[] snapshot = new long[BUCKET_COUNT];
+		for (int x = 0; x < BUCKET_COUNT; x++) {
+			snapshot[x] = counts.get(x);
+			n += snapshot[x];
+		}
+		if (n == 0L) {
+			return 0L;
+		}
+
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100D * n));
+		long seen = 0L;
+		for (int x = 0; x < BUCKET_COUNT; x++) {
+			seen += snapshot[x];
+			if (seen >= rank) {
+				return Math.min(getHighestValue(x), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Clears the durations recorded. Durations recorded meanwhile by other threads
+	 * may be partly kept.
+	 */
+	public void reset() {
+		for (int x = 0; x < BUCKET_COUNT; x++) {
+			counts.set(x, 0L);
+		}
+		count.reset();
+		total.reset();
+		max.set(0L);
+	}
+}
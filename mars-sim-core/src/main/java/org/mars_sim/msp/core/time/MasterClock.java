@@ -20,9 +20,12 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -753,6 +756,46 @@ public class MasterClock implements Serializable {
 		}
 	}
 
+	/**
+	 * Runs the clock as fast as possible on the calling thread, advancing the Mars and
+	 * Earth clocks in fixed steps with no sleeping and no reference to the wall clock.
+	 * The clock listeners are called in turn at each pulse, so a run goes the same way
+	 * however loaded the machine is. Returns early if the clock is stopped meanwhile.
+	 *
+	 * @param sols the number of sols to run.
+	 * @param step the length of a pulse (millisols).
+	 * @return the throughput report of the run.
+	 */
+	public BatchReport runBatch(double sols, double step) {
+		if (sols <= 0D || step <= 0D)
+			throw new IllegalArgumentException("Sols and step must be positive : " + sols + " sols, " + step + " millisols");
+
+		long pulses = Math.round(sols * 1000D / step);
+		double earthMillis = step * MarsClock.SECONDS_PER_MILLISOL * 1000D;
+		SubsystemTimer timer = sim.getSubsystemTimer();
+		keepRunning = true;
+
+		long start = System.nanoTime();
+		long done = 0L;
+		while (done < pulses && keepRunning) {
+			earthClock.addTime(earthMillis);
+			marsTime.addTime(step);
+			totalPulses++;
+			for (ClockListener listener : clockListeners) {
+				try {
+					listener.clockPulse(step);
+				} catch (RuntimeException e) {
+					// As with the clock listener executor, a failed pulse doesn't end the run.
+					logger.log(Level.SEVERE, "Clock pulse failed for " + listener, e);
+				}
+			}
+			done++;
+		}
+		long wallTime = System.nanoTime() - start;
+
+		return new BatchReport(done * step / 1000D, done, step, wallTime, timer.getTotals());
+	}
+
 	/**
 	 * Checks if it is on pause or a saving process has been requested. Keeps track
 	 * of the time pulse
@@ -987,6 +1030,33 @@ public class MasterClock implements Serializable {
 			clockListenerExecutor.shutdownNow();
 	}
 
+	/**
+	 * Waits for the clock pulses already fired to be handled by the clock
+	 * listeners, so that the simulation rests at a tick boundary. Gives up after
+	 * a timeout, e.g. when called from a clock listener itself.
+	 * @param timeout the maximum time to wait (milliseconds).
+	 * @return true if the pulses have all been handled.
+	 */
+	public boolean awaitClockListeners(long timeout) {
+		ExecutorService executor = clockListenerExecutor;
+		if (executor == null || executor.isShutdown())
+			return true;
+
+		try {
+			// The executor runs its tasks in order on a single thread.
+			executor.submit(() -> {}).get(timeout, TimeUnit.MILLISECONDS);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RejectedExecutionException e) {
+			// Shut down meanwhile, so nothing is pending.
+			return true;
+		} catch (ExecutionException | TimeoutException e) {
+			logger.warning("Clock listeners still busy after " + timeout + " ms");
+		}
+		return false;
+	}
+
 	// public ThreadPoolExecutor getClockListenerExecutor() {
 	// return clockListenerExecutor;
 	// }
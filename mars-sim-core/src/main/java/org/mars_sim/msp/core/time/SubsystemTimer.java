@@ -0,0 +1,65 @@
+/**
+ * Mars Simulation Project
+ * SubsystemTimer.java
+ * @version 3.1.0 2018-08-30
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adds up the time the simulation spends in each of its subsystems during the clock
+ * pulses, e.g. Mars, the missions or the units.
+ */
+public class SubsystemTimer {
+
+	/** The total time of each subsystem (nanoseconds), in the order first timed. */
+	private final Map<String, long[]> totals = new LinkedHashMap<>();
+
+	/**
+	 * Records the time a subsystem took since a start time.
+	 * 
+	 * @param subsystem the name of the subsystem.
+	 * @param start     the start time, from {@link System#nanoTime()}.
+	 * @return the current time, to be used as the start of the next subsystem.
+	 */
+	public long record(String subsystem, long start) {
+		long now = System.nanoTime();
+		synchronized (totals) {
+			long[] total = totals.get(subsystem);
+			if (total == null) {
+				total = new long[1];
+				totals.put(subsystem, total);
+			}
+			total[0] += now - start;
+		}
+		TickProfiler.instance().recordDuration(TickProfiler.Category.SUBSYSTEM, subsystem, now - start);
+		return now;
+	}
+
+	/**
+	 * Gets the total time of each subsystem.
+	 * 
+	 * @return map of subsystem names to times (nanoseconds), in the order first timed.
+	 */
+	public Map<String, Long> getTotals() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		synchronized (totals) {
+			for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+				result.put(entry.getKey(), entry.getValue()[0]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the time of every subsystem back to zero.
+	 */
+	public void reset() {
+		synchronized (totals) {
+			totals.clear();
+		}
+	}
+}
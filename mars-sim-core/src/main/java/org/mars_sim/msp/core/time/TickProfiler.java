@@ -0,0 +1,294 @@
+/**
+ * Mars Simulation Project
+ * TickProfiler.java
+ * @version 3.1.0 2018-08-31
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records how long the parts of a clock pulse take, so that the subsystem,
+ * settlement, unit type or building function using up the time of a pulse can
+ * be found without an external profiler.
+ * <br>
+ * The profiler is disabled by default, so a pulse costs one read of a flag per
+ * call. Once enabled, by the "-profile=" argument or through JMX, the
+ * subsystems, settlements, unit types and functions are timed at every call,
+ * which costs two reads of the system timer each. The meta tasks and missions
+ * are called far more often for far less work each, so they are only timed for
+ * one call in {@link #getSamplingInterval()}, and not at all by default.
+ * <br>
+ * The report is published through JMX as
+ * {@value #OBJECT_NAME}, and may be dumped to the log periodically.
+ */
+public class TickProfiler implements TickProfilerMXBean {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(TickProfiler.class.getName());
+
+	/** The JMX name of the profiler. */
+	public static final String OBJECT_NAME = "org.mars_sim.msp.core:type=TickProfiler";
+
+	/** Returned by {@link #start(Category)} when a call is not timed. */
+	private static final long NOT_TIMED = -1L;
+
+	private static final TickProfiler instance = new TickProfiler();
+
+	/**
+	 * What is timed.
+	 */
+	public enum Category {
+		SUBSYSTEM("Subsystem", false),
+		SETTLEMENT("Settlement", false),
+		UNIT("Unit", false),
+		FUNCTION("Function", false),
+		META_TASK("Meta task", true),
+		MISSION("Mission", true);
+
+		private final String name;
+		private final boolean sampled;
+
+		Category(String name, boolean sampled) {
+			this.name = name;
+			this.sampled = sampled;
+		}
+
+		/**
+		 * Checks if only a sample of the calls is timed.
+		 *
+		 * @return true if sampled.
+		 */
+		public boolean isSampled() {
+			return sampled;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	// Data members
+	private volatile boolean enabled;
+	private volatile int samplingInterval;
+	private volatile long logInterval;
+	private volatile long lastLogTime = System.currentTimeMillis();
+	private boolean registered;
+
+	/** The histograms of each category, keyed by name or by class. */
+	private final List<Map<Object, LatencyHistogram>> histograms = new ArrayList<>();
+
+	private TickProfiler() {
+		for (int x = 0; x < Category.values().length; x++) {
+			histograms.add(new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Gets the profiler.
+	 *
+	 * @return profiler.
+	 */
+	public static TickProfiler instance() {
+		return instance;
+	}
+
+	/**
+	 * Publishes the profiler through JMX, if not done already.
+	 */
+	public synchronized void register() {
+		if (!registered) {
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName(OBJECT_NAME);
+				if (!server.isRegistered(name)) {
+					server.registerMBean(this, name);
+				}
+				registered = true;
+			} catch (JMException | SecurityException e) {
+				logger.log(Level.WARNING, "Could not publish the tick profiler through JMX", e);
+			}
+		}
+	}
+
+	/**
+	 * Starts timing a call.
+	 *
+	 * @param category what is called.
+	 * @return the start time to pass to {@link #record(Category, Object, long)}, or
+	 *         a negative value if the call is not timed.
+	 */
+	public long start(Category category) {
+		if (!enabled) {
+			return NOT_TIMED;
+		}
+		if (category.isSampled()) {
+			int interval = samplingInterval;
+			if (interval <= 0 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) != 0)) {
+				return NOT_TIMED;
+			}
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the duration of a call started with {@link #start(Category)}.
+	 *
+	 * @param category what was called.
+	 * @param key      the name or class of what was called.
+	 * @param start    the start time, ignored if negative.
+	 */
+	public void record(Category category, Object key, long start) {
+		if (start >= 0L) {
+			getOrCreate(category, key).record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records the duration of a call timed by the caller.
+	 *
+	 * @param category what was called.
+	 * @param key      the name or class of what was called.
+	 * @param nanos    the duration (nanoseconds).
+	 */
+	public void recordDuration(Category category, Object key, long nanos) {
+		if (enabled) {
+			getOrCreate(category, key).record(nanos);
+		}
+	}
+
+	private LatencyHistogram getOrCreate(Category category, Object key) {
+		Map<Object, LatencyHistogram> map = histograms.get(category.ordinal());
+		LatencyHistogram histogram = map.get(key);
+		if (histogram == null) {
+			histogram = map.computeIfAbsent(key, k -> new LatencyHistogram());
+		}
+		return histogram;
+	}
+
+	/**
+	 * Gets the histogram of something timed.
+	 *
+	 * @param category what was called.
+	 * @param key      the name or class of what was called.
+	 * @return histogram or null if never timed.
+	 */
+	public LatencyHistogram getHistogram(Category category, Object key) {
+		return histograms.get(category.ordinal()).get(key);
+	}
+
+	/**
+	 * Dumps the report to the log if the log interval has passed since the last
+	 * dump. Called at the end of each clock pulse.
+	 */
+	public void checkLogDump() {
+		long interval = logInterval;
+		if (interval > 0L) {
+			long now = System.currentTimeMillis();
+			if (now - lastLogTime >= interval * 1000L) {
+				lastLogTime = now;
+				dumpToLog();
+			}
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public int getSamplingInterval() {
+		return samplingInterval;
+	}
+
+	@Override
+	public void setSamplingInterval(int interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("Sampling interval must not be negative : " + interval);
+		samplingInterval = interval;
+	}
+
+	@Override
+	public long getLogInterval() {
+		return logInterval;
+	}
+
+	@Override
+	public void setLogInterval(long seconds) {
+		if (seconds < 0L)
+			throw new IllegalArgumentException("Log interval must not be negative : " + seconds);
+		lastLogTime = System.currentTimeMillis();
+		logInterval = seconds;
+	}
+
+	@Override
+	public String[] getReport() {
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("%-12s %-32s %10s %10s %10s %10s %10s %10s", "Category", "Name", "Count",
+				"Total s", "Mean us", "P50 us", "P99 us", "Max us"));
+
+		for (Category category : Category.values()) {
+			List<Map.Entry<Object, LatencyHistogram>> entries = new ArrayList<>(
+					histograms.get(category.ordinal()).entrySet());
+			// The most costly first.
+			Collections.sort(entries, Comparator.comparingLong(
+					(Map.Entry<Object, LatencyHistogram> e) -> e.getValue().getTotal()).reversed());
+			for (Map.Entry<Object, LatencyHistogram> entry : entries) {
+				LatencyHistogram h = entry.getValue();
+				lines.add(String.format("%-12s %-32s %10d %10.3f %10.1f %10.1f %10.1f %10.1f", category,
+						getName(entry.getKey()), h.getCount(), h.getTotal() / 1_000_000_000D, h.getMean() / 1000D,
+						h.getValueAtPercentile(50D) / 1000D, h.getValueAtPercentile(99D) / 1000D,
+						h.getMax() / 1000D));
+			}
+		}
+
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	@Override
+	public void dumpToLog() {
+		StringBuilder sb = new StringBuilder("Tick profile :");
+		for (String line : getReport()) {
+			sb.append(System.lineSeparator()).append("  ").append(line);
+		}
+		logger.info(sb.toString());
+	}
+
+	@Override
+	public void reset() {
+		for (Map<Object, LatencyHistogram> map : histograms) {
+			map.clear();
+		}
+	}
+
+	/**
+	 * Gets the name of something timed.
+	 */
+	private static String getName(Object key) {
+		if (key instanceof Class) {
+			return ((Class<?>) key).getSimpleName();
+		}
+		return String.valueOf(key);
+	}
+}
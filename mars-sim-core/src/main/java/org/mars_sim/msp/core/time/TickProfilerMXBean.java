@@ -0,0 +1,73 @@
+/**
+ * Mars Simulation Project
+ * TickProfilerMXBean.java
+ * @version 3.1.0 2018-08-31
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+/**
+ * The management interface of the {@link TickProfiler}, published through JMX.
+ */
+public interface TickProfilerMXBean {
+
+	/**
+	 * Checks if the durations are recorded.
+	 *
+	 * @return true if enabled.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Sets if the durations are recorded.
+	 *
+	 * @param enabled true to record.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Gets the sampling interval of the meta tasks and missions.
+	 *
+	 * @return one in how many calls is timed, or 0 if not sampled.
+	 */
+	int getSamplingInterval();
+
+	/**
+	 * Sets the sampling interval of the meta tasks and missions.
+	 *
+	 * @param interval one in how many calls to time, or 0 to stop sampling.
+	 */
+	void setSamplingInterval(int interval);
+
+	/**
+	 * Gets the interval between dumps of the report to the log.
+	 *
+	 * @return interval (seconds), or 0 if never dumped.
+	 */
+	long getLogInterval();
+
+	/**
+	 * Sets the interval between dumps of the report to the log.
+	 *
+	 * @param seconds interval (seconds), or 0 to stop dumping.
+	 */
+	void setLogInterval(long seconds);
+
+	/**
+	 * Gets the report, one line per subsystem, settlement, unit type, function,
+	 * meta task or mission timed.
+	 *
+	 * @return report lines.
+	 */
+	String[] getReport();
+
+	/**
+	 * Writes the report to the log now.
+	 */
+	void dumpToLog();
+
+	/**
+	 * Clears all the durations recorded.
+	 */
+	void reset();
+}
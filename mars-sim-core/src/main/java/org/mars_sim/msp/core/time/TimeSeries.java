@@ -0,0 +1,239 @@
+/**
+ * Mars Simulation Project
+ * TimeSeries.java
+ * @version 3.1.0 2018-09-09
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.time;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A fixed size store of samples taken over the sols. The latest samples are
+ * kept in a ring of primitives, and every sol is summarized by its minimum,
+ * mean and maximum in a second ring, so a statistic for an older sol survives
+ * after its samples have been overwritten. The store never grows whatever the
+ * length of the simulation.
+ */
+public class TimeSeries implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Receives the samples of a range of sols.
+	 */
+	public interface SampleVisitor {
+
+		/**
+		 * Visits one sample.
+		 *
+		 * @param sol   the sol the sample was taken on
+		 * @param value the sample
+		 */
+		void visit(int sol, double value);
+	}
+
+	/** The ring of the latest samples. */
+	private final double[] samples;
+	/** The sol of each sample in the ring. */
+	private final int[] sampleSols;
+	/** The index the next sample goes to. */
+	private int next;
+	/** The number of samples in the ring. */
+	private int size;
+
+	/** The sol summarized in each slot, or Integer.MIN_VALUE if the slot is unused. */
+	private final int[] sols;
+	private final double[] mins;
+	private final double[] maxs;
+	private final double[] sums;
+	private final int[] counts;
+
+	/** The sum and the number of all the samples ever added. */
+	private double totalSum;
+	private long totalCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sampleCapacity the number of latest samples kept
+	 * @param solCapacity    the number of latest sols summarized
+	 */
+	public TimeSeries(int sampleCapacity, int solCapacity) {
+		if (sampleCapacity < 1 || solCapacity < 1)
+			throw new IllegalArgumentException("The capacities must be positive : " + sampleCapacity + ", " + solCapacity);
+
+		samples = new double[sampleCapacity];
+		sampleSols = new int[sampleCapacity];
+		sols = new int[solCapacity];
+		Arrays.fill(sols, Integer.MIN_VALUE);
+		mins = new double[solCapacity];
+		maxs = new double[solCapacity];
+		sums = new double[solCapacity];
+		counts = new int[solCapacity];
+	}
+
+	/**
+	 * Adds a sample. The summary of a sol older than the one in its slot is
+	 * left alone.
+	 *
+	 * @param sol   the sol the sample is taken on
+	 * @param value the sample
+	 */
+	public synchronized void add(int sol, double value) {
+		samples[next] = value;
+		sampleSols[next] = sol;
+		next = (next + 1) % samples.length;
+		if (size < samples.length)
+			size++;
+
+		totalSum += value;
+		totalCount++;
+
+		int slot = Math.floorMod(sol, sols.length);
+		if (sols[slot] != sol) {
+			if (sols[slot] > sol)
+				return;
+			sols[slot] = sol;
+			mins[slot] = value;
+			maxs[slot] = value;
+			sums[slot] = value;
+			counts[slot] = 1;
+		} else {
+			if (value < mins[slot])
+				mins[slot] = value;
+			if (value > maxs[slot])
+				maxs[slot] = value;
+			sums[slot] += value;
+			counts[slot]++;
+		}
+	}
+
+	/**
+	 * Gets the number of samples still in the ring.
+	 *
+	 * @return the number of samples
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a sample still in the ring.
+	 *
+	 * @param index 0 for the oldest sample
+	 * @return the sample
+	 */
+	public synchronized double get(int index) {
+		return samples[slotOf(index)];
+	}
+
+	/**
+	 * Gets the sol a sample still in the ring was taken on.
+	 *
+	 * @param index 0 for the oldest sample
+	 * @return the sol
+	 */
+	public synchronized int getSol(int index) {
+		return sampleSols[slotOf(index)];
+	}
+
+	private int slotOf(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size + " samples");
+		return (next - size + index + samples.length) % samples.length;
+	}
+
+	/**
+	 * Visits the samples still in the ring taken between two sols, oldest first.
+	 *
+	 * @param fromSol the first sol
+	 * @param toSol   the last sol
+	 * @param visitor the visitor
+	 */
+	public synchronized void visit(int fromSol, int toSol, SampleVisitor visitor) {
+		int slot = (next - size + samples.length) % samples.length;
+		for (int i = 0; i < size; i++) {
+			int sol = sampleSols[slot];
+			if (sol >= fromSol && sol <= toSol)
+				visitor.visit(sol, samples[slot]);
+			slot = (slot + 1) % samples.length;
+		}
+	}
+
+	/**
+	 * Gets the number of samples taken on a sol.
+	 *
+	 * @param sol the sol
+	 * @return the number of samples, or 0 if the sol is no longer summarized
+	 */
+	public synchronized int getCount(int sol) {
+		int slot = Math.floorMod(sol, sols.length);
+		return sols[slot] == sol ? counts[slot] : 0;
+	}
+
+	/**
+	 * Gets the mean of the samples taken on a sol.
+	 *
+	 * @param sol the sol
+	 * @return the mean, or 0 if there is none
+	 */
+	public synchronized double getMean(int sol) {
+		int slot = Math.floorMod(sol, sols.length);
+		return sols[slot] == sol ? sums[slot] / counts[slot] : 0;
+	}
+
+	/**
+	 * Gets the smallest sample taken on a sol.
+	 *
+	 * @param sol the sol
+	 * @return the minimum, or 0 if there is none
+	 */
+	public synchronized double getMin(int sol) {
+		int slot = Math.floorMod(sol, sols.length);
+		return sols[slot] == sol ? mins[slot] : 0;
+	}
+
+	/**
+	 * Gets the largest sample taken on a sol.
+	 *
+	 * @param sol the sol
+	 * @return the maximum, or 0 if there is none
+	 */
+	public synchronized double getMax(int sol) {
+		int slot = Math.floorMod(sol, sols.length);
+		return sols[slot] == sol ? maxs[slot] : 0;
+	}
+
+	/**
+	 * Adds samples to the all-time sum and count only, such as those of an older
+	 * saved simulation that have no sol.
+	 *
+	 * @param sum   the sum of the samples
+	 * @param count the number of samples
+	 */
+	public synchronized void addTotal(double sum, long count) {
+		totalSum += sum;
+		totalCount += count;
+	}
+
+	/**
+	 * Gets the mean of all the samples ever added.
+	 *
+	 * @return the mean, or 0 if there is none
+	 */
+	public synchronized double getTotalMean() {
+		return totalCount == 0 ? 0 : totalSum / totalCount;
+	}
+
+	/**
+	 * Gets the number of all the samples ever added.
+	 *
+	 * @return the number of samples
+	 */
+	public synchronized long getTotalCount() {
+		return totalCount;
+	}
+}
@@ -7,7 +7,6 @@
 package org.mars_sim.msp.core.vehicle;
 
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.List;
 
 import org.mars_sim.msp.core.Direction;
@@ -185,7 +184,7 @@ implements Serializable {
 		List<Building> garageList = settlement.getBuildingManager().getBuildings(
 				FunctionType.GROUND_VEHICLE_MAINTENANCE);
 		if (garageList.size() >= 1) {
-			Collections.shuffle(garageList);
+			RandomUtil.shuffle(garageList);
 			Building garage = garageList.get(0);
 			centerXLoc = garage.getXLocation();
 			centerYLoc = garage.getYLocation();
@@ -63,6 +63,11 @@ public abstract class Vehicle extends Unit
 	private static String sourceName = logger.getName().substring(logger.getName().lastIndexOf(".") + 1,
 			logger.getName().length());
 
+	private static final LogConsolidated.Key RESERVED_WITHOUT_MISSION = LogConsolidated
+			.register("vehicle reserved without mission");
+	private static final LogConsolidated.Key MISSION_NOT_RESERVED = LogConsolidated
+			.register("vehicle on mission not reserved");
+
 	// Vehicle Status Strings
 	// public final static String PARKED = "Parked";
 	// public final static String GARAGED = "Garaged";
@@ -123,6 +128,10 @@ public abstract class Vehicle extends Unit
 	private SalvageInfo salvageInfo; // The vehicle's salvage info.
 	private Settlement associatedSettlement;
 
+	/** The garage the vehicle is in, kept by the garages, if garageKnown. */
+	private transient Building garage;
+	private transient boolean garageKnown = false;
+
 	// Static members
 	private static VehicleConfig config;
 	private static MissionManager missionManager;
@@ -318,6 +327,7 @@ public abstract class Vehicle extends Unit
 		this.xLocParked = xLocation;
 		this.yLocParked = yLocation;
 		this.facingParked = facing;
+		LocalAreaUtil.clearObstacleCache(getCoordinates());
 
 		// Set the human crew locations to the vehicle's new parked location.
 		setCrewPositions(currentCrewPositions);
@@ -726,7 +736,28 @@ public abstract class Vehicle extends Unit
 	}
 
 	public Building getGarage() {
-		return BuildingManager.getBuilding(this, getSettlement());
+		Settlement settlement = getSettlement();
+		if (settlement == null)
+			return null;
+
+		Building result = garage;
+		if (garageKnown && ((result == null) || (result.getSettlement() == settlement)))
+			return result;
+
+		// Look through the garages, e.g. after loading a saved simulation.
+		result = BuildingManager.getBuilding(this, settlement);
+		setGarage(result);
+		return result;
+	}
+
+	/**
+	 * Sets the garage the vehicle is in.
+	 * 
+	 * @param building the garage, or null if the vehicle isn't in one.
+	 */
+	public void setGarage(Building building) {
+		garage = building;
+		garageKnown = true;
 	}
 
 	/**
@@ -765,14 +796,14 @@ public abstract class Vehicle extends Unit
 			// Set reserved for mission to false if the vehicle is not associated with a
 			// mission.
 			if (missionManager.getMissionForVehicle(this) == null) {
-				LogConsolidated.log(logger, Level.SEVERE, 1000, sourceName,
-						getName() + " was found reserved for an non-existing mission. Untagging it...",
+				LogConsolidated.log(RESERVED_WITHOUT_MISSION, logger, Level.SEVERE, 1000, sourceName, this,
+						v -> v.getName() + " was found reserved for an non-existing mission. Untagging it...",
 						null);
 				setReservedForMission(false);
 			}
 		} else {
 			if (missionManager.getMissionForVehicle(this) != null) {
-				LogConsolidated.log(logger, Level.SEVERE, 1000, sourceName, getName()
+				LogConsolidated.log(MISSION_NOT_RESERVED, logger, Level.SEVERE, 1000, sourceName, this, v -> v.getName()
 						+ " is on a mission but is not mission reserved. Correcting it...", null);
 			}
 		}
@@ -0,0 +1,135 @@
+package org.mars_sim.msp.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the BlockCompressedOutputStream and BlockCompressedInputStream classes.
+ */
+public class TestBlockCompressedStreams extends TestCase {
+
+    private static final int BLOCK_SIZE = 1000;
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("block", ".sim");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+        super.tearDown();
+    }
+
+    private byte[] write(int length) throws IOException {
+        byte[] data = new byte[length];
+        Random random = new Random(length);
+        for (int x = 0; x < length; x++) {
+            // Compressible data.
+            data[x] = (byte) ('a' + random.nextInt(4));
+        }
+
+        BlockCompressedOutputStream out = new BlockCompressedOutputStream(new FileOutputStream(file),
+                "3.1.0", "1234", 3, BLOCK_SIZE);
+        // Mix single bytes and arrays across block boundaries.
+        out.write(data, 0, 10);
+        for (int x = 10; x < 20 && x < length; x++) {
+            out.write(data[x]);
+        }
+        if (length > 20) {
+            out.write(data, 20, length - 20);
+        }
+        out.close();
+
+        return data;
+    }
+
+    private byte[] read(BlockCompressedInputStream in, int length) throws IOException {
+        byte[] result = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int size = in.read(result, read, Math.min(333, length - read));
+            assertTrue(size > 0);
+            read += size;
+        }
+        assertEquals(-1, in.read());
+        return result;
+    }
+
+    /**
+     * Test that data read back matches data written, whatever the number of blocks.
+     */
+    public void testRoundTrip() throws IOException {
+
+        for (int length : new int[] { 20, BLOCK_SIZE, 10 * BLOCK_SIZE + 7 }) {
+            byte[] data = write(length);
+
+            assertTrue(BlockCompressedInputStream.isBlockCompressed(file));
+            try (BlockCompressedInputStream in = new BlockCompressedInputStream(file, 2)) {
+                assertEquals("3.1.0", in.getVersion());
+                assertEquals("1234", in.getBuild());
+                assertEquals((length + BLOCK_SIZE - 1) / BLOCK_SIZE, in.getBlockCount());
+                assertTrue(Arrays.equals(data, read(in, length)));
+            }
+        }
+    }
+
+    /**
+     * Test that a corrupt block is reported.
+     */
+    public void testCorruptBlock() throws IOException {
+
+        write(5 * BLOCK_SIZE);
+
+        // Flip a byte in the middle of the file, which is within a block.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long position = raf.length() / 2;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0xFF);
+        }
+
+        try (InputStream in = new BlockCompressedInputStream(file, 2)) {
+            byte[] buffer = new byte[BLOCK_SIZE];
+            while (in.read(buffer) >= 0) {
+                // Read until the corrupt block.
+            }
+            fail("Corrupt block not detected");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("corrupt"));
+        }
+    }
+
+    /**
+     * Test that a truncated file is rejected when opened.
+     */
+    public void testTruncatedFile() throws IOException {
+
+        write(5 * BLOCK_SIZE);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+
+        assertTrue(BlockCompressedInputStream.isBlockCompressed(file));
+        try {
+            new BlockCompressedInputStream(file, 2).close();
+            fail("Truncated file not detected");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+}
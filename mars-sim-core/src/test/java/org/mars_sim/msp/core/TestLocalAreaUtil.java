@@ -239,4 +239,69 @@ public class TestLocalAreaUtil extends TestCase {
         assertTrue(LocalAreaUtil.checkLocationWithinLocalBoundedObject(0D, 5.01D, building));
         assertTrue(LocalAreaUtil.checkLocationWithinLocalBoundedObject(0D, -5.01D, building));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that collision checks and building lookups follow buildings being
+     * added, moved, turned and removed without clearing the obstacle cache.
+     */
+    public void testObstacleIndexFollowsBuildingChanges() {
+
+        // Create new simulation instance.
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation(-1);
+
+        // Clear out existing settlements in simulation.
+        UnitManager unitManager = Simulation.instance().getUnitManager();
+        Iterator<Settlement> i = unitManager.getSettlements().iterator();
+        while (i.hasNext()) {
+            unitManager.removeUnit(i.next());
+        }
+
+        // Create test settlement.
+        Settlement settlement = new MockSettlement();
+        unitManager.addUnit(settlement);
+        Coordinates loc = settlement.getCoordinates();
+        BuildingManager buildingManager = settlement.getBuildingManager();
+
+        assertTrue(LocalAreaUtil.checkLocationCollision(0D, 0D, loc));
+        assertNull(buildingManager.getBuildingAtPosition(0D, 0D));
+
+        MockBuilding building = new MockBuilding(buildingManager);
+        building.setWidth(10D);
+        building.setLength(4D);
+        building.setXLocation(0D);
+        building.setYLocation(0D);
+        building.setFacing(0D);
+        buildingManager.addBuilding(building, false);
+
+        assertFalse(LocalAreaUtil.checkLocationCollision(0D, 0D, loc));
+        assertFalse(LocalAreaUtil.checkLocationCollision(4D, 0D, loc));
+        assertTrue(LocalAreaUtil.checkLocationCollision(0D, 4D, loc));
+        assertSame(building, buildingManager.getBuildingAtPosition(4D, 0D));
+        assertFalse(LocalAreaUtil.isObjectCollisionFree(null, 2D, 2D, 5D, 0D, 45D, loc));
+        assertTrue(LocalAreaUtil.isObjectCollisionFree(building, 2D, 2D, 5D, 0D, 45D, loc));
+
+        // Turn the building.
+        building.setFacing(90D);
+
+        assertTrue(LocalAreaUtil.checkLocationCollision(4D, 0D, loc));
+        assertFalse(LocalAreaUtil.checkLocationCollision(0D, 4D, loc));
+        assertNull(buildingManager.getBuildingAtPosition(4D, 0D));
+        assertSame(building, buildingManager.getBuildingAtPosition(0D, 4D));
+        assertTrue(LocalAreaUtil.isObjectCollisionFree(null, 2D, 2D, 5D, 0D, 45D, loc));
+
+        // Move the building.
+        building.setXLocation(20D);
+
+        assertTrue(LocalAreaUtil.checkLocationCollision(0D, 4D, loc));
+        assertFalse(LocalAreaUtil.checkLinePathCollision(new Line2D.Double(10D, 0D, 30D, 0D), loc, true));
+        assertSame(building, buildingManager.getBuildingAtPosition(20D, 4D));
+
+        // Remove the building.
+        buildingManager.removeBuilding(building);
+
+        assertTrue(LocalAreaUtil.checkLocationCollision(20D, 4D, loc));
+        assertTrue(LocalAreaUtil.checkLinePathCollision(new Line2D.Double(10D, 0D, 30D, 0D), loc, true));
+        assertNull(buildingManager.getBuildingAtPosition(20D, 4D));
+    }
+}
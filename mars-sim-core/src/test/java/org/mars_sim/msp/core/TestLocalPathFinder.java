@@ -0,0 +1,116 @@
+package org.mars_sim.msp.core;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.Iterator;
+import java.util.List;
+
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.MockBuilding;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the LocalPathFinder class.
+ */
+public class TestLocalPathFinder extends TestCase {
+
+    private Settlement settlement;
+    private Coordinates loc;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        // Create new simulation instance.
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation(-1);
+
+        // Clear out existing settlements in simulation.
+        UnitManager unitManager = Simulation.instance().getUnitManager();
+        Iterator<Settlement> i = unitManager.getSettlements().iterator();
+        while (i.hasNext()) {
+            unitManager.removeUnit(i.next());
+        }
+
+        // Create test settlement.
+        settlement = new MockSettlement();
+        unitManager.addUnit(settlement);
+        loc = settlement.getCoordinates();
+
+        LocalPathFinder.clearCache();
+    }
+
+    private MockBuilding addBuilding(double xLoc, double yLoc, double facing) {
+        MockBuilding building = new MockBuilding(settlement.getBuildingManager());
+        building.setWidth(10D);
+        building.setLength(10D);
+        building.setXLocation(xLoc);
+        building.setYLocation(yLoc);
+        building.setFacing(facing);
+        settlement.getBuildingManager().addBuilding(building, false);
+        return building;
+    }
+
+    /**
+     * Test that line and location checks agree with LocalAreaUtil.
+     */
+    public void testCollisionsMatchLocalAreaUtil() {
+
+        addBuilding(0D, 0D, 0D);
+        addBuilding(-14D, 3D, 22D);
+
+        double[][] lines = {
+            { 0D, 0D, 10D, 0D }, { 0D, 5D, 10D, 5D }, { -5D, 10D, -5D, 0D }, { -6D, 10D, -6D, 0D },
+            { 6D, 10D, 6D, 0D }, { 0D, 6D, 10D, 6D }, { 10D, 1D, -20D, 0D }, { 10D, -6D, -11D, -6D },
+            { -20D, 12D, -8D, 12D }, { -20D, -4D, -8D, 10D }, { 30D, 30D, 40D, 40D }, { -9D, -2D, -9D, 2D },
+        };
+        for (double[] line : lines) {
+            boolean expected = LocalAreaUtil.checkLinePathCollision(
+                    new Line2D.Double(line[0], line[1], line[2], line[3]), loc, false);
+            assertEquals(expected, LocalPathFinder.isLineClear(new Point2D.Double(line[0], line[1]),
+                    new Point2D.Double(line[2], line[3]), loc));
+        }
+
+        for (double x = -25D; x <= 10D; x += 1.25D) {
+            for (double y = -10D; y <= 15D; y += 1.25D) {
+                assertEquals(LocalAreaUtil.checkLocationCollision(x, y, loc),
+                        LocalPathFinder.isLocationClear(x, y, loc));
+            }
+        }
+    }
+
+    /**
+     * Test that a path is found around obstacles and that moved obstacles are seen
+     * without clearing the cache.
+     */
+    public void testFindPath() {
+
+        MockBuilding building = addBuilding(0D, 0D, 0D);
+
+        Point2D start = new Point2D.Double(10D, 1D);
+        Point2D destination = new Point2D.Double(-20D, 0D);
+
+        List<Point2D> path1 = LocalPathFinder.findPath(start, destination, 7D, loc);
+        assertNotNull(path1);
+        assertEquals(4, path1.size());
+        assertEquals(start, path1.get(0));
+        assertEquals(new Point2D.Double(10D, -6D), path1.get(1));
+        assertEquals(new Point2D.Double(-4D, -6D), path1.get(2));
+        assertEquals(destination, path1.get(3));
+        for (int x = 1; x < path1.size(); x++) {
+            assertTrue(LocalPathFinder.isLineClear(path1.get(x - 1), path1.get(x), loc));
+        }
+
+        // Move the building out of the way.
+        building.setXLocation(40D);
+
+        List<Point2D> path2 = LocalPathFinder.findPath(start, destination, 7D, loc);
+        assertNotNull(path2);
+        assertEquals(2, path2.size());
+
+        // Destination within the building.
+        assertNull(LocalPathFinder.findPath(start, new Point2D.Double(40D, 0D), 7D, loc));
+    }
+}
@@ -0,0 +1,107 @@
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the LogConsolidated class.
+ */
+public class TestLogConsolidated extends TestCase {
+
+    private List<String> messages;
+    private Logger logger;
+    private long[] now;
+
+    @Override
+    protected void setUp() throws Exception {
+        now = new long[] { 1000L };
+        LogConsolidated.clock = () -> now[0];
+        messages = new ArrayList<>();
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        LogConsolidated.clock = System::currentTimeMillis;
+    }
+
+    /**
+     * Test that repeats of a key are counted and logged once the time has passed.
+     */
+    public void testSuppression() {
+        LogConsolidated.Key key = LogConsolidated.register("test");
+        int[] built = new int[1];
+        for (int i = 0; i < 5; i++) {
+            LogConsolidated.log(key, logger, Level.INFO, 1000, "org.test.Source", () -> "Message " + built[0]++, null);
+            now[0] += 100;
+        }
+        assertEquals(1, messages.size());
+        assertEquals("[x1] Source : Message 0", messages.get(0));
+        assertEquals(1, built[0]);
+
+        // 999 ms after the first message.
+        now[0] += 499;
+        LogConsolidated.log(key, logger, Level.INFO, 1000, "org.test.Source", () -> "Message " + built[0]++, null);
+        assertEquals(1, messages.size());
+
+        now[0] += 1;
+        LogConsolidated.log(key, logger, Level.INFO, 1000, "org.test.Source", () -> "Message " + built[0]++, null);
+        assertEquals(2, messages.size());
+        assertEquals("[x6] Source : Message 1", messages.get(1));
+    }
+
+    /**
+     * Test that the messages built from values are suppressed the same way.
+     */
+    public void testArguments() {
+        LogConsolidated.Key key = LogConsolidated.register("test");
+        LogConsolidated.log(key, logger, Level.INFO, 1000, "Source", "A", a -> "Message " + a, null);
+        LogConsolidated.log(key, logger, Level.INFO, 1000, "Source", "A", 1, (a, b) -> "Message " + a + b, null);
+        assertEquals(1, messages.size());
+        assertEquals("[x1] Source : Message A", messages.get(0));
+
+        now[0] += 1000;
+        LogConsolidated.log(key, logger, Level.INFO, 1000, "Source", "A", 1, (a, b) -> "Message " + a + b, null);
+        assertEquals(2, messages.size());
+        assertEquals("[x2] Source : Message A1", messages.get(1));
+    }
+
+    /**
+     * Test that nothing is built or counted below the level of the logger.
+     */
+    public void testLevel() {
+        logger.setLevel(Level.WARNING);
+        LogConsolidated.Key key = LogConsolidated.register("test");
+        LogConsolidated.log(key, logger, Level.INFO, 50, "Source", () -> {
+            fail("The message should not be built");
+            return null;
+        }, null);
+        LogConsolidated.log(logger, Level.INFO, 50, "Source", "Message", null);
+        assertEquals(0, messages.size());
+
+        LogConsolidated.log(logger, Level.WARNING, 50, "Source", "Message", null);
+        assertEquals(1, messages.size());
+        assertEquals("[x1] Source : Message", messages.get(0));
+    }
+}
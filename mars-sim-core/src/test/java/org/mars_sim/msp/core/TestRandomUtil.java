@@ -0,0 +1,65 @@
+package org.mars_sim.msp.core;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the random streams of the RandomUtil class.
+ */
+public class TestRandomUtil extends TestCase {
+
+	private static final int DRAWS = 5;
+
+	private static long[] draw() {
+		long[] result = new long[DRAWS];
+		for (int i = 0; i < DRAWS; i++) {
+			result[i] = RandomUtil.getRandomLong();
+		}
+		return result;
+	}
+
+	/**
+	 * Test that the same seed and stream give the same numbers.
+	 */
+	public void testSeed() {
+		RandomUtil.setSeed(42L);
+		long[] first = draw();
+		RandomUtil.setSeed(42L);
+		assertTrue(Arrays.equals(first, draw()));
+		assertEquals(42L, RandomUtil.getSeed());
+
+		assertEquals(RandomUtil.createStream(3L).nextLong(), RandomUtil.createStream(3L).nextLong());
+		assertFalse(RandomUtil.createStream(3L).nextLong() == RandomUtil.createStream(4L).nextLong());
+		assertFalse(RandomUtil.createGenerator(1L, 0L).nextLong() == RandomUtil.createGenerator(1L << 32, 0L).nextLong());
+	}
+
+	/**
+	 * Test that another thread drawing doesn't move the master stream on.
+	 */
+	public void testThreads() throws InterruptedException {
+		RandomUtil.setSeed(42L);
+		long[] alone = draw();
+
+		RandomUtil.setSeed(42L);
+		Thread other = new Thread(() -> draw());
+		other.start();
+		other.join();
+		assertTrue(Arrays.equals(alone, draw()));
+	}
+
+	/**
+	 * Test that a saved master stream carries on with the same numbers.
+	 */
+	public void testRestore() {
+		RandomUtil.setSeed(7L);
+		draw();
+		MersenneTwisterFast state = RandomUtil.getMasterState();
+		long[] next = draw();
+
+		RandomUtil.setSeed(8L);
+		RandomUtil.restoreRun(7L, state);
+		assertEquals(7L, RandomUtil.getSeed());
+		assertTrue(Arrays.equals(next, draw()));
+	}
+}
@@ -0,0 +1,25 @@
+package org.mars_sim.msp.core;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the SettlementTickEngine class.
+ */
+public class TestSettlementTickEngine extends TestCase {
+
+	private static final int PULSES = 60;
+
+	/**
+	 * Test that a run ticked by one worker and a run ticked by four end up in
+	 * the same state after every pulse.
+	 */
+	public void testWorkersGiveSameState() throws Exception {
+		List<String> one = TickFingerprint.fork(PULSES, 1, false);
+		List<String> four = TickFingerprint.fork(PULSES, 4, false);
+		for (int i = 0; i < PULSES; i++) {
+			assertEquals("State after pulse " + (i + 1), one.get(i), four.get(i));
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package org.mars_sim.msp.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the SnapshotBuffer class.
+ */
+public class TestSnapshotBuffer extends TestCase {
+
+    private static final int CHUNK_SIZE = 16;
+
+    /**
+     * Test that the bytes written come out in order across chunk boundaries.
+     */
+    public void testWriteTo() throws IOException {
+
+        for (int length : new int[] { 0, 5, CHUNK_SIZE, 5 * CHUNK_SIZE + 3 }) {
+            byte[] data = new byte[length];
+            for (int x = 0; x < length; x++) {
+                data[x] = (byte) x;
+            }
+
+            SnapshotBuffer buffer = new SnapshotBuffer(CHUNK_SIZE);
+            int split = Math.min(3, length);
+            for (int x = 0; x < split; x++) {
+                buffer.write(data[x]);
+            }
+            buffer.write(data, split, length - split);
+            assertEquals(length, buffer.size());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            buffer.writeTo(out);
+            assertTrue(Arrays.equals(data, out.toByteArray()));
+
+            // The buffer is released once written.
+            assertEquals(0L, buffer.size());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.mars_sim.msp.core;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the SurfacePoint class.
+ */
+public class TestSurfacePoint extends TestCase {
+
+	private static final double ERROR_MARGIN_KM = .000001D;
+	private static final double ERROR_MARGIN_RAD = .000000001D;
+
+	/**
+	 * Computes the arc angle from the angles themselves, with Vincenty's formula.
+	 */
+	private static double vincenty(double phi1, double theta1, double phi2, double theta2) {
+		double lat1 = (Math.PI / 2D) - phi1;
+		double lat2 = (Math.PI / 2D) - phi2;
+		double diffTheta = Math.abs(theta1 - theta2);
+		double y = Math.hypot(Math.cos(lat2) * Math.sin(diffTheta),
+				Math.cos(lat1) * Math.sin(lat2) - Math.sin(lat1) * Math.cos(lat2) * Math.cos(diffTheta));
+		double x = Math.sin(lat1) * Math.sin(lat2) + Math.cos(lat1) * Math.cos(lat2) * Math.cos(diffTheta);
+		return Math.atan2(y, x);
+	}
+
+	/**
+	 * Test that the cached kernels agree with the formula on the angles, one
+	 * point at a time and in a batch.
+	 */
+	public void testDistances() {
+		Random random = new Random(42L);
+		SurfacePoint origin = new SurfacePoint(1.1D, 5.9D);
+		SurfacePoint[] points = new SurfacePoint[100];
+		Coordinates[] coordinates = new Coordinates[points.length];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new SurfacePoint(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI * 2D);
+			coordinates[i] = new Coordinates(points[i].getPhi(), points[i].getTheta());
+		}
+
+		double[] distances = new double[points.length];
+		origin.getDistances(points, distances);
+		double[] coordinateDistances = new double[points.length];
+		new Coordinates(origin.getPhi(), origin.getTheta()).getDistances(coordinates, coordinateDistances);
+
+		for (int i = 0; i < points.length; i++) {
+			double angle = vincenty(origin.getPhi(), origin.getTheta(), points[i].getPhi(), points[i].getTheta());
+			assertEquals(angle, origin.getAngle(points[i]), ERROR_MARGIN_RAD);
+			assertEquals(origin.getDistance(points[i]), distances[i], ERROR_MARGIN_KM);
+			assertEquals(distances[i], coordinateDistances[i], ERROR_MARGIN_KM);
+		}
+	}
+
+	/**
+	 * Test that the angles are normalized as in Coordinates.
+	 */
+	public void testNormalize() {
+		SurfacePoint point = new SurfacePoint(-1D, -Math.PI / 2D);
+		assertEquals(0D, point.getPhi());
+		assertEquals(3D * Math.PI / 2D, point.getTheta(), ERROR_MARGIN_RAD);
+		assertEquals(point, new Coordinates(-1D, -Math.PI / 2D).toSurfacePoint());
+	}
+}
@@ -0,0 +1,180 @@
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the UnitEventBus class.
+ */
+public class TestUnitEventBus extends TestCase {
+
+    private UnitEventBus bus;
+    private List<UnitEvent> received;
+    private int batches;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bus = new UnitEventBus(4);
+        received = new ArrayList<>();
+        batches = 0;
+    }
+
+    private UnitEventBus.Subscription subscribe(UnitEventType... types) {
+        return bus.subscribe(events -> {
+            batches++;
+            received.addAll(events);
+        }, types);
+    }
+
+    /**
+     * Test that only the subscribed types are delivered, in one batch per drain.
+     */
+    public void testFilterByType() {
+        Unit unit = new MockUnit1();
+        assertFalse(bus.isSubscribed(UnitEventType.MASS_EVENT));
+        subscribe(UnitEventType.MASS_EVENT);
+        assertTrue(bus.isSubscribed(UnitEventType.MASS_EVENT));
+
+        bus.publish(unit, UnitEventType.NAME_EVENT, null);
+        bus.publish(unit, UnitEventType.MASS_EVENT, null);
+        bus.drain();
+
+        assertEquals(1, batches);
+        assertEquals(1, received.size());
+        assertSame(unit, received.get(0).getSource());
+        assertEquals(UnitEventType.MASS_EVENT, received.get(0).getType());
+
+        // Nothing pending, nothing delivered.
+        bus.drain();
+        assertEquals(1, batches);
+    }
+
+    /**
+     * Test that repeated events of a unit, type and target between drains are
+     * delivered once.
+     */
+    public void testCoalesce() {
+        Unit unit1 = new MockUnit1();
+        Unit unit2 = new MockUnit2();
+        subscribe(UnitEventType.LOCATION_EVENT, UnitEventType.MASS_EVENT);
+
+        for (int x = 0; x < 10; x++) {
+            bus.publish(unit1, UnitEventType.LOCATION_EVENT, "here");
+            bus.publish(unit2, UnitEventType.LOCATION_EVENT, "there");
+        }
+        bus.publish(unit1, UnitEventType.MASS_EVENT, null);
+        bus.drain();
+
+        assertEquals(3, received.size());
+        for (UnitEvent event : received) {
+            if (event.getType() == UnitEventType.LOCATION_EVENT)
+                assertEquals(event.getSource() == unit1 ? "here" : "there", event.getTarget());
+        }
+
+        // Events after a drain are delivered again.
+        received.clear();
+        bus.publish(unit1, UnitEventType.LOCATION_EVENT, 10);
+        bus.drain();
+        assertEquals(1, received.size());
+        assertEquals(10, received.get(0).getTarget());
+    }
+
+    /**
+     * Test that events of a unit and type with different targets are each
+     * delivered once, in the order they were first fired.
+     */
+    public void testDistinctTargets() {
+        Unit unit = new MockUnit1();
+        subscribe(UnitEventType.INVENTORY_RESOURCE_EVENT);
+
+        for (int x = 0; x < 3; x++) {
+            bus.publish(unit, UnitEventType.INVENTORY_RESOURCE_EVENT, "oxygen");
+            bus.publish(unit, UnitEventType.INVENTORY_RESOURCE_EVENT, "water");
+            bus.publish(unit, UnitEventType.INVENTORY_RESOURCE_EVENT, "food");
+        }
+        bus.drain();
+
+        assertEquals(1, batches);
+        assertEquals(3, received.size());
+        assertEquals("oxygen", received.get(0).getTarget());
+        assertEquals("water", received.get(1).getTarget());
+        assertEquals("food", received.get(2).getTarget());
+
+        // The targets of a batch don't carry over to the next.
+        received.clear();
+        bus.publish(unit, UnitEventType.INVENTORY_RESOURCE_EVENT, "water");
+        bus.drain();
+        assertEquals(1, received.size());
+        assertEquals("water", received.get(0).getTarget());
+    }
+
+    /**
+     * Test that a null target, standing for the whole unit, takes the place of
+     * the other targets fired before or after it.
+     */
+    public void testNullTargetTakesPrecedence() {
+        Unit unit1 = new MockUnit1();
+        Unit unit2 = new MockUnit2();
+        subscribe(UnitEventType.INVENTORY_RESOURCE_EVENT);
+
+        bus.publish(unit1, UnitEventType.INVENTORY_RESOURCE_EVENT, "oxygen");
+        bus.publish(unit1, UnitEventType.INVENTORY_RESOURCE_EVENT, "water");
+        bus.publish(unit1, UnitEventType.INVENTORY_RESOURCE_EVENT, null);
+        bus.publish(unit2, UnitEventType.INVENTORY_RESOURCE_EVENT, null);
+        bus.publish(unit2, UnitEventType.INVENTORY_RESOURCE_EVENT, "oxygen");
+        bus.drain();
+
+        assertEquals(2, received.size());
+        assertSame(unit1, received.get(0).getSource());
+        assertNull(received.get(0).getTarget());
+        assertSame(unit2, received.get(1).getSource());
+        assertNull(received.get(1).getTarget());
+
+        // A target after the drain is delivered as such.
+        received.clear();
+        bus.publish(unit1, UnitEventType.INVENTORY_RESOURCE_EVENT, "food");
+        bus.drain();
+        assertEquals(1, received.size());
+        assertEquals("food", received.get(0).getTarget());
+    }
+
+    /**
+     * Test that a full ring buffer defers the events of a unit to its next event.
+     */
+    public void testFullBuffer() {
+        subscribe(UnitEventType.MASS_EVENT);
+        List<Unit> units = new ArrayList<>();
+        for (int x = 0; x < 5; x++) {
+            Unit unit = new MockUnit1();
+            units.add(unit);
+            bus.publish(unit, UnitEventType.MASS_EVENT, null);
+        }
+        assertEquals(1, bus.getDroppedCount());
+        bus.drain();
+        assertEquals(4, received.size());
+
+        received.clear();
+        bus.publish(units.get(4), UnitEventType.MASS_EVENT, null);
+        bus.drain();
+        assertEquals(1, received.size());
+        assertSame(units.get(4), received.get(0).getSource());
+    }
+
+    /**
+     * Test that a cancelled subscription gets no more events.
+     */
+    public void testCancel() {
+        Unit unit = new MockUnit1();
+        UnitEventBus.Subscription subscription = subscribe(UnitEventType.MASS_EVENT);
+        subscription.cancel();
+        subscription.cancel();
+        assertFalse(bus.isSubscribed(UnitEventType.MASS_EVENT));
+
+        bus.publish(unit, UnitEventType.MASS_EVENT, null);
+        bus.drain();
+        assertEquals(0, batches);
+    }
+}
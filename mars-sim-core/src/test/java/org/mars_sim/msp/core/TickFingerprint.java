@@ -0,0 +1,143 @@
+/**
+ * Mars Simulation Project
+ * TickFingerprint.java
+ * @version 3.1.0 2018-08-21
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.PhysicalCondition;
+import org.mars_sim.msp.core.person.ai.task.TaskManager;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
+
+/**
+ * Runs a new simulation from a fixed seed for a number of pulses and prints the
+ * state of the people, settlements and buildings after each pulse.
+ * <br>
+ * Each run goes in a JVM of its own, since unit identifiers and many caches
+ * are static and would carry over from one run to the next.
+ */
+public class TickFingerprint {
+
+	private static final String BEGIN = "FINGERPRINT-BEGIN";
+	private static final String END = "FINGERPRINT-END";
+
+	/** The seed of every run. */
+	private static final long SEED = 1234L;
+
+	/**
+	 * Runs a simulation in a new JVM and gets its fingerprints.
+	 *
+	 * @param pulses             the number of pulses
+	 * @param threads            the number of tick threads, 0 for serial.
+	 * @param parallelEvaluation true if the task probabilities are worked out in
+	 *                           parallel.
+	 * @return the fingerprint of each pulse.
+	 */
+	public static List<String> fork(int pulses, int threads, boolean parallelEvaluation)
+			throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				TickFingerprint.class.getName(), Integer.toString(pulses), Integer.toString(threads),
+				Boolean.toString(parallelEvaluation));
+		builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+		Process process = builder.start();
+
+		List<String> result = new ArrayList<>();
+		boolean inside = false;
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.equals(BEGIN))
+					inside = true;
+				else if (line.equals(END))
+					inside = false;
+				else if (inside)
+					result.add(line);
+			}
+		}
+		int exit = process.waitFor();
+		if (exit != 0 || result.size() != pulses)
+			throw new IllegalStateException("Run with " + threads + " thread(s) exited with " + exit + " after "
+					+ result.size() + " of " + pulses + " pulses");
+		return result;
+	}
+
+	/**
+	 * Gets the fingerprint of the simulation.
+	 *
+	 * @param sim the simulation
+	 * @return fingerprint
+	 */
+	private static String fingerprint(Simulation sim) {
+		StringBuilder sb = new StringBuilder();
+
+		List<Person> people = new ArrayList<>(sim.getUnitManager().getPeople());
+		people.sort(Comparator.comparing(Person::getName));
+		for (Person p : people) {
+			PhysicalCondition condition = p.getPhysicalCondition();
+			TaskManager manager = p.getMind().getTaskManager();
+			sb.append(p.getName()).append(':').append(manager.getTaskName()).append(':').append(manager.getPhase())
+					.append(':').append(p.getXLocation()).append(',').append(p.getYLocation()).append(':')
+					.append(condition.getFatigue()).append(',').append(condition.getHunger()).append(',')
+					.append(condition.getThirst()).append(',').append(condition.getStress()).append(',')
+					.append(condition.getEnergy()).append(';');
+		}
+
+		List<Settlement> settlements = new ArrayList<>(sim.getUnitManager().getSettlements());
+		settlements.sort(Comparator.comparing(Settlement::getName));
+		for (Settlement s : settlements) {
+			Inventory inv = s.getInventory();
+			sb.append(s.getName()).append(':').append(s.getOutsideTemperature());
+			for (Integer resource : new TreeSet<>(inv.getAllARStored(false)))
+				sb.append(',').append(resource).append('=').append(inv.getAmountResourceStored(resource, false));
+			sb.append(';');
+			for (Building b : s.getBuildingManager().getBuildings()) {
+				sb.append(b.getNickName()).append(':').append(b.getPowerMode()).append(',')
+						.append(b.getCurrentTemperature()).append(';');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Runs the simulation and prints the fingerprints.
+	 *
+	 * @param args the number of pulses, the number of tick threads and whether
+	 *             to work out the task probabilities in parallel.
+	 */
+	public static void main(String[] args) throws Exception {
+		int pulses = Integer.parseInt(args[0]);
+		UnitManager.setTickThreads(Integer.parseInt(args[1]));
+		TaskManager.setParallelEvaluation(Boolean.parseBoolean(args[2]));
+
+		SimulationConfig.loadConfig();
+		RandomUtil.setSeed(SEED);
+		Simulation.createNewSimulation(-1);
+		Simulation sim = Simulation.instance();
+
+		List<String> prints = new ArrayList<>(pulses);
+		for (int i = 0; i < pulses; i++) {
+			sim.getMasterClock().getMarsClock().addTime(1D);
+			sim.clockPulse(1D);
+			prints.add(fingerprint(sim));
+		}
+
+		System.out.println(BEGIN);
+		for (String print : prints)
+			System.out.println(print);
+		System.out.println(END);
+		System.exit(0);
+	}
+}
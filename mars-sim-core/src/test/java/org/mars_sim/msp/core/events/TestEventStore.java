@@ -0,0 +1,81 @@
+package org.mars_sim.msp.core.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.mars_sim.msp.core.person.EventType;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the EventStore class.
+ */
+public class TestEventStore extends TestCase {
+
+	private static final byte MALFUNCTION = (byte) HistoricalEventCategory.MALFUNCTION.ordinal();
+	private static final byte MEDICAL = (byte) HistoricalEventCategory.MEDICAL.ordinal();
+	private static final byte STARTS = (byte) EventType.MEDICAL_STARTS.ordinal();
+	private static final byte DEATH = (byte) EventType.MEDICAL_DEATH.ordinal();
+
+	/**
+	 * Test that events read back with their strings.
+	 */
+	public void testAdd() {
+		EventStore store = new EventStore(10);
+		store.add((short) 1, 100F, MEDICAL, STARTS, "Cold", "Walking", "Alice", "Lander Hab", "Alpha Base");
+		store.add((short) 1, 200F, MEDICAL, DEATH, "Cold", "Resting", "Bob", "Lander Hab", "Beta Base");
+
+		SimpleEvent event = store.get(1);
+		assertEquals(2, store.size());
+		assertEquals(1, event.getSol());
+		assertEquals(DEATH, event.getType());
+		assertEquals("Cold", store.getWhat(event.getWhat()));
+		assertEquals("Resting", store.getWhileDoing(event.getWhileDoing()));
+		assertEquals("Bob", store.getWho(event.getWho()));
+		assertEquals("Lander Hab", store.getLoc0(event.getLoc0()));
+		assertEquals("Beta Base", store.getLoc1(event.getLoc1()));
+		assertEquals(store.get(0).getWhat(), event.getWhat());
+	}
+
+	/**
+	 * Test the queries by category, type, settlement and sol.
+	 */
+	public void testFind() {
+		EventStore store = new EventStore(10);
+		store.add((short) 1, 100F, MEDICAL, STARTS, "Cold", "", "Alice", "", "Alpha Base");
+		store.add((short) 1, 200F, MALFUNCTION, (byte) 0, "Fire", "", "Bob", "", "Beta Base");
+		store.add((short) 2, 300F, MEDICAL, DEATH, "Cold", "", "Alice", "", "Alpha Base");
+		store.add((short) 4, 400F, MALFUNCTION, (byte) 0, "Leak", "", "Bob", "", "Alpha Base");
+
+		assertTrue(Arrays.equals(new int[] { 3, 2, 1 }, store.find(
+				Collections.singletonList(HistoricalEventCategory.MALFUNCTION), Collections.singletonList(DEATH))));
+		assertTrue(Arrays.equals(new int[] { 3, 1 }, store.find(
+				Collections.singletonList(HistoricalEventCategory.MALFUNCTION), Collections.<Byte>emptyList())));
+		assertTrue(Arrays.equals(new int[] { 3, 2, 0 }, store.findAtSettlement("Alpha Base")));
+		assertEquals(0, store.findAtSettlement("Gamma Base").length);
+		assertTrue(Arrays.equals(new int[] { 1, 0 }, store.findOnSol(1)));
+		assertEquals(0, store.findOnSol(3).length);
+		assertTrue(Arrays.equals(new int[] { 3 }, store.findOnSol(4)));
+	}
+
+	/**
+	 * Test that events beyond the window are dropped from the queries but can
+	 * still be read back.
+	 */
+	public void testSpill() {
+		EventStore store = new EventStore(3);
+		for (int x = 0; x < 10; x++)
+			store.add((short) x, x, MEDICAL, STARTS, "Cold " + x, "", "Alice", "", "Alpha Base");
+
+		assertEquals(10, store.size());
+		assertTrue(Arrays.equals(new int[] { 9, 8, 7 }, store.findAtSettlement("Alpha Base")));
+		assertEquals(0, store.findOnSol(2).length);
+
+		for (int x = 0; x < 10; x++) {
+			SimpleEvent event = store.get(x);
+			assertEquals(x, event.getSol());
+			assertEquals("Cold " + x, store.getWhat(event.getWhat()));
+		}
+		store.close();
+	}
+}
@@ -0,0 +1,110 @@
+package org.mars_sim.msp.core.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+
+import org.mars_sim.msp.core.person.EventType;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for loading the HistoricalEventManager class from a saved
+ * simulation.
+ */
+public class TestHistoricalEventManager extends TestCase {
+
+	private static final byte MEDICAL = (byte) HistoricalEventCategory.MEDICAL.ordinal();
+	private static final byte MALFUNCTION = (byte) HistoricalEventCategory.MALFUNCTION.ordinal();
+	private static final byte STARTS = (byte) EventType.MEDICAL_STARTS.ordinal();
+	private static final byte DEATH = (byte) EventType.MEDICAL_DEATH.ordinal();
+
+	/**
+	 * Test that the events of a save made before the event store are kept.
+	 */
+	public void testLoadOldEvents() throws Exception {
+		org.mars_sim.msp.core.events.saved.HistoricalEventManager old =
+				new org.mars_sim.msp.core.events.saved.HistoricalEventManager();
+		old.add((short) 1, 100F, MEDICAL, STARTS, "Cold", "Walking", "Alice", "Lander Hab", "Alpha Base");
+		old.add((short) 1, 200F, MALFUNCTION, (byte) 0, "Fire", "Resting", "Bob", "Garage", "Beta Base");
+		old.add((short) 2, 300F, MEDICAL, DEATH, "Cold", "Resting", "Alice", "Lander Hab", "Alpha Base");
+
+		HistoricalEventManager manager = load(old);
+
+		assertEquals(3, manager.size());
+		SimpleEvent recent = manager.getEvent(0);
+		assertEquals(2, recent.getSol());
+		assertEquals(300F, recent.getMsol());
+		assertEquals(MEDICAL, recent.getCat());
+		assertEquals(DEATH, recent.getType());
+		assertEquals("Cold", manager.getWhat(recent.getWhat()));
+		assertEquals("Resting", manager.getWhileDoing(recent.getWhileDoing()));
+		assertEquals("Alice", manager.getWho(recent.getWho()));
+		assertEquals("Lander Hab", manager.getLoc0(recent.getLoc0()));
+		assertEquals("Alpha Base", manager.getLoc1(recent.getLoc1()));
+
+		SimpleEvent oldest = manager.getEvent(2);
+		assertEquals(100F, oldest.getMsol());
+		assertEquals(STARTS, oldest.getType());
+		assertEquals("Walking", manager.getWhileDoing(oldest.getWhileDoing()));
+
+		assertEquals(2, manager.getSettlementEvents("Alpha Base").size());
+		assertEquals("Bob", manager.getWho(manager.getSettlementEvents("Beta Base").get(0).getWho()));
+		assertEquals(2, manager.getSolEvents(1).size());
+	}
+
+	/**
+	 * Test that a save made with the event store is loaded as it was.
+	 */
+	public void testLoadEventStore() throws Exception {
+		HistoricalEventManager manager = new HistoricalEventManager();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(manager);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		HistoricalEventManager loaded = (HistoricalEventManager) in.readObject();
+		in.close();
+
+		assertEquals(0, loaded.size());
+		assertEquals(manager.getWindowSize(), loaded.getWindowSize());
+	}
+
+	/**
+	 * Saves an old manager and loads it as the current one.
+	 * @param old the old manager.
+	 * @return the manager loaded.
+	 */
+	private static HistoricalEventManager load(Object old) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(old);
+		out.close();
+		ObjectInputStream in = new OldClassInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		HistoricalEventManager result = (HistoricalEventManager) in.readObject();
+		in.close();
+		return result;
+	}
+
+	/**
+	 * Reads the old manager of a save as the current class.
+	 */
+	private static class OldClassInputStream extends ObjectInputStream {
+
+		OldClassInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (desc.getName().equals(org.mars_sim.msp.core.events.saved.HistoricalEventManager.class.getName())) {
+				return HistoricalEventManager.class;
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.mars_sim.msp.core.events.saved;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.events.SimpleEvent;
+import org.mars_sim.msp.core.narrator.Narrator;
+import org.mars_sim.msp.core.time.MarsClock;
+
+/**
+ * The fields of the historical event manager as saved before the events were
+ * kept in an event store, for writing saves of that version in tests.
+ */
+public class HistoricalEventManager implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	private Narrator narrator;
+
+	private MarsClock marsClock;
+
+	private List<SimpleEvent> eventsRegistry = new ArrayList<>();
+
+	private List<String> whatList = new ArrayList<>();
+	private List<String> whileDoingList = new ArrayList<>();
+	private List<String> whoList = new ArrayList<>();
+	private List<String> loc0List = new ArrayList<>();
+	private List<String> loc1List = new ArrayList<>();
+
+	/**
+	 * Adds an event the way the old manager did, most recent first.
+	 */
+	public void add(short missionSol, float millisols, byte cat, byte type, String what, String whileDoing,
+			String who, String loc0, String loc1) {
+		eventsRegistry.add(0, new SimpleEvent(missionSol, millisols, cat, type, getID(whatList, what),
+				getID(whileDoingList, whileDoing), getID(whoList, who), getID(loc0List, loc0),
+				getID(loc1List, loc1)));
+	}
+
+	private static short getID(List<String> list, String s) {
+		if (!list.contains(s))
+			list.add(s);
+		return (short) list.indexOf(s);
+	}
+}
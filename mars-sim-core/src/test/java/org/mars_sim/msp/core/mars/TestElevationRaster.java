@@ -0,0 +1,126 @@
+package org.mars_sim.msp.core.mars;
+
+import java.awt.Color;
+import java.awt.Image;
+
+import org.mars_sim.mapdata.MapData;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the ElevationRaster class.
+ */
+public class TestElevationRaster extends TestCase {
+
+    private static final int BLUE = Color.BLUE.getRGB();
+    private static final int GREEN = Color.GREEN.getRGB();
+
+    /** Elevations of the test colors (km), as stored to the meter. */
+    private static final double BLUE_KM = Math.round(ElevationRaster.decodeElevation(2F / 3F, 1F)) / 1000D;
+    private static final double GREEN_KM = Math.round(ElevationRaster.decodeElevation(1F / 3F, 1F)) / 1000D;
+
+    private static final double DELTA = .000001D;
+
+    /**
+     * Test that the rows are interpolated between and clamped at the poles.
+     */
+    public void testRows() {
+        ElevationRaster raster = new ElevationRaster(new GridMapData(new int[][] {
+            { BLUE, BLUE, BLUE, BLUE },
+            { GREEN, GREEN, GREEN, GREEN, GREEN, GREEN, GREEN, GREEN },
+            { BLUE, BLUE, BLUE, BLUE }
+        }));
+        double rowAngle = Math.PI / 3D;
+
+        assertEquals(BLUE_KM, raster.getElevation(0D, 1D), DELTA);
+        assertEquals(GREEN_KM, raster.getElevation(rowAngle, 1D), DELTA);
+        assertEquals((BLUE_KM + GREEN_KM) / 2D, raster.getElevation(rowAngle / 2D, 1D), DELTA);
+        assertEquals(BLUE_KM, raster.getElevation(Math.PI, 1D), DELTA);
+    }
+
+    /**
+     * Test that the columns are interpolated between, wrapping around the planet.
+     */
+    public void testColumns() {
+        ElevationRaster raster = new ElevationRaster(new GridMapData(new int[][] {
+            { BLUE, GREEN, BLUE, GREEN }
+        }));
+        double columnAngle = Math.PI / 2D;
+
+        // The first column is at theta PI.
+        assertEquals(BLUE_KM, raster.getElevation(0D, Math.PI), DELTA);
+        assertEquals(GREEN_KM, raster.getElevation(0D, Math.PI + columnAngle), DELTA);
+        assertEquals((BLUE_KM + GREEN_KM) / 2D, raster.getElevation(0D, Math.PI + columnAngle / 2D), DELTA);
+
+        // Between the last and the first column.
+        assertEquals((BLUE_KM + GREEN_KM) / 2D, raster.getElevation(0D, Math.PI - columnAngle / 2D), DELTA);
+        assertEquals(raster.getElevation(0D, 1D), raster.getElevation(0D, 1D + 2D * Math.PI), DELTA);
+    }
+
+    /**
+     * Test that the slope is the rate of change of the elevation in the given
+     * direction, compared with elevations a few meters each way.
+     */
+    public void testSlope() {
+        int red = Color.RED.getRGB();
+        int cyan = Color.CYAN.getRGB();
+        ElevationRaster raster = new ElevationRaster(new GridMapData(new int[][] {
+            { BLUE, GREEN, red },
+            { GREEN, cyan, BLUE, red, GREEN, cyan },
+            { red, BLUE, cyan, GREEN, BLUE },
+            { cyan, red, GREEN, BLUE }
+        }));
+
+        double step = .001D;
+        double[][] locations = { { .9D, .3D }, { 1.7D, 2.2D }, { 2.3D, 5.1D }, { 1.2D, 4.4D } };
+        for (double[] location : locations) {
+            double phi = location[0];
+            double theta = location[1];
+            for (int x = 0; x < 8; x++) {
+                double direction = x * Math.PI / 4D + .1D;
+                double sin = Math.sin(direction);
+                double cos = Math.cos(direction);
+                double dPhi = -cos * step / Mars.MARS_RADIUS_KM;
+                double dTheta = sin * step / (Mars.MARS_RADIUS_KM * Math.sin(phi));
+                double expected = (raster.getElevation(phi + dPhi, theta + dTheta)
+                        - raster.getElevation(phi - dPhi, theta - dTheta)) / (2D * step);
+                assertEquals(expected, raster.getSlope(phi, theta, sin, cos), 1E-6);
+            }
+        }
+
+        // Uphill one way is downhill the other.
+        assertEquals(-raster.getSlope(1D, 1D, .6D, .8D), raster.getSlope(1D, 1D, -.6D, -.8D), DELTA);
+    }
+
+    /**
+     * Map data with the given rows of colors.
+     */
+    private static class GridMapData implements MapData {
+
+        private final int[][] rows;
+
+        GridMapData(int[][] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Image getMapImage(double centerPhi, double centerTheta) {
+            return null;
+        }
+
+        @Override
+        public Color getRGBColor(double phi, double theta) {
+            return null;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.length;
+        }
+
+        @Override
+        public int[] getRGBRow(int row) {
+            return rows[row];
+        }
+    }
+}
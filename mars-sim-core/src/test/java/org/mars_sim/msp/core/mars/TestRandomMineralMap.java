@@ -0,0 +1,157 @@
+package org.mars_sim.msp.core.mars;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.mars_sim.msp.core.Coordinates;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the RandomMineralMap class, comparing its indexed lookups
+ * with a scan of every mineral concentration.
+ */
+public class TestRandomMineralMap extends TestCase {
+
+    private static final String[] TYPES = { "Hematite", "Olivine", "Kamacite" };
+
+    private static final double DELTA = .000000001D;
+
+    private RandomMineralMap map;
+    private List<Coordinates> locations;
+    private List<Double> concentrations;
+    private List<String> types;
+    private Random random;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        map = new RandomMineralMap(2000);
+        locations = new ArrayList<>();
+        concentrations = new ArrayList<>();
+        types = new ArrayList<>();
+        random = new Random(42L);
+
+        for (int x = 0; x < 2000; x++) {
+            double phi;
+            double theta;
+            if (x % 10 == 0) {
+                // Near a pole.
+                phi = random.nextDouble() * .1D;
+                if (x % 20 == 0)
+                    phi = Math.PI - phi;
+                theta = random.nextDouble() * 2D * Math.PI;
+            } else if (x % 10 == 1) {
+                // Near theta 0.
+                phi = random.nextDouble() * Math.PI;
+                theta = random.nextDouble() * .1D;
+                if (x % 20 == 1)
+                    theta = 2D * Math.PI - theta;
+            } else {
+                phi = random.nextDouble() * Math.PI;
+                theta = random.nextDouble() * 2D * Math.PI;
+            }
+            add(new Coordinates(phi, theta), random.nextDouble() * 100D, TYPES[x % TYPES.length]);
+        }
+    }
+
+    private void add(Coordinates location, double concentration, String type) {
+        map.addMineralConcentration(location, concentration, type);
+        locations.add(location);
+        concentrations.add(concentration);
+        types.add(type);
+    }
+
+    /**
+     * Gets the query locations : random ones and ones near the concentrations.
+     */
+    private List<Coordinates> getQueryLocations() {
+        List<Coordinates> result = new ArrayList<>();
+        for (int x = 0; x < 2000; x++)
+            result.add(new Coordinates(random.nextDouble() * Math.PI, random.nextDouble() * 2D * Math.PI));
+        for (Coordinates location : locations) {
+            double phi = location.getPhi() + (random.nextDouble() - .5D) * .02D;
+            double theta = location.getTheta() + (random.nextDouble() - .5D) * .02D;
+            phi = Math.min(Math.PI, Math.max(0D, phi));
+            theta = (theta + 2D * Math.PI) % (2D * Math.PI);
+            result.add(new Coordinates(phi, theta));
+        }
+        return result;
+    }
+
+    /**
+     * The effect of a concentration on a location, as RandomMineralMap works it out.
+     */
+    private double getEffect(int index, Coordinates location) {
+        Coordinates center = locations.get(index);
+        double concentration = concentrations.get(index);
+        double phiDiff = Math.abs(location.getPhi() - center.getPhi());
+        double thetaDiff = Math.abs(location.getTheta() - center.getTheta());
+        double diffLimit = .04D;
+        if ((center.getPhi() < Math.PI / 7D) || center.getPhi() > Math.PI - (Math.PI / 7D))
+            diffLimit += Math.abs(Math.cos(center.getPhi()));
+        if ((phiDiff < diffLimit) && (thetaDiff < diffLimit)) {
+            double distance = location.getDistance(center);
+            if (distance < concentration)
+                return (1D - (distance / concentration)) * concentration;
+        }
+        return 0D;
+    }
+
+    /**
+     * Test that the concentrations at a location match a scan of them all.
+     */
+    public void testConcentrations() {
+        int found = 0;
+        for (Coordinates location : getQueryLocations()) {
+            Map<String, Double> expected = new HashMap<>();
+            for (int x = 0; x < locations.size(); x++) {
+                double effect = getEffect(x, location);
+                if (effect > 0D) {
+                    Double total = expected.get(types.get(x));
+                    expected.put(types.get(x), Math.min(100D, (total == null ? 0D : total) + effect));
+                }
+            }
+
+            Map<String, Double> actual = map.getAllMineralConcentrations(location);
+            assertEquals(location.toString(), expected.keySet(), actual.keySet());
+            for (String type : TYPES) {
+                double value = expected.containsKey(type) ? expected.get(type) : 0D;
+                if (value > 0D)
+                    assertEquals(value, actual.get(type), DELTA);
+                assertEquals(value, map.getMineralConcentration(type, location), DELTA);
+            }
+            if (!expected.isEmpty())
+                found++;
+        }
+        assertTrue("Too few locations with minerals : " + found, found > 1000);
+    }
+
+    /**
+     * Test that a random mineral location is found within range whenever a scan
+     * finds a concentration in reach.
+     */
+    public void testFindRandomMineralLocation() {
+        int found = 0;
+        int x = 0;
+        for (Coordinates start : getQueryLocations()) {
+            double range = (x++ % 4) * 50D;
+            boolean expected = false;
+            for (int y = 0; y < locations.size() && !expected; y++) {
+                if (range > (start.getDistance(locations.get(y)) - concentrations.get(y)))
+                    expected = true;
+            }
+
+            Coordinates result = map.findRandomMineralLocation(start, range);
+            assertEquals(start.toString() + " " + range, expected, result != null);
+            if (result != null) {
+                assertTrue(start.getDistance(result) <= range + .001D);
+                found++;
+            }
+        }
+        assertTrue("Too few locations with minerals in reach : " + found, found > 1000);
+    }
+}
@@ -0,0 +1,60 @@
+package org.mars_sim.msp.core.mars;
+
+import org.mars_sim.msp.core.Coordinates;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the WeatherCellMap class.
+ */
+public class TestWeatherCellMap extends TestCase {
+
+    /**
+     * Test that nearby locations share a cell and distant ones don't.
+     */
+    public void testCells() {
+        WeatherCellMap<String> map = new WeatherCellMap<String>(10);
+        Coordinates location = new Coordinates(1.00001D, 2.00001D);
+        map.put(location, "a");
+
+        assertEquals("a", map.get(new Coordinates(1.00002D, 2.00002D)));
+        assertNull(map.get(new Coordinates(1.1D, 2D)));
+        assertNull(map.get(new Coordinates(1D, 2.1D)));
+
+        map.put(new Coordinates(1.00002D, 2.00002D), "b");
+        assertEquals(1, map.size());
+        assertEquals("b", map.get(location));
+    }
+
+    /**
+     * Test that the least recently used cell is dropped when the map is full.
+     */
+    public void testEviction() {
+        WeatherCellMap<String> map = new WeatherCellMap<String>(2);
+        Coordinates first = new Coordinates(1D, 1D);
+        Coordinates second = new Coordinates(1D, 2D);
+        Coordinates third = new Coordinates(1D, 3D);
+
+        map.put(first, "first");
+        map.put(second, "second");
+        map.get(first);
+        map.put(third, "third");
+
+        assertEquals(2, map.size());
+        assertEquals("first", map.get(first));
+        assertNull(map.get(second));
+        assertEquals("third", map.get(third));
+    }
+
+    /**
+     * Test that the poles and the end of the longitudes are in the grid.
+     */
+    public void testEdges() {
+        WeatherCellMap<String> map = new WeatherCellMap<String>(10);
+        map.put(new Coordinates(Math.PI, 0D), "south");
+        map.put(new Coordinates(1D, Math.PI * 2D - .000001D), "east");
+
+        assertEquals("south", map.get(new Coordinates(Math.PI - .0001D, .0001D)));
+        assertEquals("east", map.get(new Coordinates(1D, Math.PI * 2D - .0001D)));
+    }
+}
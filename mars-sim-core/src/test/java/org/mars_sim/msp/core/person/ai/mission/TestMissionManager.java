@@ -0,0 +1,248 @@
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.UnitManager;
+import org.mars_sim.msp.core.person.GenderType;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.ai.task.OperateVehicle;
+import org.mars_sim.msp.core.person.ai.task.TaskPhase;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.vehicle.MockVehicle;
+import org.mars_sim.msp.core.vehicle.Vehicle;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the mission indexes of the MissionManager class.
+ */
+public class TestMissionManager extends TestCase {
+
+	private MissionManager missionManager;
+	private Settlement settlement;
+	private Person person1;
+	private Person person2;
+	private Vehicle vehicle1;
+	private Vehicle vehicle2;
+
+	@Override
+	protected void setUp() throws Exception {
+		// Create new simulation instance.
+		SimulationConfig.loadConfig();
+		Simulation.createNewSimulation(-1);
+
+		// Clear out existing settlements in simulation.
+		UnitManager unitManager = Simulation.instance().getUnitManager();
+		Iterator<Settlement> i = unitManager.getSettlements().iterator();
+		while (i.hasNext()) {
+			unitManager.removeUnit(i.next());
+		}
+
+		settlement = new MockSettlement();
+		unitManager.addUnit(settlement);
+
+		person1 = createPerson("test person 1");
+		person2 = createPerson("test person 2");
+		vehicle1 = new MockVehicle(settlement);
+		vehicle2 = new MockVehicle(settlement);
+
+		missionManager = new MissionManager();
+	}
+
+	/**
+	 * Creates a person outside of the settlement.
+	 * @param name the name of the person.
+	 * @return the person.
+	 */
+	private Person createPerson(String name) {
+		Person person = Person.create(name, settlement)
+								.setGender(GenderType.MALE)
+								.setCountry(null)
+								.setSponsor("Mars Society (MS)")
+								.build();
+		person.initialize();
+		settlement.getInventory().retrieveUnit(person);
+		return person;
+	}
+
+	/**
+	 * Creates a mission and adds it to the mission manager.
+	 * @param vehicle the vehicle of the mission.
+	 * @return the mission.
+	 */
+	private MockVehicleMission createMission(Vehicle vehicle) {
+		MockVehicleMission mission = new MockVehicleMission(person1, vehicle, settlement);
+		missionManager.addMission(mission);
+		person1.setMission(mission);
+		return mission;
+	}
+
+	/**
+	 * Test that people joining and leaving a mission are looked up.
+	 */
+	public void testJoinAndLeave() {
+		MockVehicleMission mission = createMission(vehicle1);
+		assertSame(mission, missionManager.getMission(person1));
+		assertNull(missionManager.getMission(person2));
+
+		person2.setMission(mission);
+		assertSame(mission, missionManager.getMission(person2));
+
+		person1.setMission(null);
+		assertNull(missionManager.getMission(person1));
+		assertSame(mission, missionManager.getMission(person2));
+	}
+
+	/**
+	 * Test that the vehicle of a mission is looked up after it is changed.
+	 */
+	public void testVehicleChange() {
+		MockVehicleMission mission = createMission(vehicle1);
+		assertSame(mission, missionManager.getMissionForVehicle(vehicle1));
+		assertNull(missionManager.getMissionForVehicle(vehicle2));
+
+		mission.changeVehicle(vehicle2);
+		assertNull(missionManager.getMissionForVehicle(vehicle1));
+		assertSame(mission, missionManager.getMissionForVehicle(vehicle2));
+	}
+
+	/**
+	 * Test that an ended mission is no longer looked up.
+	 */
+	public void testMissionEnd() {
+		MockVehicleMission mission1 = createMission(vehicle1);
+		MockVehicleMission mission2 = new MockVehicleMission(person2, vehicle2, settlement);
+		missionManager.addMission(mission2);
+		person2.setMission(mission2);
+
+		List<Mission> settlementMissions = missionManager.getMissionsForSettlement(settlement);
+		assertEquals(2, settlementMissions.size());
+		assertSame(mission1, settlementMissions.get(0));
+		assertSame(mission2, settlementMissions.get(1));
+
+		mission1.endMission("Test ended");
+		assertNull(missionManager.getMission(person1));
+		assertNull(missionManager.getMissionForVehicle(vehicle1));
+		settlementMissions = missionManager.getMissionsForSettlement(settlement);
+		assertEquals(1, settlementMissions.size());
+		assertSame(mission2, settlementMissions.get(0));
+
+		mission2.endMission("Test ended");
+		assertTrue(missionManager.getMissionsForSettlement(settlement).isEmpty());
+	}
+
+	/**
+	 * Test that the indexes are built again after a load and then kept up to date.
+	 */
+	public void testIndexesAfterLoad() throws Exception {
+		createMission(vehicle1);
+		assertEquals(1, missionManager.getMissionsForSettlement(settlement).size());
+
+		// Save and load the mission manager with everything it refers to.
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new Object[] {missionManager, settlement, person1, person2, vehicle1, vehicle2});
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Object[] loaded = (Object[]) in.readObject();
+		in.close();
+
+		MissionManager loadedManager = (MissionManager) loaded[0];
+		Settlement loadedSettlement = (Settlement) loaded[1];
+		Person loadedPerson1 = (Person) loaded[2];
+		Person loadedPerson2 = (Person) loaded[3];
+		Vehicle loadedVehicle1 = (Vehicle) loaded[4];
+
+		Mission loadedMission = loadedManager.getMissions().get(0);
+		assertSame(loadedMission, loadedManager.getMission(loadedPerson1));
+		assertSame(loadedMission, loadedManager.getMissionForVehicle(loadedVehicle1));
+		assertSame(loadedMission, loadedManager.getMissionsForSettlement(loadedSettlement).get(0));
+
+		// Events after the load reach the rebuilt indexes.
+		assertNull(loadedManager.getMission(loadedPerson2));
+		loadedPerson2.setMission(loadedMission);
+		assertSame(loadedMission, loadedManager.getMission(loadedPerson2));
+
+		loadedMission.endMission("Test ended");
+		assertNull(loadedManager.getMissionForVehicle(loadedVehicle1));
+		assertTrue(loadedManager.getMissionsForSettlement(loadedSettlement).isEmpty());
+	}
+
+	/**
+	 * A vehicle mission that does nothing but can change its vehicle.
+	 */
+	private static class MockVehicleMission extends VehicleMission {
+
+		private static final long serialVersionUID = 1L;
+
+		private Settlement settlement;
+
+		MockVehicleMission(Person startingMember, Vehicle vehicle, Settlement settlement) {
+			super("Mock Vehicle Mission", startingMember, 1, vehicle);
+			this.settlement = settlement;
+		}
+
+		/**
+		 * Changes the vehicle of the mission.
+		 * @param newVehicle the new vehicle.
+		 */
+		void changeVehicle(Vehicle newVehicle) {
+			leaveVehicle();
+			setVehicle(newVehicle);
+		}
+
+		@Override
+		protected void determineNewPhase() {
+			// Do nothing
+		}
+
+		@Override
+		public Settlement getAssociatedSettlement() {
+			return settlement;
+		}
+
+		@Override
+		public Map<Integer, Number> getResourcesNeededForRemainingMission(boolean useBuffer) {
+			return null;
+		}
+
+		@Override
+		public Map<Integer, Integer> getEquipmentNeededForRemainingMission(boolean useBuffer) {
+			return null;
+		}
+
+		@Override
+		public double getEstimatedRemainingMissionTime(boolean useBuffer) {
+			return 0D;
+		}
+
+		@Override
+		public void updateTravelDestination() {
+			// Do nothing
+		}
+
+		@Override
+		protected OperateVehicle getOperateVehicleTask(MissionMember member, TaskPhase lastTaskPhase) {
+			return null;
+		}
+
+		@Override
+		protected void performEmbarkFromSettlementPhase(MissionMember member) {
+			// Do nothing
+		}
+
+		@Override
+		protected void performDisembarkToSettlementPhase(MissionMember member, Settlement disembarkSettlement) {
+			// Do nothing
+		}
+	}
+}
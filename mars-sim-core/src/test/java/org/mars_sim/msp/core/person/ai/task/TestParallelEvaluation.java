@@ -0,0 +1,27 @@
+package org.mars_sim.msp.core.person.ai.task;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.mars_sim.msp.core.TickFingerprint;
+
+/**
+ * Unit test suite for working out the task probabilities in parallel.
+ */
+public class TestParallelEvaluation extends TestCase {
+
+	private static final int PULSES = 60;
+
+	/**
+	 * Test that two runs from the same seed, with the task probabilities worked
+	 * out in parallel, end up in the same state after every pulse.
+	 */
+	public void testRunsReplayFromSeed() throws Exception {
+		List<String> first = TickFingerprint.fork(PULSES, 4, true);
+		List<String> second = TickFingerprint.fork(PULSES, 4, true);
+		for (int i = 0; i < PULSES; i++) {
+			assertEquals("State after pulse " + (i + 1), first.get(i), second.get(i));
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.mars_sim.msp.core.person.ai.task.meta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.mars_sim.msp.core.structure.building.function.FunctionType;
+import org.mars_sim.msp.core.structure.building.function.Research;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the TaskContext class.
+ */
+public class TestTaskContext extends TestCase {
+
+	private Settlement settlement;
+
+	@Override
+	protected void setUp() throws Exception {
+		// Create new simulation instance.
+		SimulationConfig.loadConfig();
+		Simulation.createNewSimulation(-1);
+
+		for (Settlement s : Simulation.instance().getUnitManager().getSettlements()) {
+			if (!s.getBuildingManager().getBuildings(FunctionType.RESEARCH).isEmpty()) {
+				settlement = s;
+			}
+		}
+		assertNotNull("No settlement with a lab", settlement);
+	}
+
+	/**
+	 * Test that the lab space seen by the meta tasks follows the researchers
+	 * taking up and leaving the labs within the same pulse.
+	 */
+	public void testLabSpaceWithinPulse() {
+		TaskContext context = new TaskContext(settlement);
+
+		List<Research> labs = new ArrayList<>();
+		for (Building building : settlement.getBuildingManager().getBuildings(FunctionType.RESEARCH)) {
+			labs.add(building.getResearch());
+		}
+		assertTrue(context.hasLabSpace());
+
+		// Fill every lab, without the Mars clock moving on.
+		List<Research> added = new ArrayList<>();
+		for (Research lab : labs) {
+			while (lab.getResearcherNum() < lab.getLaboratorySize()) {
+				lab.addResearcher();
+				added.add(lab);
+			}
+		}
+		assertFalse(context.hasLabSpace());
+
+		added.get(0).removeResearcher();
+		assertTrue(context.hasLabSpace());
+	}
+
+	/**
+	 * Test that the facts kept are worked out again once the Mars clock moves on.
+	 */
+	public void testFactsKeptWithinPulse() {
+		TaskContext context = new TaskContext(settlement);
+
+		assertEquals(context.getSolarIrradiance(), context.getSolarIrradiance());
+		assertSame(context.getMalfunctionables(), context.getMalfunctionables());
+
+		List<?> malfunctionables = context.getMalfunctionables();
+		Simulation.instance().getMasterClock().getMarsClock().addTime(1D);
+		assertNotSame(malfunctionables, context.getMalfunctionables());
+	}
+}
@@ -1,5 +1,9 @@
 package org.mars_sim.msp.core.resource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Set;
 
 import junit.framework.TestCase;
@@ -200,4 +204,38 @@ public class TestAmountResourceTypeStorage extends TestCase {
         assertTrue("All resources contains carbon dioxide.", allResources.contains(carbonDioxide));
         assertTrue("All resources contains oxygen.", allResources.contains(oxygen));
     }
-}
\ No newline at end of file
+
+    public void testInventoryAmountResourceTypeLargeID() throws Exception {
+        AmountResourceTypeStorage storage = new AmountResourceTypeStorage();
+        int resource = 500;
+        storage.addTypeCapacity(resource, 100D);
+        storage.storeARType(resource, 40D);
+        assertEquals("Amount stored for a large id is correct.", 40D, storage.getARTypeStored(resource), 0D);
+        assertEquals("Remaining capacity for a large id is correct.", 60D, storage.getARTypeRemainingCapacity(resource), 0D);
+        storage.retrieveARType(resource, 40D);
+        storage.removeTypeCapacity(resource, 100D);
+        assertFalse("Large id has no capacity left.", storage.hasARTypeCapacity(resource));
+    }
+
+    public void testInventoryAmountResourceTypeSerialization() throws Exception {
+        AmountResourceTypeStorage storage = new AmountResourceTypeStorage();
+        AmountResource carbonDioxide = AmountResource.findAmountResource(CARBON_DIOXIDE);
+        AmountResource oxygen = AmountResource.findAmountResource(OXYGEN);
+        storage.addAmountResourceTypeCapacity(carbonDioxide, 100D);
+        storage.addAmountResourceTypeCapacity(oxygen, 50D);
+        storage.storeAmountResourceType(carbonDioxide, 10D);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(storage);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        AmountResourceTypeStorage copy = (AmountResourceTypeStorage) in.readObject();
+        in.close();
+
+        assertEquals("Capacity is kept.", 100D, copy.getAmountResourceTypeCapacity(carbonDioxide), 0D);
+        assertEquals("Stored amount is kept.", 10D, copy.getAmountResourceTypeStored(carbonDioxide), 0D);
+        assertTrue("Type with no amount stored keeps its capacity.", copy.hasAmountResourceTypeCapacity(oxygen));
+        assertEquals("Total stored is correct.", 10D, copy.getTotalAmountResourceTypesStored(false), 0D);
+    }
+}
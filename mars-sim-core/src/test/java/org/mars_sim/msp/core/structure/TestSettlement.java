@@ -0,0 +1,93 @@
+package org.mars_sim.msp.core.structure;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.time.TimeSeries;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for loading the Settlement class from a saved simulation.
+ */
+public class TestSettlement extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		// Create new simulation instance.
+		SimulationConfig.loadConfig();
+		Simulation.createNewSimulation(-1);
+	}
+
+	/**
+	 * Test that the resource samples of a save made before the time series are
+	 * added to the series.
+	 */
+	public void testLoadOldResourceStat() throws Exception {
+		Settlement settlement = new MockSettlement();
+
+		// Oxygen on sols 1 and 2, water on sol 2, as saved before.
+		Map<Integer, Map<Integer, List<Double>>> old = new HashMap<>();
+		Map<Integer, List<Double>> sol1 = new HashMap<>();
+		sol1.put(0, Arrays.asList(10D, 20D));
+		old.put(1, sol1);
+		Map<Integer, List<Double>> sol2 = new HashMap<>();
+		sol2.put(0, Arrays.asList(30D));
+		sol2.put(4, Arrays.asList(5D, 7D));
+		old.put(2, sol2);
+		setField(settlement, "resourceStats", null);
+		setField(settlement, "resourceStat", old);
+
+		Settlement loaded = load(settlement);
+
+		TimeSeries oxygen = loaded.getResourceStat(0);
+		assertEquals(3, oxygen.size());
+		assertEquals(10D, oxygen.get(0));
+		assertEquals(1, oxygen.getSol(0));
+		assertEquals(30D, oxygen.get(2));
+		assertEquals(2, oxygen.getSol(2));
+		assertEquals(15D, oxygen.getMean(1), 0D);
+		assertEquals(30D, oxygen.getMean(2), 0D);
+		assertEquals(6D, loaded.getResourceStat(4).getMean(2), 0D);
+		assertEquals(0, loaded.getResourceStat(1).size());
+	}
+
+	/**
+	 * Test that the series of a newer save are loaded as they were.
+	 */
+	public void testLoadResourceStats() throws Exception {
+		Settlement settlement = new MockSettlement();
+		settlement.getResourceStat(0).add(3, 42D);
+
+		Settlement loaded = load(settlement);
+
+		assertEquals(1, loaded.getResourceStat(0).size());
+		assertEquals(42D, loaded.getResourceStat(0).getMean(3), 0D);
+	}
+
+	private static Settlement load(Settlement settlement) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(settlement);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Settlement result = (Settlement) in.readObject();
+		in.close();
+		return result;
+	}
+
+	private static void setField(Settlement settlement, String name, Object value) throws Exception {
+		Field field = Settlement.class.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(settlement, value);
+	}
+}
@@ -33,6 +33,12 @@ public class MockBuilding extends Building {
 		functions.add(new LifeSupport(this, 10, 1));
 	}
 
+	private void clearLocalAreaIndex() {
+	    if (manager != null) {
+	        manager.clearLocalAreaIndex();
+	    }
+	}
+
 	public void setTemplateID(int id) {
 		this.templateID = id;
 	}
@@ -43,22 +49,27 @@ public class MockBuilding extends Building {
 
 	public void setXLocation(double xLoc) {
 	    this.xLoc = xLoc;
+	    clearLocalAreaIndex();
 	}
 
 	public void setYLocation(double yLoc) {
 	    this.yLoc = yLoc;
+	    clearLocalAreaIndex();
 	}
 
 	public void setWidth(double width) {
 	    this.width = width;
+	    clearLocalAreaIndex();
 	}
 
 	public void setLength(double length) {
 	    this.length = length;
+	    clearLocalAreaIndex();
 	}
 
 	public void setFacing(double facing) {
 	    this.facing = facing;
+	    clearLocalAreaIndex();
 	}
 
 	public void addFunction(Function function) {
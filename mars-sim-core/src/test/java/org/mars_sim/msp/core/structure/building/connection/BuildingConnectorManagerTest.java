@@ -234,4 +234,77 @@ public class BuildingConnectorManagerTest extends TestCase {
         assertEquals(1D, path3.getNextPathLocation().getYLocation(), SMALL_DELTA);
         assertTrue(path3.isEndOfPath());
     }
+
+    public void testDetermineShortestPathAfterConnectionChanges() {
+
+        Settlement settlement = new MockSettlement();
+        BuildingManager buildingManager = settlement.getBuildingManager();
+
+        MockBuilding building0 = new MockBuilding(buildingManager);
+        building0.setTemplateID(0);
+        building0.setName("building 0");
+        building0.setWidth(9D);
+        building0.setLength(9D);
+        building0.setXLocation(0D);
+        building0.setYLocation(0D);
+        building0.setFacing(0D);
+        BuildingTemplate buildingTemplate0 = new BuildingTemplate(null, 0, null, "building 0", "building 0", 9D, 9D, 0D, 0D, 0D);
+        buildingTemplate0.addBuildingConnection(2, -4.5D, 0D);
+        buildingManager.addBuilding(building0, false);
+
+        MockBuilding building1 = new MockBuilding(buildingManager);
+        building1.setTemplateID(1);
+        building1.setName("building 1");
+        building1.setWidth(6D);
+        building1.setLength(9D);
+        building1.setXLocation(-12D);
+        building1.setYLocation(0D);
+        building1.setFacing(270D);
+        BuildingTemplate buildingTemplate1 = new BuildingTemplate(null, 1, null, "building 1", "building 1",6D, 9D, -12D, 0D, 270D);
+        buildingTemplate1.addBuildingConnection(2, 0D, 4.5D);
+        buildingManager.addBuilding(building1, false);
+
+        MockBuilding building2 = new MockBuilding(buildingManager);
+        building2.setTemplateID(2);
+        building2.setName("building 2");
+        building2.setWidth(2D);
+        building2.setLength(3D);
+        building2.setXLocation(-6D);
+        building2.setYLocation(0D);
+        building2.setFacing(270D);
+        BuildingTemplate buildingTemplate2 = new BuildingTemplate(null, 2, null, "building 2", "building 2",6D, 9D, -6D, 0D, 270D);
+        buildingTemplate2.addBuildingConnection(0, 0D, 1.5D);
+        buildingTemplate2.addBuildingConnection(1, 0D, -1.5D);
+        buildingManager.addBuilding(building2, false);
+
+        List<BuildingTemplate> buildingTemplates = new ArrayList<BuildingTemplate>();
+        buildingTemplates.add(buildingTemplate0);
+        buildingTemplates.add(buildingTemplate1);
+        buildingTemplates.add(buildingTemplate2);
+
+        BuildingConnectorManager manager = new BuildingConnectorManager(settlement, buildingTemplates);
+
+        InsideBuildingPath path1 = manager.determineShortestPath(building0, 2D, -1D, building1, -10D, 1D);
+        assertNotNull(path1);
+        assertEquals(12.269055622550205D, path1.getPathLength(), SMALL_DELTA);
+        assertTrue(manager.hasValidPath(building0, building1));
+
+        // Removing the connection to building 1 leaves no path to it.
+        Set<BuildingConnector> connections = manager.getBuildingConnections(building1, building2);
+        assertEquals(1, connections.size());
+        BuildingConnector connector = connections.iterator().next();
+        manager.removeBuildingConnection(connector);
+
+        assertNull(manager.determineShortestPath(building0, 2D, -1D, building1, -10D, 1D));
+        assertFalse(manager.hasValidPath(building0, building1));
+        assertTrue(manager.hasValidPath(building0, building2));
+
+        // Adding it back restores the path.
+        manager.addBuildingConnection(connector);
+
+        InsideBuildingPath path2 = manager.determineShortestPath(building0, 2D, -1D, building1, -10D, 1D);
+        assertNotNull(path2);
+        assertEquals(12.269055622550205D, path2.getPathLength(), SMALL_DELTA);
+        assertTrue(manager.hasValidPath(building0, building1));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.mars_sim.msp.core.structure.goods;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.resource.ResourceUtil;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * Unit test for the incremental valuation passes of the GoodsManager class.
+ */
+public class TestGoodsManager extends TestCase {
+
+    /** The full passes needed for the smoothed demands to settle. */
+    private static final int SETTLING_PASSES = 20;
+    /** Long enough for a valuation pass to start and get through all its goods. */
+    private static final double PASS_TIME = 1000D;
+    /** The supply tolerance plus the value tolerance of GoodsValueGraph. */
+    private static final double TOLERANCE = .02D;
+    /** The values are rounded to 3 decimals. */
+    private static final double ROUNDING = .001D;
+
+    private Settlement settlement;
+    private GoodsManager goodsManager;
+    private List<Good> goods;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation(-1);
+
+        settlement = Simulation.instance().getUnitManager().getSettlements().iterator().next();
+        goodsManager = settlement.getGoodsManager();
+        goods = GoodsUtil.getGoodsList();
+
+        for (int i = 0; i < SETTLING_PASSES; i++) {
+            goodsManager.updateGoodsValues();
+        }
+    }
+
+    /**
+     * Test that the goods skipped by a pass keep values within the tolerance of
+     * the values a full pass gives them.
+     */
+    public void testSkippedGoodsWithinTolerance() {
+        // Use up less water than makes it dirty.
+        Good water = GoodsUtil.getResourceGood(ResourceUtil.waterID);
+        double waterSupply = settlement.getInventory().getAmountResourceStored(ResourceUtil.waterID, false);
+        assertTrue(waterSupply > 0D);
+        settlement.getInventory().retrieveAmountResource(ResourceUtil.waterID, waterSupply * .005D);
+        double waterValue = goodsManager.getGoodValuePerItem(water);
+
+        long recomputed = goodsManager.getNumGoodsRecomputed();
+        long skipped = goodsManager.getNumGoodsSkipped();
+        goodsManager.timePassing(PASS_TIME);
+        assertEquals(goods.size(),
+                goodsManager.getNumGoodsRecomputed() - recomputed + goodsManager.getNumGoodsSkipped() - skipped);
+        assertTrue(goodsManager.getNumGoodsSkipped() > skipped);
+        assertEquals(waterValue, goodsManager.getGoodValuePerItem(water));
+
+        Map<Good, Double> kept = new HashMap<>();
+        for (Good good : goods) {
+            kept.put(good, goodsManager.getGoodValuePerItem(good));
+        }
+
+        goodsManager.updateGoodsValues();
+        for (Good good : goods) {
+            double full = goodsManager.getGoodValuePerItem(good);
+            assertEquals(good.getName(), full, kept.get(good), Math.abs(full) * TOLERANCE + ROUNDING);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Mars Simulation Project
+ * TestGoodsValueGraph.java
+ * @version 3.1.0 2018-08-23
+ * @author Manny Kung
+ */
+package org.mars_sim.msp.core.structure.goods;
+
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.mars_sim.msp.core.LifeSupportType;
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.UnitManager;
+import org.mars_sim.msp.core.resource.AmountResource;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * Unit test for the GoodsValueGraph class.
+ */
+public class TestGoodsValueGraph extends TestCase {
+
+    private GoodsValueGraph graph;
+    private Good water;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation(-1);
+
+        // Clear out existing settlements in simulation.
+        UnitManager unitManager = Simulation.instance().getUnitManager();
+        Iterator<Settlement> i = unitManager.getSettlements().iterator();
+        while (i.hasNext()) {
+            unitManager.removeUnit(i.next());
+        }
+
+        Settlement settlement = new MockSettlement();
+        unitManager.addUnit(settlement);
+        List<Good> goods = GoodsUtil.getGoodsList();
+        graph = new GoodsValueGraph(settlement, goods);
+        water = GoodsUtil.getResourceGood(AmountResource.findAmountResource(LifeSupportType.WATER));
+
+        // First pass values everything.
+        graph.startPass();
+        assertTrue(graph.isDirty(water, 100D));
+        graph.recomputed(water, 100D);
+        graph.endPass();
+    }
+
+    public void testUnchangedGoodIsSkipped() {
+        graph.startPass();
+        assertFalse(graph.isDirty(water, 100D));
+        graph.endPass();
+    }
+
+    public void testSupplyChangeMakesGoodDirty() {
+        graph.startPass();
+        assertFalse(graph.isDirty(water, 100.5D));
+        assertTrue(graph.isDirty(water, 110D));
+        graph.endPass();
+    }
+
+    public void testSkippedGoodIsEventuallyValued() {
+        for (int i = 0; i < 4; i++) {
+            graph.startPass();
+            assertFalse(graph.isDirty(water, 100D));
+            graph.skipped(water);
+            graph.endPass();
+        }
+        graph.startPass();
+        assertTrue(graph.isDirty(water, 100D));
+        graph.endPass();
+    }
+
+    public void testSetAllDirty() {
+        graph.setAllDirty();
+        graph.startPass();
+        assertTrue(graph.isDirty(water, 100D));
+        graph.endPass();
+    }
+
+    public void testDependentsNeedValueChange() {
+        assertTrue(graph.getDependents(water, 10D, 10.01D).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package org.mars_sim.msp.core.time;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the LatencyHistogram class.
+ */
+public class TestLatencyHistogram extends TestCase {
+
+    /**
+     * Test that every duration falls in a bucket covering it, in order.
+     */
+    public void testBuckets() {
+        int previous = -1;
+        for (long value = 0L; value < 100_000L; value++) {
+            int index = LatencyHistogram.getIndex(value);
+            assertTrue(index == previous || index == previous + 1);
+            assertTrue(LatencyHistogram.getHighestValue(index) >= value);
+            previous = index;
+        }
+
+        // Very long durations share the last bucket.
+        assertEquals(LatencyHistogram.getIndex(1L << 50), LatencyHistogram.getIndex(Long.MAX_VALUE));
+    }
+
+    /**
+     * Test the percentiles are within the precision of the histogram.
+     */
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(50D));
+
+        for (long value = 1L; value <= 10_000L; value++) {
+            histogram.record(value * 1000L);
+        }
+
+        assertEquals(10_000L, histogram.getCount());
+        assertEquals(10_000_000L, histogram.getMax());
+        assertEquals(5_000_500D, histogram.getMean(), 1D);
+        assertEquals(5_000_000D, histogram.getValueAtPercentile(50D), 5_000_000D * .07D);
+        assertEquals(9_900_000D, histogram.getValueAtPercentile(99D), 9_900_000D * .07D);
+        assertEquals(10_000_000L, histogram.getValueAtPercentile(100D));
+
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getValueAtPercentile(99D));
+    }
+}
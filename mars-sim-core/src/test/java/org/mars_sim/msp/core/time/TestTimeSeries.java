@@ -0,0 +1,76 @@
+package org.mars_sim.msp.core.time;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the TimeSeries class.
+ */
+public class TestTimeSeries extends TestCase {
+
+	/**
+	 * Test the summary of each sol.
+	 */
+	public void testSolSummary() {
+		TimeSeries series = new TimeSeries(10, 5);
+		series.add(1, 2D);
+		series.add(1, 4D);
+		series.add(1, 9D);
+		series.add(2, 5D);
+
+		assertEquals(3, series.getCount(1));
+		assertEquals(5D, series.getMean(1), 1e-9);
+		assertEquals(2D, series.getMin(1), 1e-9);
+		assertEquals(9D, series.getMax(1), 1e-9);
+		assertEquals(5D, series.getMean(2), 1e-9);
+		assertEquals(0, series.getCount(3));
+		assertEquals(0D, series.getMean(3), 1e-9);
+		assertEquals(5D, series.getTotalMean(), 1e-9);
+	}
+
+	/**
+	 * Test that old samples and sols are overwritten while the summaries of the
+	 * latest sols and the total mean survive.
+	 */
+	public void testRing() {
+		TimeSeries series = new TimeSeries(4, 3);
+		for (int sol = 0; sol < 10; sol++) {
+			series.add(sol, sol);
+			series.add(sol, sol + 1D);
+		}
+
+		assertEquals(4, series.size());
+		assertEquals(8D, series.get(0), 1e-9);
+		assertEquals(8, series.getSol(0));
+		assertEquals(10D, series.get(3), 1e-9);
+		assertEquals(0, series.getCount(6));
+		assertEquals(2, series.getCount(7));
+		assertEquals(7.5D, series.getMean(7), 1e-9);
+		assertEquals(20L, series.getTotalCount());
+		assertEquals(5D, series.getTotalMean(), 1e-9);
+
+		final double[] sum = new double[1];
+		series.visit(9, 9, (sol, value) -> sum[0] += value);
+		assertEquals(19D, sum[0], 1e-9);
+
+		try {
+			series.get(4);
+			fail("Index beyond the ring");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that samples added to the totals only count in the total mean.
+	 */
+	public void testAddTotal() {
+		TimeSeries series = new TimeSeries(4, 3);
+		series.addTotal(12D, 3);
+		series.add(1, 8D);
+
+		assertEquals(1, series.size());
+		assertEquals(1, series.getCount(1));
+		assertEquals(4L, series.getTotalCount());
+		assertEquals(5D, series.getTotalMean(), 1e-9);
+	}
+}
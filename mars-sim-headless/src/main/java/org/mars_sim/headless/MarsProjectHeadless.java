@@ -19,8 +19,14 @@ import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import java.lang.Runnable;
 
+import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.UnitManager;
+import org.mars_sim.msp.core.events.HistoricalEventManager;
+import org.mars_sim.msp.core.person.ai.task.TaskManager;
+import org.mars_sim.msp.core.time.BatchReport;
+import org.mars_sim.msp.core.time.TickProfiler;
 
 /**
  * MarsProjectHeadless is the main class for starting mars-sim in purely
@@ -33,6 +39,17 @@ public class MarsProjectHeadless {
 
 	static String[] args;
 
+	/** The default length of a clock pulse in batch mode (millisols). */
+	private static final double DEFAULT_BATCH_STEP = 1D;
+
+	/** The number of sols to run in batch mode, or 0 to run the clock in real time. */
+	private double batchSols = 0D;
+	/** The length of a clock pulse in batch mode (millisols). */
+	private double batchStep = DEFAULT_BATCH_STEP;
+
+	/** One in how many meta task and mission calls are timed when profiling. */
+	private static final int PROFILE_SAMPLING_INTERVAL = 100;
+
 	/** true if displaying graphic user interface. */
 	// private boolean useHeadless = true;
 
@@ -84,6 +101,77 @@ public class MarsProjectHeadless {
 		else if (argList.contains("-8192x"))
 			userTimeRatio = 8192;
 
+		// Tick the settlements in parallel, e.g. "-parallel" or "-parallel=4".
+		// A fixed thread count is needed for a run to be replayed exactly.
+		for (String arg : argList) {
+			if (arg.equals("-parallel")) {
+				UnitManager.setTickThreads(Simulation.NUM_THREADS);
+			} else if (arg.equals("-parallel-tasks")) {
+				// Also work out the task probabilities of the people of a settlement in parallel.
+				TaskManager.setParallelEvaluation(true);
+			} else if (arg.startsWith("-parallel=")) {
+				try {
+					UnitManager.setTickThreads(Integer.parseInt(arg.substring("-parallel=".length())));
+				} catch (IllegalArgumentException e) {
+					showError("Invalid argument " + arg + ". Ticking the settlements serially.", null);
+				}
+			}
+		}
+
+		// Keep a number of the most recent events in memory, e.g. "-event-window=20000".
+		for (String arg : argList) {
+			if (arg.startsWith("-event-window=")) {
+				try {
+					HistoricalEventManager.setEventWindow(Integer.parseInt(arg.substring("-event-window=".length())));
+				} catch (IllegalArgumentException e) {
+					showError("Invalid argument " + arg + ". Keeping the default event window.", null);
+				}
+			}
+		}
+
+		// Draw the new simulation from a given random seed, e.g. "-seed=42", to replay a run.
+		for (String arg : argList) {
+			if (arg.startsWith("-seed=")) {
+				try {
+					RandomUtil.setSeed(Long.parseLong(arg.substring("-seed=".length())));
+				} catch (NumberFormatException e) {
+					exitWithError("Invalid argument " + arg + ".", null);
+				}
+			}
+		}
+
+		// Run a number of sols as fast as possible in fixed steps, then exit with a
+		// throughput report, e.g. "-batch=10" or "-batch=10 -step=0.5".
+		for (String arg : argList) {
+			try {
+				if (arg.startsWith("-batch=")) {
+					batchSols = Double.parseDouble(arg.substring("-batch=".length()));
+				} else if (arg.startsWith("-step=")) {
+					batchStep = Double.parseDouble(arg.substring("-step=".length()));
+				}
+			} catch (NumberFormatException e) {
+				exitWithError("Invalid argument " + arg + ".", null);
+			}
+		}
+		if (batchSols < 0D || batchStep <= 0D) {
+			exitWithError("The batch sols and step must be positive.", null);
+		}
+
+		// Enable the tick profiler and dump its profile to the log every so many
+		// seconds, sampling the meta tasks and missions too, e.g. "-profile=60".
+		for (String arg : argList) {
+			if (arg.startsWith("-profile=")) {
+				try {
+					long seconds = Long.parseLong(arg.substring("-profile=".length()));
+					TickProfiler.instance().setLogInterval(seconds);
+					TickProfiler.instance().setSamplingInterval(PROFILE_SAMPLING_INTERVAL);
+					TickProfiler.instance().setEnabled(true);
+				} catch (IllegalArgumentException e) {
+					exitWithError("Invalid argument " + arg + ".", null);
+				}
+			}
+		}
+
 		if (argList.contains("-new")) {
 			// If new argument, create new simulation.
 			handleNewSimulation(userTimeRatio); // if this fails we always exit, continuing is useless
@@ -174,7 +262,7 @@ public class MarsProjectHeadless {
 			// Correct order:
 			Simulation.instance().destroyOldSimulation();
 			Simulation.createNewSimulation(userTimeRatio);
-			Simulation.instance().start(true);
+			startSimulation(true);
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -189,8 +277,25 @@ public class MarsProjectHeadless {
 		// logger.info("MarsProject's startSimulation() is on
 		// "+Thread.currentThread().getName() + " Thread");
 
-		// Start the simulation.
-		Simulation.instance().start(useDefaultName);
+		if (batchSols > 0D) {
+			runBatch();
+		} else {
+			// Start the simulation.
+			Simulation.instance().start(useDefaultName);
+		}
+	}
+
+	/**
+	 * Runs the simulation for the requested number of sols as fast as possible, then
+	 * exits after logging the throughput report.
+	 */
+	private void runBatch() {
+		BatchReport report = Simulation.instance().runBatch(batchSols, batchStep);
+		logger.info(report.toString());
+		if (TickProfiler.instance().getLogInterval() > 0L)
+			TickProfiler.instance().dumpToLog();
+		Simulation.instance().endSimulation();
+		System.exit(0);
 	}
 
 	/**
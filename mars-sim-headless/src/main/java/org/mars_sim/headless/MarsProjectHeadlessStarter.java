@@ -148,6 +148,16 @@ public class MarsProjectHeadlessStarter {
 
 			if (argList.contains("noaudio"))
 				command.append(" -noaudio");
+
+			for (String arg : argList) {
+				if (arg.startsWith("parallel") || arg.startsWith("-parallel")
+						|| arg.startsWith("batch=") || arg.startsWith("-batch=")
+						|| arg.startsWith("step=") || arg.startsWith("-step=")
+						|| arg.startsWith("profile=") || arg.startsWith("-profile=")
+						|| arg.startsWith("event-window=") || arg.startsWith("-event-window=")
+						|| arg.startsWith("seed=") || arg.startsWith("-seed="))
+					command.append(" -").append(arg.replaceFirst("^-", ""));
+			}
 		}
 
 		String commandStr = command.toString();
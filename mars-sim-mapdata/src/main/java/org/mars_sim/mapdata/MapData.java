@@ -31,4 +31,19 @@ public interface MapData {
      * @return the RGB map color.
      */
     public Color getRGBColor(double phi, double theta);
+
+    /**
+     * Gets the number of pixel rows of the map, from the north pole (phi 0)
+     * to the south pole (phi PI).
+     * @return number of rows.
+     */
+    public int getRowCount();
+
+    /**
+     * Gets the RGB map colors of a pixel row. The first column is at theta PI
+     * and the columns go round the planet eastward.
+     * @param row the row index.
+     * @return the RGB map colors as integers. Must not be modified.
+     */
+    public int[] getRGBRow(int row);
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+/**
+ * Mars Simulation Project
+ * MapRenderer.java
+ * @version 3.1.0 2018-09-05
+ * @author Manny Kung
+ */
+
+package org.mars_sim.mapdata;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders map images of a map data, a globe seen from above a center location.
+ * <br>
+ * Instead of projecting every map pixel onto the image, each image pixel is
+ * looked up in a projection table giving the phi and theta it shows. A table
+ * only depends on the center phi and the scale (rho) of the map, as moving the
+ * center east or west only adds to the theta of every pixel, so a few tables
+ * are kept for all the maps. The rows of an image are rendered in parallel on
+ * the common ForkJoin pool, and the last few images are kept for when the map
+ * is centered at the same place again.
+ */
+class MapRenderer {
+
+    // Static members.
+    private static final double TWO_PI = Math.PI * 2D;
+    /** The number of projection tables kept, shared by all maps. */
+    private static final int TABLE_CACHE_SIZE = 8;
+    /** The number of images kept for each map. */
+    private static final int IMAGE_CACHE_SIZE = 8;
+    /** The number of image rows rendered by a task before it splits. */
+    private static final int ROWS_PER_TASK = 16;
+
+    /** The projection tables, most recently used first. */
+    private static final LinkedList<ProjectionTable> tables = new LinkedList<>();
+
+    // Data members.
+    private final MapData mapData;
+    private final int width;
+    private final int height;
+    private final double rho;
+    /** The rendered images, most recently used first. */
+    private final LinkedList<RenderedImage> images = new LinkedList<>();
+
+    /**
+     * Constructor
+     * @param mapData the map data.
+     * @param width the width of the images (pixels).
+     * @param height the height of the images (pixels).
+     * @param rho the scale of the map (pixels per radian).
+     */
+    MapRenderer(MapData mapData, int width, int height, double rho) {
+        this.mapData = mapData;
+        this.width = width;
+        this.height = height;
+        this.rho = rho;
+    }
+
+    /**
+     * Gets a map image centered at a location.
+     * @param centerPhi the phi center location of the map.
+     * @param centerTheta the theta center location of the map.
+     * @return the map image. Must not be drawn on.
+     */
+    Image getMapImage(double centerPhi, double centerTheta) {
+        synchronized (images) {
+            Iterator<RenderedImage> i = images.iterator();
+            while (i.hasNext()) {
+                RenderedImage rendered = i.next();
+                if ((rendered.centerPhi == centerPhi) && (rendered.centerTheta == centerTheta)) {
+                    i.remove();
+                    images.addFirst(rendered);
+                    return rendered.image;
+                }
+            }
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, render(centerPhi, centerTheta), 0, width);
+
+        synchronized (images) {
+            images.addFirst(new RenderedImage(centerPhi, centerTheta, image));
+            if (images.size() > IMAGE_CACHE_SIZE) images.removeLast();
+        }
+        return image;
+    }
+
+    /**
+     * Renders the RGB colors of a map image.
+     * @param centerPhi the phi center location of the map.
+     * @param centerTheta the theta center location of the map.
+     * @return the RGB colors as integers, row by row.
+     */
+    int[] render(double centerPhi, double centerTheta) {
+        ProjectionTable table = getTable(centerPhi, rho, width, height);
+
+        // Fetch the map rows the image shows up front, rather than for every pixel.
+        int rowCount = mapData.getRowCount();
+        int[][] rows = new int[rowCount][];
+        for (int row = getRow(table.minPhi, rowCount); row <= getRow(table.maxPhi, rowCount); row++) {
+            rows[row] = mapData.getRGBRow(row);
+        }
+
+        int[] result = new int[width * height];
+        ForkJoinPool.commonPool().invoke(new RenderTask(table, rows, centerTheta, result, 0, height));
+        return result;
+    }
+
+    /**
+     * Gets the projection table for a center phi and scale, working it out if
+     * it isn't kept.
+     * @param centerPhi the phi center location of the map.
+     * @param rho the scale of the map (pixels per radian).
+     * @param width the width of the images (pixels).
+     * @param height the height of the images (pixels).
+     * @return the table.
+     */
+    private static ProjectionTable getTable(double centerPhi, double rho, int width, int height) {
+        synchronized (tables) {
+            Iterator<ProjectionTable> i = tables.iterator();
+            while (i.hasNext()) {
+                ProjectionTable table = i.next();
+                if (table.matches(centerPhi, rho, width, height)) {
+                    i.remove();
+                    tables.addFirst(table);
+                    return table;
+                }
+            }
+        }
+
+        ProjectionTable table = new ProjectionTable(centerPhi, rho, width, height);
+        synchronized (tables) {
+            tables.addFirst(table);
+            if (tables.size() > TABLE_CACHE_SIZE) tables.removeLast();
+        }
+        return table;
+    }
+
+    /**
+     * Gets the map row of a phi location.
+     * @param phi the phi location.
+     * @param rowCount the number of rows of the map.
+     * @return the row index.
+     */
+    static int getRow(double phi, int rowCount) {
+        // Make sure phi is between 0 and PI.
+        while (phi > Math.PI) phi-= Math.PI;
+        while (phi < 0) phi+= Math.PI;
+
+        int row = (int) Math.round(phi * (rowCount / Math.PI));
+        if (row == rowCount) row--;
+        return row;
+    }
+
+    /**
+     * Gets the column of a theta location in a map row.
+     * @param theta the theta location.
+     * @param rowWidth the number of pixels in the row.
+     * @return the column index.
+     */
+    static int getColumn(double theta, int rowWidth) {
+        // Add PI to theta for offset.
+        theta+= Math.PI;
+
+        // Make sure theta is between 0 and 2 PI.
+        while (theta > TWO_PI) theta-= TWO_PI;
+        while (theta < 0) theta+= TWO_PI;
+
+        int column = (int) Math.round(theta * ((double) rowWidth / TWO_PI));
+        if (column == rowWidth) column--;
+        return column;
+    }
+
+    /**
+     * The phi and theta shown by each pixel of a map image, for a center phi and
+     * a center theta of 0.
+     */
+    private static class ProjectionTable {
+
+        private final double centerPhi;
+        private final double rho;
+        private final int width;
+        private final int height;
+        /** The phi and theta of each pixel, row by row, or NaN if off the globe. */
+        private final float[] phis;
+        private final float[] thetas;
+        private double minPhi = Math.PI;
+        private double maxPhi = 0D;
+
+        ProjectionTable(double centerPhi, double rho, int width, int height) {
+            this.centerPhi = centerPhi;
+            this.rho = rho;
+            this.width = width;
+            this.height = height;
+            phis = new float[width * height];
+            thetas = new float[width * height];
+
+            ForkJoinPool.commonPool().invoke(new TableTask(this, 0, height));
+            for (float phi : phis) {
+                if (phi < minPhi) minPhi = phi;
+                if (phi > maxPhi) maxPhi = phi;
+            }
+        }
+
+        /**
+         * Works out the phi and theta of the pixels in some rows.
+         * @param startY the first row.
+         * @param endY the row after the last.
+         */
+        void project(int startY, int endY) {
+            double sinPhi = Math.sin(centerPhi);
+            double cosPhi = Math.cos(centerPhi);
+            int centerX = width / 2;
+            int centerY = height / 2;
+            for (int y = startY; y < endY; y++) {
+                for (int x = 0; x < width; x++) {
+                    int index = x + (y * width);
+                    double rectX = x - centerX;
+                    double rectY = y - centerY;
+                    double z = Math.sqrt((rho * rho) - (rectX * rectX) - (rectY * rectY));
+                    if (Double.isNaN(z)) {
+                        phis[index] = Float.NaN;
+                        thetas[index] = Float.NaN;
+                        continue;
+                    }
+
+                    // Rotate the point on the globe to the center phi.
+                    double y2 = (rectY * cosPhi) + (z * sinPhi);
+                    double z2 = (z * cosPhi) - (rectY * sinPhi);
+
+                    double phi = Math.acos(z2 / rho);
+                    double theta = Math.asin(rectX / (rho * Math.sin(phi)));
+                    if (y2 < 0) theta = Math.PI - theta;
+                    else if (rectX < 0) theta = TWO_PI + theta;
+
+                    phis[index] = (float) phi;
+                    thetas[index] = (float) theta;
+                }
+            }
+        }
+
+        boolean matches(double centerPhi, double rho, int width, int height) {
+            return (this.centerPhi == centerPhi) && (this.rho == rho) && (this.width == width)
+                    && (this.height == height);
+        }
+    }
+
+    /**
+     * Works out a band of projection table rows, splitting it between tasks if
+     * it is large.
+     */
+    private static class TableTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ProjectionTable table;
+        private final int startY;
+        private final int endY;
+
+        TableTask(ProjectionTable table, int startY, int endY) {
+            this.table = table;
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        @Override
+        protected void compute() {
+            if (endY - startY > ROWS_PER_TASK) {
+                int middleY = (startY + endY) >>> 1;
+                invokeAll(new TableTask(table, startY, middleY), new TableTask(table, middleY, endY));
+            }
+            else table.project(startY, endY);
+        }
+    }
+
+    /**
+     * Renders a band of image rows, splitting it between tasks if it is large.
+     */
+    private class RenderTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ProjectionTable table;
+        private final int[][] rows;
+        private final double centerTheta;
+        private final int[] result;
+        private final int startY;
+        private final int endY;
+
+        RenderTask(ProjectionTable table, int[][] rows, double centerTheta, int[] result, int startY, int endY) {
+            this.table = table;
+            this.rows = rows;
+            this.centerTheta = centerTheta;
+            this.result = result;
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        @Override
+        protected void compute() {
+            if (endY - startY > ROWS_PER_TASK) {
+                int middleY = (startY + endY) >>> 1;
+                invokeAll(new RenderTask(table, rows, centerTheta, result, startY, middleY),
+                        new RenderTask(table, rows, centerTheta, result, middleY, endY));
+                return;
+            }
+
+            for (int index = startY * width; index < endY * width; index++) {
+                float phi = table.phis[index];
+                if (!Float.isNaN(phi)) {
+                    int[] colorRow = rows[getRow(phi, rows.length)];
+                    result[index] = colorRow[getColumn(table.thetas[index] + centerTheta, colorRow.length)];
+                }
+            }
+        }
+    }
+
+    /**
+     * A map image and the location it is centered at.
+     */
+    private static class RenderedImage {
+
+        private final double centerPhi;
+        private final double centerTheta;
+        private final Image image;
+
+        RenderedImage(double centerPhi, double centerTheta, Image image) {
+            this.centerPhi = centerPhi;
+            this.centerTheta = centerTheta;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Mars Simulation Project
+ * MappedMapFile.java
+ * @version 3.1.0 2018-09-04
+ * @author Manny Kung
+ */
+
+package org.mars_sim.mapdata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A map data file of 3 bytes of RGB color per pixel, memory mapped and decoded
+ * a row at a time when asked for. The most recently used rows are kept decoded.
+ * <br>
+ * A map data file packed in a jar is copied to the cache directory once, since
+ * only a file can be mapped.
+ */
+class MappedMapFile {
+
+    // Static members.
+    private static Logger logger = Logger.getLogger(MappedMapFile.class.getName());
+    /** The number of decoded rows kept, about 1/3rd of the map, more than a map image shows. */
+    private static final int CACHE_ROWS = 512;
+    private static final File CACHE_DIR = new File(System.getProperty("user.home"),
+            ".mars-sim" + File.separator + "cache");
+
+    // Data members.
+    private final MappedByteBuffer buffer;
+    /** The byte offset of each row in the file, plus the end of the last row. */
+    private final int[] rowOffsets;
+    private final Map<Integer, int[]> rowCache;
+
+    /**
+     * Constructor
+     * @param filename the map data file name, found on the class path.
+     * @param index the number of pixels in each row.
+     * @throws IOException if the map data can't be found or mapped.
+     */
+    MappedMapFile(String filename, int[] index) throws IOException {
+        this(findFile(filename, getSize(index)), index);
+    }
+
+    /**
+     * Constructor
+     * @param file the map data file.
+     * @param index the number of pixels in each row.
+     * @throws IOException if the map data can't be mapped.
+     */
+    MappedMapFile(File file, int[] index) throws IOException {
+        rowOffsets = new int[index.length + 1];
+        for (int x = 0; x < index.length; x++) {
+            rowOffsets[x + 1] = rowOffsets[x] + (index[x] * 3);
+        }
+
+        try (RandomAccessFile mapFile = new RandomAccessFile(file, "r")) {
+            if (mapFile.length() < rowOffsets[index.length]) {
+                throw new IOException(file + " is too short for its index");
+            }
+            // The mapping stays valid after the file is closed.
+            buffer = mapFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, rowOffsets[index.length]);
+        }
+
+        rowCache = new LinkedHashMap<Integer, int[]>(CACHE_ROWS * 2, .75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > CACHE_ROWS;
+            }
+        };
+    }
+
+    /**
+     * Gets the size of a map data file.
+     * @param index the number of pixels in each row.
+     * @return the size (bytes).
+     */
+    private static long getSize(int[] index) {
+        long size = 0L;
+        for (int pixels : index) {
+            size += pixels * 3L;
+        }
+        return size;
+    }
+
+    /**
+     * Finds the map data file, copying it to the cache directory if it is packed.
+     * @param filename the map data file name.
+     * @param size the expected size of the file.
+     * @return the file.
+     * @throws IOException if the map data can't be found or copied.
+     */
+    private static File findFile(String filename, long size) throws IOException {
+        URL url = MappedMapFile.class.getClassLoader().getResource(filename);
+        if (url == null) throw new IOException("Can not load " + filename);
+
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            }
+            catch (URISyntaxException e) {
+                throw new IOException("Can not load " + url, e);
+            }
+        }
+
+        // Copy again if the packed map data is newer than the copy.
+        URLConnection connection = url.openConnection();
+        File cached = new File(CACHE_DIR, filename);
+        if ((cached.length() != size) || (cached.lastModified() < connection.getLastModified())) {
+            logger.info("Copying " + filename + " to " + CACHE_DIR + " to map it.");
+            CACHE_DIR.mkdirs();
+            File temp = File.createTempFile(filename, ".tmp", CACHE_DIR);
+            try (InputStream mapStream = connection.getInputStream()) {
+                Files.copy(mapStream, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                temp.delete();
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return number of rows.
+     */
+    int getRowCount() {
+        return rowOffsets.length - 1;
+    }
+
+    /**
+     * Gets the RGB colors of a row, decoding it if it isn't cached.
+     * @param row the row index.
+     * @return the RGB colors as integers. Must not be modified.
+     */
+    int[] getRow(int row) {
+        synchronized (rowCache) {
+            int[] colors = rowCache.get(row);
+            if (colors == null) {
+                colors = decodeRow(row);
+                rowCache.put(row, colors);
+            }
+            return colors;
+        }
+    }
+
+    /**
+     * Decodes the RGB colors of a row.
+     * @param row the row index.
+     * @return the RGB colors as integers.
+     */
+    private int[] decodeRow(int row) {
+        int offset = rowOffsets[row];
+        int[] colors = new int[(rowOffsets[row + 1] - offset) / 3];
+        for (int x = 0; x < colors.length; x++) {
+            int red = buffer.get(offset++) & 0xFF;
+            int green = buffer.get(offset++) & 0xFF;
+            int blue = buffer.get(offset++) & 0xFF;
+            colors[x] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+        }
+        return colors;
+    }
+}
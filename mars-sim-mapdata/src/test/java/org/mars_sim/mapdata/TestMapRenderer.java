@@ -0,0 +1,123 @@
+package org.mars_sim.mapdata;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Point;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MapRenderer class, comparing the pixels it renders
+ * with where the former forward projection put the map pixels.
+ */
+public class TestMapRenderer extends TestCase {
+
+    private static final int ROWS = 1440;
+    private static final int COLUMNS = 2880;
+    private static final int IMAGE_SIZE = 300;
+    private static final double RHO = ROWS / Math.PI;
+
+    /** The largest angle from the center (radians) of the map pixels checked. */
+    private static final double MAX_ANGLE = .3D;
+
+    /**
+     * Test that each map pixel is rendered where findRectPosition put it, give
+     * or take the rounding of both.
+     */
+    public void testProjection() {
+        MapRenderer renderer = new MapRenderer(new GridMapData(), IMAGE_SIZE, IMAGE_SIZE, RHO);
+        double[][] centers = { { Math.PI / 2D, 0D }, { 1D, 2D }, { 2.2D, 5.5D }, { .4D, 1D }, { 1.5D, 6.2D } };
+
+        for (double[] center : centers) {
+            double centerPhi = center[0];
+            double centerTheta = center[1];
+            int[] image = renderer.render(centerPhi, centerTheta);
+            int checked = 0;
+
+            for (int row = 0; row < ROWS; row += 7) {
+                double phi = row * Math.PI / ROWS;
+                for (int column = 0; column < COLUMNS; column += 7) {
+                    double theta = column * 2D * Math.PI / COLUMNS - Math.PI;
+                    if (getAngle(centerPhi, centerTheta, phi, theta) > MAX_ANGLE)
+                        continue;
+
+                    Point location = findRectPosition(centerPhi, centerTheta, phi, theta, RHO, 720, 720 - 150);
+                    if ((location.x < 0) || (location.x >= IMAGE_SIZE) || (location.y < 0) || (location.y >= IMAGE_SIZE))
+                        continue;
+
+                    int color = image[location.x + (location.y * IMAGE_SIZE)];
+                    int renderedRow = (color >> 12) & 0xFFF;
+                    int renderedColumn = color & 0xFFF;
+                    int columnDiff = Math.abs(renderedColumn - column);
+                    columnDiff = Math.min(columnDiff, COLUMNS - columnDiff);
+
+                    String where = "center " + centerPhi + "," + centerTheta + " pixel " + row + "," + column;
+                    assertTrue(where + " rendered row " + renderedRow, Math.abs(renderedRow - row) <= 2);
+                    assertTrue(where + " rendered column " + renderedColumn,
+                            columnDiff <= 2D + 1.5D / Math.sin(phi));
+                    checked++;
+                }
+            }
+            assertTrue("Too few pixels checked : " + checked, checked > 500);
+        }
+    }
+
+    /**
+     * Gets the angle between two locations on the globe.
+     */
+    private static double getAngle(double phi1, double theta1, double phi2, double theta2) {
+        double cos = Math.cos(phi1) * Math.cos(phi2) + Math.sin(phi1) * Math.sin(phi2) * Math.cos(theta1 - theta2);
+        return Math.acos(Math.max(-1D, Math.min(1D, cos)));
+    }
+
+    /**
+     * Converts spherical coordinates to the pixel of a map image centered at
+     * old phi and old theta, as IntegerMapData did before the projection tables.
+     */
+    private static Point findRectPosition(double oldPhi, double oldTheta, double newPhi, double newTheta,
+            double rho, int half_map, int low_edge) {
+
+        final double temp_col = newTheta + ((Math.PI / -2D) - oldTheta);
+        final double temp_buff_x = rho * Math.sin(newPhi);
+        int buff_x = ((int) Math.round(temp_buff_x * Math.cos(temp_col)) + half_map) - low_edge;
+        int buff_y = ((int) Math.round(((temp_buff_x * (0D - Math.cos(oldPhi))) * Math.sin(temp_col)) +
+                (rho * Math.cos(newPhi) * (0D - Math.sin(oldPhi)))) + half_map) - low_edge;
+        return new Point(buff_x, buff_y);
+    }
+
+    /**
+     * Map data whose pixel colors are their row and column.
+     */
+    private static class GridMapData implements MapData {
+
+        private final int[][] rows = new int[ROWS][];
+
+        GridMapData() {
+            for (int row = 0; row < ROWS; row++) {
+                rows[row] = new int[COLUMNS];
+                for (int column = 0; column < COLUMNS; column++)
+                    rows[row][column] = (row << 12) | column;
+            }
+        }
+
+        @Override
+        public Image getMapImage(double centerPhi, double centerTheta) {
+            return null;
+        }
+
+        @Override
+        public Color getRGBColor(double phi, double theta) {
+            return null;
+        }
+
+        @Override
+        public int getRowCount() {
+            return ROWS;
+        }
+
+        @Override
+        public int[] getRGBRow(int row) {
+            return rows[row];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.mars_sim.mapdata;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MappedMapFile class, comparing the rows it decodes
+ * with the rows loaded in memory.
+ */
+public class TestMappedMapFile extends TestCase {
+
+    /** More rows than are kept decoded, so some are decoded again. */
+    private static final int ROWS = 1200;
+
+    private File file;
+    private int[] index;
+
+    @Override
+    protected void setUp() throws Exception {
+        Random random = new Random(42L);
+
+        // Rows of different widths, as near the poles, some empty.
+        index = new int[ROWS];
+        int size = 0;
+        for (int x = 0; x < ROWS; x++) {
+            index[x] = random.nextInt(40);
+            size += index[x] * 3;
+        }
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+
+        file = File.createTempFile("TestMappedMapFile", ".dat");
+        Files.write(file.toPath(), bytes);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    /**
+     * Test that every row matches the row loaded in memory, including rows
+     * decoded again after they were dropped.
+     */
+    public void testRows() throws IOException {
+        MappedMapFile mapped = new MappedMapFile(file, index);
+        List<int[]> loaded = IntegerMapData.readMapData(new FileInputStream(file), index);
+
+        assertEquals(loaded.size(), mapped.getRowCount());
+        for (int pass = 0; pass < 2; pass++) {
+            for (int x = 0; x < ROWS; x++) {
+                assertTrue("Row " + x, Arrays.equals(loaded.get(x), mapped.getRow(x)));
+            }
+        }
+        for (int x = ROWS - 1; x >= 0; x--) {
+            assertTrue("Row " + x, Arrays.equals(loaded.get(x), mapped.getRow(x)));
+        }
+    }
+
+    /**
+     * Test that a file too short for its index is not mapped.
+     */
+    public void testTooShort() {
+        int[] longer = Arrays.copyOf(index, ROWS + 1);
+        longer[ROWS] = 1;
+        try {
+            new MappedMapFile(file, longer);
+            fail("Mapped a file too short for its index");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+}
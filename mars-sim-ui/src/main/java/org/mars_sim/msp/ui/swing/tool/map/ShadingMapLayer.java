@@ -10,7 +10,9 @@ package org.mars_sim.msp.ui.swing.tool.map;
 import org.mars_sim.msp.core.Coordinates;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.mars.Mars;
+import org.mars_sim.msp.core.mars.OrbitInfo;
 import org.mars_sim.msp.core.mars.SurfaceFeatures;
+import org.mars_sim.msp.core.time.MarsClock;
 import org.mars_sim.msp.ui.swing.tool.navigator.MarsGlobe;
 import org.mars_sim.msp.ui.swing.tool.navigator.NavigatorWindow;
 
@@ -21,6 +23,10 @@ import java.util.logging.Logger;
 
 /**
  * The ShadingMapLayer is a graphics layer to display twilight and night time shading.
+ * <br>
+ * The locations and solar zenith angles of the shaded blocks are kept between
+ * displays. As the sun moves, only the blocks near the terminator, the band where
+ * the sunlight changes, are worked out again.
  */
 public class ShadingMapLayer implements MapLayer {
 
@@ -28,11 +34,26 @@ public class ShadingMapLayer implements MapLayer {
 
     private static Logger logger = Logger.getLogger(CLASS_NAME);
 
+    /** The most the solar zenith angle changes in a millisol (radians), with a margin. */
+    private static final double ZENITH_CHANGE_PER_MILLISOL = 1.1D * 2D * Math.PI / 1000D;
+    /** The millisols after which all the zenith angles are worked out again. */
+    private static final double FULL_UPDATE_MILLISOLS = 20D;
+
     // Domain data
-    private SurfaceFeatures surfaceFeatures;
+    private OrbitInfo orbitInfo;
+    private MarsClock marsClock;
     private int[] shadingArray;
     private Component displayComponent;
 
+    /** The map center the blocks were located for. */
+    private Coordinates blockCenter;
+    /** The location of each 2 x 2 pixel block, row by row. */
+    private Coordinates[] blockLocations;
+    /** The solar zenith angle of each block (radians). */
+    private double[] zenithAngles;
+    /** The time all the zenith angles were last worked out (millisols). */
+    private double fullUpdateTime;
+
     /**
      * Constructor
      * @param displayComponent the display component.
@@ -40,7 +61,8 @@ public class ShadingMapLayer implements MapLayer {
     public ShadingMapLayer(Component displayComponent) {
 
         Mars mars = Simulation.instance().getMars();
-        surfaceFeatures = mars.getSurfaceFeatures();
+        orbitInfo = mars.getOrbitInfo();
+        marsClock = Simulation.instance().getMasterClock().getMarsClock();
         this.displayComponent = displayComponent;
         shadingArray = new int[Map.MAP_VIS_WIDTH * Map.MAP_VIS_HEIGHT];
     }
@@ -53,24 +75,14 @@ public class ShadingMapLayer implements MapLayer {
      */
     public void displayLayer(Coordinates mapCenter, String mapType, Graphics g) {
 
-        int centerX = MarsGlobe.map_width/2;
-        int centerY = centerX;
-
-        // Coordinates sunDirection = orbitInfo.getSunDirection();
-
-        double rho = CannedMarsMap.PIXEL_RHO;
+        updateZenithAngles(mapCenter);
 
         boolean nightTime = true;
         boolean dayTime = true;
-        Coordinates location = new Coordinates(0D, 0D);
+        int block = 0;
         for (int x = 0; x < Map.MAP_VIS_WIDTH; x+=2) {
             for (int y = 0; y < Map.MAP_VIS_HEIGHT; y+=2) {
-                mapCenter.convertRectToSpherical(x - centerX, y - centerY, rho, location);
-                double sunlight = surfaceFeatures.getSurfaceSunlight(location);
-                //double sunlight = surfaceFeatures.getSolarIrradiance(location) / SurfaceFeatures.MEAN_SOLAR_IRRADIANCE;
-                if (sunlight > 1D) {
-                    sunlight = 1D;
-                }
+                double sunlight = SurfaceFeatures.getSunlight(zenithAngles[block++]);
                 int sunlightInt = (int) (127 * sunlight);
                 int shadeColor = ((127 - sunlightInt) << 24) & 0xFF000000;
 
@@ -110,4 +122,63 @@ public class ShadingMapLayer implements MapLayer {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the solar zenith angles of the blocks. All of them are worked out
+     * when the map center moves, a new sol starts or time goes back; otherwise
+     * only the blocks the sun may have moved into or out of twilight since the
+     * last full update.
+     * @param mapCenter the location of the center of the map.
+     */
+    private void updateZenithAngles(Coordinates mapCenter) {
+        double time = MarsClock.getTotalMillisols(marsClock);
+        double elapsed = time - fullUpdateTime;
+
+        if (!mapCenter.equals(blockCenter)) {
+            locateBlocks(mapCenter);
+            elapsed = -1D;
+        }
+
+        boolean sameSol = Math.floor(time / 1000D) == Math.floor(fullUpdateTime / 1000D);
+        if ((elapsed < 0D) || (elapsed > FULL_UPDATE_MILLISOLS) || !sameSol) {
+            for (int x = 0; x < blockLocations.length; x++) {
+                zenithAngles[x] = orbitInfo.getSolarZenithAngle(blockLocations[x]);
+            }
+            fullUpdateTime = time;
+        }
+        else {
+            // A block outside this band stays fully lit or dark.
+            double drift = elapsed * ZENITH_CHANGE_PER_MILLISOL;
+            double bandStart = SurfaceFeatures.TWILIGHT_START - drift;
+            double bandEnd = SurfaceFeatures.TWILIGHT_END + drift;
+            for (int x = 0; x < blockLocations.length; x++) {
+                if ((zenithAngles[x] >= bandStart) && (zenithAngles[x] <= bandEnd)) {
+                    zenithAngles[x] = orbitInfo.getSolarZenithAngle(blockLocations[x]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out the location of each block for a map center.
+     * @param mapCenter the location of the center of the map.
+     */
+    private void locateBlocks(Coordinates mapCenter) {
+        int centerX = MarsGlobe.map_width/2;
+        int centerY = centerX;
+        double rho = CannedMarsMap.PIXEL_RHO;
+
+        int blockCount = ((Map.MAP_VIS_WIDTH + 1) / 2) * ((Map.MAP_VIS_HEIGHT + 1) / 2);
+        blockLocations = new Coordinates[blockCount];
+        zenithAngles = new double[blockCount];
+        int block = 0;
+        for (int x = 0; x < Map.MAP_VIS_WIDTH; x+=2) {
+            for (int y = 0; y < Map.MAP_VIS_HEIGHT; y+=2) {
+                Coordinates location = new Coordinates(0D, 0D);
+                mapCenter.convertRectToSpherical(x - centerX, y - centerY, rho, location);
+                blockLocations[block++] = location;
+            }
+        }
+        blockCenter = new Coordinates(mapCenter);
+    }
+}
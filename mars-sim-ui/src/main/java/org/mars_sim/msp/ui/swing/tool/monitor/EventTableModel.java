@@ -7,6 +7,9 @@
 package org.mars_sim.msp.ui.swing.tool.monitor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +64,16 @@ public class EventTableModel extends AbstractTableModel
 
 	private static final int COLUMNCOUNT = 8;
 
+	/** The medical event types displayed. */
+	private static final List<EventType> MEDICAL_TYPES = Arrays.asList(EventType.MEDICAL_STARTS,
+			//EventType.MEDICAL_CURED,
+			EventType.MEDICAL_TREATED, EventType.MEDICAL_DEATH);
+	/** The mission event types displayed. */
+	private static final List<EventType> MISSION_TYPES = Arrays.asList(EventType.MISSION_EMERGENCY_BEACON_ON,
+			EventType.MISSION_EMERGENCY_DESTINATION, EventType.MISSION_NOT_ENOUGH_RESOURCES,
+			EventType.MISSION_MEDICAL_EMERGENCY, EventType.MISSION_RENDEZVOUS, EventType.MISSION_RESCUE_PERSON,
+			EventType.MISSION_SALVAGE_VEHICLE);
+
 	/** Names of the displayed columns. */
 	static private String columnNames[];
 	/** Types of the individual columns. */
@@ -122,6 +135,7 @@ public class EventTableModel extends AbstractTableModel
 			EventTableModel.class.getResource("/icons/notification/hazard_48.png").toExternalForm());
 
 //	private transient List<HistoricalEvent> cachedEvents = new ArrayList<HistoricalEvent>();
+	/** The displayed events, oldest first. */
 	private transient List<SimpleEvent> cachedEvents = new ArrayList<>();
 
 	/**
@@ -155,52 +169,73 @@ public class EventTableModel extends AbstractTableModel
 	private synchronized void updateCachedEvents() {
 		// Clean out existing cached events for the Event Table.
 //		cachedEvents = new ArrayList<HistoricalEvent>();
-		cachedEvents = new ArrayList<SimpleEvent>();
 
-		int size = manager.getEvents().size();
-		
-		// TODO: find a way to optimize this so that it doesn't have to redo the sort everytime a new event is added.
-		
-		// Filter events based on category.
-		for (int x = 0; x < size; x++) {
-//			HistoricalEvent event = manager.getEvent(x);
-			SimpleEvent event = manager.getEvent(x);
-			HistoricalEventCategory category = HistoricalEventCategory.int2enum((int) (event.getCat()));
-			EventType eventType = EventType.int2enum((event.getType()));
-			if (category.equals(HistoricalEventCategory.HAZARD) && displayHazard) {
-				cachedEvents.add(event);
-			}
+		// Filter events based on category, using the indexes of the manager.
+		EnumSet<HistoricalEventCategory> categories = EnumSet.noneOf(HistoricalEventCategory.class);
+		List<EventType> eventTypes = new ArrayList<>();
+		if (displayHazard)
+			categories.add(HistoricalEventCategory.HAZARD);
+		if (displayMalfunction)
+			categories.add(HistoricalEventCategory.MALFUNCTION);
+		if (displayTransport)
+			categories.add(HistoricalEventCategory.TRANSPORT);
+//		if (displayTask)
+//			categories.add(HistoricalEventCategory.TASK);
+		if (displayMedical)
+			eventTypes.addAll(MEDICAL_TYPES);
+		if (displayMission)
+			eventTypes.addAll(MISSION_TYPES);
+
+		List<SimpleEvent> events = manager.getEvents(categories, eventTypes);
+		Collections.reverse(events);
+		cachedEvents = events;
 
-			else if (category.equals(HistoricalEventCategory.MALFUNCTION) && displayMalfunction) {
-				cachedEvents.add(event);
-			}
-
-			else if (category.equals(HistoricalEventCategory.MEDICAL) && displayMedical
-					&& (eventType == EventType.MEDICAL_STARTS 
-							//|| eventType == EventType.MEDICAL_CURED
-							|| eventType == EventType.MEDICAL_TREATED 
-							|| eventType == EventType.MEDICAL_DEATH)) {
-				cachedEvents.add(event);
-			}
-
-			else if (category.equals(HistoricalEventCategory.MISSION) && displayMission
-					&& (eventType == EventType.MISSION_EMERGENCY_BEACON_ON
-							|| eventType == EventType.MISSION_EMERGENCY_DESTINATION
-							|| eventType == EventType.MISSION_NOT_ENOUGH_RESOURCES
-							|| eventType == EventType.MISSION_MEDICAL_EMERGENCY
-							|| eventType == EventType.MISSION_RENDEZVOUS 
-							|| eventType == EventType.MISSION_RESCUE_PERSON
-							|| eventType == EventType.MISSION_SALVAGE_VEHICLE)) {
-				cachedEvents.add(event);
+		// Update all table listeners.
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				fireTableDataChanged();
 			}
+		});
 
-//			else if (category.equals(HistoricalEventCategory.TASK) && displayTask)
-//				cachedEvents.add(event);
+	}
 
-			else if (category.equals(HistoricalEventCategory.TRANSPORT) && displayTransport) {
-				cachedEvents.add(event);
-			}
+	/**
+	 * Checks if an event is to be displayed.
+	 * 
+	 * @param event the event.
+	 * @return true if displayed
+	 */
+	private boolean isDisplayed(SimpleEvent event) {
+		HistoricalEventCategory category = HistoricalEventCategory.int2enum((int) (event.getCat()));
+		EventType eventType = EventType.int2enum((event.getType()));
+		if (category == HistoricalEventCategory.HAZARD)
+			return displayHazard;
+		else if (category == HistoricalEventCategory.MALFUNCTION)
+			return displayMalfunction;
+		else if (category == HistoricalEventCategory.MEDICAL)
+			return displayMedical && MEDICAL_TYPES.contains(eventType);
+		else if (category == HistoricalEventCategory.MISSION)
+			return displayMission && MISSION_TYPES.contains(eventType);
+		else if (category == HistoricalEventCategory.TRANSPORT)
+			return displayTransport;
+		return false;
+	}
 
+	/**
+	 * Adds a new event to the cached events if it is displayed, dropping the
+	 * oldest events once there are more than the manager keeps in memory.
+	 * 
+	 * @param event the event.
+	 */
+	private synchronized void addCachedEvent(SimpleEvent event) {
+		if ((event == null) || !isDisplayed(event))
+			return;
+
+		cachedEvents.add(event);
+		int window = manager.getWindowSize();
+		if (cachedEvents.size() >= window * 2) {
+			// Trim in batches so the list isn't shifted on every event.
+			cachedEvents = new ArrayList<>(cachedEvents.subList(cachedEvents.size() - window, cachedEvents.size()));
 		}
 
 		// Update all table listeners.
@@ -209,7 +244,6 @@ public class EventTableModel extends AbstractTableModel
 				fireTableDataChanged();
 			}
 		});
-
 	}
 
 	/**
@@ -311,9 +345,11 @@ public class EventTableModel extends AbstractTableModel
 		// if (rowIndex == 0 && columnIndex == 2)
 		// check if event.getCategory() == MEDICAL or MALFUNCTION
 
-		if (rowIndex < cachedEvents.size()) {
+		List<SimpleEvent> events = cachedEvents;
+		if (rowIndex < events.size()) {
 //			HistoricalEvent event = cachedEvents.get(rowIndex);
-			SimpleEvent event = cachedEvents.get(rowIndex);
+			// The most recent event is on the first row
+			SimpleEvent event = events.get(events.size() - 1 - rowIndex);
 			if (event != null) {
 				switch (columnIndex) {
 				case TIMESTAMP: {
@@ -375,6 +411,7 @@ public class EventTableModel extends AbstractTableModel
 			eventAdded(index, se);
 		}
 		else {
+			addCachedEvent(se);
 			eventAdded(index, he);
 		}
 	}
@@ -396,7 +433,7 @@ public class EventTableModel extends AbstractTableModel
 		
 		if (mainSceneMenu != null) {
 
-			updateCachedEvents();
+			addCachedEvent(event);
 
 			if (!noFiring && index == 0 && event != null) {
 
@@ -600,7 +637,6 @@ public class EventTableModel extends AbstractTableModel
 		if (desktop.getMainWindow() != null) {
 
 			// TODO: include historical events and ai.task.TaskEvent, filtered by user's
-			updateCachedEvents();
 
 			if (nMenu == null) {
 //				try {
@@ -7,7 +7,6 @@
 package org.mars_sim.msp.ui.swing.tool.monitor;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import javax.swing.SwingUtilities;
@@ -16,8 +15,9 @@ import javax.swing.table.AbstractTableModel;
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.UnitEvent;
+import org.mars_sim.msp.core.UnitEventBus;
+import org.mars_sim.msp.core.UnitEventSubscriber;
 import org.mars_sim.msp.core.UnitEventType;
-import org.mars_sim.msp.core.UnitListener;
 import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.UnitManagerEvent;
 import org.mars_sim.msp.core.UnitManagerEventType;
@@ -31,7 +31,7 @@ import org.mars_sim.msp.ui.swing.tool.Conversion;
 
 public class TradeTableModel
 extends AbstractTableModel
-implements UnitListener, MonitorModel, UnitManagerListener {
+implements UnitEventSubscriber, MonitorModel, UnitManagerListener {
 
 	private static final String TRADE_GOODS = "Trade Goods";
 	private static final String VP_AT = "VP at ";
@@ -40,6 +40,7 @@ implements UnitListener, MonitorModel, UnitManagerListener {
 	// Data members
 	private List<Good> goodsList;
 	private List<Settlement> settlements;
+	private UnitEventBus.Subscription subscription;
 
 	/**
 	 * Constructor.
@@ -54,23 +55,20 @@ implements UnitListener, MonitorModel, UnitManagerListener {
 		// Initialize settlements.
 		settlements = new ArrayList<Settlement>(unitManager.getSettlements());
 
-		// Add table as listener to each settlement.
-		Iterator<Settlement> i = settlements.iterator();
-		while (i.hasNext()) i.next().addUnitListener(this);
+		// Subscribe to the goods value changes of all settlements.
+		subscription = UnitEventBus.instance().subscribe(this, UnitEventType.GOODS_VALUE_EVENT);
 
 		// Add as unit manager listener.
 		unitManager.addUnitManagerListener(this);
 	}
 
 	/**
-	 * Catch unit update event.
-	 * @param event the unit event.
+	 * Catch a batch of unit update events.
+	 * @param events the unit events.
 	 */
 	@Override
-	public void unitUpdate(UnitEvent event) {
-		if (event.getType() == UnitEventType.GOODS_VALUE_EVENT) {
-			SwingUtilities.invokeLater(new TradeTableUpdater(event));
-		}
+	public void unitUpdates(List<UnitEvent> events) {
+		SwingUtilities.invokeLater(new TradeTableUpdater(new ArrayList<UnitEvent>(events)));
 	}
 
 	/**
@@ -78,9 +76,8 @@ implements UnitListener, MonitorModel, UnitManagerListener {
 	 */
 	@Override
 	public void destroy() {
-		// Remove as listener for all settlements.
-		Iterator<Settlement> i = settlements.iterator();
-		while (i.hasNext()) i.next().removeUnitListener(this);
+		// Stop receiving the goods value changes.
+		subscription.cancel();
 
 		// Remove as listener to unit manager.
 		Simulation.instance().getUnitManager().removeUnitManagerListener(this);
@@ -196,18 +193,24 @@ implements UnitListener, MonitorModel, UnitManagerListener {
 	 */
 	private class TradeTableUpdater implements Runnable {
 
-		private UnitEvent event;
+		private List<UnitEvent> events;
 
-		private TradeTableUpdater(UnitEvent event) {
-			this.event = event;
+		private TradeTableUpdater(List<UnitEvent> events) {
+			this.events = events;
 		}
 
 		public void run() {
-			if (event.getTarget() == null) fireTableDataChanged();
-			else {
+			for (UnitEvent event : events) {
+				if (event.getTarget() == null) {
+					fireTableDataChanged();
+					return;
+				}
+			}
+			for (UnitEvent event : events) {
 				int rowIndex = goodsList.indexOf(event.getTarget());
-				int columnIndex = settlements.indexOf(event.getSource()) + 2;
-				fireTableCellUpdated(rowIndex, columnIndex);
+				int settlementIndex = settlements.indexOf(event.getSource());
+				if (rowIndex >= 0 && settlementIndex >= 0)
+					fireTableCellUpdated(rowIndex, settlementIndex + 2);
 			}
 		}
 	}
@@ -223,14 +226,12 @@ implements UnitListener, MonitorModel, UnitManagerListener {
 				// If settlement is new, add to settlement list.
 				if (!settlements.contains(settlement)) {
 					settlements.add(settlement);
-					settlement.addUnitListener(this);
 				}
 			}
 			else if (UnitManagerEventType.REMOVE_UNIT == event.getEventType()) {
 				// If settlement is gone, remove from settlement list.
 				if (settlements.contains(settlement)) {
 					settlements.remove(settlement);
-					settlement.removeUnitListener(this);
 				}
 			}
 